@@ -30,6 +30,7 @@ import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.internal.Factory;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.daemon.WorkerDaemonFactory;
 
 import javax.inject.Inject;
 import java.io.File;
@@ -158,6 +159,11 @@ public class AntlrTask extends SourceTask {
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected WorkerDaemonFactory getWorkerDaemonFactory() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     public void execute(IncrementalTaskInputs inputs) {
         final List<File> grammarFiles = new ArrayList<File>();
@@ -180,7 +186,8 @@ public class AntlrTask extends SourceTask {
         List<String> args = buildArguments(grammarFiles);
         AntlrWorkerManager manager = new AntlrWorkerManager();
         AntlrSpec spec = new AntlrSpec(args, maxHeapSize);
-        AntlrResult result = manager.runWorker(getProject().getProjectDir(), getWorkerProcessBuilderFactory(), getAntlrClasspath(), spec);
+        // All paths passed to ANTLR are absolute, so use a working directory that does not prevent other projects from sharing the worker
+        AntlrResult result = manager.runWorker(getProject().getGradle().getGradleUserHomeDir(), getWorkerDaemonFactory(), getAntlrClasspath(), spec);
         evaluateAntlrResult(result);
     }
 
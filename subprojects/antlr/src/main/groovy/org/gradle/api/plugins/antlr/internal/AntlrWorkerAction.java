@@ -16,39 +16,40 @@
 
 package org.gradle.api.plugins.antlr.internal;
 
-import org.gradle.api.Action;
-import org.gradle.process.internal.WorkerProcessContext;
-
+import org.gradle.process.internal.daemon.WorkerDaemonAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.Serializable;
+import java.io.PrintStream;
 
-public class AntlrWorkerServer implements Action<WorkerProcessContext>, Serializable {
+public class AntlrWorkerAction implements WorkerDaemonAction<AntlrResult> {
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(AntlrWorkerServer.class);
+    private static final Logger LOGGER = LoggerFactory.getLogger(AntlrWorkerAction.class);
 
-    private AntlrSpec spec;
+    private final AntlrSpec spec;
 
-    public AntlrWorkerServer(AntlrSpec spec) {
+    public AntlrWorkerAction(AntlrSpec spec) {
         this.spec = spec;
     }
 
-    public void execute(WorkerProcessContext context) {
-        final AntlrResult result = execute();
-        final AntlrWorkerClientProtocol clientProtocol = context.getServerConnection().addOutgoing(AntlrWorkerClientProtocol.class);
-        context.getServerConnection().connect();
-        clientProtocol.executed(result);
-    }
-
     public AntlrResult execute() {
         LOGGER.debug("Executing ANTLR worker");
+        // ANTLR reports grammar errors on System.err, keep them with the rest of its output. The worker daemon runs one action at a time.
+        PrintStream originalErr = System.err;
+        System.setErr(System.out);
         try {
             AntlrExecuter antlrExecuter = new AntlrExecuter();
             return antlrExecuter.runAntlr(spec);
         } catch (Exception e) {
             LOGGER.warn("Exception occurred while running ANTLR.", e);
             return new AntlrResult(1);
+        } finally {
+            System.setErr(originalErr);
         }
     }
-}
\ No newline at end of file
+
+    @Override
+    public String toString() {
+        return "ANTLR worker action";
+    }
+}
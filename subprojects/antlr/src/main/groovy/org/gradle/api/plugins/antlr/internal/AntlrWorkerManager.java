@@ -17,42 +17,19 @@
 package org.gradle.api.plugins.antlr.internal;
 
 import org.gradle.api.file.FileCollection;
-import org.gradle.internal.Factory;
-import org.gradle.process.internal.JavaExecHandleBuilder;
-import org.gradle.process.internal.WorkerProcess;
-import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.process.internal.daemon.WorkerDaemonFactory;
+import org.gradle.process.internal.daemon.WorkerDaemonForkOptions;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
 
 public class AntlrWorkerManager {
 
-    public AntlrResult runWorker(File workingDir, Factory<WorkerProcessBuilder> workerFactory, FileCollection antlrClasspath, AntlrSpec spec) {
-
-        WorkerProcess process = createWorkerProcess(workingDir, workerFactory, antlrClasspath, spec);
-        process.start();
-
-        AntlrWorkerClient clientCallBack = new AntlrWorkerClient();
-        process.getConnection().addIncoming(AntlrWorkerClientProtocol.class, clientCallBack);
-        process.getConnection().connect();
-
-        process.waitForStop();
-
-        return clientCallBack.getResult();
-    }
-
-    private WorkerProcess createWorkerProcess(File workingDir, Factory<WorkerProcessBuilder> workerFactory, FileCollection antlrClasspath, AntlrSpec spec) {
-        WorkerProcessBuilder builder = workerFactory.create();
-        builder.setBaseName("Gradle ANTLR Worker");
-
-        if (antlrClasspath != null) {
-            builder.applicationClasspath(antlrClasspath);
-        }
-        builder.sharedPackages(new String[] {"antlr", "org.antlr"});
-        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
-        javaCommand.setWorkingDir(workingDir);
-        javaCommand.setMaxHeapSize(spec.getMaxHeapSize());
-        javaCommand.systemProperty("ANTLR_DO_NOT_EXIT", "true");
-        javaCommand.redirectErrorStream();
-        return builder.worker(new AntlrWorkerServer(spec)).build();
+    public AntlrResult runWorker(File workingDir, WorkerDaemonFactory workerDaemonFactory, FileCollection antlrClasspath, AntlrSpec spec) {
+        Iterable<File> classpath = antlrClasspath != null ? antlrClasspath : Collections.<File>emptyList();
+        WorkerDaemonForkOptions forkOptions = new WorkerDaemonForkOptions(
+                workingDir, classpath, Arrays.asList("antlr", "org.antlr"), null, spec.getMaxHeapSize(), Collections.singletonList("-DANTLR_DO_NOT_EXIT=true"));
+        return workerDaemonFactory.getDaemon(forkOptions).execute(new AntlrWorkerAction(spec));
     }
-}
\ No newline at end of file
+}
@@ -140,6 +140,94 @@ class CheckstylePluginIntegrationTest extends WellBehavedPluginTest {
         file("foo.xml").exists()
     }
 
+    def "incremental analysis only analyzes changed source files"() {
+        given:
+        goodCode()
+        buildFile << "checkstyleMain { incremental = true }"
+
+        when:
+        executer.withArgument("-i")
+        succeeds("checkstyleMain")
+
+        then:
+        output.contains("Analyzing 2 of 2 source files.")
+
+        when:
+        file("src/main/java/org/gradle/Class1.java").text = "package org.gradle; class Class1 { int value; }"
+        executer.withArgument("-i")
+        succeeds("checkstyleMain")
+
+        then:
+        output.contains("Analyzing 1 of 2 source files.")
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.Class1"))
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.Class2"))
+    }
+
+    def "incremental analysis reports violations of unchanged source files"() {
+        given:
+        defaultLanguage('en')
+        badCode()
+        buildFile << "checkstyleMain { incremental = true }"
+
+        when:
+        fails("checkstyleMain")
+
+        then:
+        output.contains("Name 'class1' must match pattern")
+        output.contains("Name 'class2' must match pattern")
+
+        when:
+        file("src/main/java/org/gradle/class1.java").delete()
+        file("src/main/java/org/gradle/Class1.java") << "package org.gradle; class Class1 { }"
+        executer.withArgument("-i")
+        fails("checkstyleMain")
+
+        then:
+        output.contains("Analyzing 1 of 2 source files.")
+        failure.assertThatCause(startsWith("Checkstyle rule violations were found. See the report at:"))
+        !output.contains("Name 'class1' must match pattern")
+        output.contains("Name 'class2' must match pattern")
+        file("build/reports/checkstyle/main.xml").assertContents(containsClass("org.gradle.class2"))
+
+        when:
+        file("src/main/groovy/org/gradle/class2.java").delete()
+        executer.withArgument("-i")
+        succeeds("checkstyleMain")
+
+        then:
+        output.contains("Analyzing 0 of 1 source files.")
+    }
+
+    def "incremental analysis analyzes all source files when the configuration changes"() {
+        given:
+        goodCode()
+        buildFile << "checkstyleMain { incremental = true }"
+        succeeds("checkstyleMain")
+
+        when:
+        file("config/checkstyle/checkstyle.xml").text = file("config/checkstyle/checkstyle.xml").text.replace('<module name="TypeName"/>', '<module name="TypeName"/><module name="MemberName"/>')
+        executer.withArgument("-i")
+        succeeds("checkstyleMain")
+
+        then:
+        output.contains("Analyzing 2 of 2 source files.")
+    }
+
+    def "incremental analysis analyzes all source files after the build directory is deleted"() {
+        given:
+        goodCode()
+        buildFile << "checkstyleMain { incremental = true }"
+        succeeds("checkstyleMain")
+
+        when:
+        file("build").deleteDir()
+        executer.withArgument("-i")
+        succeeds("checkstyleMain")
+
+        then:
+        output.contains("Analyzing 2 of 2 source files.")
+    }
+
     private goodCode() {
         file('src/main/java/org/gradle/Class1.java') << 'package org.gradle; class Class1 { }'
         file('src/test/java/org/gradle/TestClass1.java') << 'package org.gradle; class TestClass1 { }'
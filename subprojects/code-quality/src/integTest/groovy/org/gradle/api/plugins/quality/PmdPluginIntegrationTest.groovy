@@ -170,6 +170,81 @@ class PmdPluginIntegrationTest extends WellBehavedPluginTest {
         output.contains "Class1Test.java:1:\tEmpty initializer was found"
     }
 
+    def "incremental analysis only analyzes changed source files"() {
+        given:
+        goodCode()
+        file("src/main/java/org/gradle/Class2.java") <<
+                "package org.gradle; class Class2 { public boolean isFoo(Object arg) { return true; } }"
+        buildFile << "pmdMain { incremental = true }"
+
+        when:
+        executer.withArgument("-i")
+        succeeds("pmdMain")
+
+        then:
+        output.contains("Analyzing 2 of 2 source files.")
+        file("build/reports/pmd/main.html").exists()
+
+        when:
+        file("src/main/java/org/gradle/Class1.java").text =
+                "package org.gradle; class Class1 { public boolean isBar(Object arg) { return true; } }"
+        executer.withArgument("-i")
+        succeeds("pmdMain")
+
+        then:
+        output.contains("Analyzing 1 of 2 source files.")
+    }
+
+    def "incremental analysis reports violations of unchanged source files"() {
+        given:
+        badCode()
+        file("src/test/java/org/gradle/Class2Test.java") <<
+                "package org.gradle; class Class2Test { public boolean isFoo(Object arg) { return true; } }"
+        buildFile << "pmdTest { incremental = true }"
+
+        when:
+        fails("pmdTest")
+
+        then:
+        failure.assertThatCause(containsString("2 PMD rule violations were found. See the report at:"))
+
+        when:
+        file("src/test/java/org/gradle/Class2Test.java").text =
+                "package org.gradle; class Class2Test { public boolean isBar(Object arg) { return true; } }"
+        executer.withArgument("-i")
+        fails("pmdTest")
+
+        then:
+        output.contains("Analyzing 1 of 2 source files.")
+        failure.assertThatCause(containsString("2 PMD rule violations were found. See the report at:"))
+        file("build/reports/pmd/test.xml").assertContents(containsClass("org.gradle.Class1Test"))
+
+        when:
+        file("src/test/java/org/gradle/Class1Test.java").text =
+                "package org.gradle; class Class1Test { public boolean isFoo(Object arg) { return true; } }"
+        executer.withArgument("-i")
+        succeeds("pmdTest")
+
+        then:
+        output.contains("Analyzing 1 of 2 source files.")
+        file("build/reports/pmd/test.xml").assertContents(not(containsClass("org.gradle.Class1Test")))
+    }
+
+    def "incremental analysis analyzes all source files when the rule sets change"() {
+        given:
+        goodCode()
+        buildFile << "pmdMain { incremental = true }"
+        succeeds("pmdMain")
+
+        when:
+        buildFile << "pmd { ruleSets = ['basic', 'braces'] }"
+        executer.withArgument("-i")
+        succeeds("pmdMain")
+
+        then:
+        output.contains("Analyzing 1 of 1 source files.")
+    }
+
     private void writeBuildFile() {
         file("build.gradle") << """
             apply plugin: "java"
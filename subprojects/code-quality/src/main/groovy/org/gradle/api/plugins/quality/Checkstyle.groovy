@@ -15,14 +15,18 @@
  */
 package org.gradle.api.plugins.quality
 
+import groovy.transform.PackageScope
 import org.gradle.api.GradleException
 import org.gradle.api.Incubating
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.project.IsolatedAntBuilder
+import org.gradle.api.plugins.quality.internal.AnalysisResultCache
 import org.gradle.api.plugins.quality.internal.CheckstyleReportsImpl
+import org.gradle.api.plugins.quality.internal.ViolationsXmlReport
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.resources.TextResource
 import org.gradle.api.tasks.*
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.logging.ConsoleRenderer
 
@@ -133,20 +137,75 @@ class Checkstyle extends SourceTask implements VerificationTask, Reporting<Check
      */
     boolean showViolations = true
 
+    /**
+     * Whether or not only the source files that have changed since the previous run are analyzed. The violations found in the other
+     * source files are taken from the previous runs, and are discarded when the Checkstyle configuration changes. Checks that use the
+     * {@link #getClasspath() classpath} are not run again for unchanged source files when only the classpath changes. The previous results
+     * are kept in the {@link #getTemporaryDir() temporary directory} of the task, so all source files are analyzed again after a clean build.
+     *
+     * @since 2.4
+     */
+    @Incubating
+    @Input
+    boolean incremental
+
     @TaskAction
+    void run(IncrementalTaskInputs inputs) {
+        if (!getIncremental()) {
+            run()
+            return
+        }
+
+        def cache = new AnalysisResultCache(new File(temporaryDir, "results.bin"), AnalysisResultCache.hashConfig(
+            getConfig().asString(), getConfigProperties(), getCheckstyleClasspath().files*.name))
+        def xmlReport = new ViolationsXmlReport("checkstyle", "error", null, true)
+        def sourceFiles = getSource().files
+        def filesToAnalyze = cache.selectFilesToAnalyze(inputs, sourceFiles)
+        logger.info("Analyzing {} of {} source files.", filesToAnalyze.size(), sourceFiles.size())
+        if (!filesToAnalyze.empty) {
+            def results = new File(temporaryDir, "results.xml")
+            analyze(project.files(filesToAnalyze), results, false, null)
+            xmlReport.read(results, filesToAnalyze, cache)
+        }
+        cache.store()
+
+        if (reports.xml.enabled) {
+            xmlReport.write(reports.xml.destination, cache)
+        }
+        if (showViolations) {
+            xmlReport.format(cache, "line", "column").each { logger.warn(it) }
+        }
+        def failed = cache.violations.values().any { violations -> violations.any { it.severity == "error" } }
+        checkFailure(failed)
+    }
+
+    /**
+     * Analyzes all source files.
+     */
     public void run() {
         def propertyName = "org.gradle.checkstyle.violations"
+        def failed = analyze(getSource(), reports.xml.enabled ? reports.xml.destination : null, showViolations, propertyName)
+        checkFailure(failed)
+    }
+
+    @PackageScope
+    boolean analyze(FileCollection source, File xmlDestination, boolean showViolations, String propertyName) {
+        boolean failed = false
         antBuilder.withClasspath(getCheckstyleClasspath()).execute {
             ant.taskdef(name: 'checkstyle', classname: 'com.puppycrawl.tools.checkstyle.CheckStyleTask')
 
-            ant.checkstyle(config: getConfig().asFile(), failOnViolation: false, failureProperty: propertyName) {
-                getSource().addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
+            def checkstyleArgs = [config: getConfig().asFile(), failOnViolation: false]
+            if (propertyName) {
+                checkstyleArgs.failureProperty = propertyName
+            }
+            ant.checkstyle(checkstyleArgs) {
+                source.addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
                 getClasspath().addToAntBuilder(ant, 'classpath')
                 if (showViolations) {
                     formatter(type: 'plain', useFile: false)
                 }
-                if (reports.xml.enabled) {
-                    formatter(type: 'xml', toFile: reports.xml.destination)
+                if (xmlDestination) {
+                    formatter(type: 'xml', toFile: xmlDestination)
                 }
 
                 getConfigProperties().each { key, value ->
@@ -154,18 +213,24 @@ class Checkstyle extends SourceTask implements VerificationTask, Reporting<Check
                 }
             }
 
-            if (ant.project.properties[propertyName]) {
-                def message = "Checkstyle rule violations were found."
-                def report = reports.firstEnabled
-                if (report) {
-                    def reportUrl = new ConsoleRenderer().asClickableFileUrl(report.destination)
-                    message += " See the report at: $reportUrl"
-                }
-                if (getIgnoreFailures()) {
-                    logger.warn(message)
-                } else {
-                    throw new GradleException(message)
-                }
+            failed = propertyName && ant.project.properties[propertyName]
+        }
+        failed
+    }
+
+    @PackageScope
+    void checkFailure(boolean failed) {
+        if (failed) {
+            def message = "Checkstyle rule violations were found."
+            def report = reports.firstEnabled
+            if (report) {
+                def reportUrl = new ConsoleRenderer().asClickableFileUrl(report.destination)
+                message += " See the report at: $reportUrl"
+            }
+            if (getIgnoreFailures()) {
+                logger.warn(message)
+            } else {
+                throw new GradleException(message)
             }
         }
     }
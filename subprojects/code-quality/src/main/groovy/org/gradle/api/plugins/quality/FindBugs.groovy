@@ -26,10 +26,9 @@ import org.gradle.api.plugins.quality.internal.findbugs.*
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.resources.TextResource
 import org.gradle.api.tasks.*
-import org.gradle.internal.Factory
 import org.gradle.internal.reflect.Instantiator
 import org.gradle.logging.ConsoleRenderer
-import org.gradle.process.internal.WorkerProcessBuilder
+import org.gradle.process.internal.daemon.WorkerDaemonFactory
 
 import javax.inject.Inject
 
@@ -144,7 +143,7 @@ class FindBugs extends SourceTask implements VerificationTask, Reporting<FindBug
     }
 
     @Inject
-    Factory<WorkerProcessBuilder> getWorkerProcessBuilderFactory() {
+    WorkerDaemonFactory getWorkerDaemonFactory() {
         throw new UnsupportedOperationException();
     }
 
@@ -217,7 +216,7 @@ class FindBugs extends SourceTask implements VerificationTask, Reporting<FindBug
         logging.captureStandardOutput(LogLevel.DEBUG)
         logging.captureStandardError(LogLevel.DEBUG)
 
-        FindBugsResult result = manager.runWorker(getProject().getProjectDir(), workerProcessBuilderFactory, getFindbugsClasspath(), spec)
+        FindBugsResult result = manager.runWorker(getProject().getGradle().getGradleUserHomeDir(), getWorkerDaemonFactory(), getFindbugsClasspath(), spec)
         evaluateResult(result);
     }
 
@@ -15,14 +15,18 @@
  */
 package org.gradle.api.plugins.quality
 
+import groovy.transform.PackageScope
 import org.gradle.api.GradleException
 import org.gradle.api.Incubating
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.project.IsolatedAntBuilder
+import org.gradle.api.plugins.quality.internal.AnalysisResultCache
 import org.gradle.api.plugins.quality.internal.PmdReportsImpl
+import org.gradle.api.plugins.quality.internal.ViolationsXmlReport
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.resources.TextResource
 import org.gradle.api.tasks.*
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
 import org.gradle.internal.nativeintegration.console.ConsoleDetector
 import org.gradle.internal.nativeintegration.console.ConsoleMetaData
 import org.gradle.internal.nativeintegration.services.NativeServices
@@ -100,6 +104,18 @@ class Pmd extends SourceTask implements VerificationTask, Reporting<PmdReports>
     @Incubating
     boolean consoleOutput
 
+    /**
+     * Whether or not only the source files that have changed since the previous run are analyzed. The violations found in the other
+     * source files are taken from the previous runs, and are discarded when the rule sets change. In this mode, the HTML report is
+     * a plain list of the violations rather than the report generated by PMD. The previous results are kept in the
+     * {@link #getTemporaryDir() temporary directory} of the task, so all source files are analyzed again after a clean build.
+     *
+     * @since 2.4
+     */
+    @Incubating
+    @Input
+    boolean incremental
+
     Pmd() {
         reports = instantiator.newInstance(PmdReportsImpl, this)
     }
@@ -115,37 +131,59 @@ class Pmd extends SourceTask implements VerificationTask, Reporting<PmdReports>
     }
 
     @TaskAction
-    void run() {
-        def prePmd5 = getPmdClasspath().any {
-            it.name ==~ /pmd-([1-4]\.[0-9\.]+)\.jar/
+    void run(IncrementalTaskInputs inputs) {
+        if (!getIncremental()) {
+            run()
+            return
         }
-        def antPmdArgs = [failOnRuleViolation: false, failuresPropertyName: "pmdFailureCount"]
-        if (prePmd5) {
-            // NOTE: PMD 5.0.2 apparently introduces an element called "language" that serves the same purpose
-            // http://sourceforge.net/p/pmd/bugs/1004/
-            // http://java-pmd.30631.n5.nabble.com/pmd-pmd-db05bc-pmd-AntTask-support-for-language-td5710041.html
-            antPmdArgs["targetjdk"] = getTargetJdk().getName()
-        } else {
-            // allow PmdPlugin to set a version-independent default
-            if (getRuleSets() == ["basic"]) {
-                setRuleSets(["java-basic"])
+
+        def prePmd5 = isPrePmd5()
+        def ruleSetConfig = getRuleSetConfig()
+        def cache = new AnalysisResultCache(new File(temporaryDir, "results.bin"), AnalysisResultCache.hashConfig(
+            getRuleSets(), getRuleSetFiles().files.collect { it.text }, ruleSetConfig?.asString(), getTargetJdk(), getPmdClasspath().files*.name))
+        def xmlReport = new ViolationsXmlReport("pmd", "violation", "message", false)
+        def sourceFiles = getSource().files
+        def filesToAnalyze = cache.selectFilesToAnalyze(inputs, sourceFiles)
+        logger.info("Analyzing {} of {} source files.", filesToAnalyze.size(), sourceFiles.size())
+        if (!filesToAnalyze.empty) {
+            def results = new File(temporaryDir, "results.xml")
+            antBuilder.withClasspath(getPmdClasspath()).execute {
+                ant.taskdef(name: 'pmd', classname: 'net.sourceforge.pmd.ant.PMDTask')
+                ant.pmd(createAntPmdArgs(prePmd5)) {
+                    project.files(filesToAnalyze).addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
+                    addRuleSets(delegate)
+                    formatter(type: 'xml', toFile: results)
+                }
             }
+            xmlReport.read(results, filesToAnalyze, cache)
         }
+        cache.store()
+
+        if (reports.html.enabled) {
+            xmlReport.writeHtml(reports.html.destination, "PMD report", "beginline", cache)
+        }
+        if (reports.xml.enabled) {
+            xmlReport.write(reports.xml.destination, cache)
+        }
+        if (getConsoleOutput()) {
+            xmlReport.format(cache, "beginline", "begincolumn").each { logger.quiet(it) }
+        }
+        def failureCount = cache.violations.values().sum { it.size() }
+        checkFailures(failureCount)
+    }
+
+    /**
+     * Analyzes all source files.
+     */
+    void run() {
+        def prePmd5 = isPrePmd5()
+        def antPmdArgs = createAntPmdArgs(prePmd5)
 
         antBuilder.withClasspath(getPmdClasspath()).execute { a ->
             ant.taskdef(name: 'pmd', classname: 'net.sourceforge.pmd.ant.PMDTask')
             ant.pmd(antPmdArgs) {
                 getSource().addToAntBuilder(ant, 'fileset', FileCollection.AntType.FileSet)
-                getRuleSets().each {
-                    ruleset(it)
-                }
-                getRuleSetFiles().each {
-                    ruleset(it)
-                }
-                def ruleSetConfig = getRuleSetConfig()
-                if (ruleSetConfig != null) {
-                    ruleset(ruleSetConfig.asFile())
-                }
+                addRuleSets(delegate)
 
                 if (reports.html.enabled) {
                     assert reports.html.destination.parentFile.exists()
@@ -164,19 +202,61 @@ class Pmd extends SourceTask implements VerificationTask, Reporting<PmdReports>
                     formatter(type: consoleOutputType, toConsole: true)
                 }
             }
-            def failureCount = ant.project.properties["pmdFailureCount"]
-            if (failureCount) {
-                def message = "$failureCount PMD rule violations were found."
-                def report = reports.firstEnabled
-                if (report) {
-                    def reportUrl = new ConsoleRenderer().asClickableFileUrl(report.destination)
-                    message += " See the report at: $reportUrl"
-                }
-                if (getIgnoreFailures()) {
-                    logger.warn(message)
-                } else {
-                    throw new GradleException(message)
-                }
+            checkFailures(ant.project.properties["pmdFailureCount"])
+        }
+    }
+
+    @PackageScope
+    boolean isPrePmd5() {
+        getPmdClasspath().any {
+            it.name ==~ /pmd-([1-4]\.[0-9\.]+)\.jar/
+        }
+    }
+
+    @PackageScope
+    Map<String, Object> createAntPmdArgs(boolean prePmd5) {
+        def antPmdArgs = [failOnRuleViolation: false, failuresPropertyName: "pmdFailureCount"]
+        if (prePmd5) {
+            // NOTE: PMD 5.0.2 apparently introduces an element called "language" that serves the same purpose
+            // http://sourceforge.net/p/pmd/bugs/1004/
+            // http://java-pmd.30631.n5.nabble.com/pmd-pmd-db05bc-pmd-AntTask-support-for-language-td5710041.html
+            antPmdArgs["targetjdk"] = getTargetJdk().getName()
+        } else {
+            // allow PmdPlugin to set a version-independent default
+            if (getRuleSets() == ["basic"]) {
+                setRuleSets(["java-basic"])
+            }
+        }
+        antPmdArgs
+    }
+
+    @PackageScope
+    void addRuleSets(Object pmdTask) {
+        getRuleSets().each {
+            pmdTask.ruleset(it)
+        }
+        getRuleSetFiles().each {
+            pmdTask.ruleset(it)
+        }
+        def ruleSetConfig = getRuleSetConfig()
+        if (ruleSetConfig != null) {
+            pmdTask.ruleset(ruleSetConfig.asFile())
+        }
+    }
+
+    @PackageScope
+    void checkFailures(failureCount) {
+        if (failureCount) {
+            def message = "$failureCount PMD rule violations were found."
+            def report = reports.firstEnabled
+            if (report) {
+                def reportUrl = new ConsoleRenderer().asClickableFileUrl(report.destination)
+                message += " See the report at: $reportUrl"
+            }
+            if (getIgnoreFailures()) {
+                logger.warn(message)
+            } else {
+                throw new GradleException(message)
             }
         }
     }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.plugins.quality.internal
+
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.api.tasks.incremental.InputFileDetails
+import org.gradle.internal.hash.HashUtil
+import org.slf4j.Logger
+import org.slf4j.LoggerFactory
+
+/**
+ * Remembers the violations that a code quality tool reported for each source file, so that only the source files that have changed since
+ * they were last analyzed need to be analyzed again. The result for a file is keyed by the hash of its content, and results are discarded
+ * when the hash of the rule configuration changes.
+ */
+class AnalysisResultCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalysisResultCache)
+    private static final String HASH_ALGORITHM = "MD5"
+
+    private final File cacheFile
+    private final String configHash
+    private Map<String, String> fileHashes = [:]
+    private Map<String, List<Map<String, String>>> fileViolations = [:]
+
+    /**
+     * The attributes of the root element of the most recent report of the tool.
+     */
+    Map<String, String> reportAttributes = [:]
+
+    AnalysisResultCache(File cacheFile, String configHash) {
+        this.cacheFile = cacheFile
+        this.configHash = configHash
+    }
+
+    static String hashConfig(Object... config) {
+        HashUtil.createHash(config.collect { String.valueOf(it) }.join("\n"), HASH_ALGORITHM).asHexString()
+    }
+
+    /**
+     * Loads the results of the previous analysis, and returns the source files that need to be analyzed again. The returned files are the
+     * files reported as changed by the given inputs, and files whose result is missing or out of date. When the inputs are not incremental,
+     * or inputs other than the source files have changed, the result of every source file is checked against the hash of its content.
+     */
+    Set<File> selectFilesToAnalyze(IncrementalTaskInputs inputs, Set<File> sourceFiles) {
+        load()
+        Set<String> sourcePaths = sourceFiles*.absolutePath as Set
+        fileHashes.keySet().retainAll(sourcePaths)
+        fileViolations.keySet().retainAll(sourcePaths)
+
+        boolean trustUnchanged = inputs.incremental
+        Set<File> changed = []
+        if (inputs.incremental) {
+            inputs.outOfDate { InputFileDetails details ->
+                if (sourceFiles.contains(details.file)) {
+                    changed << details.file
+                } else {
+                    trustUnchanged = false
+                }
+            }
+        }
+        sourceFiles.findAll { File file ->
+            changed.contains(file) || !(trustUnchanged ? fileHashes.containsKey(file.absolutePath) : isUpToDate(file))
+        } as Set
+    }
+
+    /**
+     * Records the violations found in the given source file.
+     */
+    void update(File file, List<Map<String, String>> violations) {
+        fileHashes[file.absolutePath] = hash(file)
+        fileViolations[file.absolutePath] = violations
+    }
+
+    /**
+     * Returns the violations of each source file, in the order of the file paths.
+     */
+    SortedMap<String, List<Map<String, String>>> getViolations() {
+        new TreeMap<String, List<Map<String, String>>>(fileViolations)
+    }
+
+    void load() {
+        fileHashes = [:]
+        fileViolations = [:]
+        if (!cacheFile.file) {
+            return
+        }
+        try {
+            cacheFile.withObjectInputStream(getClass().classLoader) { ObjectInputStream input ->
+                if (input.readObject() == configHash) {
+                    reportAttributes = input.readObject() as Map
+                    fileHashes = input.readObject() as Map
+                    fileViolations = input.readObject() as Map
+                } else {
+                    LOGGER.info("Rule configuration has changed, discarding analysis results in {}.", cacheFile)
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read analysis results from {}, analyzing all source files.", cacheFile, e)
+            fileHashes = [:]
+            fileViolations = [:]
+        }
+    }
+
+    void store() {
+        cacheFile.parentFile.mkdirs()
+        cacheFile.withObjectOutputStream { ObjectOutputStream output ->
+            output.writeObject(configHash)
+            output.writeObject(new HashMap(reportAttributes))
+            output.writeObject(new HashMap(fileHashes))
+            output.writeObject(new HashMap(fileViolations))
+        }
+    }
+
+    private boolean isUpToDate(File file) {
+        def cachedHash = fileHashes[file.absolutePath]
+        cachedHash != null && cachedHash == hash(file)
+    }
+
+    private static String hash(File file) {
+        HashUtil.createHash(file, HASH_ALGORITHM).asHexString()
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.plugins.quality.internal
+
+import groovy.xml.MarkupBuilder
+
+/**
+ * Reads and writes the XML reports of code quality tools that report violations grouped by source file, such as Checkstyle and PMD.
+ * Used to merge the results of analyzing only some of the source files with the cached results of the other files.
+ */
+class ViolationsXmlReport {
+    private final String rootElement
+    private final String violationElement
+    private final String textAttribute
+    private final boolean includeFilesWithoutViolations
+
+    /**
+     * @param textAttribute the key that the text content of a violation element is stored under, or null when the tool does not write text content.
+     */
+    ViolationsXmlReport(String rootElement, String violationElement, String textAttribute, boolean includeFilesWithoutViolations) {
+        this.rootElement = rootElement
+        this.violationElement = violationElement
+        this.textAttribute = textAttribute
+        this.includeFilesWithoutViolations = includeFilesWithoutViolations
+    }
+
+    /**
+     * Reads the violations of each file in the given report into the given cache. Files without any violations are recorded with an empty list.
+     */
+    void read(File report, Collection<File> analyzedFiles, AnalysisResultCache cache) {
+        def root = new XmlParser(false, false).parse(report)
+        cache.reportAttributes = root.attributes().collectEntries { key, value -> [key.toString(), value.toString()] }
+        Map<String, List<Map<String, String>>> violations = [:]
+        root.file.each { Node file ->
+            def fileViolations = violations.get(new File(file.@name).absolutePath, [])
+            file[violationElement].each { Node violation ->
+                Map<String, String> attributes = violation.attributes().collectEntries { key, value -> [key.toString(), value.toString()] }
+                if (textAttribute != null) {
+                    attributes[textAttribute] = violation.text().trim()
+                }
+                fileViolations << attributes
+            }
+        }
+        analyzedFiles.each { File file ->
+            cache.update(file, violations[file.absolutePath] ?: [])
+        }
+    }
+
+    /**
+     * Writes a report containing the violations of all files in the given cache.
+     */
+    void write(File destination, AnalysisResultCache cache) {
+        destination.parentFile.mkdirs()
+        destination.withWriter("UTF-8") { Writer writer ->
+            writer << '<?xml version="1.0" encoding="UTF-8"?>\n'
+            def xml = new MarkupBuilder(writer)
+            xml."$rootElement"(cache.reportAttributes) {
+                cache.violations.each { String path, List<Map<String, String>> violations ->
+                    if (violations || includeFilesWithoutViolations) {
+                        file(name: path) {
+                            violations.each { Map<String, String> violation ->
+                                if (textAttribute != null) {
+                                    "$violationElement"(violation.findAll { it.key != textAttribute }, violation[textAttribute])
+                                } else {
+                                    "$violationElement"(violation)
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes an HTML report listing the violations of all files in the given cache, using the given attribute as the line of each violation.
+     */
+    void writeHtml(File destination, String reportTitle, String lineAttribute, AnalysisResultCache cache) {
+        destination.parentFile.mkdirs()
+        destination.withWriter("UTF-8") { Writer writer ->
+            def html = new MarkupBuilder(writer)
+            html.html {
+                head {
+                    title(reportTitle)
+                }
+                body {
+                    h2(reportTitle)
+                    table(border: 1, cellspacing: 0, cellpadding: 3) {
+                        tr {
+                            th("#")
+                            th("File")
+                            th("Line")
+                            th("Problem")
+                        }
+                        int count = 0
+                        cache.violations.each { String path, List<Map<String, String>> violations ->
+                            violations.each { Map<String, String> violation ->
+                                tr {
+                                    td(++count)
+                                    td(path)
+                                    td(violation[lineAttribute] ?: "")
+                                    td(violation[textAttribute] ?: violation.message ?: "")
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the violations of all files in the given cache, in the plain format used by the console output of the tools.
+     */
+    List<String> format(AnalysisResultCache cache, String lineAttribute, String columnAttribute) {
+        List<String> lines = []
+        cache.violations.each { String path, List<Map<String, String>> violations ->
+            violations.each { Map<String, String> violation ->
+                def location = [path, violation[lineAttribute], violation[columnAttribute]].findAll().join(":")
+                lines << "${location}: ${violation[textAttribute] ?: violation.message}".toString()
+            }
+        }
+        lines
+    }
+}
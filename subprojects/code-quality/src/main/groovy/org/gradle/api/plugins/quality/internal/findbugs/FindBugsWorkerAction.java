@@ -0,0 +1,77 @@
+/*
+ * Copyright 2012 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.findbugs;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.process.internal.daemon.WorkerDaemonAction;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs FindBugs in a worker daemon, which stays alive between FindBugs tasks and builds, so that FindBugs and its detectors do not need to
+ * be loaded and warmed up again for every task.
+ *
+ * <p>FindBugs keeps the state of an analysis, such as its analysis context, class path and descriptor caches, in thread locals. Each
+ * analysis runs in a new thread, so that no such state is carried over to a later analysis. The only global state, the registry of loaded
+ * plugins, is part of the fork options that a worker daemon is shared by.
+ */
+public class FindBugsWorkerAction implements WorkerDaemonAction<FindBugsResult> {
+    private static final Logger LOGGER = Logging.getLogger(FindBugsWorkerAction.class);
+
+    private final FindBugsSpec spec;
+
+    public FindBugsWorkerAction(FindBugsSpec spec) {
+        this.spec = spec;
+    }
+
+    public FindBugsResult execute() {
+        return executeInNewThread(new FindBugsExecuter());
+    }
+
+    FindBugsResult executeInNewThread(final FindBugsExecuter executer) {
+        final AtomicReference<FindBugsResult> result = new AtomicReference<FindBugsResult>();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                result.set(execute(executer));
+            }
+        }, "FindBugs analysis");
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return result.get();
+    }
+
+    FindBugsResult execute(FindBugsExecuter executer) {
+        LOGGER.debug("Executing FindBugs worker.");
+        try {
+            return executer.runFindbugs(spec);
+        } catch (Throwable t) {
+            LOGGER.warn("Exception occurred while running FindBugs.", t);
+            return new FindBugsResult(0, 0, 1, t); //mark result with error count 1
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "FindBugs worker action";
+    }
+}
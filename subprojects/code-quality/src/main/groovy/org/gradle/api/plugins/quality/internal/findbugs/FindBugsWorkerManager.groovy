@@ -16,36 +16,24 @@
 package org.gradle.api.plugins.quality.internal.findbugs
 
 import org.gradle.api.file.FileCollection
-import org.gradle.internal.Factory
-import org.gradle.process.internal.JavaExecHandleBuilder
-import org.gradle.process.internal.WorkerProcess
-import org.gradle.process.internal.WorkerProcessBuilder
+import org.gradle.process.internal.daemon.WorkerDaemonFactory
+import org.gradle.process.internal.daemon.WorkerDaemonForkOptions
 
 class FindBugsWorkerManager {
-    public FindBugsResult runWorker(File workingDir, Factory<WorkerProcessBuilder> workerFactory, FileCollection findBugsClasspath, FindBugsSpec spec) {
-        WorkerProcess process = createWorkerProcess(workingDir, workerFactory, findBugsClasspath, spec);
-        process.start();
-
-        FindBugsWorkerClient clientCallBack = new FindBugsWorkerClient()
-        process.connection.addIncoming(FindBugsWorkerClientProtocol.class, clientCallBack);
-        process.connection.connect()
-
-        FindBugsResult result = clientCallBack.getResult();
-
-        process.waitForStop();
-        return result;
+    public FindBugsResult runWorker(File workingDir, WorkerDaemonFactory workerDaemonFactory, FileCollection findBugsClasspath, FindBugsSpec spec) {
+        WorkerDaemonForkOptions forkOptions = new WorkerDaemonForkOptions(
+                workingDir, findBugsClasspath, ["edu.umd.cs.findbugs"], null, spec.maxHeapSize, pluginsJvmArgs(spec))
+        return workerDaemonFactory.getDaemon(forkOptions).execute(new FindBugsWorkerAction(spec))
     }
 
-    private WorkerProcess createWorkerProcess(File workingDir, Factory<WorkerProcessBuilder> workerFactory, FileCollection findBugsClasspath, FindBugsSpec spec) {
-        WorkerProcessBuilder builder = workerFactory.create();
-        builder.setBaseName("Gradle FindBugs Worker")
-        builder.applicationClasspath(findBugsClasspath);
-        builder.sharedPackages(Arrays.asList("edu.umd.cs.findbugs"));
-        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
-        javaCommand.setWorkingDir(workingDir);
-        javaCommand.setMaxHeapSize(spec.getMaxHeapSize());
-
-        WorkerProcess process = builder.worker(new FindBugsWorkerServer(spec)).build()
-        return process
+    private static List<String> pluginsJvmArgs(FindBugsSpec spec) {
+        // FindBugs plugins are loaded once per process, so a worker daemon can only be shared by analyses that use the same plugins.
+        // The plugins are passed as a system property, which FindBugs ignores, to make them part of the fork options.
+        def arguments = spec.arguments
+        def pluginIndex = arguments.indexOf("-pluginList")
+        if (pluginIndex < 0 || pluginIndex + 1 >= arguments.size()) {
+            return []
+        }
+        return ["-Dorg.gradle.findbugs.plugins=" + arguments[pluginIndex + 1]]
     }
-}
\ No newline at end of file
+}
@@ -37,6 +37,7 @@ class CheckstyleTest extends Specification {
             reports.xml.outputType == Report.OutputType.FILE
             !ignoreFailures
             showViolations
+            !incremental
         }
     }
 
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.plugins.quality.internal
+
+import org.gradle.api.Action
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.api.tasks.incremental.InputFileDetails
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AnalysisResultCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def cacheFile = tmpDir.file("cache/results.bin")
+    def a = tmpDir.file("src/A.java").createFile()
+    def b = tmpDir.file("src/B.java").createFile()
+    def report = new ViolationsXmlReport("checkstyle", "error", null, true)
+
+    def "analyzes all source files when there are no previous results"() {
+        def cache = new AnalysisResultCache(cacheFile, "config")
+
+        expect:
+        cache.selectFilesToAnalyze(nonIncremental(), [a, b] as Set) == [a, b] as Set
+    }
+
+    def "analyzes only changed source files when inputs are incremental"() {
+        given:
+        analyzed("config", [a, b])
+
+        when:
+        def cache = new AnalysisResultCache(cacheFile, "config")
+
+        then:
+        cache.selectFilesToAnalyze(incremental([b]), [a, b] as Set) == [b] as Set
+    }
+
+    def "analyzes source files whose content has changed when inputs are not incremental"() {
+        given:
+        analyzed("config", [a, b])
+        a.text = "changed"
+
+        when:
+        def cache = new AnalysisResultCache(cacheFile, "config")
+
+        then:
+        cache.selectFilesToAnalyze(nonIncremental(), [a, b] as Set) == [a] as Set
+    }
+
+    def "checks content of all source files when inputs other than source files have changed"() {
+        given:
+        analyzed("config", [a, b])
+        a.text = "changed"
+
+        when:
+        def cache = new AnalysisResultCache(cacheFile, "config")
+
+        then:
+        cache.selectFilesToAnalyze(incremental([tmpDir.file("classes")]), [a, b] as Set) == [a] as Set
+    }
+
+    def "analyzes all source files when rule configuration has changed"() {
+        given:
+        analyzed("config", [a, b])
+
+        when:
+        def cache = new AnalysisResultCache(cacheFile, "other config")
+
+        then:
+        cache.selectFilesToAnalyze(incremental([]), [a, b] as Set) == [a, b] as Set
+    }
+
+    def "merges previous and new results into report"() {
+        given:
+        analyzed("config", [a, b])
+        def cache = new AnalysisResultCache(cacheFile, "config")
+        def results = tmpDir.file("results.xml")
+        results.text = """<?xml version="1.0" encoding="UTF-8"?>
+<checkstyle version="5.9">
+<file name="${b.absolutePath}">
+<error line="2" severity="warning" message="b changed" source="Check"/>
+</file>
+</checkstyle>
+"""
+        def merged = tmpDir.file("report.xml")
+
+        when:
+        cache.selectFilesToAnalyze(incremental([b]), [a, b] as Set)
+        report.read(results, [b], cache)
+        report.write(merged, cache)
+
+        then:
+        def xml = new XmlParser().parse(merged)
+        xml.@version == "5.9"
+        xml.file.collect { it.@name } == [a.absolutePath, b.absolutePath]
+        xml.file[0].error.collect { it.@message } == ["a"]
+        xml.file[1].error.collect { it.@message } == ["b changed"]
+    }
+
+    def "discards results of removed source files"() {
+        given:
+        analyzed("config", [a, b])
+        def cache = new AnalysisResultCache(cacheFile, "config")
+
+        when:
+        cache.selectFilesToAnalyze(incremental([]), [a] as Set)
+
+        then:
+        cache.violations.keySet() == [a.absolutePath] as Set
+    }
+
+    private void analyzed(String config, List<File> files) {
+        def cache = new AnalysisResultCache(cacheFile, config)
+        cache.selectFilesToAnalyze(nonIncremental(), files as Set)
+        def results = tmpDir.file("previous.xml")
+        results.text = """<?xml version="1.0" encoding="UTF-8"?>
+<checkstyle version="5.9">
+${files.collect { """<file name="${it.absolutePath}"><error line="1" severity="error" message="${(it.name - '.java').toLowerCase()}" source="Check"/></file>""" }.join('\n')}
+</checkstyle>
+"""
+        report.read(results, files, cache)
+        cache.store()
+    }
+
+    private IncrementalTaskInputs nonIncremental() {
+        return inputs(false, [])
+    }
+
+    private IncrementalTaskInputs incremental(List<File> changed) {
+        return inputs(true, changed)
+    }
+
+    private static IncrementalTaskInputs inputs(boolean incremental, List<File> changed) {
+        return new IncrementalTaskInputs() {
+            boolean isIncremental() {
+                return incremental
+            }
+
+            void outOfDate(Action<? super InputFileDetails> outOfDateAction) {
+                changed.each { File file ->
+                    outOfDateAction.execute([getFile: { file }, isAdded: { false }, isModified: { true }, isRemoved: { false }] as InputFileDetails)
+                }
+            }
+
+            void removed(Action<? super InputFileDetails> removedAction) {
+            }
+        }
+    }
+}
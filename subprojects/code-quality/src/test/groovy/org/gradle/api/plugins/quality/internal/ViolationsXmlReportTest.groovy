@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ViolationsXmlReportTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def a = tmpDir.file("src/A.java").createFile()
+    def b = tmpDir.file("src/B.java").createFile()
+    def cache = new AnalysisResultCache(tmpDir.file("cache/results.bin"), "config")
+    def report = new ViolationsXmlReport("pmd", "violation", "message", false)
+
+    def "writes HTML report listing the violations of all files"() {
+        given:
+        cache.update(a, [[beginline: "3", rule: "EmptyCatchBlock", message: "Avoid empty catch blocks"]])
+        cache.update(b, [])
+        def destination = tmpDir.file("reports/pmd/main.html")
+
+        when:
+        report.writeHtml(destination, "PMD report", "beginline", cache)
+
+        then:
+        def html = new XmlParser().parse(destination)
+        html.head.title.text() == "PMD report"
+        html.body.h2.text() == "PMD report"
+        def rows = html.body.table.tr
+        rows.size() == 2
+        rows[1].td*.text() == ["1", a.absolutePath, "3", "Avoid empty catch blocks"]
+    }
+
+    def "formats violations of all files for the console"() {
+        given:
+        cache.update(a, [[beginline: "3", begincolumn: "5", message: "Avoid empty catch blocks"], [message: "Unused import"]])
+
+        expect:
+        report.format(cache, "beginline", "begincolumn") == ["${a.absolutePath}:3:5: Avoid empty catch blocks", "${a.absolutePath}: Unused import"]
+    }
+}
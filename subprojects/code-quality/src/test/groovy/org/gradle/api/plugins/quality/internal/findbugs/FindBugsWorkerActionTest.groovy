@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.plugins.quality.internal.findbugs
+
+import spock.lang.Specification
+import spock.lang.Subject
+
+class FindBugsWorkerActionTest extends Specification {
+
+    def executer = Mock(FindBugsExecuter)
+    def spec = Stub(FindBugsSpec)
+    @Subject action = new FindBugsWorkerAction(spec)
+
+    def "fatal crash provides result"() {
+        def error = new Error("Ka-boom!")
+
+        when:
+        def r = action.execute(executer)
+
+        then:
+        1 * executer.runFindbugs(spec) >> { throw error }
+
+        and:
+        r.exception == error
+    }
+
+    def "runs each analysis in a new thread"() {
+        def state = new ThreadLocal<FindBugsSpec>()
+        def first = Stub(FindBugsSpec)
+        def second = Stub(FindBugsSpec)
+        def firstResult = new FindBugsResult(1, 0, 0)
+        def secondResult = new FindBugsResult(2, 0, 0)
+        def threads = []
+
+        when:
+        def r1 = new FindBugsWorkerAction(first).executeInNewThread(executer)
+        def r2 = new FindBugsWorkerAction(second).executeInNewThread(executer)
+
+        then:
+        1 * executer.runFindbugs(first) >> {
+            assert state.get() == null
+            state.set(first)
+            threads << Thread.currentThread()
+            firstResult
+        }
+        1 * executer.runFindbugs(second) >> {
+            assert state.get() == null
+            state.set(second)
+            threads << Thread.currentThread()
+            secondResult
+        }
+
+        and:
+        r1 == firstResult
+        r2 == secondResult
+        threads.size() == 2
+        threads[0] != threads[1]
+        !threads.contains(Thread.currentThread())
+        state.get() == null
+    }
+
+    def "fatal crash in analysis thread provides result"() {
+        def error = new Error("Ka-boom!")
+
+        when:
+        def r = action.executeInNewThread(executer)
+
+        then:
+        1 * executer.runFindbugs(spec) >> { throw error }
+
+        and:
+        r.exception == error
+    }
+}
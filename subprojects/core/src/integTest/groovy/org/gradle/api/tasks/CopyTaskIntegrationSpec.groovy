@@ -21,6 +21,7 @@ import org.gradle.integtests.fixtures.AbstractIntegrationSpec
 import org.gradle.integtests.fixtures.executer.GradleContextualExecuter
 import spock.lang.IgnoreIf
 import spock.lang.Issue
+import spock.lang.Unroll
 
 class CopyTaskIntegrationSpec extends AbstractIntegrationSpec {
 
@@ -216,4 +217,52 @@ class CopyTaskIntegrationSpec extends AbstractIntegrationSpec {
         and:
         file("out/nested/b.txt").text == "bar"
     }
+
+    @Unroll
+    def "copy action of a #type subclass is used when copying incrementally"() {
+        given:
+        file("a/a.txt") << "a"
+        file("a/b.txt") << "b"
+
+        when:
+        buildScript """
+            class CustomCopy extends $type {
+                int runs
+
+                @Override
+                protected void copy() {
+                    runs++
+                    super.copy()
+                }
+            }
+
+            task c(type: CustomCopy) {
+                from "a"
+                into "out"
+                doLast {
+                    assert runs == 1
+                }
+            }
+        """
+
+        then:
+        succeeds "c"
+
+        and:
+        file("out/a.txt").text == "a"
+        file("out/b.txt").text == "b"
+
+        when:
+        file("a/b.txt").text = "changed"
+
+        then:
+        succeeds "c"
+
+        and:
+        file("out/a.txt").text == "a"
+        file("out/b.txt").text == "changed"
+
+        where:
+        type << ["Copy", "Sync"]
+    }
 }
@@ -31,8 +31,10 @@ import org.gradle.api.internal.artifacts.query.ArtifactResolutionQueryFactory;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.ConfigureUtil;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class DefaultDependencyHandler extends GroovyObjectSupport implements DependencyHandler {
     private final ConfigurationContainer configurationContainer;
@@ -41,6 +43,7 @@ public class DefaultDependencyHandler extends GroovyObjectSupport implements Dep
     private final ComponentMetadataHandler componentMetadataHandler;
     private final ComponentModuleMetadataHandler componentModuleMetadataHandler;
     private final ArtifactResolutionQueryFactory resolutionQueryFactory;
+    private final Set<Runnable> mutateActions = new LinkedHashSet<Runnable>();
 
     public DefaultDependencyHandler(ConfigurationContainer configurationContainer, DependencyFactory dependencyFactory,
                                     ProjectFinder projectFinder, ComponentMetadataHandler componentMetadataHandler, ComponentModuleMetadataHandler componentModuleMetadataHandler,
@@ -53,6 +56,19 @@ public class DefaultDependencyHandler extends GroovyObjectSupport implements Dep
         this.resolutionQueryFactory = resolutionQueryFactory;
     }
 
+    /**
+     * Adds an action which is executed before a dependency is added, or the component metadata rules are configured. Any exception thrown by the action will veto the change.
+     */
+    public void beforeChange(Runnable action) {
+        mutateActions.add(action);
+    }
+
+    private void assertMutable() {
+        for (Runnable action : mutateActions) {
+            action.run();
+        }
+    }
+
     public Dependency add(String configurationName, Object dependencyNotation) {
         return add(configurationName, dependencyNotation, null);
     }
@@ -71,6 +87,7 @@ public class DefaultDependencyHandler extends GroovyObjectSupport implements Dep
     }
 
     private Dependency doAdd(Configuration configuration, Object dependencyNotation, Closure configureClosure) {
+        assertMutable();
         if (dependencyNotation instanceof Configuration) {
             Configuration other = (Configuration) dependencyNotation;
             if (!configurationContainer.contains(other)) {
@@ -126,6 +143,7 @@ public class DefaultDependencyHandler extends GroovyObjectSupport implements Dep
     }
 
     public void components(Action<? super ComponentMetadataHandler> configureAction) {
+        assertMutable();
         configureAction.execute(getComponents());
     }
 
@@ -134,6 +152,7 @@ public class DefaultDependencyHandler extends GroovyObjectSupport implements Dep
     }
 
     public void modules(Action<? super ComponentModuleMetadataHandler> configureAction) {
+        assertMutable();
         configureAction.execute(getModules());
     }
 
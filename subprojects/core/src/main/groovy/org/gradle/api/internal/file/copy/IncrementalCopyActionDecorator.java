@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy;
+
+import org.gradle.api.Action;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileCopyDetails;
+import org.gradle.api.internal.file.CopyActionProcessingStreamAction;
+import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.WorkResult;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.util.*;
+
+/**
+ * Copies only the files whose source has changed since the previous execution of a copy task, using the task's incremental inputs. The target
+ * path of every file is still worked out from the copy spec, so that files that are now copied to a different path are copied again. When syncing,
+ * the files copied by the previous execution that are no longer copied are deleted, without walking the destination directory.
+ *
+ * <p>Everything is copied when the task is not executed incrementally, when the copy spec has changed, or when the copy spec has actions, such as
+ * filters, expansions or renames, whose effect on the copied files cannot be compared between executions.</p>
+ */
+public class IncrementalCopyActionDecorator implements CopyAction {
+    private static final Logger LOGGER = Logging.getLogger(IncrementalCopyActionDecorator.class);
+
+    private final File stateFile;
+    private final File baseDestDir;
+    private final boolean sync;
+    private final CopyAction delegate;
+    private final String specFingerprint;
+    private final Map<String, String> previousTargets = new HashMap<String, String>();
+    private final Set<File> outOfDateFiles = new HashSet<File>();
+    private boolean incremental;
+
+    /**
+     * @param delegate The action that copies the files into the destination directory. When syncing, it must not delete any files.
+     */
+    public IncrementalCopyActionDecorator(File stateFile, File baseDestDir, boolean sync, CopySpecInternal spec, IncrementalTaskInputs inputs, CopyAction delegate) {
+        this.stateFile = stateFile;
+        this.baseDestDir = baseDestDir;
+        this.sync = sync;
+        this.delegate = delegate;
+        this.specFingerprint = fingerprint(spec);
+        if (specFingerprint != null && inputs.isIncremental()) {
+            incremental = loadPreviousTargets();
+            if (incremental) {
+                inputs.outOfDate(new Action<InputFileDetails>() {
+                    public void execute(InputFileDetails details) {
+                        outOfDateFiles.add(details.getFile());
+                    }
+                });
+            }
+        }
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public WorkResult execute(final CopyActionProcessingStream stream) {
+        // Forget the previous execution until this one has completed, so that everything is copied again should it fail part way through
+        if (stateFile.isFile() && !stateFile.delete()) {
+            throw new UncheckedIOException(String.format("Could not delete copy state file %s.", stateFile));
+        }
+
+        final Map<String, String> targets = new LinkedHashMap<String, String>();
+        final boolean[] skippedAll = {true};
+        CopyActionProcessingStream recordingStream = new CopyActionProcessingStream() {
+            public void process(final CopyActionProcessingStreamAction action) {
+                stream.process(new CopyActionProcessingStreamAction() {
+                    public void processFile(FileCopyDetailsInternal details) {
+                        String path = details.getRelativePath().getPathString();
+                        String fingerprint = fingerprint(details);
+                        // A file copied to the same path as an earlier file replaces it, so it is always copied
+                        boolean firstVisit = !targets.containsKey(path);
+                        targets.put(path, fingerprint);
+                        if (incremental && firstVisit && !details.isDirectory() && isUpToDate(path, fingerprint, details)) {
+                            return;
+                        }
+                        skippedAll[0] = false;
+                        action.processFile(details);
+                    }
+                });
+            }
+        };
+
+        boolean didWork;
+        if (incremental) {
+            didWork = delegate.execute(recordingStream).getDidWork();
+            if (sync) {
+                didWork |= deleteStaleTargets(targets.keySet());
+            }
+            LOGGER.info("Copied changed files incrementally{}.", skippedAll[0] ? ", no files had changed" : "");
+        } else if (sync) {
+            didWork = new SyncCopyActionDecorator(baseDestDir, delegate).execute(recordingStream).getDidWork();
+        } else {
+            didWork = delegate.execute(recordingStream).getDidWork();
+        }
+
+        if (specFingerprint != null) {
+            storeTargets(targets);
+        }
+        return new SimpleWorkResult(didWork);
+    }
+
+    private boolean isUpToDate(String path, String fingerprint, FileCopyDetails details) {
+        return fingerprint.equals(previousTargets.get(path))
+                && new File(baseDestDir, path).isFile()
+                && (outOfDateFiles.isEmpty() || !outOfDateFiles.contains(details.getFile()));
+    }
+
+    private boolean deleteStaleTargets(Set<String> targets) {
+        List<String> staleTargets = new ArrayList<String>();
+        for (String path : previousTargets.keySet()) {
+            if (!targets.contains(path)) {
+                staleTargets.add(path);
+            }
+        }
+        // Delete the contents of a directory before the directory itself
+        Collections.sort(staleTargets, Collections.reverseOrder());
+        for (String path : staleTargets) {
+            File file = new File(baseDestDir, path);
+            if (file.isDirectory()) {
+                GFileUtils.deleteDirectory(file);
+            } else {
+                GFileUtils.deleteQuietly(file);
+            }
+        }
+        return !staleTargets.isEmpty();
+    }
+
+    private static String fingerprint(FileCopyDetails details) {
+        if (details.isDirectory()) {
+            return "dir";
+        }
+        // Avoid using the source file here, as files from archives are extracted when asked for it
+        return details.getSourcePath() + ";" + details.getSize() + ";" + details.getLastModified();
+    }
+
+    /**
+     * Returns a fingerprint of the given copy spec, or null when files cannot be copied incrementally using the spec.
+     */
+    private static String fingerprint(CopySpecInternal spec) {
+        final StringBuilder builder = new StringBuilder();
+        final boolean[] hasActions = {false};
+        spec.walk(new Action<CopySpecResolver>() {
+            public void execute(CopySpecResolver resolver) {
+                if (!resolver.getAllCopyActions().isEmpty()) {
+                    hasActions[0] = true;
+                }
+                builder.append(resolver.getDestPath().getPathString()).append(';')
+                        .append(resolver.getFileMode()).append(';')
+                        .append(resolver.getDirMode()).append(';')
+                        .append(resolver.getIncludeEmptyDirs()).append(';')
+                        .append(resolver.isCaseSensitive()).append(';')
+                        .append(resolver.getDuplicatesStrategy()).append(';')
+                        .append(resolver.getAllIncludes()).append(';')
+                        .append(resolver.getAllExcludes()).append(';')
+                        .append(resolver.getAllIncludeSpecs().size()).append(';')
+                        .append(resolver.getAllExcludeSpecs().size()).append('\n');
+            }
+        });
+        return hasActions[0] ? null : builder.toString();
+    }
+
+    private boolean loadPreviousTargets() {
+        if (!stateFile.isFile()) {
+            return false;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(stateFile));
+            try {
+                if (!decoder.readString().equals(specFingerprint)) {
+                    LOGGER.info("Copy spec has changed, copying all files.");
+                    return false;
+                }
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    previousTargets.put(decoder.readString(), decoder.readString());
+                }
+                return true;
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read copy state from {}, copying all files.", stateFile, e);
+            previousTargets.clear();
+            return false;
+        }
+    }
+
+    private void storeTargets(Map<String, String> targets) {
+        stateFile.getParentFile().mkdirs();
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(stateFile));
+            try {
+                encoder.writeString(specFingerprint);
+                encoder.writeSmallInt(targets.size());
+                for (Map.Entry<String, String> entry : targets.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeString(entry.getValue());
+                }
+            } finally {
+                encoder.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
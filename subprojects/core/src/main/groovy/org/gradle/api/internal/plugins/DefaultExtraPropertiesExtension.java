@@ -23,11 +23,21 @@ import groovy.lang.ReadOnlyPropertyException;
 import org.gradle.api.plugins.ExtraPropertiesExtension;
 
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 public class DefaultExtraPropertiesExtension extends GroovyObjectSupport implements ExtraPropertiesExtension {
 
     Map<String, Object> storage = new HashMap<String, Object>();
+    private final Set<Runnable> mutateActions = new LinkedHashSet<Runnable>();
+
+    /**
+     * Adds an action which is executed before a property is set. Any exception thrown by the action will veto the change.
+     */
+    public void beforeChange(Runnable action) {
+        mutateActions.add(action);
+    }
 
     public boolean has(String name) {
         return storage.containsKey(name);
@@ -42,6 +52,9 @@ public class DefaultExtraPropertiesExtension extends GroovyObjectSupport impleme
     }
 
     public void set(String name, Object value) {
+        for (Runnable action : mutateActions) {
+            action.run();
+        }
         storage.put(name, value);
     }
 
@@ -30,6 +30,7 @@ import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.reflect.ObjectInstantiationException;
 import org.gradle.plugin.internal.PluginId;
 
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -46,6 +47,7 @@ public class DefaultPluginManager implements PluginManagerInternal {
     private final Set<Class<?>> plugins = Sets.newHashSet();
     private final Set<Plugin<?>> instances = Sets.newHashSet();
     private final Map<String, DomainObjectSet<PluginWithId>> idMappings = Maps.newHashMap();
+    private final Set<Runnable> mutateActions = new LinkedHashSet<Runnable>();
 
     public DefaultPluginManager(final PluginRegistry pluginRegistry, Instantiator instantiator, final PluginApplicator applicator) {
         this.instantiator = instantiator;
@@ -104,8 +106,18 @@ public class DefaultPluginManager implements PluginManagerInternal {
         doApply(null, potentialPlugin);
     }
 
+    /**
+     * Adds an action which is executed before a plugin is applied. Any exception thrown by the action will veto the change.
+     */
+    public void beforeChange(Runnable action) {
+        mutateActions.add(action);
+    }
+
     @Nullable
     private <T> T doApply(@Nullable final String pluginId, PotentialPlugin<T> potentialPlugin) {
+        for (Runnable action : mutateActions) {
+            action.run();
+        }
         Class<T> pluginClass = potentialPlugin.asClass();
         try {
             if (potentialPlugin.getType().equals(PotentialPlugin.Type.UNKNOWN)) {
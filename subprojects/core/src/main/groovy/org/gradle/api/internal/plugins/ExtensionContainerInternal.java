@@ -26,4 +26,10 @@ public interface ExtensionContainerInternal extends ExtensionContainer {
      * @return A map of extensions, keyed by name.
      */
     Map<String, Object> getAsMap();
+
+    /**
+     * Adds an action which is executed before an extension or an extra property is added, or an extension is configured by this container.
+     * Any exception thrown by the action will veto the change.
+     */
+    void beforeChange(Runnable action);
 }
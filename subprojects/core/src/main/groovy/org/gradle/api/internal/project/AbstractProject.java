@@ -32,6 +32,7 @@ import org.gradle.api.initialization.dsl.ScriptHandler;
 import org.gradle.api.internal.*;
 import org.gradle.api.internal.artifacts.ModuleInternal;
 import org.gradle.api.internal.artifacts.configurations.DependencyMetaDataProvider;
+import org.gradle.api.internal.artifacts.dsl.dependencies.DefaultDependencyHandler;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.initialization.ClassLoaderScope;
@@ -48,6 +49,7 @@ import org.gradle.api.resources.ResourceHandler;
 import org.gradle.api.tasks.TaskContainer;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.configuration.ScriptPluginFactory;
+import org.gradle.configuration.project.CrossProjectConfigurationDetector;
 import org.gradle.configuration.project.ProjectConfigurationActionContainer;
 import org.gradle.configuration.project.ProjectEvaluator;
 import org.gradle.groovy.scripts.ScriptSource;
@@ -221,6 +223,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
             extensibleDynamicObject.setParent(parent.getInheritedScope());
         }
         extensibleDynamicObject.addObject(taskContainer.getTasksAsDynamicObject(), ExtensibleDynamicObject.Location.AfterConvention);
+        getExtensions().beforeChange(CrossProjectConfigurationDetector.guard(this, "change the extensions of"));
 
         evaluationListener.add(gradle.getProjectEvaluationBroadcaster());
 
@@ -461,6 +464,9 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
 
     public <T> Iterable<T> configure(Iterable<T> objects, Action<? super T> configureAction) {
         for (T object : objects) {
+            if (object instanceof Project) {
+                CrossProjectConfigurationDetector.beforeConfigure((Project) object, "configure");
+            }
             configureAction.execute(object);
         }
         return objects;
@@ -539,6 +545,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     private Project evaluationDependsOn(DefaultProject projectToEvaluate) {
+        CrossProjectConfigurationDetector.beforeConfigure(projectToEvaluate, "evaluate");
         if (projectToEvaluate.getState().getExecuting()) {
             throw new CircularReferenceException(String.format("Circular referencing during evaluation for %s.",
                     projectToEvaluate));
@@ -666,6 +673,9 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     public DependencyHandler getDependencies() {
         if (dependencyHandler == null) {
             dependencyHandler = services.get(DependencyHandler.class);
+            if (dependencyHandler instanceof DefaultDependencyHandler) {
+                ((DefaultDependencyHandler) dependencyHandler).beforeChange(CrossProjectConfigurationDetector.guard(this, "change the dependencies of"));
+            }
         }
         return dependencyHandler;
     }
@@ -679,18 +689,22 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public void beforeEvaluate(Action<? super Project> action) {
+        CrossProjectConfigurationDetector.beforeConfigure(this, "add an evaluation listener to");
         evaluationListener.add("beforeEvaluate", action);
     }
 
     public void afterEvaluate(Action<? super Project> action) {
+        CrossProjectConfigurationDetector.beforeConfigure(this, "add an evaluation listener to");
         evaluationListener.add("afterEvaluate", action);
     }
 
     public void beforeEvaluate(Closure closure) {
+        CrossProjectConfigurationDetector.beforeConfigure(this, "add an evaluation listener to");
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("beforeEvaluate", closure));
     }
 
     public void afterEvaluate(Closure closure) {
+        CrossProjectConfigurationDetector.beforeConfigure(this, "add an evaluation listener to");
         evaluationListener.add(new ClosureBackedMethodInvocationDispatch("afterEvaluate", closure));
     }
 
@@ -719,6 +733,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public void setProperty(String name, Object value) {
+        CrossProjectConfigurationDetector.beforeConfigure(this, "set a property of");
         extensibleDynamicObject.setProperty(name, value);
     }
 
@@ -801,10 +816,13 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
     }
 
     public Project project(String path, Closure configureClosure) {
-        return ConfigureUtil.configure(configureClosure, project(path));
+        return (Project) configure(project(path), configureClosure);
     }
 
     public Object configure(Object object, Closure configureClosure) {
+        if (object instanceof Project) {
+            CrossProjectConfigurationDetector.beforeConfigure((Project) object, "configure");
+        }
         return ConfigureUtil.configure(configureClosure, object);
     }
 
@@ -881,6 +899,7 @@ public abstract class AbstractProject extends AbstractPluginAware implements Pro
 
     @Override
     protected DefaultObjectConfigurationAction createObjectConfigurationAction() {
+        CrossProjectConfigurationDetector.beforeConfigure(this, "apply plugins or scripts to");
         return new DefaultObjectConfigurationAction(getFileResolver(), getScriptPluginFactory(), getScriptHandlerFactory(), getBaseClassLoaderScope(), this);
     }
 
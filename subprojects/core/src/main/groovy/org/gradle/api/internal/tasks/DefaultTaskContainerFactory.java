@@ -17,6 +17,7 @@ package org.gradle.api.internal.tasks;
 
 import org.gradle.api.Project;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
+import org.gradle.configuration.project.CrossProjectConfigurationDetector;
 import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.internal.Factory;
 import org.gradle.internal.reflect.Instantiator;
@@ -35,6 +36,8 @@ public class DefaultTaskContainerFactory implements Factory<TaskContainerInterna
     }
 
     public TaskContainerInternal create() {
-        return instantiator.newInstance(DefaultTaskContainer.class, project, instantiator, taskFactory, projectAccessListener);
+        DefaultTaskContainer tasks = instantiator.newInstance(DefaultTaskContainer.class, project, instantiator, taskFactory, projectAccessListener);
+        tasks.beforeChange(CrossProjectConfigurationDetector.guard(project, "change the tasks of"));
+        return tasks;
     }
 }
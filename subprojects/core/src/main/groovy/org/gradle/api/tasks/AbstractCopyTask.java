@@ -75,11 +75,17 @@ public abstract class AbstractCopyTask extends ConventionTask implements CopySpe
 
     @TaskAction
     protected void copy() {
+        copy(createCopyAction());
+    }
+
+    /**
+     * Copies the files of the root spec using the given action.
+     */
+    protected void copy(CopyAction copyAction) {
         Instantiator instantiator = getInstantiator();
         FileSystem fileSystem = getFileSystem();
 
         CopyActionExecuter copyActionExecuter = new CopyActionExecuter(instantiator, fileSystem);
-        CopyAction copyAction = createCopyAction();
         WorkResult didWork = copyActionExecuter.execute(rootSpec, copyAction);
         setDidWork(didWork.getDidWork());
     }
@@ -22,6 +22,8 @@ import org.gradle.api.internal.file.copy.CopyAction;
 import org.gradle.api.internal.file.copy.CopySpecInternal;
 import org.gradle.api.internal.file.copy.DestinationRootCopySpec;
 import org.gradle.api.internal.file.copy.FileCopyAction;
+import org.gradle.api.internal.file.copy.IncrementalCopyActionDecorator;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -70,13 +72,33 @@ import java.io.File;
 @ParallelizableTask
 public class Copy extends AbstractCopyTask {
 
+    private IncrementalTaskInputs incrementalInputs;
+
     @Override
     protected CopyAction createCopyAction() {
         File destinationDir = getDestinationDir();
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
+        CopyAction copyAction = new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
+        if (incrementalInputs == null) {
+            return copyAction;
+        }
+        return new IncrementalCopyActionDecorator(new File(getTemporaryDir(), "copyState.bin"), destinationDir, false, getRootSpec(), incrementalInputs, copyAction);
+    }
+
+    /**
+     * Copies only the files that have changed since the previous execution, where possible. This runs the copy action of {@link AbstractCopyTask},
+     * so that a subclass that overrides {@link #copy()} still takes part in the copy.
+     */
+    @TaskAction
+    protected void copy(IncrementalTaskInputs inputs) {
+        incrementalInputs = inputs;
+        try {
+            copy();
+        } finally {
+            incrementalInputs = null;
+        }
     }
 
     @Override
@@ -19,6 +19,7 @@ package org.gradle.api.tasks;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.file.copy.*;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.reflect.Instantiator;
 
 import java.io.File;
@@ -28,13 +29,33 @@ import java.io.File;
  */
 public class Sync extends AbstractCopyTask {
 
+    private IncrementalTaskInputs incrementalInputs;
+
     @Override
     protected CopyAction createCopyAction() {
         File destinationDir = getDestinationDir();
         if (destinationDir == null) {
             throw new InvalidUserDataException("No copy destination directory has been specified, use 'into' to specify a target directory.");
         }
-        return new SyncCopyActionDecorator(destinationDir, new FileCopyAction(getFileLookup().getFileResolver(destinationDir)));
+        CopyAction copyAction = new FileCopyAction(getFileLookup().getFileResolver(destinationDir));
+        if (incrementalInputs == null) {
+            return new SyncCopyActionDecorator(destinationDir, copyAction);
+        }
+        return new IncrementalCopyActionDecorator(new File(getTemporaryDir(), "syncState.bin"), destinationDir, true, getRootSpec(), incrementalInputs, copyAction);
+    }
+
+    /**
+     * Copies only the files that have changed since the previous execution and deletes only the files that are no longer copied, where possible.
+     * This runs the copy action of {@link AbstractCopyTask}, so that a subclass that overrides {@link #copy()} still takes part in the copy.
+     */
+    @TaskAction
+    protected void copy(IncrementalTaskInputs inputs) {
+        incrementalInputs = inputs;
+        try {
+            copy();
+        } finally {
+            incrementalInputs = null;
+        }
     }
 
     @Override
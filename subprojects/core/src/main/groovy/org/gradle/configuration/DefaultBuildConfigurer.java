@@ -44,5 +44,8 @@ public class DefaultBuildConfigurer implements BuildConfigurer {
         } else if (startParameter.isConfigureOnDemand()) {
             SingleMessageLogger.incubatingFeatureUsed("Configuration on demand");
         }
+        if (startParameter.isParallelProjectConfiguration()) {
+            SingleMessageLogger.incubatingFeatureUsed("Parallel project configuration");
+        }
     }
 }
\ No newline at end of file
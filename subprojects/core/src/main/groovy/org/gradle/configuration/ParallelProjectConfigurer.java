@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration;
+
+import org.gradle.api.BuildCancelledException;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.configuration.project.CrossProjectConfigurationDetector;
+import org.gradle.execution.MultipleBuildFailures;
+import org.gradle.execution.ProjectConfigurer;
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Configures the sub-projects of a project hierarchy in parallel, treating them as decoupled from each other. A project is configured once its
+ * parent has been configured, so that the configuration injected by the parent is in place. A project that changes the configuration of
+ * a project other than itself or its descendants fails, see {@link CrossProjectConfigurationDetector}.
+ *
+ * <p>Configuring a single project is delegated to the given configurer.</p>
+ */
+public class ParallelProjectConfigurer implements ProjectConfigurer {
+    private final ProjectConfigurer delegate;
+    private final ExecutorFactory executorFactory;
+    private final BuildCancellationToken cancellationToken;
+    private final int maxConcurrency;
+
+    public ParallelProjectConfigurer(ProjectConfigurer delegate, ExecutorFactory executorFactory, BuildCancellationToken cancellationToken, int maxConcurrency) {
+        this.delegate = delegate;
+        this.executorFactory = executorFactory;
+        this.cancellationToken = cancellationToken;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    public void configure(ProjectInternal project) {
+        delegate.configure(project);
+    }
+
+    public void configureHierarchy(ProjectInternal project) {
+        delegate.configure(project);
+
+        LinkedList<ProjectInternal> ready = new LinkedList<ProjectInternal>();
+        addChildren(project, ready);
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        BlockingQueue<Result> completed = new LinkedBlockingQueue<Result>();
+        List<Throwable> failures = new ArrayList<Throwable>();
+        StoppableExecutor executor = executorFactory.create("Project configuration");
+        try {
+            int running = 0;
+            while (true) {
+                while (running < maxConcurrency && !ready.isEmpty() && failures.isEmpty() && !cancellationToken.isCancellationRequested()) {
+                    executor.execute(new ConfigureProject(ready.removeFirst(), completed));
+                    running++;
+                }
+                if (running == 0) {
+                    break;
+                }
+                Result result = take(completed);
+                running--;
+                if (result.failure != null) {
+                    failures.add(result.failure);
+                } else {
+                    addChildren(result.project, ready);
+                }
+            }
+        } finally {
+            executor.stop();
+        }
+
+        if (failures.size() == 1) {
+            throw UncheckedException.throwAsUncheckedException(failures.get(0));
+        }
+        if (!failures.isEmpty()) {
+            throw new MultipleBuildFailures(failures);
+        }
+        if (!ready.isEmpty()) {
+            throw new BuildCancelledException();
+        }
+    }
+
+    private static void addChildren(ProjectInternal project, List<ProjectInternal> projects) {
+        for (Project child : project.getChildProjects().values()) {
+            projects.add((ProjectInternal) child);
+        }
+    }
+
+    private static Result take(BlockingQueue<Result> completed) {
+        try {
+            return completed.take();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private class ConfigureProject implements Runnable {
+        private final ProjectInternal project;
+        private final BlockingQueue<Result> completed;
+
+        public ConfigureProject(ProjectInternal project, BlockingQueue<Result> completed) {
+            this.project = project;
+            this.completed = completed;
+        }
+
+        public void run() {
+            Throwable failure = null;
+            try {
+                CrossProjectConfigurationDetector.configureDecoupled(project, new Factory<Void>() {
+                    public Void create() {
+                        delegate.configure(project);
+                        return null;
+                    }
+                });
+            } catch (Throwable t) {
+                failure = t;
+            }
+            completed.add(new Result(project, failure));
+        }
+    }
+
+    private static class Result {
+        private final ProjectInternal project;
+        private final Throwable failure;
+
+        private Result(ProjectInternal project, Throwable failure) {
+            this.project = project;
+            this.failure = failure;
+        }
+    }
+}
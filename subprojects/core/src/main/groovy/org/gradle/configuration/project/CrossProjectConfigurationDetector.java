@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project;
+
+import org.gradle.api.InvalidUserCodeException;
+import org.gradle.api.Project;
+import org.gradle.internal.Factory;
+
+/**
+ * Detects changes made to the configuration of another project while projects are configured in parallel.
+ *
+ * <p>A thread that configures a project in parallel with other projects is bound to that project. While it is bound, it may change the
+ * configuration of that project and of its descendants, which are not configured until the project has been configured. Changing
+ * the configuration of any other project fails.</p>
+ */
+public class CrossProjectConfigurationDetector {
+    private static final ThreadLocal<Project> CONFIGURING = new ThreadLocal<Project>();
+
+    private CrossProjectConfigurationDetector() {
+    }
+
+    /**
+     * Runs the given action with the current thread bound to the given project.
+     */
+    public static <T> T configureDecoupled(Project project, Factory<T> action) {
+        Project previous = CONFIGURING.get();
+        CONFIGURING.set(project);
+        try {
+            return action.create();
+        } finally {
+            CONFIGURING.set(previous);
+        }
+    }
+
+    /**
+     * Called before the configuration of the given project is changed by the current thread.
+     *
+     * @throws InvalidUserCodeException when the current thread is configuring a project that the given project is decoupled from.
+     */
+    public static void beforeConfigure(Project target, String description) {
+        Project current = CONFIGURING.get();
+        if (current == null || current == target || isDescendant(target, current)) {
+            return;
+        }
+        throw new InvalidUserCodeException(String.format("Cannot %s %s while configuring %s in parallel. Projects configured in parallel must not change the configuration of other projects, except for their own subprojects.",
+                description, target, current));
+    }
+
+    /**
+     * Returns an action that calls {@link #beforeConfigure(Project, String)} for the given project, for use as the mutation guard of an object owned by that project.
+     */
+    public static Runnable guard(final Project target, final String description) {
+        return new Runnable() {
+            public void run() {
+                beforeConfigure(target, description);
+            }
+        };
+    }
+
+    private static boolean isDescendant(Project project, Project ancestor) {
+        for (Project parent = project.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -20,10 +20,15 @@ import org.codehaus.groovy.classgen.Verifier;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.groovy.scripts.Transformer;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class CachingScriptClassCompiler implements ScriptClassCompiler {
-    private final Map<Collection<Object>, Class<?>> cachedClasses = new HashMap<Collection<Object>, Class<?>>();
+    // Build scripts can be compiled concurrently when projects are configured in parallel
+    private final ConcurrentMap<Collection<Object>, CachedClass> cachedClasses = new ConcurrentHashMap<Collection<Object>, CachedClass>();
     private final ScriptClassCompiler scriptClassCompiler;
 
     public CachingScriptClassCompiler(ScriptClassCompiler scriptClassCompiler) {
@@ -32,11 +37,24 @@ public class CachingScriptClassCompiler implements ScriptClassCompiler {
 
     public <T extends Script> Class<? extends T> compile(ScriptSource source, ClassLoader classLoader, Transformer transformer, Class<T> scriptBaseClass, Verifier verifier) {
         List<Object> key = Arrays.asList(source.getClassName(), classLoader, transformer.getId(), scriptBaseClass.getName());
-        Class<?> c = cachedClasses.get(key);
-        if (c == null) {
-            c = scriptClassCompiler.compile(source, classLoader, transformer, scriptBaseClass, verifier);
-            cachedClasses.put(key, c);
+        CachedClass cachedClass = cachedClasses.get(key);
+        if (cachedClass == null) {
+            CachedClass newClass = new CachedClass();
+            cachedClass = cachedClasses.putIfAbsent(key, newClass);
+            if (cachedClass == null) {
+                cachedClass = newClass;
+            }
         }
-        return c.asSubclass(scriptBaseClass);
+        // Compile each script only once, the other projects that use it wait for the compilation to finish
+        synchronized (cachedClass) {
+            if (cachedClass.scriptClass == null) {
+                cachedClass.scriptClass = scriptClassCompiler.compile(source, classLoader, transformer, scriptBaseClass, verifier);
+            }
+            return cachedClass.scriptClass.asSubclass(scriptBaseClass);
+        }
+    }
+
+    private static class CachedClass {
+        Class<?> scriptClass;
     }
 }
@@ -80,6 +80,10 @@ import org.gradle.plugin.use.internal.PluginRequestApplicator;
 import org.gradle.process.internal.DefaultWorkerProcessFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
 import org.gradle.process.internal.child.WorkerProcessClassPathProvider;
+import org.gradle.process.internal.daemon.DefaultWorkerDaemonFactory;
+import org.gradle.process.internal.daemon.WorkerDaemonFactory;
+import org.gradle.process.internal.daemon.WorkerDaemonManager;
+import org.gradle.process.internal.daemon.WorkerDaemonStarter;
 import org.gradle.profile.ProfileEventAdapter;
 import org.gradle.profile.ProfileListener;
 import org.gradle.util.GradleVersion;
@@ -277,8 +281,17 @@ public class BuildScopeServices extends DefaultServiceRegistry {
                 new LongIdGenerator());
     }
 
-    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken) {
-        return new TaskPathProjectEvaluator(cancellationToken);
+    protected WorkerDaemonFactory createWorkerDaemonFactory(WorkerDaemonManager workerDaemonManager, Factory<WorkerProcessBuilder> workerProcessFactory, StartParameter startParameter) {
+        return new DefaultWorkerDaemonFactory(workerDaemonManager, new WorkerDaemonStarter(workerProcessFactory), startParameter.getLogLevel());
+    }
+
+    protected ProjectConfigurer createProjectConfigurer(BuildCancellationToken cancellationToken, StartParameter startParameter) {
+        ProjectConfigurer projectConfigurer = new TaskPathProjectEvaluator(cancellationToken);
+        if (startParameter.isParallelProjectConfiguration()) {
+            int maxConcurrency = startParameter.getParallelThreadCount() > 0 ? startParameter.getParallelThreadCount() : Runtime.getRuntime().availableProcessors();
+            return new ParallelProjectConfigurer(projectConfigurer, get(ExecutorFactory.class), cancellationToken, maxConcurrency);
+        }
+        return projectConfigurer;
     }
 
     protected BuildConfigurer createBuildConfigurer(ProjectConfigurer projectConfigurer) {
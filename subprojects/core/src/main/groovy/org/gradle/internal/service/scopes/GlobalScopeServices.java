@@ -33,6 +33,7 @@ import org.gradle.initialization.ClassLoaderRegistry;
 import org.gradle.initialization.DefaultClassLoaderRegistry;
 import org.gradle.initialization.DefaultCommandLineConverter;
 import org.gradle.initialization.DefaultGradleLauncherFactory;
+import org.gradle.internal.TrueTimeProvider;
 import org.gradle.internal.classloader.ClassLoaderFactory;
 import org.gradle.internal.classloader.DefaultClassLoaderFactory;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
@@ -53,6 +54,7 @@ import org.gradle.messaging.remote.internal.inet.InetAddressFactory;
 import org.gradle.model.internal.inspect.ModelRuleSourceDetector;
 import org.gradle.model.internal.manage.schema.ModelSchemaStore;
 import org.gradle.model.internal.manage.schema.extract.DefaultModelSchemaStore;
+import org.gradle.process.internal.daemon.WorkerDaemonManager;
 
 import java.util.List;
 
@@ -150,6 +152,11 @@ public class GlobalScopeServices {
         return new DefaultExecutorFactory();
     }
 
+    WorkerDaemonManager createWorkerDaemonManager(MessagingServer messagingServer) {
+        // Declares the messaging server as a dependency, so that the worker daemons are stopped before their connections are closed
+        return new WorkerDaemonManager(new TrueTimeProvider());
+    }
+
     FileLockManager createFileLockManager(ProcessEnvironment processEnvironment, FileLockContentionHandler fileLockContentionHandler) {
         return new DefaultFileLockManager(
                 new DefaultProcessMetaDataProvider(
@@ -39,6 +39,7 @@ import org.gradle.api.internal.project.ant.AntLoggingAdapter;
 import org.gradle.api.internal.project.taskfactory.ITaskFactory;
 import org.gradle.api.internal.tasks.DefaultTaskContainerFactory;
 import org.gradle.api.internal.tasks.TaskContainerInternal;
+import org.gradle.configuration.project.CrossProjectConfigurationDetector;
 import org.gradle.configuration.project.DefaultProjectConfigurationActionContainer;
 import org.gradle.configuration.project.ProjectConfigurationActionContainer;
 import org.gradle.initialization.ProjectAccessListener;
@@ -126,7 +127,9 @@ public class ProjectScopeServices extends DefaultServiceRegistry {
         );
         ModelRuleInspector inspector = new ModelRuleInspector(Iterables.concat(coreHandlers, handlers));
         PluginApplicator applicator = new RulesCapablePluginApplicator<ProjectInternal>(project, inspector, get(ModelRuleSourceDetector.class));
-        return new DefaultPluginManager(get(PluginRegistry.class), new DependencyInjectingInstantiator(this), applicator);
+        DefaultPluginManager pluginManager = new DefaultPluginManager(get(PluginRegistry.class), new DependencyInjectingInstantiator(this), applicator);
+        pluginManager.beforeChange(CrossProjectConfigurationDetector.guard(project, "apply plugins to"));
+        return pluginManager;
     }
 
     protected ITaskFactory createTaskFactory(ITaskFactory parentFactory) {
@@ -87,6 +87,11 @@ public class DefaultWorkerProcessFactory implements Factory<WorkerProcessBuilder
 
             // Build configuration for GradleWorkerMain
             List<URL> implementationClassPath = ClasspathUtil.getClasspath(getWorker().getClass().getClassLoader());
+            for (URL url : getImplementationClasspath()) {
+                if (!implementationClassPath.contains(url)) {
+                    implementationClassPath.add(url);
+                }
+            }
             Object id = idGenerator.generateId();
             String displayName = getBaseName() + " " + id;
 
@@ -22,6 +22,7 @@ import org.gradle.api.logging.LogLevel;
 import org.gradle.util.GUtil;
 
 import java.io.File;
+import java.net.URL;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -34,11 +35,14 @@ import java.util.Set;
  *
  * <p>A worker process can optionally specify an application classpath. The classes of this classpath are loaded into an isolated ClassLoader, which is made visible to the worker action ClassLoader.
  * Only the packages specified in the set of shared packages are visible to the worker action ClassLoader.</p>
+ *
+ * <p>The worker action ClassLoader is created from the classpath of the ClassLoader that loaded the worker action, plus any additional implementation classpath.</p>
  */
 public abstract class WorkerProcessBuilder {
     private final JavaExecHandleBuilder javaCommand;
     private final Set<String> packages = new HashSet<String>();
     private final Set<File> applicationClasspath = new LinkedHashSet<File>();
+    private final Set<URL> implementationClasspath = new LinkedHashSet<URL>();
     private Action<? super WorkerProcessContext> action;
     private LogLevel logLevel = LogLevel.LIFECYCLE;
     private boolean loadApplicationInSystemClassLoader;
@@ -66,6 +70,15 @@ public abstract class WorkerProcessBuilder {
         return applicationClasspath;
     }
 
+    public WorkerProcessBuilder implementationClasspath(Iterable<URL> urls) {
+        GUtil.addToCollection(implementationClasspath, urls);
+        return this;
+    }
+
+    public Set<URL> getImplementationClasspath() {
+        return implementationClasspath;
+    }
+
     public WorkerProcessBuilder sharedPackages(String... packages) {
         sharedPackages(Arrays.asList(packages));
         return this;
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.internal.Cast;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClasspathUtil;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.messaging.remote.internal.Message;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Serializable;
+
+/**
+ * Hands out the worker daemons of a build. The daemons are kept by the {@link WorkerDaemonManager} of the Gradle process, so they survive the build.
+ */
+public class DefaultWorkerDaemonFactory implements WorkerDaemonFactory, Stoppable {
+    private final WorkerDaemonManager daemonManager;
+    private final WorkerDaemonStarter daemonStarter;
+    private final LogLevel logLevel;
+
+    public DefaultWorkerDaemonFactory(WorkerDaemonManager daemonManager, WorkerDaemonStarter daemonStarter, LogLevel logLevel) {
+        this.daemonManager = daemonManager;
+        this.daemonStarter = daemonStarter;
+        this.logLevel = logLevel;
+    }
+
+    public WorkerDaemon getDaemon(final WorkerDaemonForkOptions forkOptions) {
+        return new WorkerDaemon() {
+            public <T extends Serializable> T execute(WorkerDaemonAction<T> action) {
+                ClassLoader actionClassLoader = action.getClass().getClassLoader();
+                WorkerDaemonKey key = new WorkerDaemonKey(forkOptions, ClasspathUtil.getClasspath(actionClassLoader), logLevel);
+                WorkerDaemonResult result = daemonManager.execute(key, daemonStarter, serialize(action));
+                Object outcome = deserialize(result.getOutcome(), actionClassLoader);
+                if (result.isFailed()) {
+                    throw UncheckedException.throwAsUncheckedException((Throwable) outcome);
+                }
+                return Cast.uncheckedCast(outcome);
+            }
+        };
+    }
+
+    /**
+     * Stops the worker daemons that have not been used for a while at the end of the build.
+     */
+    public void stop() {
+        daemonManager.stopExpiredDaemons();
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            Message.send(value, outputStream);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes, ClassLoader classLoader) {
+        try {
+            return Message.receive(new ByteArrayInputStream(bytes), classLoader);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import java.io.Serializable;
+
+/**
+ * A service that executes actions in a (potentially) long-lived worker process.
+ */
+public interface WorkerDaemon {
+    /**
+     * Executes the given action in the worker process and returns its result. A failure of the action is rethrown.
+     */
+    <T extends Serializable> T execute(WorkerDaemonAction<T> action);
+}
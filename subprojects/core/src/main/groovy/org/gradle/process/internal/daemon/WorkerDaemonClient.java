@@ -0,0 +1,104 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.daemon;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.ExecHandle;
+import org.gradle.process.internal.ExecHandleListener;
+import org.gradle.process.internal.WorkerProcess;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The client side of a worker daemon. The client listens for the daemon process to finish, so that an action is failed rather than waiting
+ * forever for its result when the daemon process dies.
+ */
+class WorkerDaemonClient implements WorkerDaemonClientProtocol, ExecHandleListener, Stoppable {
+    private final WorkerDaemonKey key;
+    // holds the results of actions, and the result of the daemon process once it has finished
+    private final BlockingQueue<Object> events = new LinkedBlockingQueue<Object>();
+    private WorkerProcess workerProcess;
+    private WorkerDaemonServerProtocol server;
+    private volatile boolean processFinished;
+
+    public WorkerDaemonClient(WorkerDaemonKey key) {
+        this.key = key;
+    }
+
+    void connect(WorkerProcess workerProcess) {
+        this.workerProcess = workerProcess;
+        server = workerProcess.getConnection().addOutgoing(WorkerDaemonServerProtocol.class);
+        workerProcess.getConnection().addIncoming(WorkerDaemonClientProtocol.class, this);
+        workerProcess.getConnection().connect();
+    }
+
+    public WorkerDaemonResult execute(byte[] action) {
+        // a worker daemon executes a single action at a time, it is reserved by the caller until the action has finished
+        Object event;
+        try {
+            if (!processFinished) {
+                server.execute(action);
+            }
+            event = events.take();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        if (event instanceof WorkerDaemonResult) {
+            return (WorkerDaemonResult) event;
+        }
+        ExecResult execResult = (ExecResult) event;
+        Throwable failure = null;
+        try {
+            execResult.rethrowFailure();
+        } catch (Throwable t) {
+            failure = t;
+        }
+        throw new ExecException(String.format("Gradle worker daemon with fork options %s finished unexpectedly with exit value %s.", key.getForkOptions(), execResult.getExitValue()), failure);
+    }
+
+    /**
+     * Returns true when the daemon process has finished, so the daemon cannot execute any more actions.
+     */
+    public boolean isProcessFinished() {
+        return processFinished;
+    }
+
+    public WorkerDaemonKey getKey() {
+        return key;
+    }
+
+    public void stop() {
+        server.stop();
+        workerProcess.waitForStop();
+    }
+
+    public void executed(WorkerDaemonResult result) {
+        events.add(result);
+    }
+
+    public void executionStarted(ExecHandle execHandle) {
+    }
+
+    public void executionFinished(ExecHandle execHandle, ExecResult execResult) {
+        processFinished = true;
+        events.add(execResult);
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014 the original author or authors.
+ * Copyright 2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,8 +14,12 @@
  * limitations under the License.
  */
 
-package org.gradle.api.plugins.antlr.internal;
 
-public interface AntlrWorkerClientProtocol {
-    void executed(AntlrResult result);
+package org.gradle.process.internal.daemon;
+
+/**
+ * Client part of the worker daemon protocol. Used to report back the results of actions.
+ */
+public interface WorkerDaemonClientProtocol {
+    void executed(WorkerDaemonResult result);
 }
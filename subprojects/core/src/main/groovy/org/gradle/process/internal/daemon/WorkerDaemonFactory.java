@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 the original author or authors.
+ * Copyright 2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,8 +14,12 @@
  * limitations under the License.
  */
 
-package org.gradle.api.plugins.quality.internal.findbugs;
 
-public interface FindBugsWorkerClientProtocol {
-    void executed(FindBugsResult result);
+package org.gradle.process.internal.daemon;
+
+public interface WorkerDaemonFactory {
+    /**
+     * Returns a worker daemon for the given fork options. The daemon may be shared with other tasks and with later builds.
+     */
+    WorkerDaemon getDaemon(WorkerDaemonForkOptions forkOptions);
 }
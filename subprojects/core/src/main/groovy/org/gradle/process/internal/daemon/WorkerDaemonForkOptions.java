@@ -0,0 +1,102 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.Nullable;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Describes the worker process that an action needs. Actions with equal fork options can share a worker daemon.
+ */
+public class WorkerDaemonForkOptions {
+    private final File workingDir;
+    private final Set<File> classpath;
+    private final Set<String> sharedPackages;
+    private final String minHeapSize;
+    private final String maxHeapSize;
+    private final List<String> jvmArgs;
+
+    public WorkerDaemonForkOptions(File workingDir, Iterable<File> classpath, Iterable<String> sharedPackages,
+                                   @Nullable String minHeapSize, @Nullable String maxHeapSize, Iterable<String> jvmArgs) {
+        this.workingDir = workingDir;
+        this.classpath = ImmutableSet.copyOf(classpath);
+        this.sharedPackages = ImmutableSet.copyOf(sharedPackages);
+        this.minHeapSize = minHeapSize;
+        this.maxHeapSize = maxHeapSize;
+        this.jvmArgs = ImmutableList.copyOf(jvmArgs);
+    }
+
+    public File getWorkingDir() {
+        return workingDir;
+    }
+
+    public Set<File> getClasspath() {
+        return classpath;
+    }
+
+    public Set<String> getSharedPackages() {
+        return sharedPackages;
+    }
+
+    @Nullable
+    public String getMinHeapSize() {
+        return minHeapSize;
+    }
+
+    @Nullable
+    public String getMaxHeapSize() {
+        return maxHeapSize;
+    }
+
+    public List<String> getJvmArgs() {
+        return jvmArgs;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        WorkerDaemonForkOptions other = (WorkerDaemonForkOptions) obj;
+        return workingDir.equals(other.workingDir)
+                && classpath.equals(other.classpath)
+                && sharedPackages.equals(other.sharedPackages)
+                && Objects.equal(minHeapSize, other.minHeapSize)
+                && Objects.equal(maxHeapSize, other.maxHeapSize)
+                && jvmArgs.equals(other.jvmArgs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(workingDir, classpath, sharedPackages, minHeapSize, maxHeapSize, jvmArgs);
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this).add("workingDir", workingDir).add("minHeapSize", minHeapSize).add("maxHeapSize", maxHeapSize).add("jvmArgs", jvmArgs).add("classpath", classpath).toString();
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import org.gradle.api.logging.LogLevel;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Identifies the worker daemons that can execute an action: the fork options of the action, the classpath that the action
+ * implementation is loaded from and the log level of the worker.
+ */
+class WorkerDaemonKey {
+    private final WorkerDaemonForkOptions forkOptions;
+    private final List<URL> implementationClasspath;
+    private final List<String> implementationClasspathUris = new ArrayList<String>();
+    private final LogLevel logLevel;
+
+    WorkerDaemonKey(WorkerDaemonForkOptions forkOptions, List<URL> implementationClasspath, LogLevel logLevel) {
+        this.forkOptions = forkOptions;
+        this.implementationClasspath = implementationClasspath;
+        this.logLevel = logLevel;
+        // Compare the external form, URL.equals() may resolve host names
+        for (URL url : implementationClasspath) {
+            implementationClasspathUris.add(url.toExternalForm());
+        }
+    }
+
+    WorkerDaemonForkOptions getForkOptions() {
+        return forkOptions;
+    }
+
+    List<URL> getImplementationClasspath() {
+        return implementationClasspath;
+    }
+
+    LogLevel getLogLevel() {
+        return logLevel;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        WorkerDaemonKey other = (WorkerDaemonKey) obj;
+        return forkOptions.equals(other.forkOptions) && implementationClasspathUris.equals(other.implementationClasspathUris) && logLevel == other.logLevel;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * forkOptions.hashCode() + implementationClasspathUris.hashCode()) + logLevel.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return forkOptions.toString();
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the worker daemons of the Gradle process. A worker daemon executes one action at a time, and is reused by later actions
+ * with the same fork options, including those of later builds. At most {@code maxDaemons} worker daemons run at the same time.
+ * When the limit is reached, the least recently used idle daemon is stopped to make room for a new one, or the caller waits until
+ * a daemon becomes available. Daemons that have been idle for longer than {@code maxIdleTimeMillis} are stopped.
+ */
+@ThreadSafe
+public class WorkerDaemonManager implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerDaemonManager.class);
+    public static final long DEFAULT_MAX_IDLE_TIME_MILLIS = TimeUnit.MINUTES.toMillis(3);
+
+    private final int maxDaemons;
+    private final long maxIdleTimeMillis;
+    private final TimeProvider timeProvider;
+    private final Object lock = new Object();
+    private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
+    // The time each idle daemon was released, least recently used first
+    private final Map<WorkerDaemonClient, Long> idleClients = new LinkedHashMap<WorkerDaemonClient, Long>();
+    private int starting;
+
+    public WorkerDaemonManager(TimeProvider timeProvider) {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_MAX_IDLE_TIME_MILLIS, timeProvider);
+    }
+
+    public WorkerDaemonManager(int maxDaemons, long maxIdleTimeMillis, TimeProvider timeProvider) {
+        this.maxDaemons = Math.max(1, maxDaemons);
+        this.maxIdleTimeMillis = maxIdleTimeMillis;
+        this.timeProvider = timeProvider;
+    }
+
+    /**
+     * Executes the given serialized action in a worker daemon that matches the given key, starting a new daemon if required.
+     */
+    WorkerDaemonResult execute(WorkerDaemonKey key, WorkerDaemonStarter starter, byte[] action) {
+        WorkerDaemonClient client = reserve(key, starter);
+        WorkerDaemonResult result;
+        try {
+            result = client.execute(action);
+        } catch (RuntimeException e) {
+            discard(client);
+            throw e;
+        }
+        release(client);
+        return result;
+    }
+
+    /**
+     * Stops the worker daemons that have been idle for too long.
+     */
+    public void stopExpiredDaemons() {
+        List<WorkerDaemonClient> expired = new ArrayList<WorkerDaemonClient>();
+        synchronized (lock) {
+            removeExpiredClients(expired);
+        }
+        stopClients(expired);
+    }
+
+    public void stop() {
+        List<WorkerDaemonClient> clients;
+        synchronized (lock) {
+            clients = new ArrayList<WorkerDaemonClient>(allClients);
+            allClients.clear();
+            idleClients.clear();
+            lock.notifyAll();
+        }
+        LOGGER.debug("Stopping {} worker daemon(s).", clients.size());
+        CompositeStoppable.stoppable(clients).stop();
+        LOGGER.info("Stopped {} worker daemon(s).", clients.size());
+    }
+
+    int getDaemonCount() {
+        synchronized (lock) {
+            return allClients.size();
+        }
+    }
+
+    int getIdleDaemonCount() {
+        synchronized (lock) {
+            return idleClients.size();
+        }
+    }
+
+    private WorkerDaemonClient reserve(WorkerDaemonKey key, WorkerDaemonStarter starter) {
+        List<WorkerDaemonClient> toStop = new ArrayList<WorkerDaemonClient>();
+        try {
+            synchronized (lock) {
+                while (true) {
+                    removeExpiredClients(toStop);
+                    WorkerDaemonClient client = reserveIdleClient(key, toStop);
+                    if (client != null) {
+                        LOGGER.debug("Reusing worker daemon with fork options {}.", key);
+                        return client;
+                    }
+                    if (allClients.size() + starting >= maxDaemons && !idleClients.isEmpty()) {
+                        WorkerDaemonClient evicted = idleClients.keySet().iterator().next();
+                        idleClients.remove(evicted);
+                        allClients.remove(evicted);
+                        toStop.add(evicted);
+                    }
+                    if (allClients.size() + starting < maxDaemons) {
+                        starting++;
+                        break;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        throw UncheckedException.throwAsUncheckedException(e);
+                    }
+                }
+            }
+        } finally {
+            stopClients(toStop);
+        }
+
+        // allow daemons to be started concurrently
+        WorkerDaemonClient client = null;
+        try {
+            client = starter.startDaemon(key);
+        } finally {
+            synchronized (lock) {
+                starting--;
+                if (client != null) {
+                    allClients.add(client);
+                } else {
+                    lock.notifyAll();
+                }
+            }
+        }
+        return client;
+    }
+
+    private WorkerDaemonClient reserveIdleClient(WorkerDaemonKey key, List<WorkerDaemonClient> toStop) {
+        Iterator<WorkerDaemonClient> iterator = idleClients.keySet().iterator();
+        while (iterator.hasNext()) {
+            WorkerDaemonClient candidate = iterator.next();
+            if (candidate.isProcessFinished()) {
+                // the daemon process has died while idle
+                iterator.remove();
+                allClients.remove(candidate);
+                toStop.add(candidate);
+                lock.notifyAll();
+            } else if (candidate.getKey().equals(key)) {
+                iterator.remove();
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private void release(WorkerDaemonClient client) {
+        synchronized (lock) {
+            // the daemon has already been stopped when the manager was stopped while the daemon was in use
+            if (allClients.contains(client)) {
+                idleClients.put(client, timeProvider.getCurrentTime());
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void discard(WorkerDaemonClient client) {
+        synchronized (lock) {
+            allClients.remove(client);
+            lock.notifyAll();
+        }
+        stopClients(Collections.singletonList(client));
+    }
+
+    private void removeExpiredClients(List<WorkerDaemonClient> expired) {
+        long now = timeProvider.getCurrentTime();
+        Iterator<Map.Entry<WorkerDaemonClient, Long>> iterator = idleClients.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<WorkerDaemonClient, Long> entry = iterator.next();
+            if (now - entry.getValue() >= maxIdleTimeMillis) {
+                iterator.remove();
+                allClients.remove(entry.getKey());
+                expired.add(entry.getKey());
+            }
+        }
+        if (!expired.isEmpty()) {
+            lock.notifyAll();
+        }
+    }
+
+    private static void stopClients(List<WorkerDaemonClient> clients) {
+        for (WorkerDaemonClient client : clients) {
+            try {
+                client.stop();
+            } catch (Exception e) {
+                LOGGER.debug("Could not stop worker daemon.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import java.io.Serializable;
+
+/**
+ * The serialized outcome of a {@link WorkerDaemonAction}: either its result or the failure it threw.
+ * The outcome is only deserialized by the caller, whose ClassLoader can load the types of the action.
+ */
+public class WorkerDaemonResult implements Serializable {
+    private final boolean failed;
+    private final byte[] outcome;
+
+    public WorkerDaemonResult(boolean failed, byte[] outcome) {
+        this.failed = failed;
+        this.outcome = outcome;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+
+    public byte[] getOutcome() {
+        return outcome;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import org.gradle.api.Action;
+import org.gradle.api.GradleException;
+import org.gradle.internal.UncheckedException;
+import org.gradle.messaging.remote.internal.Message;
+import org.gradle.process.internal.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Runs in the worker daemon process and executes the actions submitted by the build process until it is stopped.
+ */
+public class WorkerDaemonServer implements Action<WorkerProcessContext>, WorkerDaemonServerProtocol, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerDaemonServer.class);
+
+    private volatile WorkerDaemonClientProtocol client;
+    private volatile CountDownLatch stop;
+
+    public void execute(WorkerProcessContext context) {
+        stop = new CountDownLatch(1);
+        client = context.getServerConnection().addOutgoing(WorkerDaemonClientProtocol.class);
+        context.getServerConnection().addIncoming(WorkerDaemonServerProtocol.class, this);
+        context.getServerConnection().connect();
+        try {
+            stop.await();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public void execute(byte[] serializedAction) {
+        WorkerDaemonResult result;
+        try {
+            // The action is loaded by the ClassLoader of this server, which is created from the implementation classpath of the action
+            WorkerDaemonAction<?> action = (WorkerDaemonAction<?>) Message.receive(new ByteArrayInputStream(serializedAction), getClass().getClassLoader());
+            LOGGER.info("Executing {} in worker daemon.", action);
+            Object value = action.execute();
+            LOGGER.info("Successfully executed {} in worker daemon.", action);
+            result = new WorkerDaemonResult(false, serialize(value));
+        } catch (Throwable t) {
+            LOGGER.info("Exception executing action in worker daemon: {}.", t);
+            result = new WorkerDaemonResult(true, serializeFailure(t));
+        }
+        client.executed(result);
+    }
+
+    public void stop() {
+        stop.countDown();
+    }
+
+    private static byte[] serializeFailure(Throwable failure) {
+        try {
+            return serialize(failure);
+        } catch (Throwable t) {
+            return serialize(new GradleException(String.format("Could not send failure of worker daemon action: %s", failure)));
+        }
+    }
+
+    private static byte[] serialize(Object value) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            Message.send(value, outputStream);
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon;
+
+import org.gradle.internal.Factory;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.util.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+public class WorkerDaemonStarter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkerDaemonStarter.class);
+    private final Factory<WorkerProcessBuilder> workerFactory;
+
+    public WorkerDaemonStarter(Factory<WorkerProcessBuilder> workerFactory) {
+        this.workerFactory = workerFactory;
+    }
+
+    WorkerDaemonClient startDaemon(WorkerDaemonKey key) {
+        WorkerDaemonForkOptions forkOptions = key.getForkOptions();
+        LOGGER.debug("Starting Gradle worker daemon with fork options {}.", forkOptions);
+        Clock clock = new Clock();
+        WorkerProcessBuilder builder = workerFactory.create();
+        builder.setBaseName("Gradle Worker Daemon");
+        builder.setLogLevel(key.getLogLevel());
+        builder.applicationClasspath(forkOptions.getClasspath());
+        builder.sharedPackages(forkOptions.getSharedPackages());
+        builder.implementationClasspath(key.getImplementationClasspath());
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        javaCommand.setMinHeapSize(forkOptions.getMinHeapSize());
+        javaCommand.setMaxHeapSize(forkOptions.getMaxHeapSize());
+        javaCommand.setJvmArgs(forkOptions.getJvmArgs());
+        javaCommand.setWorkingDir(forkOptions.getWorkingDir());
+        javaCommand.setStandardOutput(new CurrentSystemStream(false));
+        javaCommand.setErrorOutput(new CurrentSystemStream(true));
+        WorkerDaemonClient client = new WorkerDaemonClient(key);
+        javaCommand.listener(client);
+        WorkerProcess process = builder.worker(new WorkerDaemonServer()).build();
+        process.start();
+        client.connect(process);
+
+        LOGGER.info("Started Gradle worker daemon ({}) with fork options {}.", clock.getTime(), forkOptions);
+        return client;
+    }
+
+    /**
+     * Forwards the output of a worker daemon to the current {@code System.out} or {@code System.err}. These are replaced for each build,
+     * whereas a worker daemon can be used by several builds.
+     */
+    private static class CurrentSystemStream extends OutputStream {
+        private final boolean errorStream;
+
+        private CurrentSystemStream(boolean errorStream) {
+            this.errorStream = errorStream;
+        }
+
+        private PrintStream current() {
+            return errorStream ? System.err : System.out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            current().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            current().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            current().flush();
+        }
+    }
+}
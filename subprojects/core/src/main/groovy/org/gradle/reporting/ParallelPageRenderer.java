@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.reporting;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+
+import java.util.Collection;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Renders the pages of a report using a bounded number of worker threads. No more pages are started once a page has failed, and the
+ * first failure is rethrown when the workers have finished.
+ */
+public class ParallelPageRenderer {
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkers;
+
+    public ParallelPageRenderer(ExecutorFactory executorFactory) {
+        this(executorFactory, Runtime.getRuntime().availableProcessors());
+    }
+
+    public ParallelPageRenderer(ExecutorFactory executorFactory, int maxWorkers) {
+        this.executorFactory = executorFactory;
+        this.maxWorkers = maxWorkers;
+    }
+
+    public void render(String displayName, Collection<? extends Runnable> pages) {
+        int workers = Math.min(maxWorkers, pages.size());
+        if (workers <= 1) {
+            for (Runnable page : pages) {
+                page.run();
+            }
+            return;
+        }
+
+        final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>(pages);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        StoppableExecutor executor = executorFactory.create(displayName);
+        try {
+            for (int i = 0; i < workers; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        Runnable page;
+                        while (failure.get() == null && (page = queue.poll()) != null) {
+                            try {
+                                page.run();
+                            } catch (Throwable t) {
+                                failure.compareAndSet(null, t);
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.stop();
+        }
+        if (failure.get() != null) {
+            throw UncheckedException.throwAsUncheckedException(failure.get());
+        }
+    }
+}
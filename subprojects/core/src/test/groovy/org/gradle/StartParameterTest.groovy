@@ -49,6 +49,7 @@ class StartParameterTest extends Specification {
         parameter.refreshDependencies = true
         parameter.recompileScripts = true
         parameter.configureOnDemand = true
+        parameter.parallelProjectConfiguration = true
 
         when:
         def newInstance = parameter.newInstance()
@@ -259,6 +260,7 @@ class StartParameterTest extends Specification {
         parameter.logLevel = LogLevel.DEBUG
         parameter.colorOutput = false
         parameter.configureOnDemand = true
+        parameter.parallelProjectConfiguration = true
 
         // Non-copied
         parameter.currentDir = new File("other")
@@ -281,6 +283,7 @@ class StartParameterTest extends Specification {
         newParameter != parameter
 
         newParameter.configureOnDemand == parameter.configureOnDemand
+        newParameter.parallelProjectConfiguration == parameter.parallelProjectConfiguration
         newParameter.gradleUserHomeDir == parameter.gradleUserHomeDir
         newParameter.logLevel == parameter.logLevel
         newParameter.colorOutput == parameter.colorOutput
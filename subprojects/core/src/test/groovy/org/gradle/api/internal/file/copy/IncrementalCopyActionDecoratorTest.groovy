@@ -0,0 +1,192 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.copy
+
+import org.gradle.api.Action
+import org.gradle.api.file.CopySpec
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.tasks.WorkResult
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.api.tasks.incremental.InputFileDetails
+import org.gradle.internal.reflect.DirectInstantiator
+import org.gradle.test.fixtures.file.WorkspaceTest
+
+class IncrementalCopyActionDecoratorTest extends WorkspaceTest {
+    def instantiator = new DirectInstantiator()
+    def resolver = TestFiles.resolver(testDirectory)
+
+    def setup() {
+        file("src").with {
+            createFile("a.txt").text = "a"
+            createFile("subdir/b.txt").text = "b"
+        }
+    }
+
+    def "copies all files when not executed incrementally"() {
+        given:
+        copy(inputs(false))
+        file("dest/a.txt").text = "modified"
+
+        when:
+        def result = copy(inputs(false))
+
+        then:
+        result.didWork
+        file("dest/a.txt").text == "a"
+    }
+
+    def "copies only the out of date files when executed incrementally"() {
+        given:
+        copy(inputs(false))
+        file("dest/a.txt").text = "modified"
+        file("dest/subdir/b.txt").text = "modified"
+        file("src/subdir/b.txt").text = "changed"
+
+        when:
+        def result = copy(inputs(true, file("src/subdir/b.txt")))
+
+        then:
+        result.didWork
+        file("dest/a.txt").text == "modified"
+        file("dest/subdir/b.txt").text == "changed"
+    }
+
+    def "copies a file again when it is missing from the destination"() {
+        given:
+        copy(inputs(false))
+        file("dest/a.txt").delete()
+
+        when:
+        copy(inputs(true))
+
+        then:
+        file("dest/a.txt").text == "a"
+    }
+
+    def "copies all files when the copy spec has changed"() {
+        given:
+        copy(inputs(false))
+        file("dest/a.txt").text = "modified"
+
+        when:
+        copy(inputs(true)) {
+            it.from "src"
+            it.exclude "**/b.txt"
+        }
+
+        then:
+        file("dest/a.txt").text == "a"
+    }
+
+    def "copies all files when the copy spec has actions"() {
+        def spec = { CopySpec spec ->
+            spec.from "src"
+            spec.eachFile {}
+        }
+
+        given:
+        copy(inputs(false), spec)
+        file("dest/a.txt").text = "modified"
+
+        when:
+        copy(inputs(true), spec)
+
+        then:
+        file("dest/a.txt").text == "a"
+    }
+
+    def "does not delete files when copying"() {
+        given:
+        copy(inputs(false))
+        file("src/a.txt").delete()
+
+        when:
+        copy(inputs(true))
+
+        then:
+        file("dest").assertHasDescendants("a.txt", "subdir/b.txt")
+    }
+
+    def "deletes only the files that are no longer copied when syncing incrementally"() {
+        given:
+        sync(inputs(false))
+        file("src/subdir/b.txt").delete()
+        file("src/subdir").delete()
+        file("dest/a.txt").text = "modified"
+
+        when:
+        def result = sync(inputs(true))
+
+        then:
+        result.didWork
+        file("dest").assertHasDescendants("a.txt")
+        file("dest/a.txt").text == "modified"
+    }
+
+    def "deletes extra files from the destination when syncing all files"() {
+        given:
+        file("dest/extra.txt").createFile()
+
+        when:
+        sync(inputs(false))
+
+        then:
+        file("dest").assertHasDescendants("a.txt", "subdir/b.txt")
+    }
+
+    def "copies all files when the state of the previous execution cannot be read"() {
+        given:
+        copy(inputs(false))
+        file("state.bin").text = "broken"
+        file("dest/a.txt").text = "modified"
+
+        when:
+        copy(inputs(true))
+
+        then:
+        file("dest/a.txt").text == "a"
+    }
+
+    private WorkResult copy(IncrementalTaskInputs inputs, Closure configure = { it.from "src" }) {
+        execute(false, inputs, configure)
+    }
+
+    private WorkResult sync(IncrementalTaskInputs inputs) {
+        execute(true, inputs, { it.from "src" })
+    }
+
+    private WorkResult execute(boolean sync, IncrementalTaskInputs inputs, Closure configure) {
+        def spec = new DestinationRootCopySpec(resolver, new DefaultCopySpec(resolver, instantiator))
+        spec.into "dest"
+        configure.call(spec)
+        def destinationDir = spec.destinationDir
+        def copyAction = new FileCopyAction(TestFiles.fileLookup().getFileResolver(destinationDir))
+        def decorator = new IncrementalCopyActionDecorator(file("state.bin"), destinationDir, sync, spec, inputs, copyAction)
+        return new CopyActionExecuter(instantiator, TestFiles.fileSystem()).execute(spec, decorator)
+    }
+
+    private IncrementalTaskInputs inputs(boolean incremental, File... outOfDate) {
+        return Stub(IncrementalTaskInputs) {
+            isIncremental() >> incremental
+            outOfDate(_) >> { Action<InputFileDetails> action ->
+                outOfDate.each { file ->
+                    action.execute(Stub(InputFileDetails) { getFile() >> file })
+                }
+            }
+        }
+    }
+}
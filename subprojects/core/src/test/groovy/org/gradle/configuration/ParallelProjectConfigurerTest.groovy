@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration
+
+import org.gradle.api.BuildCancelledException
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.execution.MultipleBuildFailures
+import org.gradle.execution.ProjectConfigurer
+import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
+
+class ParallelProjectConfigurerTest extends Specification {
+    def delegate = Mock(ProjectConfigurer)
+    def cancellationToken = Mock(BuildCancellationToken)
+    def configurer = new ParallelProjectConfigurer(delegate, new DefaultExecutorFactory(), cancellationToken, 4)
+    def root = project("root")
+    def a = project("a", root)
+    def b = project("b", root)
+    def c = project("c", a)
+
+    def "configures each project in hierarchy after its parent"() {
+        def configured = new CopyOnWriteArrayList()
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        4 * delegate.configure(_) >> { ProjectInternal project -> configured << project }
+        configured.first() == root
+        configured.indexOf(c) > configured.indexOf(a)
+        configured as Set == [root, a, b, c] as Set
+    }
+
+    def "configures single project using delegate"() {
+        when:
+        configurer.configure(a)
+
+        then:
+        1 * delegate.configure(a)
+        0 * delegate._
+    }
+
+    def "does not configure children of project that fails"() {
+        def failure = new RuntimeException("broken")
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+
+        and:
+        1 * delegate.configure(root)
+        1 * delegate.configure(a) >> { throw failure }
+        0 * delegate.configure(c)
+    }
+
+    def "collects failures of projects configured concurrently"() {
+        def concurrent = new ParallelProjectConfigurer(delegate, new DefaultExecutorFactory(), cancellationToken, 2)
+        def started = new CountDownLatch(2)
+
+        when:
+        concurrent.configureHierarchy(root)
+
+        then:
+        MultipleBuildFailures e = thrown()
+        e.causes*.message as Set == ["a", "b"] as Set
+
+        and:
+        1 * delegate.configure(root)
+        1 * delegate.configure(a) >> { started.countDown(); started.await(); throw new RuntimeException("a") }
+        1 * delegate.configure(b) >> { started.countDown(); started.await(); throw new RuntimeException("b") }
+    }
+
+    def "stops configuring projects when cancelled"() {
+        given:
+        cancellationToken.cancellationRequested >> true
+
+        when:
+        configurer.configureHierarchy(root)
+
+        then:
+        thrown(BuildCancelledException)
+
+        and:
+        1 * delegate.configure(root)
+        0 * delegate.configure(a)
+        0 * delegate.configure(b)
+    }
+
+    private ProjectInternal project(String name, ProjectInternal parent = null) {
+        def children = [:]
+        def project = [getChildProjects: { children }, toString: { name }] as ProjectInternal
+        if (parent != null) {
+            parent.childProjects.put(name, project)
+        }
+        return project
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.configuration.project
+
+import org.gradle.api.InvalidUserCodeException
+import org.gradle.api.Project
+import org.gradle.internal.Factory
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+
+class CrossProjectConfigurationDetectorTest extends Specification {
+    def root = TestUtil.createRootProject()
+    def a = TestUtil.createChildProject(root, "a")
+    def b = TestUtil.createChildProject(root, "b")
+    def c = TestUtil.createChildProject(a, "c")
+
+    def "allows any change when not configuring in parallel"() {
+        when:
+        CrossProjectConfigurationDetector.beforeConfigure(b, "configure")
+        a.configure(b) {}
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "allows project to change its own configuration and that of its descendants"() {
+        when:
+        configuring(a) {
+            a.ext.prop = "value"
+            a.afterEvaluate {}
+            a.subprojects { ext.prop = "value" }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "fails when project changes configuration of sibling"() {
+        when:
+        configuring(a) {
+            a.project(":b") {}
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot configure project ':b' while configuring project ':a' in parallel.")
+    }
+
+    def "fails when project changes configuration of parent"() {
+        when:
+        configuring(c) {
+            c.parent.afterEvaluate {}
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot add an evaluation listener to project ':a' while configuring project ':a:c' in parallel.")
+    }
+
+    def "fails when project evaluation depends on another project"() {
+        when:
+        configuring(a) {
+            a.evaluationDependsOn(":b")
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot evaluate project ':b' while configuring project ':a' in parallel.")
+    }
+
+    def "allows project to change the extensions, tasks, dependencies and plugins of itself and its descendants"() {
+        given:
+        [a, c].each { it.configurations.create("compile") }
+
+        when:
+        configuring(a) {
+            [a, c].each { project ->
+                project.ext.prop = "value"
+                project.extensions.add("custom", "value")
+                project.tasks.create("custom")
+                project.dependencies.add("compile", "group:name:1.0")
+                project.apply(plugin: "base")
+            }
+        }
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "allows project to query another project"() {
+        given:
+        b.tasks.create("custom")
+        b.ext.prop = "value"
+
+        when:
+        def result = CrossProjectConfigurationDetector.configureDecoupled(a, new Factory<Object>() {
+            Object create() {
+                return [b.tasks.findByName("custom"), b.ext.prop, b.extensions.findByName("custom"), b.plugins.hasPlugin("base")]
+            }
+        })
+
+        then:
+        result[1] == "value"
+    }
+
+    def "fails when project sets an extra property of another project"() {
+        when:
+        configuring(c) {
+            c.rootProject.ext.prop = "value"
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot change the extensions of root project 'test' while configuring project ':a:c' in parallel.")
+    }
+
+    def "fails when project adds an extension to another project"() {
+        when:
+        configuring(a) {
+            b.extensions.add("custom", "value")
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot change the extensions of project ':b' while configuring project ':a' in parallel.")
+    }
+
+    def "fails when project creates a task in another project"() {
+        when:
+        configuring(a) {
+            a.project(":b").tasks.create("custom")
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot change the tasks of project ':b' while configuring project ':a' in parallel.")
+        b.tasks.findByName("custom") == null
+    }
+
+    def "fails when project adds a dependency to another project"() {
+        given:
+        b.configurations.create("compile")
+
+        when:
+        configuring(a) {
+            a.project(":b").dependencies {
+                compile "group:name:1.0"
+            }
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot change the dependencies of project ':b' while configuring project ':a' in parallel.")
+        b.configurations.compile.dependencies.empty
+    }
+
+    def "fails when project applies a plugin to another project"() {
+        when:
+        configuring(a) {
+            a.project(":b").apply(plugin: "base")
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot apply plugins or scripts to project ':b' while configuring project ':a' in parallel.")
+    }
+
+    def "fails when project applies a plugin to another project using its plugin manager"() {
+        when:
+        configuring(a) {
+            b.pluginManager.apply("base")
+        }
+
+        then:
+        InvalidUserCodeException e = thrown()
+        e.message.startsWith("Cannot apply plugins to project ':b' while configuring project ':a' in parallel.")
+        !b.plugins.hasPlugin("base")
+    }
+
+    def "unbinds thread once project has been configured"() {
+        given:
+        configuring(a) {}
+
+        when:
+        CrossProjectConfigurationDetector.beforeConfigure(b, "configure")
+
+        then:
+        noExceptionThrown()
+    }
+
+    private static void configuring(Project project, Closure action) {
+        CrossProjectConfigurationDetector.configureDecoupled(project, new Factory<Object>() {
+            Object create() {
+                return action.call()
+            }
+        })
+    }
+}
@@ -16,13 +16,13 @@
 package org.gradle.groovy.scripts.internal
 
 import org.codehaus.groovy.classgen.Verifier
-import spock.lang.Specification
 import org.gradle.groovy.scripts.ScriptSource
 import org.gradle.groovy.scripts.Transformer
 import org.gradle.groovy.scripts.Script
 import org.gradle.groovy.scripts.TestScript
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
-class CachingScriptClassCompilerTest extends Specification {
+class CachingScriptClassCompilerTest extends ConcurrentSpec {
     private final ScriptClassCompiler target = Mock()
     private final CachingScriptClassCompiler compiler = new CachingScriptClassCompiler(target)
     final verifier = Mock(Verifier)
@@ -106,6 +106,31 @@ class CachingScriptClassCompilerTest extends Specification {
         1 * target.compile(script2, parentClassLoader, transformer, TestScript.class, verifier) >> TestScript.class
     }
 
+    def "compiles script class once when it is requested concurrently"() {
+        ScriptSource script = scriptSource('script')
+        ClassLoader parentClassLoader = Mock()
+        Transformer transformer = transformer()
+
+        when:
+        async {
+            start {
+                assert compiler.compile(script, parentClassLoader, transformer, Script.class, verifier) == Script.class
+            }
+            start {
+                thread.blockUntil.compiling
+                assert compiler.compile(script, parentClassLoader, transformer, Script.class, verifier) == Script.class
+            }
+        }
+
+        then:
+        1 * target.compile(script, parentClassLoader, transformer, Script.class, verifier) >> {
+            instant.compiling
+            thread.block()
+            Script.class
+        }
+        0 * target._
+    }
+
     def scriptSource(String className = 'script') {
         ScriptSource script = Mock()
         _ * script.className >> className
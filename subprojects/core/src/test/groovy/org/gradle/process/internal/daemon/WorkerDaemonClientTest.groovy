@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.process.internal.daemon
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.messaging.remote.ObjectConnection
+import org.gradle.process.ExecResult
+import org.gradle.process.internal.ExecException
+import org.gradle.process.internal.ExecHandle
+import org.gradle.process.internal.WorkerProcess
+import spock.lang.Specification
+
+class WorkerDaemonClientTest extends Specification {
+    def server = Mock(WorkerDaemonServerProtocol)
+    def connection = Stub(ObjectConnection) {
+        addOutgoing(WorkerDaemonServerProtocol) >> server
+    }
+    def workerProcess = Stub(WorkerProcess) {
+        getConnection() >> connection
+    }
+    def forkOptions = new WorkerDaemonForkOptions(new File("dir"), [new File("lib.jar")], ["org.lib"], null, "256m", [])
+    def client = new WorkerDaemonClient(new WorkerDaemonKey(forkOptions, [new URL("file:/implementation.jar")], LogLevel.LIFECYCLE))
+    def action = [1, 2, 3] as byte[]
+
+    def setup() {
+        client.connect(workerProcess)
+    }
+
+    def "returns the result of the action"() {
+        def result = new WorkerDaemonResult(false, [4] as byte[])
+
+        when:
+        def executed = client.execute(action)
+
+        then:
+        1 * server.execute(action) >> { client.executed(result) }
+        executed.is(result)
+        !client.processFinished
+    }
+
+    def "fails the action when the daemon process finishes while executing it"() {
+        def execResult = Stub(ExecResult) {
+            getExitValue() >> 137
+        }
+
+        when:
+        client.execute(action)
+
+        then:
+        1 * server.execute(action) >> {
+            // the daemon dies from another thread while the caller waits for the result
+            Thread.start {
+                client.executionFinished(Stub(ExecHandle), execResult)
+            }
+        }
+        def e = thrown(ExecException)
+        e.message == "Gradle worker daemon with fork options ${forkOptions} finished unexpectedly with exit value 137."
+        client.processFinished
+    }
+
+    def "fails the action without sending it when the daemon process has already finished"() {
+        def execResult = Stub(ExecResult) {
+            getExitValue() >> 1
+        }
+        client.executionFinished(Stub(ExecHandle), execResult)
+
+        when:
+        client.execute(action)
+
+        then:
+        thrown(ExecException)
+        0 * server.execute(_)
+    }
+}
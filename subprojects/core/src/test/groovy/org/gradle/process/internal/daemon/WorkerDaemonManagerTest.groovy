@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.process.internal.daemon
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.TimeProvider
+import spock.lang.Specification
+
+class WorkerDaemonManagerTest extends Specification {
+    def now = 0L
+    def timeProvider = Stub(TimeProvider) {
+        getCurrentTime() >> { now }
+    }
+    def starter = Mock(WorkerDaemonStarter)
+    def manager = new WorkerDaemonManager(2, 1000, timeProvider)
+    def action = [1, 2, 3] as byte[]
+    def result = new WorkerDaemonResult(false, [4] as byte[])
+
+    def "reuses idle daemon with the same key"() {
+        def client = client(key("a"))
+
+        when:
+        manager.execute(key("a"), starter, action)
+        manager.execute(key("a"), starter, action)
+
+        then:
+        1 * starter.startDaemon(key("a")) >> client
+        2 * client.execute(action) >> result
+        manager.daemonCount == 1
+        manager.idleDaemonCount == 1
+    }
+
+    def "starts a new daemon for different fork options"() {
+        def first = client(key("a"))
+        def second = client(key("b"))
+
+        when:
+        manager.execute(key("a"), starter, action)
+        manager.execute(key("b"), starter, action)
+
+        then:
+        1 * starter.startDaemon(key("a")) >> first
+        1 * starter.startDaemon(key("b")) >> second
+        manager.daemonCount == 2
+    }
+
+    def "stops least recently used idle daemon when too many daemons are running"() {
+        def first = client(key("a"))
+        def second = client(key("b"))
+        def third = client(key("c"))
+        starter.startDaemon(key("a")) >> first
+        starter.startDaemon(key("b")) >> second
+        starter.startDaemon(key("c")) >> third
+
+        when:
+        manager.execute(key("a"), starter, action)
+        manager.execute(key("b"), starter, action)
+        manager.execute(key("a"), starter, action)
+        manager.execute(key("c"), starter, action)
+
+        then:
+        1 * second.stop()
+        0 * first.stop()
+        manager.daemonCount == 2
+    }
+
+    def "stops daemons that have been idle for too long"() {
+        def first = client(key("a"))
+        def second = client(key("b"))
+        starter.startDaemon(key("a")) >> first
+        starter.startDaemon(key("b")) >> second
+
+        given:
+        manager.execute(key("a"), starter, action)
+        now = 500
+        manager.execute(key("b"), starter, action)
+
+        when:
+        now = 1000
+        manager.stopExpiredDaemons()
+
+        then:
+        1 * first.stop()
+        0 * second.stop()
+        manager.daemonCount == 1
+    }
+
+    def "discards daemon when execution fails"() {
+        def client = client(key("a"))
+        def failure = new RuntimeException("broken")
+        starter.startDaemon(key("a")) >> client
+
+        when:
+        manager.execute(key("a"), starter, action)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        1 * client.execute(action) >> { throw failure }
+        1 * client.stop()
+        manager.daemonCount == 0
+    }
+
+    def "stops idle daemon whose process has finished and starts a new one"() {
+        def first = client(key("a"))
+        def second = client(key("a"))
+
+        when:
+        manager.execute(key("a"), starter, action)
+        first.processFinished >> true
+        manager.execute(key("a"), starter, action)
+
+        then:
+        2 * starter.startDaemon(key("a")) >>> [first, second]
+        1 * first.stop()
+        1 * second.execute(action) >> result
+        manager.daemonCount == 1
+    }
+
+    def "stops all daemons when stopped"() {
+        def first = client(key("a"))
+        def second = client(key("b"))
+        starter.startDaemon(key("a")) >> first
+        starter.startDaemon(key("b")) >> second
+
+        given:
+        manager.execute(key("a"), starter, action)
+        manager.execute(key("b"), starter, action)
+
+        when:
+        manager.stop()
+
+        then:
+        1 * first.stop()
+        1 * second.stop()
+        manager.daemonCount == 0
+    }
+
+    def client(WorkerDaemonKey key) {
+        def client = Mock(WorkerDaemonClient)
+        client.key >> key
+        client.execute(_) >> result
+        return client
+    }
+
+    static WorkerDaemonKey key(String workingDir) {
+        def forkOptions = new WorkerDaemonForkOptions(new File(workingDir), [new File("lib.jar")], ["org.lib"], null, "256m", [])
+        new WorkerDaemonKey(forkOptions, [new URL("file:/implementation.jar")], LogLevel.LIFECYCLE)
+    }
+}
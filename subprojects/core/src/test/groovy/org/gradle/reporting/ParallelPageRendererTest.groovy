@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.reporting
+
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import spock.lang.Specification
+
+import java.util.concurrent.CopyOnWriteArrayList
+
+class ParallelPageRendererTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def renderer = new ParallelPageRenderer(executorFactory, 4)
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "renders every page"() {
+        def rendered = new CopyOnWriteArrayList()
+        def pages = (1..20).collect { page -> { -> rendered << page } as Runnable }
+
+        when:
+        renderer.render("pages", pages)
+
+        then:
+        rendered.sort() == (1..20).toList()
+    }
+
+    def "rethrows the first failure once the workers have finished"() {
+        def failure = new RuntimeException("broken")
+        def pages = [{ -> throw failure } as Runnable]
+        pages.addAll((1..20).collect { { -> } as Runnable })
+
+        when:
+        renderer.render("pages", pages)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+    }
+
+    def "renders pages in the calling thread when only one worker is allowed"() {
+        def threads = []
+        def pages = (1..3).collect { { -> threads << Thread.currentThread() } as Runnable }
+
+        when:
+        new ParallelPageRenderer(executorFactory, 1).render("pages", pages)
+
+        then:
+        threads == [Thread.currentThread()] * 3
+    }
+}
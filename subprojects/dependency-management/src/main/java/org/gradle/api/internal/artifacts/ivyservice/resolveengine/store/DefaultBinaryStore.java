@@ -44,11 +44,12 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
             }
         }
         if (offset == -1) {
-            offset = encoder.getWritePosition();
-            if (offset == Integer.MAX_VALUE) {
+            long position = encoder.getWritePosition();
+            if (position >= Integer.MAX_VALUE) {
                 throw new IllegalStateException("Unable to write to binary store. "
                         + "The bytes offset has reached a point where using it is unsafe. Please report this error.");
             }
+            offset = (int) position;
         }
         try {
             write.write(encoder);
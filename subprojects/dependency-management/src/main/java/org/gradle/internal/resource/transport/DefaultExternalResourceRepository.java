@@ -61,6 +61,11 @@ public class DefaultExternalResourceRepository implements ExternalResourceReposi
         putChecksum("SHA1", 40, source, destination);
     }
 
+    public void putWithoutChecksum(Factory<InputStream> source, Long contentLength, URI destination) throws IOException {
+        LOGGER.debug("Attempting to put resource {}.", destination);
+        uploader.upload(source, contentLength, destination);
+    }
+
     private void putChecksum(String algorithm, int checksumlength, File source, URI destination) throws IOException {
         byte[] checksumFile = createChecksumFile(source, algorithm, checksumlength);
         URI checksumDestination = URI.create(destination + "." + algorithm.toLowerCase());
@@ -17,11 +17,13 @@
 package org.gradle.internal.resource.transport;
 
 import org.gradle.api.Nullable;
+import org.gradle.internal.Factory;
 import org.gradle.internal.resource.ExternalResource;
 import org.gradle.internal.resource.metadata.ExternalResourceMetaData;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
 
@@ -42,6 +44,17 @@ public interface ExternalResourceRepository {
      */
     void put(File source, URI destination) throws IOException;
 
+    /**
+     * Transfer a resource to the repository, without publishing a checksum for it. The source may be opened more than once, for example when the
+     * transfer has to be repeated after an authentication challenge.
+     *
+     * @param source Opens the content to be transferred.
+     * @param contentLength The length of the content.
+     * @param destination Where to transfer the resource.
+     * @throws IOException On publication failure.
+     */
+    void putWithoutChecksum(Factory<InputStream> source, Long contentLength, URI destination) throws IOException;
+
     /**
      * Fetches only the metadata for the result.
      *
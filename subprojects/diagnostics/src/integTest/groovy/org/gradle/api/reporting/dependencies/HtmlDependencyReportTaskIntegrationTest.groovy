@@ -196,6 +196,36 @@ class HtmlDependencyReportTaskIntegrationTest extends AbstractIntegrationSpec {
         json.project.configurations[0].dependencies[1].name == "foo:bar:2.0"
     }
 
+    def "writes dependency trees that are shared between configurations once"() {
+        given:
+        mavenRepo.module("foo", "bar", "1.0").publish()
+        mavenRepo.module("foo", "baz", "1.0").dependsOn("foo", "bar", "1.0").publish()
+
+        file("build.gradle") << """
+            apply plugin : 'project-report'
+
+            repositories {
+                maven { url "${mavenRepo.uri}" }
+            }
+            configurations {
+                compile
+                runtime.extendsFrom compile
+            }
+            dependencies {
+                compile 'foo:baz:1.0'
+            }
+        """
+
+        when:
+        run "htmlDependencyReport"
+        def json = readRawGeneratedJson("root")
+
+        then:
+        json.project.configurations.size() == 2
+        json.project.configurations[0].dependencies == json.project.configurations[1].dependencies
+        json.nodes.findAll { it.module != null }.size() == 2
+    }
+
     def "generates report for multiple projects"() {
         given:
         file("settings.gradle") << """
@@ -502,6 +532,24 @@ rootProject.name = 'root'
     }
 
     private def readGeneratedJson(fileNameWithoutExtension) {
+        def json = readRawGeneratedJson(fileNameWithoutExtension)
+        // replace the indexes of the shared nodes by the nodes themselves
+        def inflate
+        inflate = { List indexes ->
+            indexes.collect { index ->
+                def node = new LinkedHashMap(json.nodes[index])
+                node.children = inflate(node.children)
+                return node
+            }
+        }
+        json.project.configurations.each { configuration ->
+            configuration.dependencies = inflate(configuration.dependencies)
+            configuration.moduleInsights.each { it.insight = inflate(it.insight) }
+        }
+        return json
+    }
+
+    private def readRawGeneratedJson(fileNameWithoutExtension) {
         TestFile htmlReport = file("build/reports/project/dependencies/" + fileNameWithoutExtension + ".js")
         String content = htmlReport.getText("utf-8");
         // remove the variable declaration
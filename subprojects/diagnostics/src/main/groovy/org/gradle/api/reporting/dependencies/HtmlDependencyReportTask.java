@@ -27,6 +27,7 @@ import org.gradle.api.reporting.dependencies.internal.DefaultDependencyReportCon
 import org.gradle.api.reporting.dependencies.internal.HtmlDependencyReporter;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.reflect.Instantiator;
 
 import javax.inject.Inject;
@@ -87,6 +88,11 @@ public class HtmlDependencyReportTask extends ConventionTask implements Reportin
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ExecutorFactory getExecutorFactory() {
+        throw new UnsupportedOperationException();
+    }
+
     @TaskAction
     public void generate() {
         if (!reports.getHtml().isEnabled()) {
@@ -94,7 +100,7 @@ public class HtmlDependencyReportTask extends ConventionTask implements Reportin
             return;
         }
 
-        HtmlDependencyReporter reporter = new HtmlDependencyReporter(getVersionSelectorScheme());
+        HtmlDependencyReporter reporter = new HtmlDependencyReporter(getVersionSelectorScheme(), getExecutorFactory());
         reporter.render(getProjects(), reports.getHtml().getDestination());
     }
 
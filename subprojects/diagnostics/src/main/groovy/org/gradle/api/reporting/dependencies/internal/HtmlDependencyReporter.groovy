@@ -19,10 +19,11 @@ package org.gradle.api.reporting.dependencies.internal
 import org.gradle.api.Project
 import org.gradle.api.Transformer
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme
+import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.reporting.HtmlReportBuilder
 import org.gradle.reporting.HtmlReportRenderer
+import org.gradle.reporting.ParallelPageRenderer
 import org.gradle.reporting.ReportRenderer
-import org.gradle.util.GFileUtils
 
 /**
  * Class responsible for the generation of an HTML dependency report.
@@ -35,43 +36,55 @@ import org.gradle.util.GFileUtils
  * The HTML file uses a JavaScript script to generate an interactive page from the data contained in
  * the JSON structure.
  * <p>
+ * The configurations of all projects are resolved first, by the calling thread. The JS files of the projects
+ * are then written in parallel.
+ * <p>
  *
  * @see JsonProjectDependencyRenderer
  */
 class HtmlDependencyReporter extends ReportRenderer<Set<Project>, File> {
-    private File outputDirectory;
     private final JsonProjectDependencyRenderer renderer
+    private final ParallelPageRenderer pageRenderer
 
-    HtmlDependencyReporter(VersionSelectorScheme versionSelectorScheme) {
+    HtmlDependencyReporter(VersionSelectorScheme versionSelectorScheme, ExecutorFactory executorFactory) {
         renderer = new JsonProjectDependencyRenderer(versionSelectorScheme)
+        pageRenderer = new ParallelPageRenderer(executorFactory)
     }
 
     @Override
     void render(Set<Project> projects, File outputDirectory) {
-        this.outputDirectory = outputDirectory
-
-        def renderer = new HtmlReportRenderer()
-        renderer.render(projects, new ReportRenderer<Set<Project>, HtmlReportBuilder>() {
+        def htmlPageScheme = projectNamingScheme("html")
+        def jsScheme = projectNamingScheme("js")
+        def htmlRenderer = new HtmlReportRenderer()
+        htmlRenderer.render(projects, new ReportRenderer<Set<Project>, HtmlReportBuilder>() {
             @Override
             void render(Set<Project> model, HtmlReportBuilder builder) {
-                def htmlPageScheme = projectNamingScheme("html")
-                def jsScheme = projectNamingScheme("js")
                 def projectPageRenderer = new ProjectPageRenderer(jsScheme)
                 builder.renderRawHtmlPage("index.html", projects, new ProjectsPageRenderer(htmlPageScheme))
                 for (Project project : projects) {
-                    String jsFileName = jsScheme.transform(project)
-                    generateJsFile(project, jsFileName)
                     String htmlFileName = htmlPageScheme.transform(project)
                     builder.renderRawHtmlPage(htmlFileName, project, projectPageRenderer)
                 }
             }
         }, outputDirectory)
+
+        List<Runnable> jsFiles = projects.collect { Project project ->
+            def report = renderer.prepare(project)
+            def jsFile = new File(outputDirectory, jsScheme.transform(project))
+            return { generateJsFile(report, jsFile) } as Runnable
+        }
+        pageRenderer.render("HTML dependency report", jsFiles)
     }
 
-    private void generateJsFile(Project project, String fileName) {
-        String json = renderer.render(project)
-        String content = "var projectDependencyReport = " + json + ";";
-        GFileUtils.writeFile(content, new File(outputDirectory, fileName), "utf-8")
+    private void generateJsFile(JsonProjectDependencyRenderer.ProjectReport report, File file) {
+        def writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "utf-8"))
+        try {
+            writer.write("var projectDependencyReport = ")
+            renderer.render(report, writer)
+            writer.write(";")
+        } finally {
+            writer.close()
+        }
     }
 
     private Transformer<String, Project> projectNamingScheme(String extension) {
@@ -0,0 +1,395 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.reporting.dependencies.internal;
+
+import com.google.gson.stream.JsonWriter;
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.Configuration;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.DependencyResult;
+import org.gradle.api.artifacts.result.ResolutionResult;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.artifacts.result.ResolvedDependencyResult;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.tasks.diagnostics.internal.graph.nodes.RenderableDependency;
+import org.gradle.api.tasks.diagnostics.internal.graph.nodes.RenderableModuleResult;
+import org.gradle.api.tasks.diagnostics.internal.insight.DependencyInsightReporter;
+import org.gradle.util.GradleVersion;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renderer that emits a JSON structure containing the HTML dependency report data for a given project.
+ * <p>
+ * The nodes of the dependency trees and of the insight trees are not nested in each other. Every distinct node, together with its subtree, is written once
+ * to the <code>nodes</code> array and is referenced by its index in that array. Trees that are repeated between configurations and between the insights
+ * of modules are therefore only written once. A node only references nodes that appear before it in the array.
+ * The structure is the following:
+ *
+ * <pre>
+ *     {
+ *          "gradleVersion" : "...",
+ *          "generationDate" : "...",
+ *          "project" : {
+ *               "name" : "...",
+ *               "description : "...", (optional)
+ *               "configurations" : [
+ *                   "name" : "...",
+ *                   "description" : "...", (optional)
+ *                   "dependencies" : [ index of a node, ... ],
+ *                   "moduleInsights : [
+ *                       {
+ *                           "module" : "group:name"
+ *                           "insight" : [ index of a node, ... ]
+ *                       },
+ *                       ...
+ *                   ]
+ *               ]
+ *          },
+ *          "nodes" : [
+ *              {
+ *                  "module" : "group:name", (dependency nodes only)
+ *                  "name" : "...",
+ *                  "description" : "...", (insight nodes only)
+ *                  "resolvable" : true|false,
+ *                  "hasConflict" : true|false,
+ *                  "alreadyRendered" : true|false,
+ *                  "isLeaf" : true|false, (insight nodes only)
+ *                  "children" : [ index of a node, ... ]
+ *              },
+ *              ...
+ *          ]
+ *      }
+ * </pre>
+ *
+ * The configurations of a project are resolved by {@link #prepare(Project)}, which must be called by the thread that owns the project.
+ * The returned report can then be written by any thread.
+ */
+public class JsonProjectDependencyRenderer {
+    private static final int[] NO_CHILDREN = new int[0];
+    private final VersionSelectorScheme versionSelectorScheme;
+
+    public JsonProjectDependencyRenderer(VersionSelectorScheme versionSelectorScheme) {
+        this.versionSelectorScheme = versionSelectorScheme;
+    }
+
+    /**
+     * Resolves the configurations of the given project.
+     */
+    public ProjectReport prepare(Project project) {
+        List<ConfigurationReport> configurations = new ArrayList<ConfigurationReport>();
+        for (Configuration configuration : project.getConfigurations()) {
+            configurations.add(new ConfigurationReport(configuration.getName(), configuration.getDescription(), configuration.getIncoming().getResolutionResult()));
+        }
+        return new ProjectReport(project.getName(), project.getDescription(), configurations);
+    }
+
+    /**
+     * Writes the project dependency report structure to the given writer.
+     */
+    public void render(ProjectReport project, Writer writer) throws IOException {
+        NodeTable nodes = new NodeTable();
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.name("gradleVersion").value(GradleVersion.current().toString());
+        json.name("generationDate").value(new Date().toString());
+        json.name("project").beginObject();
+        json.name("name").value(project.name);
+        json.name("description").value(project.description);
+        json.name("configurations").beginArray();
+        for (ConfigurationReport configuration : project.configurations) {
+            renderConfiguration(configuration, nodes, json);
+        }
+        json.endArray();
+        json.endObject();
+        json.name("nodes").beginArray();
+        for (Node node : nodes.nodes) {
+            node.write(json);
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    private void renderConfiguration(ConfigurationReport configuration, NodeTable nodes, JsonWriter json) throws IOException {
+        ResolvedComponentResult root = configuration.result.getRoot();
+        json.beginObject();
+        json.name("name").value(configuration.name);
+        json.name("description").value(configuration.description);
+        json.name("dependencies");
+        writeIds(renderDependencies(new RenderableModuleResult(root).getChildren(), new HashSet<Object>(), nodes), json);
+        json.name("moduleInsights").beginArray();
+        for (Map.Entry<ModuleIdentifier, Set<DependencyResult>> entry : collectModuleDependencies(root).entrySet()) {
+            json.beginObject();
+            json.name("module").value(entry.getKey().toString());
+            json.name("insight");
+            writeIds(renderInsight(entry.getValue(), configuration.name, nodes), json);
+            json.endObject();
+        }
+        json.endArray();
+        json.endObject();
+    }
+
+    private int[] renderDependencies(Set<? extends RenderableDependency> dependencies, Set<Object> visited, NodeTable nodes) {
+        int[] ids = new int[dependencies.size()];
+        int i = 0;
+        for (RenderableDependency dependency : dependencies) {
+            boolean alreadyVisited = !visited.add(dependency.getId());
+            Set<? extends RenderableDependency> children = dependency.getChildren();
+            boolean alreadyRendered = alreadyVisited && !children.isEmpty();
+            String name = replaceArrow(dependency.getName());
+            boolean hasConflict = !name.equals(dependency.getName());
+            int[] childIds = alreadyRendered ? NO_CHILDREN : renderDependencies(children, visited, nodes);
+            ids[i++] = nodes.intern(new Node(getModuleIdentifier(dependency), name, null, dependency.isResolvable(), hasConflict, alreadyRendered, null, childIds));
+        }
+        return ids;
+    }
+
+    private String getModuleIdentifier(RenderableDependency renderableDependency) {
+        if (renderableDependency.getId() instanceof ModuleComponentIdentifier) {
+            ModuleComponentIdentifier id = (ModuleComponentIdentifier) renderableDependency.getId();
+            return new DefaultModuleIdentifier(id.getGroup(), id.getModule()).toString();
+        }
+        return null;
+    }
+
+    /**
+     * Collects, in a single pass over the graph, the modules selected in the graph and the dependencies that request or select each of them.
+     */
+    private Map<ModuleIdentifier, Set<DependencyResult>> collectModuleDependencies(ResolvedComponentResult root) {
+        Set<ModuleIdentifier> selectedModules = new LinkedHashSet<ModuleIdentifier>();
+        Map<ModuleIdentifier, Set<DependencyResult>> dependencies = new HashMap<ModuleIdentifier, Set<DependencyResult>>();
+        collectModuleDependencies(root, new HashSet<ResolvedComponentResult>(), selectedModules, dependencies);
+        Map<ModuleIdentifier, Set<DependencyResult>> result = new LinkedHashMap<ModuleIdentifier, Set<DependencyResult>>();
+        for (ModuleIdentifier module : selectedModules) {
+            result.put(module, dependencies.get(module));
+        }
+        return result;
+    }
+
+    private void collectModuleDependencies(ResolvedComponentResult component, Set<ResolvedComponentResult> visited, Set<ModuleIdentifier> selectedModules, Map<ModuleIdentifier, Set<DependencyResult>> dependencies) {
+        if (!visited.add(component)) {
+            return;
+        }
+        for (DependencyResult dependency : component.getDependencies()) {
+            ModuleIdentifier requestedModule = null;
+            if (dependency.getRequested() instanceof ModuleComponentSelector) {
+                ModuleComponentSelector selector = (ModuleComponentSelector) dependency.getRequested();
+                requestedModule = DefaultModuleIdentifier.newId(selector.getGroup(), selector.getModule());
+                addTo(dependencies, requestedModule, dependency);
+            }
+            if (dependency instanceof ResolvedDependencyResult) {
+                ResolvedComponentResult selected = ((ResolvedDependencyResult) dependency).getSelected();
+                if (selected.getId() instanceof ModuleComponentIdentifier) {
+                    ModuleComponentIdentifier id = (ModuleComponentIdentifier) selected.getId();
+                    ModuleIdentifier selectedModule = DefaultModuleIdentifier.newId(id.getGroup(), id.getModule());
+                    selectedModules.add(selectedModule);
+                    if (!selectedModule.equals(requestedModule)) {
+                        addTo(dependencies, selectedModule, dependency);
+                    }
+                }
+                collectModuleDependencies(selected, visited, selectedModules, dependencies);
+            }
+        }
+    }
+
+    private static void addTo(Map<ModuleIdentifier, Set<DependencyResult>> map, ModuleIdentifier module, DependencyResult dependency) {
+        Set<DependencyResult> dependencies = map.get(module);
+        if (dependencies == null) {
+            dependencies = new LinkedHashSet<DependencyResult>();
+            map.put(module, dependencies);
+        }
+        dependencies.add(dependency);
+    }
+
+    private int[] renderInsight(Collection<DependencyResult> dependencies, String configurationName, NodeTable nodes) {
+        Collection<RenderableDependency> sortedDeps = new DependencyInsightReporter().prepare(dependencies, versionSelectorScheme);
+        int[] ids = new int[sortedDeps.size()];
+        int i = 0;
+        for (RenderableDependency dependency : sortedDeps) {
+            String name = replaceArrow(dependency.getName());
+            boolean hasConflict = !name.equals(dependency.getName());
+            int[] childIds = renderInsightChildren(dependency.getChildren(), new HashSet<Object>(), configurationName, nodes);
+            ids[i++] = nodes.intern(new Node(null, name, dependency.getDescription(), dependency.isResolvable(), hasConflict, false, null, childIds));
+        }
+        return ids;
+    }
+
+    private int[] renderInsightChildren(Set<? extends RenderableDependency> dependencies, Set<Object> visited, String configurationName, NodeTable nodes) {
+        int[] ids = new int[dependencies.size()];
+        int i = 0;
+        for (RenderableDependency dependency : dependencies) {
+            boolean alreadyVisited = !visited.add(dependency.getId());
+            Set<? extends RenderableDependency> children = dependency.getChildren();
+            boolean leaf = children.isEmpty();
+            boolean alreadyRendered = alreadyVisited && !leaf;
+            String childName = replaceArrow(dependency.getName());
+            boolean hasConflict = !childName.equals(dependency.getName());
+            String name = leaf ? configurationName : childName;
+            int[] childIds = alreadyRendered ? NO_CHILDREN : renderInsightChildren(children, visited, configurationName, nodes);
+            ids[i++] = nodes.intern(new Node(null, name, null, dependency.isResolvable(), hasConflict, alreadyRendered, leaf, childIds));
+        }
+        return ids;
+    }
+
+    private static void writeIds(int[] ids, JsonWriter json) throws IOException {
+        json.beginArray();
+        for (int id : ids) {
+            json.value(id);
+        }
+        json.endArray();
+    }
+
+    private String replaceArrow(String name) {
+        return name.replace(" -> ", " \u27A1 ");
+    }
+
+    /**
+     * The dependency graphs of a project, ready to be rendered.
+     */
+    public static class ProjectReport {
+        private final String name;
+        private final String description;
+        private final List<ConfigurationReport> configurations;
+
+        private ProjectReport(String name, String description, List<ConfigurationReport> configurations) {
+            this.name = name;
+            this.description = description;
+            this.configurations = configurations;
+        }
+    }
+
+    private static class ConfigurationReport {
+        private final String name;
+        private final String description;
+        private final ResolutionResult result;
+
+        private ConfigurationReport(String name, String description, ResolutionResult result) {
+            this.name = name;
+            this.description = description;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Assigns an index to each distinct node. A node is only created once all of its children have an index, so that equal subtrees share the same index.
+     */
+    private static class NodeTable {
+        private final Map<Node, Integer> ids = new HashMap<Node, Integer>();
+        private final List<Node> nodes = new ArrayList<Node>();
+
+        int intern(Node node) {
+            Integer id = ids.get(node);
+            if (id == null) {
+                id = nodes.size();
+                nodes.add(node);
+                ids.put(node, id);
+            }
+            return id;
+        }
+    }
+
+    private static class Node {
+        private final String module;
+        private final String name;
+        private final String description;
+        private final boolean resolvable;
+        private final boolean hasConflict;
+        private final boolean alreadyRendered;
+        private final Boolean leaf;
+        private final int[] children;
+        private final int hashCode;
+
+        private Node(String module, String name, String description, boolean resolvable, boolean hasConflict, boolean alreadyRendered, Boolean leaf, int[] children) {
+            this.module = module;
+            this.name = name;
+            this.description = description;
+            this.resolvable = resolvable;
+            this.hasConflict = hasConflict;
+            this.alreadyRendered = alreadyRendered;
+            this.leaf = leaf;
+            this.children = children;
+            this.hashCode = Arrays.hashCode(new Object[]{module, name, description, resolvable, hasConflict, alreadyRendered, leaf}) * 31 + Arrays.hashCode(children);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Node)) {
+                return false;
+            }
+            Node other = (Node) obj;
+            return hashCode == other.hashCode
+                && resolvable == other.resolvable
+                && hasConflict == other.hasConflict
+                && alreadyRendered == other.alreadyRendered
+                && name.equals(other.name)
+                && equal(module, other.module)
+                && equal(description, other.description)
+                && equal(leaf, other.leaf)
+                && Arrays.equals(children, other.children);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        private static boolean equal(Object a, Object b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        void write(JsonWriter json) throws IOException {
+            json.beginObject();
+            if (module != null) {
+                json.name("module").value(module);
+            }
+            json.name("name").value(name);
+            if (description != null) {
+                json.name("description").value(description);
+            }
+            json.name("resolvable").value(resolvable);
+            json.name("hasConflict").value(hasConflict);
+            json.name("alreadyRendered").value(alreadyRendered);
+            if (leaf != null) {
+                json.name("isLeaf").value(leaf);
+            }
+            json.name("children");
+            writeIds(children, json);
+            json.endObject();
+        }
+    }
+}
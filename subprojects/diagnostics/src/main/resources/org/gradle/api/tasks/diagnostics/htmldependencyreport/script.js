@@ -27,6 +27,11 @@ function initializeProjectPage(report) {
             event.preventDefault();
         });
 
+        // the nodes of the dependency and insight trees are shared, and are referenced by their index in report.nodes
+        function getNode(index) {
+            return report.nodes[index];
+        }
+
         // creates a node of a dependency tree
         function createDependencyNode(dependency) {
             var node = {
@@ -48,8 +53,8 @@ function initializeProjectPage(report) {
             if (classes.length > 0) {
                 node.attr['class'] = classes.join(' ');
             }
-            $.each(dependency.children, function(index, dependency) {
-                var dependencyNode = createDependencyNode(dependency);
+            $.each(dependency.children, function(index, child) {
+                var dependencyNode = createDependencyNode(getNode(child));
                 node.children.push(dependencyNode);
             });
             return node;
@@ -62,7 +67,7 @@ function initializeProjectPage(report) {
                     return moduleInsights[i].insight;
                 }
             }
-            return null;
+            return [];
         }
 
         // creates a node of the insight tree
@@ -89,8 +94,8 @@ function initializeProjectPage(report) {
             if (classes.length > 0) {
                 node.attr['class'] = classes.join(' ');
             }
-            $.each(dependency.children, function(index, dependency) {
-                var dependencyNode = createInsightNode(dependency);
+            $.each(dependency.children, function(index, child) {
+                var dependencyNode = createInsightNode(getNode(child));
                 node.children.push(dependencyNode);
             });
             return node;
@@ -107,7 +112,7 @@ function initializeProjectPage(report) {
             var insight = findInsight(moduleInsights, module);
             var nodes = [];
             $.each(insight, function(index, dependency) {
-                var dependencyNode = createInsightNode(dependency);
+                var dependencyNode = createInsightNode(getNode(dependency));
                 nodes.push(dependencyNode);
             });
             $tree.append($('<img>').attr('src', 'throbber.gif')).append('Loading...');
@@ -154,7 +159,7 @@ function initializeProjectPage(report) {
             if (configuration.dependencies && configuration.dependencies.length > 0) {
                 var nodes = [];
                 $.each(configuration.dependencies, function(index, dependency) {
-                    var dependencyNode = createDependencyNode(dependency);
+                    var dependencyNode = createDependencyNode(getNode(dependency));
                     nodes.push(dependencyNode);
                 });
                 $tree.append($('<img>').attr('src', 'throbber.gif')).append('Loading...');
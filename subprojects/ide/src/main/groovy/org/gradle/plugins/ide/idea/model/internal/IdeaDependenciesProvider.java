@@ -95,6 +95,7 @@ public class IdeaDependenciesProvider {
 
     private Set<Dependency> provideFromScopeRuleMappings(IdeaModule ideaModule) {
         Multimap<IdeDependencyKey<?, Dependency>, String> dependencyToConfigurations = LinkedHashMultimap.create();
+        List<IdeExtendedRepoFileDependency> allRepoFileDependencies = new ArrayList<IdeExtendedRepoFileDependency>();
         for (Configuration configuration : ideaConfigurations(ideaModule)) {
             // project dependencies
             Collection<IdeProjectDependency> ideProjectDependencies = dependenciesExtractor.extractProjectDependencies(
@@ -110,9 +111,10 @@ public class IdeaDependenciesProvider {
             }
             // repository dependencies
             if (!ideaModule.isOffline()) {
+                // source and javadoc artifacts are resolved for all configurations at once, below
                 Collection<IdeExtendedRepoFileDependency> ideRepoFileDependencies = dependenciesExtractor.extractRepoFileDependencies(
-                        ideaModule.getProject().getDependencies(), Collections.singletonList(configuration), Collections.<Configuration>emptyList(),
-                        ideaModule.isDownloadSources(), ideaModule.isDownloadJavadoc());
+                        ideaModule.getProject(), Collections.singletonList(configuration), Collections.<Configuration>emptyList(), false, false);
+                allRepoFileDependencies.addAll(ideRepoFileDependencies);
                 for (IdeExtendedRepoFileDependency ideRepoFileDependency : ideRepoFileDependencies) {
                     IdeDependencyKey<?, Dependency> key = IdeDependencyKey.forRepoFileDependency(
                             ideRepoFileDependency,
@@ -142,6 +144,10 @@ public class IdeaDependenciesProvider {
             }
         }
 
+        if (!ideaModule.isOffline()) {
+            dependenciesExtractor.downloadAuxiliaryArtifacts(ideaModule.getProject(), allRepoFileDependencies, ideaModule.isDownloadSources(), ideaModule.isDownloadJavadoc());
+        }
+
         Set<Dependency> dependencies = new LinkedHashSet<Dependency>();
         for (GeneratedIdeaScope scope : GeneratedIdeaScope.values()) {
             Map<String, Collection<Configuration>> plusMinusConfigurations = ideaModule.getScopes().get(scope.name());
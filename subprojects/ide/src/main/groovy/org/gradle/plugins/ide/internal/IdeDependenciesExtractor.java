@@ -22,22 +22,18 @@ import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.api.artifacts.component.ComponentIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
-import org.gradle.api.artifacts.dsl.DependencyHandler;
-import org.gradle.api.artifacts.query.ArtifactResolutionQuery;
-import org.gradle.api.artifacts.result.ArtifactResult;
-import org.gradle.api.artifacts.result.ComponentArtifactsResult;
-import org.gradle.api.artifacts.result.ResolvedArtifactResult;
 import org.gradle.api.component.Artifact;
+import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.language.base.artifact.SourcesArtifact;
 import org.gradle.language.java.artifact.JavadocArtifact;
+import org.gradle.plugins.ide.internal.resolver.AuxiliaryArtifactCache;
 import org.gradle.plugins.ide.internal.resolver.DefaultIdeDependencyResolver;
 import org.gradle.plugins.ide.internal.resolver.IdeDependencyResolver;
 import org.gradle.plugins.ide.internal.resolver.model.IdeExtendedRepoFileDependency;
 import org.gradle.plugins.ide.internal.resolver.model.IdeLocalFileDependency;
 import org.gradle.plugins.ide.internal.resolver.model.IdeProjectDependency;
 import org.gradle.plugins.ide.internal.resolver.model.UnresolvedIdeRepoFileDependency;
-import org.gradle.jvm.JvmLibrary;
 
 import java.io.File;
 import java.util.*;
@@ -64,26 +60,11 @@ public class IdeDependenciesExtractor {
         return deps.values();
     }
 
-    public Collection<IdeExtendedRepoFileDependency> extractRepoFileDependencies(DependencyHandler dependencyHandler, Collection<Configuration> plusConfigurations, Collection<Configuration> minusConfigurations, boolean downloadSources, boolean downloadJavadoc) {
-        // can have multiple IDE dependencies with same component identifier (see GRADLE-1622)
-        Multimap<ComponentIdentifier, IdeExtendedRepoFileDependency> resolvedDependenciesComponentMap = LinkedHashMultimap.create();
-        for (IdeExtendedRepoFileDependency dep : resolvedExternalDependencies(plusConfigurations, minusConfigurations)) {
-            resolvedDependenciesComponentMap.put(toComponentIdentifier(dep.getId()), dep);
-        }
-
-        List<Class<? extends Artifact>> artifactTypes = new ArrayList<Class<? extends Artifact>>(2);
-        if (downloadSources) {
-            artifactTypes.add(SourcesArtifact.class);
-        }
-
-        if (downloadJavadoc) {
-            artifactTypes.add(JavadocArtifact.class);
-        }
-
-        downloadAuxiliaryArtifacts(dependencyHandler, resolvedDependenciesComponentMap, artifactTypes);
+    public Collection<IdeExtendedRepoFileDependency> extractRepoFileDependencies(Project project, Collection<Configuration> plusConfigurations, Collection<Configuration> minusConfigurations, boolean downloadSources, boolean downloadJavadoc) {
+        Collection<IdeExtendedRepoFileDependency> resolvedDependencies = resolvedExternalDependencies(plusConfigurations, minusConfigurations);
+        downloadAuxiliaryArtifacts(project, resolvedDependencies, downloadSources, downloadJavadoc);
 
         Collection<UnresolvedIdeRepoFileDependency> unresolvedDependencies = unresolvedExternalDependencies(plusConfigurations, minusConfigurations);
-        Collection<IdeExtendedRepoFileDependency> resolvedDependencies = resolvedDependenciesComponentMap.values();
 
         Collection<IdeExtendedRepoFileDependency> resolvedAndUnresolved = new ArrayList<IdeExtendedRepoFileDependency>(unresolvedDependencies.size() + resolvedDependencies.size());
         resolvedAndUnresolved.addAll(resolvedDependencies);
@@ -91,38 +72,59 @@ public class IdeDependenciesExtractor {
         return resolvedAndUnresolved;
     }
 
-    private ModuleComponentIdentifier toComponentIdentifier(ModuleVersionIdentifier id) {
-        return new DefaultModuleComponentIdentifier(id.getGroup(), id.getName(), id.getVersion());
-    }
+    /**
+     * Adds the source and javadoc artifacts to the given dependencies. The artifacts of all dependencies are resolved together, and artifacts already
+     * resolved for another project of the build are reused.
+     */
+    public void downloadAuxiliaryArtifacts(Project project, Collection<IdeExtendedRepoFileDependency> dependencies, boolean downloadSources, boolean downloadJavadoc) {
+        List<Class<? extends Artifact>> artifactTypes = new ArrayList<Class<? extends Artifact>>(2);
+        if (downloadSources) {
+            artifactTypes.add(SourcesArtifact.class);
+        }
+
+        if (downloadJavadoc) {
+            artifactTypes.add(JavadocArtifact.class);
+        }
 
-    private static void downloadAuxiliaryArtifacts(DependencyHandler dependencyHandler, Multimap<ComponentIdentifier, IdeExtendedRepoFileDependency> dependencies, List<Class<? extends Artifact>> artifactTypes) {
         if (artifactTypes.isEmpty()) {
             return;
         }
 
-        ArtifactResolutionQuery query = dependencyHandler.createArtifactResolutionQuery();
-        query.forComponents(dependencies.keySet());
-
-        @SuppressWarnings("unchecked") Class<? extends Artifact>[] artifactTypesArray = (Class<? extends Artifact>[]) new Class<?>[artifactTypes.size()];
-        query.withArtifacts(JvmLibrary.class, artifactTypes.toArray(artifactTypesArray));
-        Set<ComponentArtifactsResult> componentResults = query.execute().getResolvedComponents();
-        for (ComponentArtifactsResult componentResult : componentResults) {
-            for (IdeExtendedRepoFileDependency dependency : dependencies.get(componentResult.getId())) {
-                for (ArtifactResult sourcesResult : componentResult.getArtifacts(SourcesArtifact.class)) {
-                    if (sourcesResult instanceof ResolvedArtifactResult) {
-                        dependency.addSourceFile(((ResolvedArtifactResult) sourcesResult).getFile());
+        // can have multiple IDE dependencies with same component identifier (see GRADLE-1622)
+        Multimap<ComponentIdentifier, IdeExtendedRepoFileDependency> dependenciesByComponent = LinkedHashMultimap.create();
+        for (IdeExtendedRepoFileDependency dependency : dependencies) {
+            if (dependency.getId() != null) {
+                dependenciesByComponent.put(toComponentIdentifier(dependency.getId()), dependency);
+            }
+        }
+        if (dependenciesByComponent.isEmpty()) {
+            return;
+        }
+
+        AuxiliaryArtifactCache artifactCache = ((ProjectInternal) project).getServices().get(AuxiliaryArtifactCache.class);
+        Map<ComponentIdentifier, Map<Class<? extends Artifact>, Set<File>>> artifacts = artifactCache.getArtifacts(project, dependenciesByComponent.keySet(), artifactTypes);
+        for (Map.Entry<ComponentIdentifier, Map<Class<? extends Artifact>, Set<File>>> componentArtifacts : artifacts.entrySet()) {
+            Set<File> sourceFiles = componentArtifacts.getValue().get(SourcesArtifact.class);
+            Set<File> javadocFiles = componentArtifacts.getValue().get(JavadocArtifact.class);
+            for (IdeExtendedRepoFileDependency dependency : dependenciesByComponent.get(componentArtifacts.getKey())) {
+                if (sourceFiles != null) {
+                    for (File sourceFile : sourceFiles) {
+                        dependency.addSourceFile(sourceFile);
                     }
                 }
-
-                for (ArtifactResult javadocResult : componentResult.getArtifacts(JavadocArtifact.class)) {
-                    if (javadocResult instanceof ResolvedArtifactResult) {
-                        dependency.addJavadocFile(((ResolvedArtifactResult) javadocResult).getFile());
+                if (javadocFiles != null) {
+                    for (File javadocFile : javadocFiles) {
+                        dependency.addJavadocFile(javadocFile);
                     }
                 }
             }
         }
     }
 
+    private ModuleComponentIdentifier toComponentIdentifier(ModuleVersionIdentifier id) {
+        return new DefaultModuleComponentIdentifier(id.getGroup(), id.getName(), id.getVersion());
+    }
+
     private Collection<UnresolvedIdeRepoFileDependency> unresolvedExternalDependencies(Collection<Configuration> plusConfigurations, Collection<Configuration> minusConfigurations) {
         final LinkedHashMap<File, UnresolvedIdeRepoFileDependency> unresolved = new LinkedHashMap<File, UnresolvedIdeRepoFileDependency>();
 
@@ -20,6 +20,7 @@ import com.google.common.collect.ImmutableMap;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.Project;
 import org.gradle.api.Task;
+import org.gradle.api.artifacts.ModuleVersionIdentifier;
 import org.gradle.plugins.ide.eclipse.EclipsePlugin;
 import org.gradle.plugins.ide.eclipse.model.*;
 import org.gradle.plugins.ide.internal.tooling.eclipse.*;
@@ -36,6 +37,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
     private boolean projectDependenciesOnly;
     private DefaultEclipseProject result;
     private final Map<String, DefaultEclipseProject> projectMapping = new HashMap<String, DefaultEclipseProject>();
+    private final Map<List<Object>, DefaultEclipseExternalDependency> externalDependencyMapping = new HashMap<List<Object>, DefaultEclipseExternalDependency>();
     private TasksFactory tasksFactory;
     private DefaultGradleProject<?> rootGradleProject;
     private Project currentProject;
@@ -54,6 +56,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         tasksFactory = new TasksFactory(includeTasks);
         projectDependenciesOnly = modelName.equals("org.gradle.tooling.model.eclipse.HierarchicalEclipseProject");
         currentProject = project;
+        externalDependencyMapping.clear();
         Project root = project.getRootProject();
         rootGradleProject = gradleProjectBuilder.buildAll(project);
         tasksFactory.collectTasks(root);
@@ -97,7 +100,7 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
                 final File file = library.getLibrary().getFile();
                 final File source = library.getSourcePath() == null ? null : library.getSourcePath().getFile();
                 final File javadoc = library.getJavadocPath() == null ? null : library.getJavadocPath().getFile();
-                externalDependencies.add(new DefaultEclipseExternalDependency(file, javadoc, source, library.getModuleVersion()));
+                externalDependencies.add(externalDependency(file, javadoc, source, library.getModuleVersion()));
             } else if (entry instanceof ProjectDependency) {
                 final ProjectDependency projectDependency = (ProjectDependency) entry;
                 final String path = StringUtils.removeStart(projectDependency.getPath(), "/");
@@ -130,6 +133,17 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         }
     }
 
+    private DefaultEclipseExternalDependency externalDependency(File file, File javadoc, File source, ModuleVersionIdentifier moduleVersion) {
+        // Most projects share their external dependencies, use a single instance for each of them so that each is only serialized once
+        List<Object> key = Arrays.<Object>asList(file, javadoc, source, moduleVersion);
+        DefaultEclipseExternalDependency dependency = externalDependencyMapping.get(key);
+        if (dependency == null) {
+            dependency = new DefaultEclipseExternalDependency(file, javadoc, source, moduleVersion);
+            externalDependencyMapping.put(key, dependency);
+        }
+        return dependency;
+    }
+
     private DefaultEclipseProject buildHierarchy(Project project) {
         List<DefaultEclipseProject> children = new ArrayList<DefaultEclipseProject>();
         for (Project child : project.getChildProjects().values()) {
@@ -69,37 +69,46 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         for (IdeaModule module : projectModel.getModules()) {
             appendModule(modules, module, out, rootGradleProject);
         }
+        // Most modules share their library dependencies and scopes, use a single instance for each of them so that each is only serialized once
+        Map<List<Object>, DefaultIdeaSingleEntryLibraryDependency> libraries = new HashMap<List<Object>, DefaultIdeaSingleEntryLibraryDependency>();
+        Map<String, DefaultIdeaDependencyScope> scopes = new HashMap<String, DefaultIdeaDependencyScope>();
         for (IdeaModule module : projectModel.getModules()) {
-            buildDependencies(modules, module);
+            buildDependencies(modules, libraries, scopes, module);
         }
         out.setChildren(new LinkedList<DefaultIdeaModule>(modules.values()));
 
         return out;
     }
 
-    private void buildDependencies(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule) {
+    private void buildDependencies(Map<String, DefaultIdeaModule> modules, Map<List<Object>, DefaultIdeaSingleEntryLibraryDependency> libraries,
+                                   Map<String, DefaultIdeaDependencyScope> scopes, IdeaModule ideaModule) {
         ideaModule.setOffline(offlineDependencyResolution);
         Set<Dependency> resolved = ideaModule.resolveDependencies();
         List<DefaultIdeaDependency> dependencies = new LinkedList<DefaultIdeaDependency>();
         for (Dependency dependency : resolved) {
             if (dependency instanceof SingleEntryModuleLibrary) {
                 SingleEntryModuleLibrary d = (SingleEntryModuleLibrary) dependency;
-                DefaultIdeaSingleEntryLibraryDependency defaultDependency = new org.gradle.tooling.internal.idea.DefaultIdeaSingleEntryLibraryDependency()
-                        .setFile(d.getLibraryFile())
-                        .setSource(d.getSourceFile())
-                        .setJavadoc(d.getJavadocFile())
-                        .setScope(new DefaultIdeaDependencyScope(d.getScope()))
-                        .setExported(d.getExported());
-
-                if (d.getModuleVersion() != null) {
-                    defaultDependency.setGradleModuleVersion(new DefaultGradleModuleVersion(d.getModuleVersion()));
+                List<Object> key = Arrays.<Object>asList(d.getLibraryFile(), d.getSourceFile(), d.getJavadocFile(), d.getScope(), d.getExported(), d.getModuleVersion());
+                DefaultIdeaSingleEntryLibraryDependency defaultDependency = libraries.get(key);
+                if (defaultDependency == null) {
+                    defaultDependency = new org.gradle.tooling.internal.idea.DefaultIdeaSingleEntryLibraryDependency()
+                            .setFile(d.getLibraryFile())
+                            .setSource(d.getSourceFile())
+                            .setJavadoc(d.getJavadocFile())
+                            .setScope(scope(scopes, d.getScope()))
+                            .setExported(d.getExported());
+
+                    if (d.getModuleVersion() != null) {
+                        defaultDependency.setGradleModuleVersion(new DefaultGradleModuleVersion(d.getModuleVersion()));
+                    }
+                    libraries.put(key, defaultDependency);
                 }
                 dependencies.add(defaultDependency);
             } else if (dependency instanceof ModuleDependency) {
                 ModuleDependency d = (ModuleDependency) dependency;
                 DefaultIdeaModuleDependency defaultDependency = new org.gradle.tooling.internal.idea.DefaultIdeaModuleDependency()
                         .setExported(d.getExported())
-                        .setScope(new DefaultIdeaDependencyScope(d.getScope()))
+                        .setScope(scope(scopes, d.getScope()))
                         .setDependencyModule(modules.get(d.getName()));
                 dependencies.add(defaultDependency);
             }
@@ -107,6 +116,15 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
         modules.get(ideaModule.getName()).setDependencies(dependencies);
     }
 
+    private DefaultIdeaDependencyScope scope(Map<String, DefaultIdeaDependencyScope> scopes, String name) {
+        DefaultIdeaDependencyScope scope = scopes.get(name);
+        if (scope == null) {
+            scope = new DefaultIdeaDependencyScope(name);
+            scopes.put(name, scope);
+        }
+        return scope;
+    }
+
     private void appendModule(Map<String, DefaultIdeaModule> modules, IdeaModule ideaModule, DefaultIdeaProject ideaProject, DefaultGradleProject rootGradleProject) {
         DefaultIdeaContentRoot contentRoot = new DefaultIdeaContentRoot()
             .setRootDirectory(ideaModule.getContentRoot())
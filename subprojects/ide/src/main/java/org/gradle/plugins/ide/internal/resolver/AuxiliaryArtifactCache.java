@@ -0,0 +1,147 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.resolver;
+
+import org.gradle.api.Project;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.query.ArtifactResolutionQuery;
+import org.gradle.api.artifacts.repositories.ArtifactRepository;
+import org.gradle.api.artifacts.repositories.FlatDirectoryArtifactRepository;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.artifacts.result.ArtifactResult;
+import org.gradle.api.artifacts.result.ComponentArtifactsResult;
+import org.gradle.api.artifacts.result.ComponentResult;
+import org.gradle.api.artifacts.result.ResolvedArtifactResult;
+import org.gradle.api.component.Artifact;
+import org.gradle.jvm.JvmLibrary;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Keeps the source and javadoc artifacts that have been resolved for the IDE dependencies of any project of the build.
+ *
+ * <p>Most projects of a build depend on the same third party modules and use the same repositories, so the artifacts of a
+ * module are only resolved for the first project that needs them. Projects whose repositories cannot be compared only
+ * share the artifacts that they resolved themselves.</p>
+ */
+public class AuxiliaryArtifactCache {
+    private final Object lock = new Object();
+    private final Map<Key, Map<Class<? extends Artifact>, Set<File>>> artifacts = new HashMap<Key, Map<Class<? extends Artifact>, Set<File>>>();
+
+    /**
+     * Returns the artifacts of the given types for each of the given components. The components whose artifacts are not known yet are resolved using a single query.
+     */
+    public Map<ComponentIdentifier, Map<Class<? extends Artifact>, Set<File>>> getArtifacts(Project project, Collection<? extends ComponentIdentifier> components, List<Class<? extends Artifact>> artifactTypes) {
+        Object repositories = repositoriesKey(project);
+        Map<ComponentIdentifier, Map<Class<? extends Artifact>, Set<File>>> result = new HashMap<ComponentIdentifier, Map<Class<? extends Artifact>, Set<File>>>();
+        Set<ComponentIdentifier> unknownComponents = new LinkedHashSet<ComponentIdentifier>();
+        synchronized (lock) {
+            for (ComponentIdentifier component : components) {
+                Map<Class<? extends Artifact>, Set<File>> componentArtifacts = artifacts.get(new Key(repositories, component));
+                if (componentArtifacts != null && componentArtifacts.keySet().containsAll(artifactTypes)) {
+                    result.put(component, componentArtifacts);
+                } else {
+                    unknownComponents.add(component);
+                }
+            }
+        }
+        if (unknownComponents.isEmpty()) {
+            return result;
+        }
+
+        ArtifactResolutionQuery query = project.getDependencies().createArtifactResolutionQuery();
+        query.forComponents(unknownComponents);
+        @SuppressWarnings("unchecked") Class<? extends Artifact>[] artifactTypesArray = (Class<? extends Artifact>[]) new Class<?>[artifactTypes.size()];
+        query.withArtifacts(JvmLibrary.class, artifactTypes.toArray(artifactTypesArray));
+        for (ComponentResult componentResult : query.execute().getComponents()) {
+            // A component that cannot be resolved is not retried by later projects
+            Map<Class<? extends Artifact>, Set<File>> resolvedArtifacts = new HashMap<Class<? extends Artifact>, Set<File>>();
+            for (Class<? extends Artifact> artifactType : artifactTypes) {
+                Set<File> files = new LinkedHashSet<File>();
+                if (componentResult instanceof ComponentArtifactsResult) {
+                    for (ArtifactResult artifactResult : ((ComponentArtifactsResult) componentResult).getArtifacts(artifactType)) {
+                        if (artifactResult instanceof ResolvedArtifactResult) {
+                            files.add(((ResolvedArtifactResult) artifactResult).getFile());
+                        }
+                    }
+                }
+                resolvedArtifacts.put(artifactType, Collections.unmodifiableSet(files));
+            }
+            result.put(componentResult.getId(), store(new Key(repositories, componentResult.getId()), resolvedArtifacts));
+        }
+        return result;
+    }
+
+    private Map<Class<? extends Artifact>, Set<File>> store(Key key, Map<Class<? extends Artifact>, Set<File>> resolvedArtifacts) {
+        synchronized (lock) {
+            Map<Class<? extends Artifact>, Set<File>> componentArtifacts = new HashMap<Class<? extends Artifact>, Set<File>>();
+            Map<Class<? extends Artifact>, Set<File>> previous = artifacts.get(key);
+            if (previous != null) {
+                componentArtifacts.putAll(previous);
+            }
+            componentArtifacts.putAll(resolvedArtifacts);
+            componentArtifacts = Collections.unmodifiableMap(componentArtifacts);
+            artifacts.put(key, componentArtifacts);
+            return componentArtifacts;
+        }
+    }
+
+    private static Object repositoriesKey(Project project) {
+        List<Object> key = new ArrayList<Object>();
+        for (ArtifactRepository repository : project.getRepositories()) {
+            if (repository instanceof MavenArtifactRepository) {
+                MavenArtifactRepository mavenRepository = (MavenArtifactRepository) repository;
+                key.add(Arrays.asList("maven", mavenRepository.getName(), mavenRepository.getUrl(), mavenRepository.getArtifactUrls()));
+            } else if (repository instanceof FlatDirectoryArtifactRepository) {
+                FlatDirectoryArtifactRepository flatDirRepository = (FlatDirectoryArtifactRepository) repository;
+                key.add(Arrays.asList("flatDir", flatDirRepository.getName(), flatDirRepository.getDirs()));
+            } else {
+                // The layout of other repositories is not visible, so the artifacts are only shared within the project
+                return project.getPath();
+            }
+        }
+        return key;
+    }
+
+    private static class Key {
+        private final Object repositories;
+        private final ComponentIdentifier component;
+
+        private Key(Object repositories, ComponentIdentifier component) {
+            this.repositories = repositories;
+            this.component = component;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return repositories.equals(other.repositories) && component.equals(other.component);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * repositories.hashCode() + component.hashCode();
+        }
+    }
+}
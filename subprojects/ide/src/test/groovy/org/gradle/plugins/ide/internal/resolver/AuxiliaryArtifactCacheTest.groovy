@@ -0,0 +1,171 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.resolver
+
+import org.gradle.api.Project
+import org.gradle.api.artifacts.component.ComponentIdentifier
+import org.gradle.api.artifacts.dsl.DependencyHandler
+import org.gradle.api.artifacts.dsl.RepositoryHandler
+import org.gradle.api.artifacts.query.ArtifactResolutionQuery
+import org.gradle.api.artifacts.repositories.ArtifactRepository
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository
+import org.gradle.api.artifacts.result.ArtifactResolutionResult
+import org.gradle.api.artifacts.result.ComponentArtifactsResult
+import org.gradle.api.artifacts.result.ResolvedArtifactResult
+import org.gradle.api.artifacts.result.UnresolvedComponentResult
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.jvm.JvmLibrary
+import org.gradle.language.base.artifact.SourcesArtifact
+import org.gradle.language.java.artifact.JavadocArtifact
+import spock.lang.Specification
+
+class AuxiliaryArtifactCacheTest extends Specification {
+    def cache = new AuxiliaryArtifactCache()
+    def guava = new DefaultModuleComponentIdentifier("com.google.guava", "guava", "18.0")
+    def junit = new DefaultModuleComponentIdentifier("junit", "junit", "4.12")
+    def guavaSources = new File("guava-sources.jar")
+    def guavaJavadoc = new File("guava-javadoc.jar")
+    def queries = []
+    def queriedTypes = []
+
+    def "resolves the artifacts of all components with a single query"() {
+        def project = projectWith(mavenRepo("central", "http://repo1"))
+
+        when:
+        def artifacts = cache.getArtifacts(project, [guava, junit], [SourcesArtifact])
+
+        then:
+        1 * project.dependencies.createArtifactResolutionQuery() >> query([resolved(guava, [(SourcesArtifact): guavaSources]), resolved(junit, [:])])
+        queries == [[guava, junit]]
+        queriedTypes == [[SourcesArtifact]]
+        artifacts[guava][SourcesArtifact] == [guavaSources] as Set
+        artifacts[junit][SourcesArtifact].empty
+    }
+
+    def "reuses artifacts resolved for a project with the same repositories"() {
+        def first = projectWith(mavenRepo("central", "http://repo1"))
+        def second = projectWith(mavenRepo("central", "http://repo1"))
+
+        when:
+        cache.getArtifacts(first, [guava], [SourcesArtifact])
+        def artifacts = cache.getArtifacts(second, [guava, junit], [SourcesArtifact])
+
+        then:
+        1 * first.dependencies.createArtifactResolutionQuery() >> query([resolved(guava, [(SourcesArtifact): guavaSources])])
+        1 * second.dependencies.createArtifactResolutionQuery() >> query([resolved(junit, [:])])
+        queries == [[guava], [junit]]
+        artifacts[guava][SourcesArtifact] == [guavaSources] as Set
+    }
+
+    def "does not reuse artifacts resolved for a project with different repositories"() {
+        def first = projectWith(mavenRepo("central", "http://repo1"))
+        def second = projectWith(mavenRepo("central", "http://repo2"))
+
+        when:
+        cache.getArtifacts(first, [guava], [SourcesArtifact])
+        cache.getArtifacts(second, [guava], [SourcesArtifact])
+
+        then:
+        1 * first.dependencies.createArtifactResolutionQuery() >> query([resolved(guava, [(SourcesArtifact): guavaSources])])
+        1 * second.dependencies.createArtifactResolutionQuery() >> query([resolved(guava, [:])])
+    }
+
+    def "does not reuse artifacts between projects with repositories that cannot be compared"() {
+        def first = projectWith(Stub(ArtifactRepository))
+        def second = projectWith(Stub(ArtifactRepository))
+
+        when:
+        cache.getArtifacts(first, [guava], [SourcesArtifact])
+        cache.getArtifacts(first, [guava], [SourcesArtifact])
+        cache.getArtifacts(second, [guava], [SourcesArtifact])
+
+        then:
+        1 * first.dependencies.createArtifactResolutionQuery() >> query([resolved(guava, [:])])
+        1 * second.dependencies.createArtifactResolutionQuery() >> query([resolved(guava, [:])])
+    }
+
+    def "resolves artifact types that were not requested before"() {
+        def project = projectWith(mavenRepo("central", "http://repo1"))
+
+        when:
+        cache.getArtifacts(project, [guava], [SourcesArtifact])
+        def artifacts = cache.getArtifacts(project, [guava], [SourcesArtifact, JavadocArtifact])
+
+        then:
+        1 * project.dependencies.createArtifactResolutionQuery() >> query([resolved(guava, [(SourcesArtifact): guavaSources])])
+        1 * project.dependencies.createArtifactResolutionQuery() >> query([resolved(guava, [(SourcesArtifact): guavaSources, (JavadocArtifact): guavaJavadoc])])
+        queriedTypes == [[SourcesArtifact], [SourcesArtifact, JavadocArtifact]]
+        artifacts[guava][SourcesArtifact] == [guavaSources] as Set
+        artifacts[guava][JavadocArtifact] == [guavaJavadoc] as Set
+    }
+
+    def "does not resolve a component that could not be resolved again"() {
+        def project = projectWith(mavenRepo("central", "http://repo1"))
+        def unresolved = Stub(UnresolvedComponentResult) {
+            getId() >> guava
+        }
+
+        when:
+        cache.getArtifacts(project, [guava], [SourcesArtifact])
+        def artifacts = cache.getArtifacts(project, [guava], [SourcesArtifact])
+
+        then:
+        1 * project.dependencies.createArtifactResolutionQuery() >> query([unresolved])
+        artifacts[guava][SourcesArtifact].empty
+    }
+
+    private Project projectWith(ArtifactRepository... repositories) {
+        def repositoryHandler = Stub(RepositoryHandler) {
+            iterator() >> { repositories.toList().iterator() }
+        }
+        def dependencyHandler = Mock(DependencyHandler)
+        return Stub(Project) {
+            getRepositories() >> repositoryHandler
+            getDependencies() >> dependencyHandler
+            getPath() >> ":project${System.identityHashCode(repositoryHandler)}"
+        }
+    }
+
+    private MavenArtifactRepository mavenRepo(String name, String url) {
+        return Stub(MavenArtifactRepository) {
+            getName() >> name
+            getUrl() >> new URI(url)
+            getArtifactUrls() >> ([] as Set)
+        }
+    }
+
+    private ArtifactResolutionQuery query(List results) {
+        def query
+        query = Stub(ArtifactResolutionQuery) {
+            forComponents(_) >> { args -> queries << (args[0] as List); query }
+            withArtifacts(*_) >> { args -> queriedTypes << (args[1] as List); query }
+            execute() >> Stub(ArtifactResolutionResult) {
+                getComponents() >> (results as Set)
+            }
+        }
+        return query
+    }
+
+    private ComponentArtifactsResult resolved(ComponentIdentifier id, Map<Class, File> files) {
+        return Stub(ComponentArtifactsResult) {
+            getId() >> id
+            getArtifacts(_) >> { Class type ->
+                files[type] ? [Stub(ResolvedArtifactResult) { getFile() >> files[type] }] as Set : [] as Set
+            }
+        }
+    }
+}
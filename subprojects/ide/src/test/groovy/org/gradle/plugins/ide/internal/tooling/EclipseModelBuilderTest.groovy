@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling
+
+import org.gradle.api.Project
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.TestUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+class EclipseModelBuilderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def builder = new EclipseModelBuilder(new GradleProjectBuilder())
+
+    def "uses a single instance for equal external dependencies of different projects"() {
+        def root = TestUtil.builder().withName("root").withProjectDir(tmpDir.testDirectory).build()
+        def child1 = TestUtil.builder().withName("child1").withParent(root).build()
+        def child2 = TestUtil.builder().withName("child2").withParent(root).build()
+        def lib = tmpDir.createFile("lib.jar")
+        def other = tmpDir.createFile("other.jar")
+        addCompileDependencies(child1, lib)
+        addCompileDependencies(child2, lib, other)
+
+        when:
+        def model = builder.buildAll("org.gradle.tooling.model.eclipse.EclipseProject", root)
+        def child1Classpath = model.children.find { it.name == "child1" }.classpath
+        def child2Classpath = model.children.find { it.name == "child2" }.classpath
+
+        then:
+        child1Classpath*.file == [lib]
+        child2Classpath*.file == [lib, other]
+        child1Classpath[0].is(child2Classpath[0])
+    }
+
+    private static void addCompileDependencies(Project project, File... files) {
+        project.apply plugin: 'java'
+        project.dependencies.add("compile", project.files(files))
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling
+
+import org.gradle.api.Project
+import org.gradle.plugins.ide.internal.tooling.idea.DefaultIdeaSingleEntryLibraryDependency
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.TestUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+class IdeaModelBuilderTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def builder = new IdeaModelBuilder(new GradleProjectBuilder())
+
+    def "uses a single instance for equal library dependencies and scopes of different modules"() {
+        def root = TestUtil.builder().withName("root").withProjectDir(tmpDir.testDirectory).build()
+        def child1 = TestUtil.builder().withName("child1").withParent(root).build()
+        def child2 = TestUtil.builder().withName("child2").withParent(root).build()
+        def lib = tmpDir.createFile("lib.jar")
+        def other = tmpDir.createFile("other.jar")
+        addCompileDependencies(child1, lib)
+        addCompileDependencies(child2, lib, other)
+
+        when:
+        def model = builder.buildAll("org.gradle.tooling.model.idea.IdeaProject", root)
+        def child1Libraries = libraries(model, "child1")
+        def child2Libraries = libraries(model, "child2")
+
+        then:
+        child1Libraries.size() == 1
+        child2Libraries.size() == 2
+        child1Libraries[lib].is(child2Libraries[lib])
+        child2Libraries[other].scope.is(child2Libraries[lib].scope)
+    }
+
+    private static void addCompileDependencies(Project project, File... files) {
+        project.apply plugin: 'java'
+        project.dependencies.add("compile", project.files(files))
+    }
+
+    private static Map<File, DefaultIdeaSingleEntryLibraryDependency> libraries(model, String moduleName) {
+        def module = model.children.find { it.name == moduleName }
+        return module.dependencies.findAll { it instanceof DefaultIdeaSingleEntryLibraryDependency }.collectEntries { [it.file, it] }
+    }
+}
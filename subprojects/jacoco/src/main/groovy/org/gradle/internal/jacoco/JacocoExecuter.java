@@ -0,0 +1,346 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.gradle.api.GradleException;
+import org.gradle.internal.UncheckedException;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.analysis.ICoverageVisitor;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataReader;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.report.DirectorySourceFileLocator;
+import org.jacoco.report.FileMultiReportOutput;
+import org.jacoco.report.IReportVisitor;
+import org.jacoco.report.MultiReportVisitor;
+import org.jacoco.report.MultiSourceFileLocator;
+import org.jacoco.report.csv.CSVFormatter;
+import org.jacoco.report.html.HTMLFormatter;
+import org.jacoco.report.xml.XMLFormatter;
+import org.objectweb.asm.ClassReader;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Generates JaCoCo reports and merges JaCoCo execution data using the JaCoCo API.
+ *
+ * <p>The coverage of each analyzed class is kept for later reports, keyed by the checksum of the class file and the probes recorded for it,
+ * so that a class that is included in several reports of a build is only analyzed once. The size of the class file is used as an estimate of
+ * the memory used by its coverage, and the least recently used classes are discarded when the estimated size of the kept coverage exceeds a
+ * quarter of the maximum heap size. Classes are analyzed in parallel.</p>
+ */
+public class JacocoExecuter {
+    private static final int TAB_WIDTH = 4;
+
+    private final Map<AnalysisKey, CachedCoverage> analyzedClasses = new LinkedHashMap<AnalysisKey, CachedCoverage>(16, 0.75f, true);
+    private final long maxCachedSize;
+    private long cachedSize;
+
+    public JacocoExecuter() {
+        this(Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    JacocoExecuter(long maxCachedSize) {
+        this.maxCachedSize = maxCachedSize;
+    }
+
+    public void merge(JacocoMergeSpec spec) throws IOException {
+        ExecutionDataStore executionData = new ExecutionDataStore();
+        SessionInfoStore sessionInfos = new SessionInfoStore();
+        load(spec.getExecutionData(), executionData, sessionInfos);
+
+        File destinationFile = spec.getDestinationFile();
+        destinationFile.getParentFile().mkdirs();
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(destinationFile));
+        try {
+            ExecutionDataWriter writer = new ExecutionDataWriter(outputStream);
+            sessionInfos.accept(writer);
+            executionData.accept(writer);
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    public void report(JacocoReportSpec spec) throws IOException {
+        ExecutionDataStore executionData = new ExecutionDataStore();
+        SessionInfoStore sessionInfos = new SessionInfoStore();
+        load(spec.getExecutionData(), executionData, sessionInfos);
+
+        CoverageBuilder coverageBuilder = new CoverageBuilder();
+        for (IClassCoverage coverage : analyze(spec.getClassDirs(), executionData)) {
+            coverageBuilder.visitCoverage(coverage);
+        }
+
+        MultiSourceFileLocator sourceFileLocator = new MultiSourceFileLocator(TAB_WIDTH);
+        for (File sourceDir : spec.getSourceDirs()) {
+            sourceFileLocator.add(new DirectorySourceFileLocator(sourceDir, null, TAB_WIDTH));
+        }
+
+        List<IReportVisitor> visitors = new ArrayList<IReportVisitor>();
+        List<OutputStream> outputStreams = new ArrayList<OutputStream>();
+        try {
+            if (spec.getHtmlDestination() != null) {
+                visitors.add(new HTMLFormatter().createVisitor(new FileMultiReportOutput(spec.getHtmlDestination())));
+            }
+            if (spec.getXmlDestination() != null) {
+                visitors.add(new XMLFormatter().createVisitor(open(spec.getXmlDestination(), outputStreams)));
+            }
+            if (spec.getCsvDestination() != null) {
+                visitors.add(new CSVFormatter().createVisitor(open(spec.getCsvDestination(), outputStreams)));
+            }
+            IReportVisitor visitor = new MultiReportVisitor(visitors);
+            visitor.visitInfo(sessionInfos.getInfos(), executionData.getContents());
+            visitor.visitBundle(coverageBuilder.getBundle(spec.getName()), sourceFileLocator);
+            visitor.visitEnd();
+        } finally {
+            for (OutputStream outputStream : outputStreams) {
+                outputStream.close();
+            }
+        }
+    }
+
+    int getCachedClassCount() {
+        synchronized (analyzedClasses) {
+            return analyzedClasses.size();
+        }
+    }
+
+    private static OutputStream open(File file, List<OutputStream> outputStreams) throws IOException {
+        file.getParentFile().mkdirs();
+        OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file));
+        outputStreams.add(outputStream);
+        return outputStream;
+    }
+
+    private static void load(List<File> files, ExecutionDataStore executionData, SessionInfoStore sessionInfos) throws IOException {
+        // Each file is read entry by entry into the same store, which merges the probes of a class as they are read
+        for (File file : files) {
+            if (!file.isFile()) {
+                continue;
+            }
+            InputStream inputStream = new BufferedInputStream(new FileInputStream(file));
+            try {
+                ExecutionDataReader reader = new ExecutionDataReader(inputStream);
+                reader.setExecutionDataVisitor(executionData);
+                reader.setSessionInfoVisitor(sessionInfos);
+                reader.read();
+            } finally {
+                inputStream.close();
+            }
+        }
+    }
+
+    private List<IClassCoverage> analyze(List<File> classDirs, final ExecutionDataStore executionData) throws IOException {
+        List<File> files = new ArrayList<File>();
+        for (File classDir : classDirs) {
+            collectFiles(classDir, files);
+        }
+        final Set<String> executedClassNames = new HashSet<String>();
+        for (ExecutionData classExecutionData : executionData.getContents()) {
+            executedClassNames.add(classExecutionData.getName());
+        }
+
+        int threads = Math.min(files.size(), Runtime.getRuntime().availableProcessors());
+        List<IClassCoverage> classes = new ArrayList<IClassCoverage>();
+        if (threads <= 1) {
+            for (File file : files) {
+                classes.addAll(analyze(file, executionData, executedClassNames));
+            }
+            return classes;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<IClassCoverage>>> analyses = new ArrayList<Future<List<IClassCoverage>>>(files.size());
+            for (final File file : files) {
+                analyses.add(executor.submit(new Callable<List<IClassCoverage>>() {
+                    public List<IClassCoverage> call() throws IOException {
+                        return analyze(file, executionData, executedClassNames);
+                    }
+                }));
+            }
+            // Collect the classes in file order, so that the report does not depend on the order the analyses complete in
+            for (Future<List<IClassCoverage>> analysis : analyses) {
+                try {
+                    classes.addAll(analysis.get());
+                } catch (ExecutionException e) {
+                    throw UncheckedException.throwAsUncheckedException(e.getCause());
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return classes;
+    }
+
+    private static void collectFiles(File file, List<File> files) {
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File child : children) {
+                    collectFiles(child, files);
+                }
+            }
+        } else if (file.isFile()) {
+            files.add(file);
+        }
+    }
+
+    private List<IClassCoverage> analyze(File file, ExecutionDataStore executionData, Set<String> executedClassNames) throws IOException {
+        final List<IClassCoverage> classes = new ArrayList<IClassCoverage>(1);
+        // An analyzer is not thread-safe, so each file gets its own
+        Analyzer analyzer = new Analyzer(executionData, new ICoverageVisitor() {
+            public void visitCoverage(IClassCoverage coverage) {
+                classes.add(coverage);
+            }
+        });
+
+        if (!file.getName().endsWith(".class")) {
+            // Archives are analyzed every time
+            analyzer.analyzeAll(file);
+            return classes;
+        }
+
+        byte[] classFile = readFile(file);
+        ClassReader reader;
+        try {
+            reader = new ClassReader(classFile);
+        } catch (RuntimeException e) {
+            throw new GradleException(String.format("Could not analyze class file '%s'.", file), e);
+        }
+        long classId = CRC64.checksum(classFile);
+        ExecutionData classExecutionData = executionData.get(classId);
+        AnalysisKey key;
+        if (classExecutionData == null) {
+            // A class without execution data is reported differently when there is execution data for another version of the class
+            key = new AnalysisKey(classId, null, executedClassNames.contains(reader.getClassName()));
+        } else {
+            try {
+                key = new AnalysisKey(classId, classExecutionData.getProbes(), false);
+            } catch (NoSuchMethodError e) {
+                // JaCoCo 0.6.1 and earlier do not expose the probes of a class, so its coverage cannot be cached
+                key = null;
+            }
+        }
+
+        if (key != null) {
+            CachedCoverage cached;
+            synchronized (analyzedClasses) {
+                cached = analyzedClasses.get(key);
+            }
+            if (cached != null) {
+                classes.add(cached.coverage);
+                return classes;
+            }
+        }
+
+        try {
+            analyzer.analyzeClass(reader);
+        } catch (RuntimeException e) {
+            throw new GradleException(String.format("Could not analyze class file '%s'.", file), e);
+        }
+        if (key != null && classes.size() == 1) {
+            cache(key, new CachedCoverage(classes.get(0), classFile.length));
+        }
+        return classes;
+    }
+
+    private void cache(AnalysisKey key, CachedCoverage coverage) {
+        synchronized (analyzedClasses) {
+            CachedCoverage previous = analyzedClasses.put(key, coverage);
+            cachedSize += coverage.size - (previous == null ? 0 : previous.size);
+            // Discard the least recently used classes, which come first in an access ordered map
+            Iterator<CachedCoverage> iterator = analyzedClasses.values().iterator();
+            while (cachedSize > maxCachedSize && iterator.hasNext()) {
+                cachedSize -= iterator.next().size;
+                iterator.remove();
+            }
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        byte[] content = new byte[(int) file.length()];
+        DataInputStream inputStream = new DataInputStream(new FileInputStream(file));
+        try {
+            inputStream.readFully(content);
+        } finally {
+            inputStream.close();
+        }
+        return content;
+    }
+
+    private static class CachedCoverage {
+        private final IClassCoverage coverage;
+        private final long size;
+
+        private CachedCoverage(IClassCoverage coverage, long size) {
+            this.coverage = coverage;
+            this.size = size;
+        }
+    }
+
+    private static class AnalysisKey {
+        private final long classId;
+        private final boolean[] probes;
+        private final boolean noMatch;
+
+        private AnalysisKey(long classId, boolean[] probes, boolean noMatch) {
+            this.classId = classId;
+            // The probes of a class are updated while execution data is merged, so take a copy
+            this.probes = probes == null ? null : probes.clone();
+            this.noMatch = noMatch;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            AnalysisKey other = (AnalysisKey) obj;
+            return classId == other.classId && noMatch == other.noMatch && Arrays.equals(probes, other.probes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (int) (classId ^ (classId >>> 32)) + Arrays.hashCode(probes)) + (noMatch ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.List;
+
+public class JacocoReportSpec implements Serializable {
+    private final String name;
+    private final List<File> executionData;
+    private final List<File> classDirs;
+    private final List<File> sourceDirs;
+    private final File htmlDestination;
+    private final File xmlDestination;
+    private final File csvDestination;
+
+    public JacocoReportSpec(String name, List<File> executionData, List<File> classDirs, List<File> sourceDirs, File htmlDestination, File xmlDestination, File csvDestination) {
+        this.name = name;
+        this.executionData = executionData;
+        this.classDirs = classDirs;
+        this.sourceDirs = sourceDirs;
+        this.htmlDestination = htmlDestination;
+        this.xmlDestination = xmlDestination;
+        this.csvDestination = csvDestination;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<File> getExecutionData() {
+        return executionData;
+    }
+
+    /**
+     * The class directories and archives to report on.
+     */
+    public List<File> getClassDirs() {
+        return classDirs;
+    }
+
+    public List<File> getSourceDirs() {
+        return sourceDirs;
+    }
+
+    /**
+     * The directory to write the HTML report to, or null when no HTML report is required.
+     */
+    public File getHtmlDestination() {
+        return htmlDestination;
+    }
+
+    /**
+     * The file to write the XML report to, or null when no XML report is required.
+     */
+    public File getXmlDestination() {
+        return xmlDestination;
+    }
+
+    /**
+     * The file to write the CSV report to, or null when no CSV report is required.
+     */
+    public File getCsvDestination() {
+        return csvDestination;
+    }
+}
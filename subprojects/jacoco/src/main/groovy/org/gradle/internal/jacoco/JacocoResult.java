@@ -1,5 +1,5 @@
 /*
- * Copyright 2014 the original author or authors.
+ * Copyright 2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,22 +14,21 @@
  * limitations under the License.
  */
 
-package org.gradle.api.plugins.antlr.internal;
+package org.gradle.internal.jacoco;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.io.Serializable;
 
-public class AntlrWorkerClient implements AntlrWorkerClientProtocol {
+public class JacocoResult implements Serializable {
+    private final Throwable failure;
 
-    private static final Logger LOGGER = LoggerFactory.getLogger(AntlrWorkerClient.class);
-
-    private AntlrResult result;
-
-    public void executed(AntlrResult result) {
-        this.result = result;
+    public JacocoResult(Throwable failure) {
+        this.failure = failure;
     }
 
-    public AntlrResult getResult() {
-        return result;
+    /**
+     * The failure of the JaCoCo operation, or null when it succeeded.
+     */
+    public Throwable getFailure() {
+        return failure;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.process.internal.daemon.WorkerDaemonAction;
+
+/**
+ * Runs JaCoCo in a worker daemon, which stays alive between JaCoCo tasks and builds. The daemon executes one action at a time, and keeps
+ * a single {@link JacocoExecuter}, so that the coverage of classes analyzed for one report can be reused by later reports.
+ */
+public class JacocoWorkerAction implements WorkerDaemonAction<JacocoResult> {
+    private static final Logger LOGGER = Logging.getLogger(JacocoWorkerAction.class);
+
+    // The action class is loaded once per worker daemon, so the executer is kept for the life of the daemon
+    private static JacocoExecuter executer;
+
+    private final JacocoReportSpec reportSpec;
+    private final JacocoMergeSpec mergeSpec;
+
+    public JacocoWorkerAction(JacocoReportSpec reportSpec) {
+        this.reportSpec = reportSpec;
+        this.mergeSpec = null;
+    }
+
+    public JacocoWorkerAction(JacocoMergeSpec mergeSpec) {
+        this.reportSpec = null;
+        this.mergeSpec = mergeSpec;
+    }
+
+    public JacocoResult execute() {
+        return execute(getExecuter());
+    }
+
+    JacocoResult execute(JacocoExecuter executer) {
+        try {
+            if (reportSpec != null) {
+                LOGGER.debug("Generating JaCoCo report.");
+                executer.report(reportSpec);
+            } else {
+                LOGGER.debug("Merging JaCoCo execution data.");
+                executer.merge(mergeSpec);
+            }
+            return new JacocoResult(null);
+        } catch (Throwable t) {
+            return new JacocoResult(t);
+        }
+    }
+
+    private static synchronized JacocoExecuter getExecuter() {
+        if (executer == null) {
+            executer = new JacocoExecuter();
+        }
+        return executer;
+    }
+
+    @Override
+    public String toString() {
+        return reportSpec != null ? "JaCoCo report action" : "JaCoCo merge action";
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco;
+
+import org.gradle.api.file.FileCollection;
+import org.gradle.internal.UncheckedException;
+import org.gradle.process.internal.daemon.WorkerDaemonFactory;
+import org.gradle.process.internal.daemon.WorkerDaemonForkOptions;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JaCoCo tasks in worker daemons. A worker daemon is reused by later JaCoCo tasks, including those of later builds, that use the same
+ * JaCoCo classpath and fork options, so that classes included in several reports are only analyzed once.
+ */
+public class JacocoWorkerManager {
+    public void report(File workingDir, WorkerDaemonFactory workerDaemonFactory, FileCollection jacocoClasspath, String maxHeapSize, List<String> jvmArgs, JacocoReportSpec spec) {
+        execute(workingDir, workerDaemonFactory, jacocoClasspath, maxHeapSize, jvmArgs, new JacocoWorkerAction(spec));
+    }
+
+    public void merge(File workingDir, WorkerDaemonFactory workerDaemonFactory, FileCollection jacocoClasspath, String maxHeapSize, List<String> jvmArgs, JacocoMergeSpec spec) {
+        execute(workingDir, workerDaemonFactory, jacocoClasspath, maxHeapSize, jvmArgs, new JacocoWorkerAction(spec));
+    }
+
+    private void execute(File workingDir, WorkerDaemonFactory workerDaemonFactory, FileCollection jacocoClasspath, String maxHeapSize, List<String> jvmArgs, JacocoWorkerAction action) {
+        WorkerDaemonForkOptions forkOptions = new WorkerDaemonForkOptions(
+                workingDir, jacocoClasspath, Arrays.asList("org.jacoco", "org.objectweb.asm"), null, maxHeapSize, jvmArgs);
+        JacocoResult result = workerDaemonFactory.getDaemon(forkOptions).execute(action);
+        if (result.getFailure() != null) {
+            throw UncheckedException.throwAsUncheckedException(result.getFailure());
+        }
+    }
+}
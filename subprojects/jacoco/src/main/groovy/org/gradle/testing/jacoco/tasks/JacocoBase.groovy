@@ -18,7 +18,9 @@ package org.gradle.testing.jacoco.tasks
 import org.gradle.api.DefaultTask
 import org.gradle.api.Incubating
 import org.gradle.api.file.FileCollection
+import org.gradle.api.tasks.Input
 import org.gradle.api.tasks.InputFiles
+import org.gradle.api.tasks.Optional
 
 /**
  * Base class for Jacoco tasks.
@@ -30,4 +32,17 @@ abstract class JacocoBase extends DefaultTask {
 	 */
 	@InputFiles
 	FileCollection jacocoClasspath
+
+	/**
+	 * The maximum heap size for the JaCoCo worker process (ex: '1g').
+	 */
+	@Input
+	@Optional
+	String maxHeapSize
+
+	/**
+	 * Additional JVM arguments for the JaCoCo worker process.
+	 */
+	@Input
+	List<String> jvmArgs = []
 }
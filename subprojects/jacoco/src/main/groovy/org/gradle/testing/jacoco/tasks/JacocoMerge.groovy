@@ -18,11 +18,13 @@ package org.gradle.testing.jacoco.tasks
 import org.gradle.api.Incubating
 import org.gradle.api.Task
 import org.gradle.api.file.FileCollection
-import org.gradle.api.internal.project.IsolatedAntBuilder
 import org.gradle.api.tasks.InputFiles
 import org.gradle.api.tasks.OutputFile
 import org.gradle.api.tasks.TaskAction
 import org.gradle.api.tasks.TaskCollection
+import org.gradle.internal.jacoco.JacocoMergeSpec
+import org.gradle.internal.jacoco.JacocoWorkerManager
+import org.gradle.process.internal.daemon.WorkerDaemonFactory
 import org.gradle.testing.jacoco.plugins.JacocoTaskExtension
 
 import javax.inject.Inject
@@ -45,18 +47,14 @@ class JacocoMerge extends JacocoBase {
     File destinationFile
 
     @Inject
-    protected IsolatedAntBuilder getAntBuilder() {
+    protected WorkerDaemonFactory getWorkerDaemonFactory() {
         throw new UnsupportedOperationException();
     }
 
     @TaskAction
     void merge() {
-        antBuilder.withClasspath(getJacocoClasspath()).execute {
-            ant.taskdef(name: 'jacocoMerge', classname: 'org.jacoco.ant.MergeTask')
-            ant.jacocoMerge(destfile: getDestinationFile()) {
-                getExecutionData().addToAntBuilder(ant, 'resources')
-            }
-        }
+        def spec = new JacocoMergeSpec(getExecutionData().files as List, getDestinationFile())
+        new JacocoWorkerManager().merge(getProject().getGradle().getGradleUserHomeDir(), getWorkerDaemonFactory(), getJacocoClasspath(), getMaxHeapSize(), getJvmArgs(), spec)
     }
 
     /**
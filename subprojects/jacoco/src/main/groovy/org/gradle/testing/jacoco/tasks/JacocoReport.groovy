@@ -18,11 +18,13 @@ package org.gradle.testing.jacoco.tasks
 import org.gradle.api.Incubating
 import org.gradle.api.Task
 import org.gradle.api.file.FileCollection
-import org.gradle.api.internal.project.IsolatedAntBuilder
 import org.gradle.api.reporting.Reporting
 import org.gradle.api.tasks.*
+import org.gradle.internal.jacoco.JacocoReportSpec
 import org.gradle.internal.jacoco.JacocoReportsContainerImpl
+import org.gradle.internal.jacoco.JacocoWorkerManager
 import org.gradle.internal.reflect.Instantiator
+import org.gradle.process.internal.daemon.WorkerDaemonFactory
 import org.gradle.testing.jacoco.plugins.JacocoTaskExtension
 
 import javax.inject.Inject
@@ -78,37 +80,21 @@ class JacocoReport extends JacocoBase implements Reporting<JacocoReportsContaine
     }
 
     @Inject
-    protected IsolatedAntBuilder getAntBuilder() {
+    protected WorkerDaemonFactory getWorkerDaemonFactory() {
         throw new UnsupportedOperationException();
     }
 
     @TaskAction
     void generate() {
-        antBuilder.withClasspath(getJacocoClasspath()).execute {
-            ant.taskdef(name: 'jacocoReport', classname: 'org.jacoco.ant.ReportTask')
-            ant.jacocoReport {
-                executiondata {
-                    getExecutionData().addToAntBuilder(ant, 'resources')
-                }
-                structure(name: getProject().getName()) {
-                    classfiles {
-                        getAllClassDirs().filter { it.exists() }.addToAntBuilder(ant, 'resources')
-                    }
-                    sourcefiles {
-                        getAllSourceDirs().filter { it.exists() }.addToAntBuilder(ant, 'resources')
-                    }
-                }
-                if(reports.html.isEnabled()) {
-                    html(destdir: reports.html.destination)
-                }
-                if(reports.xml.isEnabled()) {
-                    xml(destfile: reports.xml.destination)
-                }
-                if(reports.csv.isEnabled()) {
-                    csv(destfile: reports.csv.destination)
-                }
-            }
-        }
+        def spec = new JacocoReportSpec(
+            getProject().getName(),
+            getExecutionData().files as List,
+            getAllClassDirs().filter { it.exists() }.files as List,
+            getAllSourceDirs().filter { it.exists() }.files as List,
+            reports.html.enabled ? reports.html.destination : null,
+            reports.xml.enabled ? reports.xml.destination : null,
+            reports.csv.enabled ? reports.csv.destination : null)
+        new JacocoWorkerManager().report(getProject().getGradle().getGradleUserHomeDir(), getWorkerDaemonFactory(), getJacocoClasspath(), getMaxHeapSize(), getJvmArgs(), spec)
     }
 
     /**
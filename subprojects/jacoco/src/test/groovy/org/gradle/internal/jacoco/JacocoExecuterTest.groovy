@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco
+
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.jacoco.core.data.ExecutionData
+import org.jacoco.core.data.ExecutionDataReader
+import org.jacoco.core.data.ExecutionDataStore
+import org.jacoco.core.data.ExecutionDataWriter
+import org.jacoco.core.data.SessionInfo
+import org.jacoco.core.data.SessionInfoStore
+import org.jacoco.core.internal.data.CRC64
+import org.junit.Rule
+import spock.lang.Specification
+
+class JacocoExecuterTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def executer = new JacocoExecuter()
+    def classFile = getClass().getResource("JacocoMergeSpec.class").bytes
+    def classDir = tmpDir.file("classes")
+
+    def setup() {
+        classDir.file("org/gradle/internal/jacoco/JacocoMergeSpec.class").bytes = classFile
+    }
+
+    def "merges the execution data of all files"() {
+        def first = execFile("first.exec", new SessionInfo("first", 1, 2), new ExecutionData(1, "Foo", [true, false, false] as boolean[]))
+        def second = execFile("second.exec", new SessionInfo("second", 3, 4), new ExecutionData(1, "Foo", [false, false, true] as boolean[]))
+        def destination = tmpDir.file("merged/merged.exec")
+
+        when:
+        executer.merge(new JacocoMergeSpec([first, second, tmpDir.file("missing.exec")], destination))
+
+        then:
+        def executionData = new ExecutionDataStore()
+        def sessionInfos = new SessionInfoStore()
+        destination.withInputStream { inputStream ->
+            def reader = new ExecutionDataReader(inputStream)
+            reader.executionDataVisitor = executionData
+            reader.sessionInfoVisitor = sessionInfos
+            reader.read()
+        }
+        sessionInfos.infos*.id == ["first", "second"]
+        executionData.get(1).probes == [true, false, true] as boolean[]
+    }
+
+    def "generates the requested reports"() {
+        def reportDir = tmpDir.file("reports")
+
+        when:
+        executer.report(reportSpec([], reportDir))
+
+        then:
+        reportDir.file("html/index.html").file
+        reportDir.file("report.xml").text.contains('<class name="org/gradle/internal/jacoco/JacocoMergeSpec">')
+        reportDir.file("report.csv").readLines()[1].startsWith("test,org.gradle.internal.jacoco,JacocoMergeSpec,")
+    }
+
+    def "reuses the coverage of a class analyzed by an earlier report"() {
+        when:
+        executer.report(reportSpec([], tmpDir.file("first")))
+        executer.report(reportSpec([], tmpDir.file("second")))
+
+        then:
+        executer.cachedClassCount == 1
+        tmpDir.file("second/report.csv").text == tmpDir.file("first/report.csv").text
+    }
+
+    def "analyzes a class again when its execution data has changed"() {
+        def otherVersion = execFile("other.exec", new SessionInfo("test", 1, 2), new ExecutionData(CRC64.checksum(classFile) + 1, "org/gradle/internal/jacoco/JacocoMergeSpec", [true] as boolean[]))
+
+        when:
+        executer.report(reportSpec([], tmpDir.file("first")))
+        executer.report(reportSpec([otherVersion], tmpDir.file("second")))
+
+        then:
+        executer.cachedClassCount == 2
+    }
+
+    def "analyzes a class again when the class file has changed"() {
+        when:
+        executer.report(reportSpec([], tmpDir.file("first")))
+        classDir.file("org/gradle/internal/jacoco/JacocoReportSpec.class").bytes = getClass().getResource("JacocoReportSpec.class").bytes
+        executer.report(reportSpec([], tmpDir.file("second")))
+
+        then:
+        executer.cachedClassCount == 2
+        tmpDir.file("second/report.csv").readLines().size() == 3
+    }
+
+    def "discards the least recently used classes when the cache is full"() {
+        def otherClassFile = getClass().getResource("JacocoReportSpec.class").bytes
+        executer = new JacocoExecuter(Math.max(classFile.length, otherClassFile.length))
+
+        when:
+        executer.report(reportSpec([], tmpDir.file("first")))
+        classDir.file("org/gradle/internal/jacoco/JacocoReportSpec.class").bytes = otherClassFile
+        executer.report(reportSpec([], tmpDir.file("second")))
+
+        then:
+        executer.cachedClassCount == 1
+        tmpDir.file("second/report.csv").readLines().size() == 3
+    }
+
+    private JacocoReportSpec reportSpec(List<File> executionData, TestFile reportDir) {
+        return new JacocoReportSpec("test", executionData, [classDir], [], reportDir.file("html"), reportDir.file("report.xml"), reportDir.file("report.csv"))
+    }
+
+    private File execFile(String name, SessionInfo sessionInfo, ExecutionData executionData) {
+        def file = tmpDir.file(name)
+        file.withOutputStream { outputStream ->
+            def writer = new ExecutionDataWriter(outputStream)
+            writer.visitSessionInfo(sessionInfo)
+            writer.visitClassExecution(executionData)
+        }
+        return file
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.jacoco
+
+import spock.lang.Specification
+
+class JacocoWorkerActionTest extends Specification {
+
+    def executer = Mock(JacocoExecuter)
+
+    def "generates report"() {
+        def spec = new JacocoReportSpec("project", [], [], [], new File("html"), null, null)
+
+        when:
+        def result = new JacocoWorkerAction(spec).execute(executer)
+
+        then:
+        1 * executer.report(spec)
+        0 * executer._
+
+        and:
+        result.failure == null
+    }
+
+    def "merges execution data"() {
+        def spec = new JacocoMergeSpec([new File("a.exec"), new File("b.exec")], new File("merged.exec"))
+
+        when:
+        def result = new JacocoWorkerAction(spec).execute(executer)
+
+        then:
+        1 * executer.merge(spec)
+        0 * executer._
+
+        and:
+        result.failure == null
+    }
+
+    def "failure provides result"() {
+        def spec = new JacocoMergeSpec([], new File("merged.exec"))
+        def failure = new IOException("broken")
+
+        when:
+        def result = new JacocoWorkerAction(spec).execute(executer)
+
+        then:
+        1 * executer.merge(spec) >> { throw failure }
+
+        and:
+        result.failure == failure
+    }
+}
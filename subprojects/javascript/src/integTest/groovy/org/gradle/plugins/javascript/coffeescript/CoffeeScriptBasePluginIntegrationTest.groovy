@@ -90,4 +90,37 @@ class CoffeeScriptBasePluginIntegrationTest extends WellBehavedPluginTest {
         then:
         ":compile" in skippedTasks
     }
+
+    @IgnoreIf({GradleContextualExecuter.parallel})
+    def "compiles only the changed coffeescript files"() {
+        given:
+        file("src/main/coffeescript/dir1/thing1.coffee") << "number = 1"
+        file("src/main/coffeescript/dir2/thing2.coffee") << "number = 2"
+
+        buildFile << """
+            repositories.mavenCentral()
+            task compile(type: ${CoffeeScriptCompile.name}) {
+                destinationDir file("build/compiled/js")
+                source fileTree("src/main/coffeescript")
+            }
+        """
+
+        run "compile"
+
+        def f1 = file("build/compiled/js/dir1/thing1.js")
+        def f2 = file("build/compiled/js/dir2/thing2.js")
+        f1.lastModified = f1.lastModified() - 10000
+        def f1LastModified = f1.lastModified()
+
+        when:
+        file("src/main/coffeescript/dir2/thing2.coffee").text = "number = 3"
+        run "compile"
+
+        then:
+        ":compile" in nonSkippedTasks
+
+        and:
+        f1.lastModified() == f1LastModified
+        f2.text.contains("number = 3")
+    }
 }
@@ -19,20 +19,26 @@ package org.gradle.plugins.javascript.coffeescript;
 import groovy.lang.Closure;
 import org.gradle.api.Action;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.logging.LogLevel;
+import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.SourceTask;
 import org.gradle.api.tasks.TaskAction;
-import org.gradle.internal.Factory;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
+import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.plugins.javascript.coffeescript.compile.internal.DefaultCoffeeScriptCompileSpec;
 import org.gradle.plugins.javascript.coffeescript.compile.internal.rhino.RhinoCoffeeScriptCompiler;
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerHandleFactory;
-import org.gradle.plugins.javascript.rhino.worker.internal.DefaultRhinoWorkerHandleFactory;
-import org.gradle.process.internal.WorkerProcessBuilder;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CoffeeScriptCompile extends SourceTask {
 
@@ -42,7 +48,7 @@ public class CoffeeScriptCompile extends SourceTask {
     private CoffeeScriptCompileOptions options = new CoffeeScriptCompileOptions();
 
     @Inject
-    protected Factory<WorkerProcessBuilder> getWorkerProcessBuilderFactory() {
+    protected RhinoWorkerHandleFactory getRhinoWorkerHandleFactory() {
         throw new UnsupportedOperationException();
     }
 
@@ -86,18 +92,65 @@ public class CoffeeScriptCompile extends SourceTask {
     }
 
     @TaskAction
-    public void doCompile() {
-        RhinoWorkerHandleFactory handleFactory = new DefaultRhinoWorkerHandleFactory(getWorkerProcessBuilderFactory());
+    public void doCompile(IncrementalTaskInputs inputs) {
+        FileTree source = inputs.isIncremental() ? getChangedSource(inputs) : null;
+        if (source == null) {
+            removeStaleOutputs();
+            source = getSource();
+        } else if (source.isEmpty()) {
+            setDidWork(false);
+            return;
+        }
 
         CoffeeScriptCompileSpec spec = new DefaultCoffeeScriptCompileSpec();
         spec.setCoffeeScriptJs(getCoffeeScriptJs().getSingleFile());
         spec.setDestinationDir(getDestinationDir());
-        spec.setSource(getSource());
+        spec.setSource(source);
         spec.setOptions(getOptions());
 
         LogLevel logLevel = getProject().getGradle().getStartParameter().getLogLevel();
-        CoffeeScriptCompiler compiler = new RhinoCoffeeScriptCompiler(handleFactory, getRhinoClasspath(), logLevel, getProject().getProjectDir());
+        CoffeeScriptCompiler compiler = new RhinoCoffeeScriptCompiler(getRhinoWorkerHandleFactory(), getRhinoClasspath(), logLevel, getProject().getProjectDir());
 
         setDidWork(compiler.compile(spec).getDidWork());
     }
+
+    /**
+     * Returns the source files that have changed since the previous execution, or null when all source files need to be compiled.
+     */
+    private FileTree getChangedSource(IncrementalTaskInputs inputs) {
+        FileTree source = getSource();
+        final Set<File> sourceFiles = source.getFiles();
+        final Set<File> changedSourceFiles = new HashSet<File>();
+        final AtomicBoolean compileAll = new AtomicBoolean();
+        inputs.outOfDate(new Action<InputFileDetails>() {
+            public void execute(InputFileDetails details) {
+                if (sourceFiles.contains(details.getFile())) {
+                    changedSourceFiles.add(details.getFile());
+                } else {
+                    // A change to the compiler or to the Rhino classpath requires all files to be compiled again
+                    compileAll.set(true);
+                }
+            }
+        });
+        inputs.removed(new Action<InputFileDetails>() {
+            public void execute(InputFileDetails details) {
+                // Give subclasses the chance to remove the outputs of removed source files
+                compileAll.set(true);
+            }
+        });
+        if (compileAll.get()) {
+            return null;
+        }
+        return source.matching(new PatternSet().include(new Spec<FileTreeElement>() {
+            public boolean isSatisfiedBy(FileTreeElement element) {
+                return element.isDirectory() || changedSourceFiles.contains(element.getFile());
+            }
+        }));
+    }
+
+    /**
+     * Called before all source files are compiled, rather than only the changed ones. Does nothing by default.
+     */
+    protected void removeStaleOutputs() {
+    }
 }
@@ -18,6 +18,7 @@ package org.gradle.plugins.javascript.coffeescript.compile.internal.rhino;
 
 import org.gradle.api.Action;
 import org.gradle.api.internal.file.RelativeFile;
+import org.gradle.internal.UncheckedException;
 import org.gradle.plugins.javascript.base.SourceTransformationException;
 import org.gradle.plugins.javascript.coffeescript.compile.internal.CoffeeScriptCompileDestinationCalculator;
 import org.gradle.plugins.javascript.coffeescript.compile.internal.SerializableCoffeeScriptCompileSpec;
@@ -27,28 +28,84 @@ import org.mozilla.javascript.JavaScriptException;
 import org.mozilla.javascript.RhinoException;
 import org.mozilla.javascript.Scriptable;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
 import static org.gradle.plugins.javascript.rhino.worker.RhinoWorkerUtils.*;
 
 public class CoffeeScriptCompilerWorker implements RhinoWorker<Boolean, SerializableCoffeeScriptCompileSpec> {
 
+    // The worker is reused by later compilations, so the parsed compiler is kept. The compiler keeps state in its scope
+    // while compiling a file, so each thread that compiles files needs a scope of its own.
+    private final BlockingQueue<Scriptable> idleScopes = new LinkedBlockingQueue<Scriptable>();
+    private String coffeeScriptJsFingerprint;
+
     public Boolean process(SerializableCoffeeScriptCompileSpec spec) {
-        Scriptable coffeeScriptScope = parse(spec.getCoffeeScriptJs(), "UTF-8", new Action<Context>() {
-            public void execute(Context context) {
-                context.setOptimizationLevel(-1);
+        final File coffeeScriptJs = spec.getCoffeeScriptJs();
+        String fingerprint = coffeeScriptJs.getAbsolutePath() + ";" + coffeeScriptJs.length() + ";" + coffeeScriptJs.lastModified();
+        if (!fingerprint.equals(coffeeScriptJsFingerprint)) {
+            idleScopes.clear();
+            coffeeScriptJsFingerprint = fingerprint;
+        }
+
+        final String encoding = spec.getOptions().getEncoding();
+
+        final CoffeeScriptCompileDestinationCalculator destinationCalculator = new CoffeeScriptCompileDestinationCalculator(spec.getDestinationDir());
+
+        List<RelativeFile> sources = spec.getSource();
+        int threads = Math.min(sources.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            for (RelativeFile target : sources) {
+                compile(coffeeScriptJs, target, encoding, destinationCalculator);
             }
-        });
+            return Boolean.TRUE;
+        }
 
-        String encoding = spec.getOptions().getEncoding();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> compilations = new ArrayList<Future<?>>(sources.size());
+            for (final RelativeFile target : sources) {
+                compilations.add(executor.submit(new Runnable() {
+                    public void run() {
+                        compile(coffeeScriptJs, target, encoding, destinationCalculator);
+                    }
+                }));
+            }
+            // Report the failure of the first file that could not be compiled, in source order
+            for (Future<?> compilation : compilations) {
+                try {
+                    compilation.get();
+                } catch (ExecutionException e) {
+                    throw UncheckedException.throwAsUncheckedException(e.getCause());
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
 
-        CoffeeScriptCompileDestinationCalculator destinationCalculator = new CoffeeScriptCompileDestinationCalculator(spec.getDestinationDir());
+        return Boolean.TRUE;
+    }
 
-        for (RelativeFile target : spec.getSource()) {
+    private void compile(File coffeeScriptJs, RelativeFile target, String encoding, CoffeeScriptCompileDestinationCalculator destinationCalculator) {
+        Scriptable coffeeScriptScope = idleScopes.poll();
+        if (coffeeScriptScope == null) {
+            coffeeScriptScope = parse(coffeeScriptJs, "UTF-8", new Action<Context>() {
+                public void execute(Context context) {
+                    context.setOptimizationLevel(-1);
+                }
+            });
+        }
+        try {
             String source = readFile(target.getFile(), encoding);
             String output = compile(coffeeScriptScope, source, target.getRelativePath().getPathString());
             writeFile(output, destinationCalculator.transform(target.getRelativePath()), encoding);
+        } finally {
+            idleScopes.add(coffeeScriptScope);
         }
-
-        return Boolean.TRUE;
     }
 
     public Exception convertException(RhinoException rhinoException) {
@@ -32,19 +32,17 @@ import org.gradle.plugins.javascript.envjs.internal.EnvJsBrowserEvaluator
 import org.gradle.plugins.javascript.rhino.RhinoExtension
 import org.gradle.plugins.javascript.rhino.RhinoPlugin
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerHandleFactory
-import org.gradle.plugins.javascript.rhino.worker.internal.DefaultRhinoWorkerHandleFactory
-import org.gradle.process.internal.WorkerProcessBuilder
 
 import javax.inject.Inject
 
 import static org.gradle.plugins.javascript.envjs.EnvJsExtension.*
 
 class EnvJsPlugin implements Plugin<Project> {
-    private final Factory<WorkerProcessBuilder> workerProcessBuilderFactory
+    private final RhinoWorkerHandleFactory rhinoWorkerHandleFactory
 
     @Inject
-    EnvJsPlugin(Factory<WorkerProcessBuilder> workerProcessBuilderFactory) {
-        this.workerProcessBuilderFactory = workerProcessBuilderFactory
+    EnvJsPlugin(RhinoWorkerHandleFactory rhinoWorkerHandleFactory) {
+        this.rhinoWorkerHandleFactory = rhinoWorkerHandleFactory
     }
 
     void apply(Project project) {
@@ -66,8 +64,6 @@ class EnvJsPlugin implements Plugin<Project> {
         project.tasks.withType(BrowserEvaluate) { BrowserEvaluate task ->
             conventionMapping.with {
                 map("evaluator") {
-                    RhinoWorkerHandleFactory handleFactory = new DefaultRhinoWorkerHandleFactory(workerProcessBuilderFactory);
-
                     File workDir = project.projectDir
                     Factory<File> envJsFactory = new Factory<File>() {
                         File create() {
@@ -75,7 +71,7 @@ class EnvJsPlugin implements Plugin<Project> {
                         }
                     }
 
-                    new EnvJsBrowserEvaluator(handleFactory, rhinoExtension.classpath, envJsFactory, project.gradle.startParameter.logLevel, workDir)
+                    new EnvJsBrowserEvaluator(rhinoWorkerHandleFactory, rhinoExtension.classpath, envJsFactory, project.gradle.startParameter.logLevel, workDir)
                 }
             }
         }
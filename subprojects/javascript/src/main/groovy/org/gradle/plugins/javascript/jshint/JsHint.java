@@ -24,16 +24,13 @@ import org.gradle.api.file.FileCollection;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.tasks.*;
-import org.gradle.internal.Factory;
 import org.gradle.plugins.javascript.jshint.internal.JsHintResult;
 import org.gradle.plugins.javascript.jshint.internal.JsHintSpec;
 import org.gradle.plugins.javascript.jshint.internal.JsHintWorker;
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerHandle;
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerHandleFactory;
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerSpec;
-import org.gradle.plugins.javascript.rhino.worker.internal.DefaultRhinoWorkerHandleFactory;
 import org.gradle.process.JavaExecSpec;
-import org.gradle.process.internal.WorkerProcessBuilder;
 
 import javax.inject.Inject;
 import java.io.File;
@@ -51,7 +48,7 @@ public class JsHint extends SourceTask {
     private Object jsonReport;
 
     @Inject
-    protected Factory<WorkerProcessBuilder> getWorkerProcessBuilderFactory() {
+    protected RhinoWorkerHandleFactory getRhinoWorkerHandleFactory() {
         throw new UnsupportedOperationException();
     }
 
@@ -93,7 +90,7 @@ public class JsHint extends SourceTask {
 
     @TaskAction
     public void doJsHint() {
-        RhinoWorkerHandleFactory handleFactory = new DefaultRhinoWorkerHandleFactory(getWorkerProcessBuilderFactory());
+        RhinoWorkerHandleFactory handleFactory = getRhinoWorkerHandleFactory();
 
         LogLevel logLevel = getProject().getGradle().getStartParameter().getLogLevel();
         RhinoWorkerHandle<JsHintResult, JsHintSpec> rhinoHandle = handleFactory.create(getRhinoClasspath(), createWorkerSpec(), logLevel, new Action<JavaExecSpec>() {
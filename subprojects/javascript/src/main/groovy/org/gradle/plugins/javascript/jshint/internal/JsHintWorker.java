@@ -34,8 +34,17 @@ public class JsHintWorker implements RhinoWorker<JsHintResult, JsHintSpec> {
 
     private static final Logger LOGGER = Logging.getLogger(JsHintWorker.class);
 
+    // The worker is reused by later tasks, so the parsed JsHint script is kept
+    private String jsHintFingerprint;
+    private Scriptable jsHintScope;
+
     public JsHintResult process(JsHintSpec spec) {
-        Scriptable jsHintScope = RhinoWorkerUtils.parse(spec.getJsHint(), "UTF-8");
+        File jsHint = spec.getJsHint();
+        String fingerprint = jsHint.getAbsolutePath() + ";" + jsHint.length() + ";" + jsHint.lastModified();
+        if (!fingerprint.equals(jsHintFingerprint)) {
+            jsHintScope = RhinoWorkerUtils.parse(jsHint, "UTF-8");
+            jsHintFingerprint = fingerprint;
+        }
 
         String encoding = spec.getEncoding();
 
@@ -19,39 +19,67 @@ package org.gradle.plugins.javascript.rhino.worker.internal;
 import org.gradle.api.Action;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerHandle;
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerHandleFactory;
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerSpec;
 import org.gradle.process.JavaExecSpec;
 import org.gradle.process.internal.JavaExecHandleBuilder;
-import org.gradle.process.internal.WorkerProcess;
 import org.gradle.process.internal.WorkerProcessBuilder;
 
 import java.io.File;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
-public class DefaultRhinoWorkerHandleFactory implements RhinoWorkerHandleFactory {
+public class DefaultRhinoWorkerHandleFactory implements RhinoWorkerHandleFactory, Stoppable {
 
     private final Factory<WorkerProcessBuilder> workerProcessBuilderFactory;
+    private final RhinoWorkerClientsManager clientsManager;
 
     public DefaultRhinoWorkerHandleFactory(Factory<WorkerProcessBuilder> workerProcessBuilderFactory) {
+        this(workerProcessBuilderFactory, new RhinoWorkerClientsManager());
+    }
+
+    DefaultRhinoWorkerHandleFactory(Factory<WorkerProcessBuilder> workerProcessBuilderFactory, RhinoWorkerClientsManager clientsManager) {
         this.workerProcessBuilderFactory = workerProcessBuilderFactory;
+        this.clientsManager = clientsManager;
     }
 
-    public <R extends Serializable, P extends Serializable> RhinoWorkerHandle<R, P> create(Iterable<File> rhinoClasspath, RhinoWorkerSpec<R, P> workerSpec, LogLevel logLevel, Action<JavaExecSpec> javaExecSpecAction) {
-        WorkerProcessBuilder builder = workerProcessBuilderFactory.create();
-        builder.setBaseName("Gradle Rhino Worker");
-        builder.setLogLevel(logLevel);
-        builder.applicationClasspath(rhinoClasspath);
-        builder.sharedPackages("org.mozilla.javascript");
+    public <R extends Serializable, P extends Serializable> RhinoWorkerHandle<R, P> create(final Iterable<File> rhinoClasspath, RhinoWorkerSpec<R, P> workerSpec, final LogLevel logLevel, final Action<JavaExecSpec> javaExecSpecAction) {
+        // Each worker process is started from its own builder, so that the listener of one worker is not notified when another worker finishes
+        Factory<WorkerProcessBuilder> builderFactory = new Factory<WorkerProcessBuilder>() {
+            public WorkerProcessBuilder create() {
+                WorkerProcessBuilder builder = workerProcessBuilderFactory.create();
+                builder.setBaseName("Gradle Rhino Worker");
+                builder.setLogLevel(logLevel);
+                builder.applicationClasspath(rhinoClasspath);
+                builder.sharedPackages("org.mozilla.javascript");
+
+                JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+                if (javaExecSpecAction != null) {
+                    javaExecSpecAction.execute(javaCommand);
+                }
 
-        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
-        if (javaExecSpecAction != null) {
-            javaExecSpecAction.execute(javaCommand);
+                builder.worker(new RhinoServer());
+                return builder;
+            }
+        };
+
+        // A running worker can be used by any handle whose worker process would be started the same way
+        JavaExecHandleBuilder javaCommand = builderFactory.create().getJavaCommand();
+        List<File> classpath = new ArrayList<File>();
+        for (File file : rhinoClasspath) {
+            classpath.add(file);
         }
+        List<Object> key = Arrays.<Object>asList(classpath, logLevel, javaCommand.getWorkingDir(), javaCommand.getAllJvmArgs(), javaCommand.getEnvironment());
+
+        return new DefaultRhinoWorkerHandle<R, P>(workerSpec, key, builderFactory, clientsManager);
+    }
 
-        WorkerProcess workerProcess = builder.worker(new RhinoServer<R, P>(workerSpec)).build();
-        return new DefaultRhinoWorkerHandle<R, P>(workerSpec.getResultType(), workerProcess);
+    public void stop() {
+        clientsManager.stop();
     }
 
 }
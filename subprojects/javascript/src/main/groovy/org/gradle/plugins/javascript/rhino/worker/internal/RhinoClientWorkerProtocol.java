@@ -16,10 +16,14 @@
 
 package org.gradle.plugins.javascript.rhino.worker.internal;
 
+import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerSpec;
+
 import java.io.Serializable;
 
-public interface RhinoClientWorkerProtocol<P extends Serializable> {
+public interface RhinoClientWorkerProtocol {
+
+    void process(RhinoWorkerSpec<?, ?> workerSpec, Serializable payload);
 
-    void process(P payload);
+    void stop();
 
 }
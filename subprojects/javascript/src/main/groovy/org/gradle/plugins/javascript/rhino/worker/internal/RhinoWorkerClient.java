@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.javascript.rhino.worker.internal;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerSpec;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.ExecHandle;
+import org.gradle.process.internal.ExecHandleListener;
+import org.gradle.process.internal.WorkerProcess;
+
+import java.io.Serializable;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A running Rhino worker process, which processes one payload at a time. The client listens for the worker process to finish, so that a payload
+ * is failed rather than waiting forever for its result when the worker process dies.
+ */
+public class RhinoWorkerClient implements RhinoWorkerClientProtocol, ExecHandleListener, Stoppable {
+
+    private final Object key;
+    // holds the replies of the worker, and the result of the worker process once it has finished
+    private final BlockingQueue<Object> events = new LinkedBlockingQueue<Object>();
+    private WorkerProcess workerProcess;
+    private RhinoClientWorkerProtocol server;
+    private volatile boolean processFinished;
+
+    public RhinoWorkerClient(Object key) {
+        this.key = key;
+    }
+
+    void connect(WorkerProcess workerProcess) {
+        this.workerProcess = workerProcess;
+        server = workerProcess.getConnection().addOutgoing(RhinoClientWorkerProtocol.class);
+        workerProcess.getConnection().addIncoming(RhinoWorkerClientProtocol.class, this);
+        workerProcess.getConnection().connect();
+    }
+
+    public Object getKey() {
+        return key;
+    }
+
+    public <R extends Serializable, P extends Serializable> R process(RhinoWorkerSpec<R, P> workerSpec, P payload) {
+        Object event;
+        try {
+            if (!processFinished) {
+                server.process(workerSpec, payload);
+            }
+            event = events.take();
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        if (event instanceof ExecResult) {
+            ExecResult execResult = (ExecResult) event;
+            Throwable failure = null;
+            try {
+                execResult.rethrowFailure();
+            } catch (Throwable t) {
+                failure = t;
+            }
+            throw new ExecException(String.format("Rhino worker process finished unexpectedly with exit value %s.", execResult.getExitValue()), failure);
+        }
+
+        Reply reply = (Reply) event;
+
+        if (reply.failure != null) {
+            throw UncheckedException.throwAsUncheckedException(reply.failure);
+        }
+
+        Serializable result = reply.result;
+        if (result == null) {
+            return null;
+        }
+
+        Class<R> resultType = workerSpec.getResultType();
+        if (resultType.isInstance(result)) {
+            return resultType.cast(result);
+        } else {
+            throw new IllegalStateException(String.format("Was expecting result of type %s, received %s", resultType, result.getClass()));
+        }
+    }
+
+    /**
+     * Returns true when the worker process has finished, so the worker cannot process any more payloads.
+     */
+    public boolean isProcessFinished() {
+        return processFinished;
+    }
+
+    public void stop() {
+        server.stop();
+        workerProcess.waitForStop();
+    }
+
+    public void initialisationError(Exception e) {
+        reply(new Reply(null, e));
+    }
+
+    public void receiveResult(Serializable result) {
+        reply(new Reply(result, null));
+    }
+
+    public void executionError(Exception e) {
+        reply(new Reply(null, e));
+    }
+
+    private void reply(Reply reply) {
+        events.add(reply);
+    }
+
+    public void executionStarted(ExecHandle execHandle) {
+    }
+
+    public void executionFinished(ExecHandle execHandle, ExecResult execResult) {
+        processFinished = true;
+        events.add(execResult);
+    }
+
+    private static class Reply {
+        private final Serializable result;
+        private final Exception failure;
+
+        private Reply(Serializable result, Exception failure) {
+            this.result = result;
+            this.failure = failure;
+        }
+    }
+}
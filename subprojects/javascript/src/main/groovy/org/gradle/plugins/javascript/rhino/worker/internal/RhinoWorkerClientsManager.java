@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.javascript.rhino.worker.internal;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.WorkerProcess;
+import org.gradle.process.internal.WorkerProcessBuilder;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Keeps Rhino worker processes running for the rest of the build once they have been started, so that later tasks using the same Rhino classpath
+ * and process settings do not need to start a new process.
+ */
+public class RhinoWorkerClientsManager implements Stoppable {
+
+    private static final Logger LOGGER = Logging.getLogger(RhinoWorkerClientsManager.class);
+
+    private final Object lock = new Object();
+    private final List<RhinoWorkerClient> allClients = new ArrayList<RhinoWorkerClient>();
+    private final List<RhinoWorkerClient> idleClients = new ArrayList<RhinoWorkerClient>();
+
+    public RhinoWorkerClient reserveIdleClient(Object key) {
+        List<RhinoWorkerClient> toStop = new ArrayList<RhinoWorkerClient>();
+        try {
+            synchronized (lock) {
+                Iterator<RhinoWorkerClient> it = idleClients.iterator();
+                while (it.hasNext()) {
+                    RhinoWorkerClient candidate = it.next();
+                    if (candidate.isProcessFinished()) {
+                        // the worker process has died while idle
+                        it.remove();
+                        allClients.remove(candidate);
+                        toStop.add(candidate);
+                    } else if (candidate.getKey().equals(key)) {
+                        it.remove();
+                        return candidate;
+                    }
+                }
+                return null;
+            }
+        } finally {
+            stopClients(toStop);
+        }
+    }
+
+    public RhinoWorkerClient reserveNewClient(Object key, WorkerProcessBuilder builder) {
+        //allow the worker to be started concurrently
+        RhinoWorkerClient client = new RhinoWorkerClient(key);
+        builder.getJavaCommand().listener(client);
+        WorkerProcess process = builder.build();
+        process.start();
+        client.connect(process);
+
+        synchronized (lock) {
+            allClients.add(client);
+        }
+        return client;
+    }
+
+    public void release(RhinoWorkerClient client) {
+        synchronized (lock) {
+            idleClients.add(client);
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            LOGGER.debug("Stopping {} Rhino worker(s).", allClients.size());
+            CompositeStoppable.stoppable(allClients).stop();
+            LOGGER.info("Stopped {} Rhino worker(s).", allClients.size());
+            allClients.clear();
+            idleClients.clear();
+        }
+    }
+
+    private static void stopClients(List<RhinoWorkerClient> clients) {
+        for (RhinoWorkerClient client : clients) {
+            try {
+                client.stop();
+            } catch (Exception e) {
+                LOGGER.debug("Could not stop Rhino worker.", e);
+            }
+        }
+    }
+}
@@ -18,48 +18,77 @@ package org.gradle.plugins.javascript.rhino.worker.internal;
 
 import org.gradle.internal.UncheckedException;
 import org.gradle.plugins.javascript.rhino.worker.RhinoWorker;
+import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerSpec;
 import org.mozilla.javascript.RhinoException;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
-public class RhinoWorkerReceiver<P extends Serializable> implements RhinoClientWorkerProtocol<P> {
+/**
+ * Processes payloads in a Rhino worker process until it is stopped. Workers are created once per type and reused for later payloads, so they can
+ * keep state, such as parsed scripts, between payloads.
+ */
+public class RhinoWorkerReceiver implements RhinoClientWorkerProtocol {
 
-    private final Class<P> payloadType;
-    private final RhinoWorker<?, P> worker;
     private final RhinoWorkerClientProtocol clientHandle;
+    private final Map<String, RhinoWorker<?, ?>> workers = new HashMap<String, RhinoWorker<?, ?>>();
 
-    private final CountDownLatch latch = new CountDownLatch(1);
+    private final CountDownLatch stop = new CountDownLatch(1);
 
-    public RhinoWorkerReceiver(Class<P> payloadType, RhinoWorkerClientProtocol clientHandle, RhinoWorker<?, P> worker) {
-        this.payloadType = payloadType;
+    public RhinoWorkerReceiver(RhinoWorkerClientProtocol clientHandle) {
         this.clientHandle = clientHandle;
-        this.worker = worker;
     }
 
-    public void process(P payload) {
-        if (!payloadType.isInstance(payload)) {
+    public void process(RhinoWorkerSpec<?, ?> workerSpec, Serializable payload) {
+        RhinoWorker<?, ?> worker;
+        try {
+            worker = getWorker(workerSpec);
+        } catch (Exception e) {
+            clientHandle.initialisationError(e);
+            return;
+        }
+
+        if (!workerSpec.getPayloadType().isInstance(payload)) {
             clientHandle.initialisationError(
-                    new IllegalArgumentException(String.format("Expected payload of type '%s', received '%s' with type '%s'", payloadType.getName(), payload, payload.getClass().getName()))
+                    new IllegalArgumentException(String.format("Expected payload of type '%s', received '%s' with type '%s'", workerSpec.getPayloadType().getName(), payload, payload.getClass().getName()))
             );
             return;
         }
 
         try {
-            Serializable result = worker.process(payload);
+            @SuppressWarnings("unchecked") Serializable result = ((RhinoWorker<?, Serializable>) worker).process(payload);
             clientHandle.receiveResult(result);
         } catch (RhinoException e) {
             clientHandle.executionError(worker.convertException(e));
         } catch (Exception e) {
             clientHandle.executionError(e);
-        } finally {
-            latch.countDown();
         }
     }
 
+    private RhinoWorker<?, ?> getWorker(RhinoWorkerSpec<?, ?> workerSpec) throws Exception {
+        String workerType = workerSpec.getWorkerType().getName();
+        RhinoWorker<?, ?> worker = workers.get(workerType);
+        if (worker == null) {
+            Class<?> actionClass = getClass().getClassLoader().loadClass(workerType);
+            Object actionObject = actionClass.newInstance();
+            if (!(actionObject instanceof RhinoWorker)) {
+                throw new IllegalStateException(String.format("Implementation class %s is not a transformer", workerType));
+            }
+            worker = (RhinoWorker<?, ?>) actionObject;
+            workers.put(workerType, worker);
+        }
+        return worker;
+    }
+
+    public void stop() {
+        stop.countDown();
+    }
+
     public void waitFor() {
         try {
-            latch.await();
+            stop.await();
         } catch (InterruptedException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
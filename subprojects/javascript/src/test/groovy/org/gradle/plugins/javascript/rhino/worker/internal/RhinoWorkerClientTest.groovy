@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.javascript.rhino.worker.internal
+
+import org.gradle.messaging.remote.ObjectConnection
+import org.gradle.plugins.javascript.rhino.worker.RhinoWorker
+import org.gradle.plugins.javascript.rhino.worker.RhinoWorkerSpec
+import org.gradle.process.ExecResult
+import org.gradle.process.internal.ExecException
+import org.gradle.process.internal.ExecHandle
+import org.gradle.process.internal.WorkerProcess
+import spock.lang.Specification
+
+class RhinoWorkerClientTest extends Specification {
+    def server = Mock(RhinoClientWorkerProtocol)
+    def connection = Stub(ObjectConnection) {
+        addOutgoing(RhinoClientWorkerProtocol) >> server
+    }
+    def workerProcess = Stub(WorkerProcess) {
+        getConnection() >> connection
+    }
+    def workerSpec = new RhinoWorkerSpec(String, String, RhinoWorker)
+    def client = new RhinoWorkerClient("key")
+
+    def setup() {
+        client.connect(workerProcess)
+    }
+
+    def "returns the result of the payload"() {
+        when:
+        def result = client.process(workerSpec, "payload")
+
+        then:
+        1 * server.process(workerSpec, "payload") >> { client.receiveResult("result") }
+        result == "result"
+        !client.processFinished
+    }
+
+    def "fails the payload when the worker process finishes while processing it"() {
+        def execResult = Stub(ExecResult) {
+            getExitValue() >> 137
+        }
+
+        when:
+        client.process(workerSpec, "payload")
+
+        then:
+        1 * server.process(workerSpec, "payload") >> {
+            // the worker dies from another thread while the caller waits for the result
+            Thread.start {
+                client.executionFinished(Stub(ExecHandle), execResult)
+            }
+        }
+        def e = thrown(ExecException)
+        e.message == "Rhino worker process finished unexpectedly with exit value 137."
+        client.processFinished
+    }
+
+    def "fails the payload without sending it when the worker process has already finished"() {
+        client.executionFinished(Stub(ExecHandle), Stub(ExecResult))
+
+        when:
+        client.process(workerSpec, "payload")
+
+        then:
+        thrown(ExecException)
+        0 * server.process(_, _)
+    }
+}
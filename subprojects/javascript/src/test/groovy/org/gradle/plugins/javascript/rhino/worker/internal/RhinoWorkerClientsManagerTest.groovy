@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.javascript.rhino.worker.internal
+
+import org.gradle.messaging.remote.ObjectConnection
+import org.gradle.process.ExecResult
+import org.gradle.process.internal.ExecHandle
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.WorkerProcess
+import org.gradle.process.internal.WorkerProcessBuilder
+import spock.lang.Specification
+import spock.lang.Subject
+
+class RhinoWorkerClientsManagerTest extends Specification {
+
+    def workerProcess = Mock(WorkerProcess)
+    def connection = Mock(ObjectConnection)
+    def server = Mock(RhinoClientWorkerProtocol)
+    def javaCommand = Mock(JavaExecHandleBuilder)
+    def builder = Stub(WorkerProcessBuilder) {
+        getJavaCommand() >> javaCommand
+        build() >> workerProcess
+    }
+
+    @Subject manager = new RhinoWorkerClientsManager()
+
+    def "starts and connects a new worker process"() {
+        when:
+        def client = manager.reserveNewClient("key", builder)
+
+        then:
+        1 * javaCommand.listener({ it instanceof RhinoWorkerClient })
+        1 * workerProcess.start()
+        _ * workerProcess.getConnection() >> connection
+        1 * connection.addOutgoing(RhinoClientWorkerProtocol) >> server
+        1 * connection.addIncoming(RhinoWorkerClientProtocol, { it instanceof RhinoWorkerClient })
+        1 * connection.connect()
+        client.key == "key"
+    }
+
+    def "reuses idle client with the same key"() {
+        given:
+        workerProcess.getConnection() >> connection
+        def client = manager.reserveNewClient("key", builder)
+
+        expect:
+        manager.reserveIdleClient("key") == null
+
+        when:
+        manager.release(client)
+
+        then:
+        manager.reserveIdleClient("other") == null
+        manager.reserveIdleClient("key") == client
+        manager.reserveIdleClient("key") == null
+    }
+
+    def "stops idle client whose process has finished"() {
+        given:
+        workerProcess.getConnection() >> connection
+        connection.addOutgoing(RhinoClientWorkerProtocol) >> server
+        def client = manager.reserveNewClient("key", builder)
+        manager.release(client)
+        client.executionFinished(Stub(ExecHandle), Stub(ExecResult))
+
+        when:
+        def reserved = manager.reserveIdleClient("key")
+
+        then:
+        reserved == null
+        1 * server.stop()
+        1 * workerProcess.waitForStop()
+
+        when:
+        manager.stop()
+
+        then:
+        0 * server.stop()
+    }
+
+    def "stops all clients"() {
+        given:
+        workerProcess.getConnection() >> connection
+        connection.addOutgoing(RhinoClientWorkerProtocol) >> server
+        def client = manager.reserveNewClient("key", builder)
+        manager.release(client)
+
+        when:
+        manager.stop()
+
+        then:
+        1 * server.stop()
+        1 * workerProcess.waitForStop()
+
+        and:
+        manager.reserveIdleClient("key") == null
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the file managers of the in-process Java compiler alive between compilations, including those of later builds run by the same daemon,
+ * so that the jars of an unchanged classpath are not reopened and re-indexed by every compilation. File managers are keyed by encoding,
+ * classpath and boot classpath only, since the other compiler options such as the destination directory or source level are applied to the
+ * file manager again by every compilation. They are discarded when a jar on the classpath changes, when the archives held open by the idle
+ * file managers exceed the configured total size, and when the daemon stops.
+ *
+ * <p>A cached file manager is handed to at most one compilation at a time.</p>
+ */
+public class JavaFileManagerCache implements Stoppable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerCache.class);
+    private static final List<String> BOOT_CLASSPATH_OPTIONS = Arrays.asList("-bootclasspath", "-extdirs", "-endorseddirs");
+
+    private final Object lock = new Object();
+    private final long maxRetainedBytes;
+    private final Map<Key, CachedFileManager> idle = new LinkedHashMap<Key, CachedFileManager>(16, 0.75f, true);
+    private long retainedBytes;
+
+    /**
+     * Creates a cache that keeps idle file managers whose archives take up to a quarter of the maximum heap size.
+     * The memory used by a file manager grows with the archives it holds open, so their size is used as its weight.
+     */
+    public JavaFileManagerCache() {
+        this(Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    public JavaFileManagerCache(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * Returns a file manager for the given classpath and boot classpath options, reusing an idle one when the jars on them have not changed since it was last used.
+     * The file manager must be handed back using {@link #release(CachedFileManager)}.
+     */
+    public CachedFileManager acquire(JavaCompiler compiler, Charset charset, List<String> options, Iterable<File> classpath) {
+        List<File> files = new ArrayList<File>();
+        for (File file : classpath) {
+            files.add(file);
+        }
+        List<String> bootClasspath = bootClasspath(options);
+        for (int i = 1; i < bootClasspath.size(); i += 2) {
+            for (String entry : bootClasspath.get(i).split(File.pathSeparator)) {
+                files.add(new File(entry));
+            }
+        }
+        Key key = new Key(charset, files, bootClasspath);
+        List<Long> fingerprint = fingerprint(files);
+        synchronized (lock) {
+            CachedFileManager fileManager = idle.remove(key);
+            if (fileManager != null) {
+                retainedBytes -= fileManager.weight;
+                if (fileManager.fingerprint.equals(fingerprint)) {
+                    LOGGER.debug("Reusing cached Java compiler file manager.");
+                    return fileManager;
+                }
+                LOGGER.debug("Compile classpath has changed, discarding cached Java compiler file manager.");
+                fileManager.discard();
+            }
+        }
+        return new CachedFileManager(key, fingerprint, compiler.getStandardFileManager(null, null, charset));
+    }
+
+    /**
+     * Makes the given file manager available to later compilations using the same classpath.
+     */
+    public void release(CachedFileManager fileManager) {
+        try {
+            fileManager.flush();
+        } catch (IOException e) {
+            fileManager.discard();
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        synchronized (lock) {
+            CachedFileManager previous = idle.put(fileManager.key, fileManager);
+            if (previous != null) {
+                retainedBytes -= previous.weight;
+                if (previous != fileManager) {
+                    previous.discard();
+                }
+            }
+            retainedBytes += fileManager.weight;
+            Iterator<CachedFileManager> iterator = idle.values().iterator();
+            while (retainedBytes > maxRetainedBytes && iterator.hasNext()) {
+                CachedFileManager eldest = iterator.next();
+                iterator.remove();
+                retainedBytes -= eldest.weight;
+                eldest.discard();
+            }
+        }
+    }
+
+    public void stop() {
+        synchronized (lock) {
+            for (CachedFileManager fileManager : idle.values()) {
+                fileManager.discard();
+            }
+            idle.clear();
+            retainedBytes = 0;
+        }
+    }
+
+    int getIdleCount() {
+        synchronized (lock) {
+            return idle.size();
+        }
+    }
+
+    long getRetainedBytes() {
+        synchronized (lock) {
+            return retainedBytes;
+        }
+    }
+
+    private static List<String> bootClasspath(List<String> options) {
+        List<String> bootClasspath = new ArrayList<String>();
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            if (BOOT_CLASSPATH_OPTIONS.contains(option) && i + 1 < options.size()) {
+                bootClasspath.add(option);
+                bootClasspath.add(options.get(++i));
+            }
+        }
+        return bootClasspath;
+    }
+
+    private static List<Long> fingerprint(Iterable<File> classpath) {
+        // Directories are listed again by every compilation, so only the archives that the file manager keeps open need to be checked
+        List<Long> fingerprint = new ArrayList<Long>();
+        for (File file : classpath) {
+            if (file.isFile()) {
+                fingerprint.add(file.length());
+                fingerprint.add(file.lastModified());
+            }
+        }
+        return fingerprint;
+    }
+
+    private static long weight(List<Long> fingerprint) {
+        long weight = 0;
+        for (int i = 0; i < fingerprint.size(); i += 2) {
+            weight += fingerprint.get(i);
+        }
+        return weight;
+    }
+
+    private static class Key {
+        private final String charset;
+        private final List<File> classpath;
+        private final List<String> bootClasspath;
+
+        private Key(Charset charset, List<File> classpath, List<String> bootClasspath) {
+            this.charset = charset == null ? null : charset.name();
+            this.classpath = classpath;
+            this.bootClasspath = bootClasspath;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return (charset == null ? other.charset == null : charset.equals(other.charset)) && classpath.equals(other.classpath) && bootClasspath.equals(other.bootClasspath);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = charset == null ? 0 : charset.hashCode();
+            result = 31 * result + classpath.hashCode();
+            return 31 * result + bootClasspath.hashCode();
+        }
+    }
+
+    /**
+     * A file manager that survives the end of a compilation. Closing it only flushes it, the underlying file manager is closed when it is evicted from the cache.
+     */
+    public static class CachedFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+        private final Key key;
+        private final List<Long> fingerprint;
+        private final long weight;
+
+        private CachedFileManager(Key key, List<Long> fingerprint, StandardJavaFileManager fileManager) {
+            super(fileManager);
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.weight = weight(fingerprint);
+        }
+
+        public Iterable<? extends JavaFileObject> getJavaFileObjectsFromFiles(Iterable<? extends File> files) {
+            return fileManager.getJavaFileObjectsFromFiles(files);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void discard() {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                LOGGER.debug("Could not close Java compiler file manager.", e);
+            }
+        }
+    }
+}
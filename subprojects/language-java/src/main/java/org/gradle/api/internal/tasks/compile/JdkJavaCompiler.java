@@ -30,33 +30,54 @@ import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.List;
 
 public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable {
     private static final Logger LOGGER = LoggerFactory.getLogger(JdkJavaCompiler.class);
 
-    public WorkResult execute(JavaCompileSpec spec) {
-        LOGGER.info("Compiling with JDK Java compiler API.");
+    // Not serialized, so compiler daemons always use a fresh file manager
+    private final transient JavaFileManagerCache fileManagerCache;
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
-        if (!success) {
-            throw new CompilationFailedException();
-        }
+    public JdkJavaCompiler() {
+        this(null);
+    }
 
-        return new SimpleWorkResult(true);
+    public JdkJavaCompiler(JavaFileManagerCache fileManagerCache) {
+        this.fileManagerCache = fileManagerCache;
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+    public WorkResult execute(JavaCompileSpec spec) {
+        LOGGER.info("Compiling with JDK Java compiler API.");
+
         JavaCompiler compiler = findCompiler();
         if(compiler==null){
             throw new RuntimeException("Cannot find System Java Compiler. Ensure that you have installed a JDK (not just a JRE) and configured your JAVA_HOME system variable to point to the according directory.");
         }
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
         CompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
-        Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
-        return compiler.getTask(null, null, null, options, null, compilationUnits);
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+
+        boolean success;
+        if (fileManagerCache == null) {
+            StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, charset);
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
+            success = compiler.getTask(null, null, null, options, null, compilationUnits).call();
+        } else {
+            Iterable<File> classpath = spec.getClasspath() != null ? spec.getClasspath() : Collections.<File>emptyList();
+            JavaFileManagerCache.CachedFileManager fileManager = fileManagerCache.acquire(compiler, charset, options, classpath);
+            try {
+                Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(spec.getSource());
+                success = compiler.getTask(null, fileManager, null, options, null, compilationUnits).call();
+            } finally {
+                fileManagerCache.release(fileManager);
+            }
+        }
+        if (!success) {
+            throw new CompilationFailedException();
+        }
+
+        return new SimpleWorkResult(true);
     }
 
     private static JavaCompiler findCompiler() {
@@ -20,7 +20,7 @@ import org.gradle.api.tasks.compile.CompileOptions
 import spock.lang.Specification
 
 class DefaultJavaCompilerFactoryTest extends Specification {
-    def factory = new DefaultJavaCompilerFactory(new File("daemon-work-dir"), Mock(CompilerDaemonFactory))
+    def factory = new DefaultJavaCompilerFactory(new File("daemon-work-dir"), Mock(CompilerDaemonFactory), new JavaFileManagerCache())
     def options = new CompileOptions()
     
     def "creates in-process compiler when not forking"() {
@@ -30,6 +30,7 @@ class DefaultJavaCompilerFactoryTest extends Specification {
         def compiler = factory.create(options)
         compiler instanceof NormalizingJavaCompiler
         compiler.delegate instanceof JdkJavaCompiler
+        compiler.delegate.fileManagerCache != null
     }
 
     def "creates in-process compiler when not forking and joint compilation"() {
@@ -67,6 +68,7 @@ class DefaultJavaCompilerFactoryTest extends Specification {
         compiler instanceof NormalizingJavaCompiler
         compiler.delegate instanceof DaemonJavaCompiler
         compiler.delegate.delegate instanceof JdkJavaCompiler
+        compiler.delegate.delegate.fileManagerCache == null
     }
 
     def "creates in-process compiler when forking and joint compilation"() {
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+
+class JavaFileManagerCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def compiler = Mock(JavaCompiler)
+    def cache = new JavaFileManagerCache(10)
+
+    def "reuses file manager when classpath has not changed"() {
+        def jar = tmpDir.file("lib.jar").createFile()
+
+        when:
+        def first = cache.acquire(compiler, null, ["-classpath", jar.path], [jar])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, ["-classpath", jar.path], [jar])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        second.is(first)
+    }
+
+    def "creates new file manager when a jar on the classpath changes"() {
+        def jar = tmpDir.file("lib.jar").createFile()
+        def fileManager = Mock(StandardJavaFileManager)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        def first = cache.acquire(compiler, null, ["-classpath", jar.path], [jar])
+        cache.release(first)
+
+        when:
+        jar.text = "changed"
+        def second = cache.acquire(compiler, null, ["-classpath", jar.path], [jar])
+
+        then:
+        !second.is(first)
+        1 * fileManager.close()
+    }
+
+    def "shares file manager between compilations with different destination and source level"() {
+        def jar = tmpDir.file("lib.jar").createFile()
+
+        when:
+        def first = cache.acquire(compiler, null, ["-d", tmpDir.file("a").path, "-source", "1.6", "-classpath", jar.path], [jar])
+        cache.release(first)
+        def second = cache.acquire(compiler, null, ["-d", tmpDir.file("b").path, "-source", "1.7", "-g", "-classpath", jar.path], [jar])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+        second.is(first)
+    }
+
+    def "creates new file manager when classpath differs"() {
+        given:
+        compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+        def first = cache.acquire(compiler, null, [], [tmpDir.file("a.jar")])
+        cache.release(first)
+
+        expect:
+        !cache.acquire(compiler, null, [], [tmpDir.file("b.jar")]).is(first)
+    }
+
+    def "creates new file manager when boot classpath differs"() {
+        given:
+        compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+        def first = cache.acquire(compiler, null, ["-bootclasspath", tmpDir.file("rt.jar").path], [])
+        cache.release(first)
+
+        expect:
+        !cache.acquire(compiler, null, ["-bootclasspath", tmpDir.file("other-rt.jar").path], []).is(first)
+    }
+
+    def "creates new file manager when a jar on the boot classpath changes"() {
+        def jar = tmpDir.file("rt.jar").createFile()
+        def fileManager = Mock(StandardJavaFileManager)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager)]
+        def first = cache.acquire(compiler, null, ["-bootclasspath", jar.path], [])
+        cache.release(first)
+
+        when:
+        jar.text = "changed"
+        def second = cache.acquire(compiler, null, ["-bootclasspath", jar.path], [])
+
+        then:
+        !second.is(first)
+        1 * fileManager.close()
+    }
+
+    def "does not hand the same file manager to concurrent compilations"() {
+        given:
+        compiler.getStandardFileManager(null, null, null) >> { Mock(StandardJavaFileManager) }
+
+        when:
+        def first = cache.acquire(compiler, null, [], [])
+        def second = cache.acquire(compiler, null, [], [])
+
+        then:
+        !second.is(first)
+    }
+
+    def "closes least recently used file managers when their archives exceed the retained size"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jars = ["a.jar", "b.jar", "c.jar"].collect { tmpDir.file(it) }
+        jars.each { it.text = "1234" }
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >>> [fileManager, Mock(StandardJavaFileManager), Mock(StandardJavaFileManager)]
+
+        when:
+        jars.each { cache.release(cache.acquire(compiler, null, [], [it])) }
+
+        then:
+        cache.idleCount == 2
+        cache.retainedBytes == 8
+        1 * fileManager.close()
+    }
+
+    def "does not retain a file manager whose archives exceed the retained size"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def jar = tmpDir.file("lib.jar")
+        jar.text = "12345678901"
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        when:
+        cache.release(cache.acquire(compiler, null, [], [jar]))
+
+        then:
+        cache.idleCount == 0
+        cache.retainedBytes == 0
+        1 * fileManager.close()
+    }
+
+    def "closing a cached file manager only flushes it"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+        def cached = cache.acquire(compiler, null, [], [])
+
+        when:
+        cached.close()
+
+        then:
+        1 * fileManager.flush()
+        0 * fileManager.close()
+    }
+
+    def "closes idle file managers when stopped"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        given:
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+        cache.release(cache.acquire(compiler, null, [], []))
+
+        when:
+        cache.stop()
+
+        then:
+        1 * fileManager.close()
+        cache.idleCount == 0
+        cache.retainedBytes == 0
+    }
+}
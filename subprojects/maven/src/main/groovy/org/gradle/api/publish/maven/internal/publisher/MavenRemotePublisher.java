@@ -0,0 +1,477 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.publish.maven.internal.publisher;
+
+import org.gradle.api.GradleException;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
+import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
+import org.gradle.api.publish.maven.MavenArtifact;
+import org.gradle.internal.Factory;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.internal.resource.ExternalResource;
+import org.gradle.internal.resource.transport.ExternalResourceRepository;
+import org.gradle.internal.xml.SimpleXmlWriter;
+import org.gradle.util.GUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.*;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes to a remote Maven repository using the Gradle resource transports, without going through the Maven Ant tasks.
+ *
+ * <p>The MD5 and SHA1 checksums of each artifact are calculated while the artifact is uploaded. The first artifact is uploaded on its own, so that
+ * the transport creates the target directory, and the remaining artifacts are uploaded concurrently. The {@code maven-metadata.xml} files are
+ * updated once all artifacts have been uploaded.</p>
+ */
+public class MavenRemotePublisher implements MavenPublisher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(MavenRemotePublisher.class);
+    private static final String METADATA_FILE = "maven-metadata.xml";
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+    public static final int MAX_PARALLEL_UPLOADS = 4;
+
+    private final RepositoryTransportFactory transportFactory;
+    private final ExecutorFactory executorFactory;
+    private final TimeProvider timeProvider;
+    private final int maxParallelUploads;
+
+    public MavenRemotePublisher(RepositoryTransportFactory transportFactory, ExecutorFactory executorFactory, TimeProvider timeProvider) {
+        this(transportFactory, executorFactory, timeProvider, MAX_PARALLEL_UPLOADS);
+    }
+
+    MavenRemotePublisher(RepositoryTransportFactory transportFactory, ExecutorFactory executorFactory, TimeProvider timeProvider, int maxParallelUploads) {
+        this.transportFactory = transportFactory;
+        this.executorFactory = executorFactory;
+        this.timeProvider = timeProvider;
+        this.maxParallelUploads = maxParallelUploads;
+    }
+
+    public void publish(MavenNormalizedPublication publication, MavenArtifactRepository artifactRepository) {
+        LOGGER.info("Publishing to repository {}", artifactRepository);
+        URI rootUri = artifactRepository.getUrl();
+        ExternalResourceRepository repository = transportFactory.createTransport(rootUri.getScheme(), artifactRepository.getName(), artifactRepository.getCredentials()).getRepository();
+
+        MavenProjectIdentity projectIdentity = publication.getProjectIdentity();
+        String groupId = projectIdentity.getGroupId();
+        String artifactId = projectIdentity.getArtifactId();
+        String version = projectIdentity.getVersion();
+        String moduleDir = rootUri.toString().replaceAll("/+$", "") + "/" + groupId.replace('.', '/') + "/" + artifactId;
+        String versionDir = moduleDir + "/" + version;
+        Date now = new Date(timeProvider.getCurrentTime());
+
+        try {
+            String artifactVersion = version;
+            Metadata snapshotMetadata = null;
+            if (version.endsWith(SNAPSHOT_SUFFIX)) {
+                snapshotMetadata = Metadata.load(repository, URI.create(versionDir + "/" + METADATA_FILE), groupId, artifactId);
+                snapshotMetadata.version = version;
+                snapshotMetadata.timestamp = format("yyyyMMdd.HHmmss", now);
+                snapshotMetadata.buildNumber++;
+                artifactVersion = version.substring(0, version.length() - SNAPSHOT_SUFFIX.length()) + "-" + snapshotMetadata.timestamp + "-" + snapshotMetadata.buildNumber;
+            }
+            // Load the module meta-data before uploading anything, so that nothing is published when it cannot be updated
+            Metadata moduleMetadata = Metadata.load(repository, URI.create(moduleDir + "/" + METADATA_FILE), groupId, artifactId);
+
+            List<Upload> uploads = new ArrayList<Upload>();
+            MavenArtifact mainArtifact = publication.getMainArtifact();
+            if (mainArtifact != null) {
+                uploads.add(new Upload(mainArtifact.getFile(), mainArtifact.getClassifier(), mainArtifact.getExtension()));
+            }
+            uploads.add(new Upload(publication.getPomFile(), null, "pom"));
+            for (MavenArtifact artifact : publication.getArtifacts()) {
+                if (artifact != mainArtifact) {
+                    uploads.add(new Upload(artifact.getFile(), artifact.getClassifier(), artifact.getExtension()));
+                }
+            }
+            for (Upload upload : uploads) {
+                String classifier = GUtil.elvis(upload.classifier, "");
+                String extension = GUtil.elvis(upload.extension, "");
+                String fileName = artifactId + "-" + artifactVersion + (classifier.length() > 0 ? "-" + classifier : "") + (extension.length() > 0 ? "." + extension : "");
+                upload.destination = URI.create(versionDir + "/" + fileName);
+                if (snapshotMetadata != null) {
+                    snapshotMetadata.snapshotVersions.add(new String[]{classifier, extension, artifactVersion});
+                }
+            }
+
+            uploadAll(repository, uploads);
+
+            String lastUpdated = format("yyyyMMddHHmmss", now);
+            if (snapshotMetadata != null) {
+                snapshotMetadata.lastUpdated = lastUpdated;
+                putWithChecksums(repository, snapshotMetadata.toByteArray(), URI.create(versionDir + "/" + METADATA_FILE));
+            }
+
+            if (!moduleMetadata.versions.contains(version)) {
+                moduleMetadata.versions.add(version);
+            }
+            moduleMetadata.latest = version;
+            if (snapshotMetadata == null) {
+                moduleMetadata.release = version;
+            }
+            moduleMetadata.lastUpdated = lastUpdated;
+            putWithChecksums(repository, moduleMetadata.toByteArray(), URI.create(moduleDir + "/" + METADATA_FILE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void uploadAll(final ExternalResourceRepository repository, List<Upload> uploads) throws IOException {
+        // Upload the first artifact by itself, so that concurrent uploads do not race to create the target directory
+        uploads.get(0).run(repository);
+
+        int workers = Math.min(maxParallelUploads, uploads.size() - 1);
+        if (workers <= 1) {
+            for (Upload upload : uploads.subList(1, uploads.size())) {
+                upload.run(repository);
+            }
+            return;
+        }
+
+        final Queue<Upload> queue = new ConcurrentLinkedQueue<Upload>(uploads.subList(1, uploads.size()));
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        StoppableExecutor executor = executorFactory.create("Maven publication upload");
+        try {
+            for (int i = 0; i < workers; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        Upload upload;
+                        while (failure.get() == null && (upload = queue.poll()) != null) {
+                            try {
+                                upload.run(repository);
+                            } catch (Throwable t) {
+                                failure.compareAndSet(null, t);
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.stop();
+        }
+        if (failure.get() != null) {
+            throw UncheckedException.throwAsUncheckedException(failure.get());
+        }
+    }
+
+    private static void putWithChecksums(ExternalResourceRepository repository, byte[] content, URI destination) throws IOException {
+        ChecksummingSource source = new ChecksummingSource(content);
+        repository.putWithoutChecksum(source, (long) content.length, destination);
+        putChecksums(repository, source, destination);
+    }
+
+    private static void putChecksums(ExternalResourceRepository repository, ChecksummingSource source, URI destination) throws IOException {
+        putChecksum(repository, source.getHash("SHA1"), 40, URI.create(destination + ".sha1"));
+        putChecksum(repository, source.getHash("MD5"), 32, URI.create(destination + ".md5"));
+    }
+
+    private static void putChecksum(ExternalResourceRepository repository, HashValue hash, int length, URI destination) throws IOException {
+        StringBuilder checksum = new StringBuilder(hash.asHexString());
+        while (checksum.length() < length) {
+            checksum.insert(0, '0');
+        }
+        final byte[] content = checksum.toString().getBytes("US-ASCII");
+        repository.putWithoutChecksum(new Factory<InputStream>() {
+            public InputStream create() {
+                return new ByteArrayInputStream(content);
+            }
+        }, (long) content.length, destination);
+    }
+
+    private static String format(String pattern, Date date) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    private static class Upload {
+        private final File file;
+        private final String classifier;
+        private final String extension;
+        private URI destination;
+
+        private Upload(File file, String classifier, String extension) {
+            this.file = file;
+            this.classifier = classifier;
+            this.extension = extension;
+        }
+
+        void run(ExternalResourceRepository repository) throws IOException {
+            LOGGER.info("Uploading {} to {}", file.getName(), destination);
+            ChecksummingSource source = new ChecksummingSource(file);
+            repository.putWithoutChecksum(source, file.length(), destination);
+            putChecksums(repository, source, destination);
+        }
+    }
+
+    /**
+     * Opens the content to upload, and calculates its checksums as it is read. The checksums of the stream that was last opened are used, as a
+     * transport may open the content more than once. They are calculated by reading the content again if that stream was not read to the end.
+     */
+    private static class ChecksummingSource implements Factory<InputStream> {
+        private final File file;
+        private final byte[] content;
+        private final long length;
+        private ChecksummingInputStream current;
+
+        ChecksummingSource(File file) {
+            this.file = file;
+            this.content = null;
+            this.length = file.length();
+        }
+
+        ChecksummingSource(byte[] content) {
+            this.file = null;
+            this.content = content;
+            this.length = content.length;
+        }
+
+        public synchronized InputStream create() {
+            try {
+                current = new ChecksummingInputStream(file != null ? new FileInputStream(file) : new ByteArrayInputStream(content));
+            } catch (FileNotFoundException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return current;
+        }
+
+        synchronized HashValue getHash(String algorithm) {
+            if (current != null && current.count == length) {
+                return current.getHash(algorithm);
+            }
+            return file != null ? HashUtil.createHash(file, algorithm) : HashUtil.createHash(new ByteArrayInputStream(content), algorithm);
+        }
+    }
+
+    private static class ChecksummingInputStream extends FilterInputStream {
+        private final MessageDigest sha1 = createDigest("SHA1");
+        private final MessageDigest md5 = createDigest("MD5");
+        private long count;
+
+        ChecksummingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result >= 0) {
+                sha1.update((byte) result);
+                md5.update((byte) result);
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int result = super.read(buffer, offset, length);
+            if (result > 0) {
+                sha1.update(buffer, offset, result);
+                md5.update(buffer, offset, result);
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // Skipped content still needs to be included in the checksums
+            byte[] buffer = new byte[(int) Math.min(n, 8192)];
+            int result = read(buffer, 0, buffer.length);
+            return Math.max(result, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        HashValue getHash(String algorithm) {
+            return new HashValue((algorithm.equals("SHA1") ? sha1 : md5).digest());
+        }
+
+        private static MessageDigest createDigest(String algorithm) {
+            try {
+                return MessageDigest.getInstance(algorithm);
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    /**
+     * The content of a {@code maven-metadata.xml} file. Only the elements that Gradle publishes are kept when the file is updated.
+     */
+    private static class Metadata {
+        String groupId;
+        String artifactId;
+        String version;
+        String latest;
+        String release;
+        String lastUpdated;
+        String timestamp;
+        int buildNumber;
+        final List<String> versions = new ArrayList<String>();
+        final List<String[]> snapshotVersions = new ArrayList<String[]>();
+
+        static Metadata load(ExternalResourceRepository repository, URI location, String groupId, String artifactId) throws IOException {
+            Metadata metadata = new Metadata();
+            metadata.groupId = groupId;
+            metadata.artifactId = artifactId;
+            ExternalResource resource = repository.getResource(location);
+            if (resource == null) {
+                return metadata;
+            }
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            try {
+                resource.writeTo(content);
+            } finally {
+                resource.close();
+            }
+            Element root;
+            try {
+                root = newDocumentBuilder().parse(new ByteArrayInputStream(content.toByteArray())).getDocumentElement();
+            } catch (SAXException e) {
+                // Replacing the meta-data would lose the versions it lists
+                throw new GradleException(String.format("Could not parse Maven meta-data %s.", location), e);
+            }
+            metadata.read(root);
+            return metadata;
+        }
+
+        private static DocumentBuilder newDocumentBuilder() {
+            // The meta-data is fetched from a remote repository, so do not load any DTD, external entity or included document it refers to
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            try {
+                factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+                factory.setFeature("http://xml.org/sax/features/external-general-entities", false);
+                factory.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+                factory.setXIncludeAware(false);
+                factory.setExpandEntityReferences(false);
+                return factory.newDocumentBuilder();
+            } catch (ParserConfigurationException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        private void read(Element root) {
+            Element versioning = child(root, "versioning");
+            if (versioning == null) {
+                return;
+            }
+            latest = text(child(versioning, "latest"));
+            release = text(child(versioning, "release"));
+            Element versionsElement = child(versioning, "versions");
+            if (versionsElement != null) {
+                NodeList versionElements = versionsElement.getElementsByTagName("version");
+                for (int i = 0; i < versionElements.getLength(); i++) {
+                    versions.add(versionElements.item(i).getTextContent().trim());
+                }
+            }
+            String buildNumberText = text(child(child(versioning, "snapshot"), "buildNumber"));
+            if (buildNumberText != null) {
+                try {
+                    buildNumber = Integer.parseInt(buildNumberText);
+                } catch (NumberFormatException e) {
+                    buildNumber = 0;
+                }
+            }
+        }
+
+        private static Element child(Element parent, String name) {
+            if (parent == null) {
+                return null;
+            }
+            NodeList children = parent.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                if (children.item(i) instanceof Element && children.item(i).getNodeName().equals(name)) {
+                    return (Element) children.item(i);
+                }
+            }
+            return null;
+        }
+
+        private static String text(Element element) {
+            return element == null ? null : element.getTextContent().trim();
+        }
+
+        byte[] toByteArray() throws IOException {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            SimpleXmlWriter writer = new SimpleXmlWriter(outputStream, "  ");
+            writer.startElement("metadata");
+            element(writer, "groupId", groupId);
+            element(writer, "artifactId", artifactId);
+            element(writer, "version", version);
+            writer.startElement("versioning");
+            if (timestamp != null) {
+                writer.startElement("snapshot");
+                element(writer, "timestamp", timestamp);
+                element(writer, "buildNumber", String.valueOf(buildNumber));
+                writer.endElement();
+            } else {
+                element(writer, "latest", latest);
+                element(writer, "release", release);
+                writer.startElement("versions");
+                for (String version : versions) {
+                    element(writer, "version", version);
+                }
+                writer.endElement();
+            }
+            element(writer, "lastUpdated", lastUpdated);
+            if (!snapshotVersions.isEmpty()) {
+                writer.startElement("snapshotVersions");
+                for (String[] snapshotVersion : snapshotVersions) {
+                    writer.startElement("snapshotVersion");
+                    element(writer, "classifier", snapshotVersion[0].length() > 0 ? snapshotVersion[0] : null);
+                    element(writer, "extension", snapshotVersion[1]);
+                    element(writer, "value", snapshotVersion[2]);
+                    element(writer, "updated", lastUpdated);
+                    writer.endElement();
+                }
+                writer.endElement();
+            }
+            writer.endElement();
+            writer.endElement();
+            writer.close();
+            return outputStream.toByteArray();
+        }
+
+        private static void element(SimpleXmlWriter writer, String name, String value) throws IOException {
+            if (value != null) {
+                writer.startElement(name).characters(value).endElement();
+            }
+        }
+    }
+}
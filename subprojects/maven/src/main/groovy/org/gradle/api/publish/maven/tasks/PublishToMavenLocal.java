@@ -26,6 +26,8 @@ import org.gradle.api.publish.maven.internal.publisher.AntTaskBackedMavenLocalPu
 import org.gradle.api.publish.maven.internal.publisher.MavenPublisher;
 import org.gradle.api.publish.maven.internal.publisher.StaticLockingMavenPublisher;
 import org.gradle.api.publish.maven.internal.publisher.ValidatingMavenPublisher;
+import org.gradle.internal.Factory;
+import org.gradle.logging.LoggingManagerInternal;
 
 import javax.inject.Inject;
 
@@ -41,6 +43,12 @@ public class PublishToMavenLocal extends PublishToMavenRepository {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    @Inject
+    protected Factory<LoggingManagerInternal> getLoggingManagerFactory() {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public MavenArtifactRepository getRepository() {
         if (super.getRepository() == null) {
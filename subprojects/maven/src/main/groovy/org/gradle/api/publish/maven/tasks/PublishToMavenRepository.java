@@ -21,15 +21,17 @@ import org.gradle.api.Incubating;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.artifacts.repositories.MavenArtifactRepository;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory;
 import org.gradle.api.publish.internal.PublishOperation;
 import org.gradle.api.publish.maven.MavenPublication;
 import org.gradle.api.publish.maven.internal.publication.MavenPublicationInternal;
-import org.gradle.api.publish.maven.internal.publisher.AntTaskBackedMavenPublisher;
 import org.gradle.api.publish.maven.internal.publisher.MavenPublisher;
-import org.gradle.api.publish.maven.internal.publisher.StaticLockingMavenPublisher;
+import org.gradle.api.publish.maven.internal.publisher.MavenRemotePublisher;
 import org.gradle.api.publish.maven.internal.publisher.ValidatingMavenPublisher;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.internal.Factory;
+import org.gradle.internal.TimeProvider;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.logging.LoggingManagerInternal;
 
 import javax.inject.Inject;
@@ -133,18 +135,36 @@ public class PublishToMavenRepository extends DefaultTask {
         doPublish(publicationInternal, repository);
     }
 
+    /**
+     * @deprecated This task no longer uses the Maven Ant tasks, so it no longer uses a logging manager. This method will be removed in Gradle 3.0.
+     */
+    @Deprecated
     @Inject
     protected Factory<LoggingManagerInternal> getLoggingManagerFactory() {
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected RepositoryTransportFactory getRepositoryTransportFactory() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected ExecutorFactory getExecutorFactory() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected TimeProvider getTimeProvider() {
+        throw new UnsupportedOperationException();
+    }
+
     protected void doPublish(final MavenPublicationInternal publication, final MavenArtifactRepository repository) {
         new PublishOperation(publication, repository) {
             @Override
             protected void publish() throws Exception {
-                MavenPublisher antBackedPublisher = new AntTaskBackedMavenPublisher(getLoggingManagerFactory(), getTemporaryDirFactory());
-                MavenPublisher staticLockingPublisher = new StaticLockingMavenPublisher(antBackedPublisher);
-                MavenPublisher validatingPublisher = new ValidatingMavenPublisher(staticLockingPublisher);
+                MavenPublisher remotePublisher = new MavenRemotePublisher(getRepositoryTransportFactory(), getExecutorFactory(), getTimeProvider());
+                MavenPublisher validatingPublisher = new ValidatingMavenPublisher(remotePublisher);
                 validatingPublisher.publish(publication.asNormalisedPublication(), repository);
             }
         }.run();
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.publish.maven.internal.publisher
+
+import org.gradle.api.GradleException
+import org.gradle.api.artifacts.repositories.MavenArtifactRepository
+import org.gradle.api.artifacts.repositories.PasswordCredentials
+import org.gradle.api.internal.artifacts.repositories.transport.RepositoryTransportFactory
+import org.gradle.api.publish.maven.MavenArtifact
+import org.gradle.internal.TimeProvider
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.resource.transport.file.FileTransport
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class MavenRemotePublisherTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def executorFactory = new DefaultExecutorFactory()
+    def transportFactory = Stub(RepositoryTransportFactory) {
+        createTransport("file", "repo", _) >> new FileTransport("repo")
+    }
+    def time = 1262347201000L // 2010-01-01 12:00:01 UTC
+    def timeProvider = Stub(TimeProvider) {
+        getCurrentTime() >> { time }
+    }
+    def publisher = new MavenRemotePublisher(transportFactory, executorFactory, timeProvider)
+    TestFile repoDir
+    MavenArtifactRepository repository
+
+    def setup() {
+        repoDir = tmpDir.createDir("repo")
+        repository = Stub(MavenArtifactRepository) {
+            getName() >> "repo"
+            getUrl() >> repoDir.toURI()
+            getCredentials() >> Stub(PasswordCredentials)
+        }
+    }
+
+    def cleanup() {
+        executorFactory.stop()
+    }
+
+    def "publishes artifacts with checksums and module meta-data"() {
+        def publication = publication("1.0", artifact("jar"), artifact("jar", "sources"), artifact("jar", "javadoc"), artifact("zip", "dist"))
+
+        when:
+        publisher.publish(publication, repository)
+
+        then:
+        def versionDir = repoDir.file("org/test/module/1.0")
+        versionDir.list() as Set == ["module-1.0.jar", "module-1.0-sources.jar", "module-1.0-javadoc.jar", "module-1.0-dist.zip", "module-1.0.pom"].collectMany {
+            [it, "${it}.sha1" as String, "${it}.md5" as String]
+        } as Set
+        publication.artifacts.each { artifact ->
+            def published = versionDir.file("module-1.0${artifact.classifier ? "-$artifact.classifier" : ""}.${artifact.extension}")
+            published.assertIsCopyOf(new TestFile(artifact.file))
+            assertChecksums(published)
+        }
+        versionDir.file("module-1.0.pom").assertIsCopyOf(new TestFile(publication.pomFile))
+
+        and:
+        def metadata = repoDir.file("org/test/module/maven-metadata.xml")
+        assertChecksums(metadata)
+        def xml = new XmlSlurper().parse(metadata)
+        xml.groupId.text() == "org.test"
+        xml.artifactId.text() == "module"
+        xml.versioning.release.text() == "1.0"
+        xml.versioning.versions.version*.text() == ["1.0"]
+        xml.versioning.lastUpdated.text() == "20100101120001"
+    }
+
+    def "adds published version to existing module meta-data"() {
+        when:
+        publisher.publish(publication("1.0", artifact("jar")), repository)
+        publisher.publish(publication("1.1", artifact("jar")), repository)
+
+        then:
+        def xml = new XmlSlurper().parse(repoDir.file("org/test/module/maven-metadata.xml"))
+        xml.versioning.versions.version*.text() == ["1.0", "1.1"]
+        xml.versioning.latest.text() == "1.1"
+        xml.versioning.release.text() == "1.1"
+    }
+
+    def "publishes snapshot with unique version and increments build number"() {
+        when:
+        publisher.publish(publication("1.0-SNAPSHOT", artifact("jar")), repository)
+        time += 1000
+        publisher.publish(publication("1.0-SNAPSHOT", artifact("jar")), repository)
+
+        then:
+        def versionDir = repoDir.file("org/test/module/1.0-SNAPSHOT")
+        versionDir.file("module-1.0-20100101.120001-1.jar").assertIsFile()
+        versionDir.file("module-1.0-20100101.120002-2.jar").assertIsFile()
+        versionDir.file("module-1.0-20100101.120002-2.pom").assertIsFile()
+
+        and:
+        def metadata = versionDir.file("maven-metadata.xml")
+        assertChecksums(metadata)
+        def xml = new XmlSlurper().parse(metadata)
+        xml.version.text() == "1.0-SNAPSHOT"
+        xml.versioning.snapshot.timestamp.text() == "20100101.120002"
+        xml.versioning.snapshot.buildNumber.text() == "2"
+        xml.versioning.snapshotVersions.snapshotVersion.find { it.extension == "jar" }.value.text() == "1.0-20100101.120002-2"
+
+        and:
+        def moduleXml = new XmlSlurper().parse(repoDir.file("org/test/module/maven-metadata.xml"))
+        moduleXml.versioning.versions.version*.text() == ["1.0-SNAPSHOT"]
+        moduleXml.versioning.release.size() == 0
+    }
+
+    def "fails without uploading anything when existing module meta-data cannot be parsed"() {
+        def metadata = repoDir.file("org/test/module/maven-metadata.xml")
+        metadata.text = "<metadata><versioning><versions><version>0.9</version>"
+
+        when:
+        publisher.publish(publication("1.0", artifact("jar")), repository)
+
+        then:
+        def e = thrown(GradleException)
+        e.message == "Could not parse Maven meta-data ${metadata.toURI()}."
+        metadata.text == "<metadata><versioning><versions><version>0.9</version>"
+        !repoDir.file("org/test/module/1.0").exists()
+    }
+
+    def "does not resolve external entities in existing module meta-data"() {
+        def secret = tmpDir.file("secret.txt")
+        secret.text = "secret"
+        def metadata = repoDir.file("org/test/module/maven-metadata.xml")
+        metadata.text = """<?xml version="1.0"?>
+<!DOCTYPE metadata [<!ENTITY secret SYSTEM "${secret.toURI()}">]>
+<metadata><versioning><versions><version>&secret;</version></versions></versioning></metadata>"""
+
+        when:
+        publisher.publish(publication("1.0", artifact("jar")), repository)
+
+        then:
+        thrown(GradleException)
+        !metadata.text.contains("<version>secret</version>")
+        !repoDir.file("org/test/module/1.0").exists()
+    }
+
+    def "publishes pom when there is no main artifact"() {
+        when:
+        publisher.publish(publication("1.0"), repository)
+
+        then:
+        repoDir.file("org/test/module/1.0").list() as Set == ["module-1.0.pom", "module-1.0.pom.sha1", "module-1.0.pom.md5"] as Set
+    }
+
+    private void assertChecksums(TestFile file) {
+        assert file.parentFile.file("${file.name}.sha1").text == HashUtil.createHash(file, "SHA1").asHexString().padLeft(40, "0")
+        assert file.parentFile.file("${file.name}.md5").text == HashUtil.createHash(file, "MD5").asHexString().padLeft(32, "0")
+    }
+
+    private MavenNormalizedPublication publication(String version, MavenArtifact... artifacts) {
+        def identity = Stub(MavenProjectIdentity) {
+            getGroupId() >> "org.test"
+            getArtifactId() >> "module"
+            getVersion() >> version
+        }
+        def pomFile = tmpDir.file("pom-${version}.xml")
+        pomFile.text = "<project/>"
+        return new MavenNormalizedPublication("pub", pomFile, identity, artifacts as Set, artifacts.find { !it.classifier })
+    }
+
+    private MavenArtifact artifact(String extension, String classifier = null) {
+        def file = tmpDir.file("build/${classifier ?: "main"}.${extension}")
+        file.text = "content of ${file.name} ${time}"
+        return Stub(MavenArtifact) {
+            getFile() >> file
+            getExtension() >> extension
+            getClassifier() >> classifier
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote
+
+import org.gradle.api.Action
+import org.gradle.messaging.remote.internal.MessagingServices
+import org.gradle.messaging.remote.internal.shm.SharedMemoryAddress
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import spock.lang.Timeout
+import spock.lang.Unroll
+
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.TimeUnit
+
+@Timeout(120)
+class SharedMemoryMessagingIntegrationTest extends ConcurrentSpec {
+    @Unroll
+    def "delivers request and response messages in order using #transport"() {
+        def previousProperty = System.getProperty(MessagingServices.SHARED_MEMORY_PROPERTY)
+        System.setProperty(MessagingServices.SHARED_MEMORY_PROPERTY, String.valueOf(sharedMemory))
+        def serverServices = new MessagingServices(getClass().classLoader)
+        def clientServices = new MessagingServices(getClass().classLoader)
+        BlockingQueue<ObjectConnection> accepted = new LinkedBlockingQueue<ObjectConnection>()
+        BlockingQueue<Integer> pongs = new LinkedBlockingQueue<Integer>()
+        def roundTrips = 10000
+        def count = 100000
+        def received = new CountDownLatch(count)
+        def sent = Collections.synchronizedList([])
+        ObjectConnection serverConnection = null
+        ObjectConnection clientConnection = null
+        Ping ping = null
+        def acceptor = serverServices.get(MessagingServer).accept({ accepted.put(it) } as Action)
+
+        given:
+        async {
+            start {
+                clientConnection = clientServices.get(MessagingClient).getConnection(acceptor.address)
+                clientConnection.addIncoming(Pong, { int value -> pongs.put(value) } as Pong)
+                ping = clientConnection.addOutgoing(Ping)
+                clientConnection.connect()
+            }
+            serverConnection = accepted.take()
+            def pong = serverConnection.addOutgoing(Pong)
+            serverConnection.addIncoming(Ping, [
+                    ping: { int value -> pong.pong(value) },
+                    send: { int value ->
+                        sent << value
+                        received.countDown()
+                    }
+            ] as Ping)
+            serverConnection.connect()
+        }
+
+        when:
+        def replies = []
+        roundTrips.times {
+            ping.ping(it)
+            replies << pongs.poll(10, TimeUnit.SECONDS)
+        }
+        count.times { ping.send(it) }
+
+        then:
+        (acceptor.address instanceof SharedMemoryAddress) == sharedMemory
+        replies == (0..<roundTrips).toList()
+        received.await(30, TimeUnit.SECONDS)
+        sent == (0..<count).toList()
+
+        cleanup:
+        clientConnection?.stop()
+        serverConnection?.stop()
+        acceptor?.stop()
+        clientServices.stop()
+        serverServices.stop()
+        if (previousProperty == null) {
+            System.clearProperty(MessagingServices.SHARED_MEMORY_PROPERTY)
+        } else {
+            System.setProperty(MessagingServices.SHARED_MEMORY_PROPERTY, previousProperty)
+        }
+
+        where:
+        transport       | sharedMemory
+        "TCP"           | false
+        "shared memory" | true
+    }
+}
+
+interface Ping {
+    void ping(int value)
+
+    void send(int value)
+}
+
+interface Pong {
+    void pong(int value)
+}
@@ -24,6 +24,7 @@ import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 import spock.lang.Timeout
 
 import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 import java.util.concurrent.locks.Condition
 import java.util.concurrent.locks.Lock
 import java.util.concurrent.locks.ReentrantLock
@@ -190,6 +191,34 @@ class UnicastMessagingIntegrationTest extends ConcurrentSpec {
         server?.stop()
     }
 
+    def "client can send many small messages to server"() {
+        def count = 100000
+        def received = new CountDownLatch(count)
+        def values = Collections.synchronizedList([])
+        def service = { String value ->
+            values << value
+            received.countDown()
+        } as RemoteService1
+        def server = new Server()
+        def client = new Client(server.address)
+
+        given:
+        server.addIncoming(service)
+        server.connection.connect()
+        client.connection.connect()
+
+        when:
+        count.times { client.outgoingService1.doStuff(it.toString()) }
+
+        then:
+        received.await(30, TimeUnit.SECONDS)
+        values == (0..<count).collect { it.toString() }
+
+        cleanup:
+        client?.stop()
+        server?.stop()
+    }
+
     abstract class Participant {
         private RemoteService1 remoteService1
         private RemoteService2 remoteService2
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.messaging.remote.internal;
+
+import java.util.List;
+
+/**
+ * A {@link RemoteConnection} that can write a batch of messages to the peer using fewer writes than dispatching each message separately.
+ */
+public interface BatchingRemoteConnection<T> extends RemoteConnection<T> {
+    /**
+     * Dispatches the given messages, in order. The messages are written to the peer by the time this method returns.
+     *
+     * @throws MessageIOException On failure to dispatch the messages to the peer.
+     */
+    void dispatch(List<? extends T> messages) throws MessageIOException;
+}
@@ -15,6 +15,7 @@
  */
 package org.gradle.messaging.remote.internal;
 
+import org.gradle.internal.SystemProperties;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.DefaultExecutorFactory;
 import org.gradle.internal.concurrent.ExecutorFactory;
@@ -30,8 +31,11 @@ import org.gradle.messaging.remote.internal.hub.MessageHubBackedServer;
 import org.gradle.messaging.remote.internal.inet.*;
 import org.gradle.messaging.remote.internal.protocol.DiscoveryMessage;
 import org.gradle.messaging.remote.internal.protocol.DiscoveryProtocolSerializer;
+import org.gradle.messaging.remote.internal.shm.SharedMemoryIncomingConnector;
+import org.gradle.messaging.remote.internal.shm.SharedMemoryOutgoingConnector;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.UUID;
@@ -52,6 +56,11 @@ import java.util.UUID;
  * </ul>
  */
 public class MessagingServices extends DefaultServiceRegistry implements Stoppable {
+    /**
+     * When set to true, connections accepted from the local machine pass their messages through shared memory rather than TCP, where the connecting
+     * side is able to.
+     */
+    public static final String SHARED_MEMORY_PROPERTY = "org.gradle.messaging.sharedMemory";
     private final IdGenerator<UUID> idGenerator = new UUIDGenerator();
     private final ClassLoader messageClassLoader;
     private final String broadcastGroup;
@@ -98,15 +107,19 @@ public class MessagingServices extends DefaultServiceRegistry implements Stoppab
     }
 
     protected OutgoingConnector createOutgoingConnector() {
-        return new TcpOutgoingConnector();
+        return new SharedMemoryOutgoingConnector(new TcpOutgoingConnector());
     }
 
     protected IncomingConnector createIncomingConnector(ExecutorFactory executorFactory, InetAddressFactory inetAddressFactory) {
-        return new TcpIncomingConnector(
+        TcpIncomingConnector connector = new TcpIncomingConnector(
                 executorFactory,
                 inetAddressFactory,
                 idGenerator
         );
+        if (Boolean.getBoolean(SHARED_MEMORY_PROPERTY)) {
+            return new SharedMemoryIncomingConnector(connector, new File(SystemProperties.getJavaIoTmpDir()), SharedMemoryIncomingConnector.DEFAULT_BUFFER_SIZE);
+        }
+        return connector;
     }
 
     protected MessagingClient createMessagingClient(OutgoingConnector outgoingConnector, ExecutorFactory executorFactory) {
@@ -21,6 +21,7 @@ import org.gradle.internal.concurrent.AsyncStoppable;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.messaging.dispatch.Dispatch;
+import org.gradle.messaging.remote.internal.BatchingRemoteConnection;
 import org.gradle.messaging.remote.internal.Connection;
 import org.gradle.messaging.remote.internal.hub.protocol.*;
 import org.gradle.messaging.remote.internal.hub.queue.EndPointQueue;
@@ -279,12 +280,8 @@ public class MessageHub implements AsyncStoppable {
                         } finally {
                             lock.unlock();
                         }
-                        for (Object message : messages) {
-                            InterHubMessage channelMessage = (InterHubMessage) message;
-                            connection.dispatch(channelMessage);
-                            if (message instanceof EndOfStream) {
-                                return;
-                            }
+                        if (dispatch(messages)) {
+                            return;
                         }
                         messages.clear();
                     }
@@ -300,6 +297,37 @@ public class MessageHub implements AsyncStoppable {
                 errorHandler.execute(t);
             }
         }
+
+        /**
+         * Dispatches the given messages to the connection, up to and including the end of stream message.
+         *
+         * @return true if the end of stream message has been dispatched.
+         */
+        private boolean dispatch(List<InterHubMessage> messages) {
+            if (connection instanceof BatchingRemoteConnection) {
+                // Write the messages that have queued up since the previous batch using as few writes as possible
+                int endOfStream = indexOfEndOfStream(messages);
+                BatchingRemoteConnection<InterHubMessage> batchingConnection = (BatchingRemoteConnection<InterHubMessage>) connection;
+                batchingConnection.dispatch(endOfStream < 0 ? messages : messages.subList(0, endOfStream + 1));
+                return endOfStream >= 0;
+            }
+            for (InterHubMessage message : messages) {
+                connection.dispatch(message);
+                if (message instanceof EndOfStream) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int indexOfEndOfStream(List<InterHubMessage> messages) {
+            for (int i = 0; i < messages.size(); i++) {
+                if (messages.get(i) instanceof EndOfStream) {
+                    return i;
+                }
+            }
+            return -1;
+        }
     }
 
     private class ChannelDispatch<T> implements Dispatch<T> {
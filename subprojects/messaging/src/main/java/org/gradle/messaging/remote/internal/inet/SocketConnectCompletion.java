@@ -20,13 +20,17 @@ import org.gradle.messaging.remote.internal.*;
 
 import java.nio.channels.SocketChannel;
 
-class SocketConnectCompletion implements ConnectCompletion {
+public class SocketConnectCompletion implements ConnectCompletion {
     private final SocketChannel socket;
 
     public SocketConnectCompletion(SocketChannel socket) {
         this.socket = socket;
     }
 
+    public SocketChannel getSocket() {
+        return socket;
+    }
+
     @Override
     public String toString() {
         return String.format("%s to %s", socket.socket().getLocalSocketAddress(), socket.socket().getRemoteSocketAddress());
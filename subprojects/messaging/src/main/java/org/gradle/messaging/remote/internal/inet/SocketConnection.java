@@ -19,9 +19,9 @@ package org.gradle.messaging.remote.internal.inet;
 import com.google.common.base.Objects;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.messaging.remote.internal.BatchingRemoteConnection;
 import org.gradle.messaging.remote.internal.MessageIOException;
 import org.gradle.messaging.remote.internal.MessageSerializer;
-import org.gradle.messaging.remote.internal.RemoteConnection;
 import org.gradle.messaging.serialize.ObjectReader;
 import org.gradle.messaging.serialize.ObjectWriter;
 
@@ -35,8 +35,16 @@ import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class SocketConnection<T> implements BatchingRemoteConnection<T> {
+    /**
+     * The maximum time that a message of a batch is held in the write buffer before the buffer is written to the socket.
+     */
+    private static final long MAX_BATCH_LATENCY_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
 
-public class SocketConnection<T> implements RemoteConnection<T> {
     private final SocketChannel socket;
     private final SocketInetAddress localAddress;
     private final SocketInetAddress remoteAddress;
@@ -107,6 +115,28 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         }
     }
 
+    public void dispatch(List<? extends T> messages) throws MessageIOException {
+        // Messages are serialized into the write buffer, which is written to the socket when it is full, when a message
+        // has been held for too long, and once the batch is complete
+        long batchStart = System.nanoTime();
+        for (T message : messages) {
+            try {
+                objectWriter.write(message);
+                if (System.nanoTime() - batchStart > MAX_BATCH_LATENCY_NANOS) {
+                    outstr.flush();
+                    batchStart = System.nanoTime();
+                }
+            } catch (Exception e) {
+                throw new MessageIOException(String.format("Could not write message %s to '%s'.", message, remoteAddress), e);
+            }
+        }
+        try {
+            outstr.flush();
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not write messages to '%s'.", remoteAddress), e);
+        }
+    }
+
     public void requestStop() {
         CompositeStoppable.stoppable(instr).stop();
     }
@@ -184,7 +214,7 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_WRITE);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
         }
 
         @Override
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single-producer, single-consumer byte ring buffer backed by a memory-mapped file, used to pass bytes from one process to another on the same machine.
+ * Each process uses a given buffer either as the writer or as the reader, and each side must be used by one thread at a time.
+ *
+ * <p>The file starts with a header holding the positions of the writer and of the reader, each in its own cache line, followed by the data.
+ * Positions only ever increase, the data offset of a position is the position modulo the capacity.</p>
+ *
+ * <p>Accesses to mapped memory through a {@link ByteBuffer} are not ordered by the Java memory model. Each header field is stored after a
+ * volatile write of a sequence field of this object, and loaded before a volatile read of it. The barriers that the JVM emits for these
+ * accesses also order the accesses to mapped memory around them, so that the writer's store of its position is a release of the data written
+ * before it, and the reader's load of that position is an acquire of the data it then reads.</p>
+ */
+public class MappedRingBuffer {
+    private static final int WRITE_POSITION = 0;
+    private static final int WRITER_CLOSED = 8;
+    private static final int CAPACITY = 16;
+    private static final int READ_POSITION = 64;
+    private static final int READER_WAITING = 72;
+    private static final int DATA_OFFSET = 128;
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final ByteBuffer data;
+    private final int capacity;
+    private final AtomicLong sequence = new AtomicLong();
+    private long writePosition;
+    private long readPosition;
+
+    private MappedRingBuffer(File file, MappedByteBuffer buffer, int capacity) {
+        this.file = file;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.data = buffer.duplicate();
+        writePosition = getVolatile(WRITE_POSITION);
+        readPosition = getVolatile(READ_POSITION);
+    }
+
+    /**
+     * Creates an empty buffer in the given file, replacing its content.
+     *
+     * @param capacity The number of bytes the buffer can hold. Must be a power of two.
+     */
+    public static MappedRingBuffer create(File file, int capacity) throws IOException {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException(String.format("Ring buffer capacity must be a power of two, was %s.", capacity));
+        }
+        MappedByteBuffer buffer = map(file, DATA_OFFSET + capacity);
+        buffer.putLong(WRITE_POSITION, 0);
+        buffer.putLong(WRITER_CLOSED, 0);
+        buffer.putLong(READ_POSITION, 0);
+        buffer.putLong(READER_WAITING, 0);
+        buffer.putInt(CAPACITY, capacity);
+        buffer.force();
+        return new MappedRingBuffer(file, buffer, capacity);
+    }
+
+    /**
+     * Opens a buffer that has been created by another process using {@link #create(File, int)}.
+     */
+    public static MappedRingBuffer open(File file) throws IOException {
+        long length = file.length();
+        if (length <= DATA_OFFSET || length > Integer.MAX_VALUE) {
+            throw new IOException(String.format("File %s does not contain a ring buffer.", file));
+        }
+        MappedByteBuffer buffer = map(file, (int) length);
+        int capacity = buffer.getInt(CAPACITY);
+        if (capacity != length - DATA_OFFSET || Integer.bitCount(capacity) != 1) {
+            throw new IOException(String.format("File %s does not contain a ring buffer.", file));
+        }
+        return new MappedRingBuffer(file, buffer, capacity);
+    }
+
+    private static MappedByteBuffer map(File file, int length) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            randomAccessFile.setLength(length);
+            // The mapping remains valid after the file has been closed
+            return randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, length);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Copies as many of the given bytes as there is free space for into the buffer. The bytes are not visible to the reader until {@link #publish()} is called.
+     *
+     * @return The number of bytes copied, which is 0 when the buffer is full.
+     */
+    public int write(byte[] src, int offset, int length) {
+        long readerPosition = getVolatile(READ_POSITION);
+        int count = (int) Math.min(length, capacity - (writePosition - readerPosition));
+        if (count <= 0) {
+            return 0;
+        }
+        copy(writePosition, count, src, offset, true);
+        writePosition += count;
+        return count;
+    }
+
+    /**
+     * Makes the bytes written so far visible to the reader.
+     */
+    public void publish() {
+        putVolatile(WRITE_POSITION, writePosition);
+    }
+
+    /**
+     * Publishes the bytes written so far and marks the end of the stream.
+     */
+    public void closeWriter() {
+        publish();
+        putVolatile(WRITER_CLOSED, 1);
+    }
+
+    /**
+     * Copies as many available bytes as will fit into the given array, and makes the space they occupied available to the writer.
+     *
+     * @return The number of bytes copied, which is 0 when the buffer is empty.
+     */
+    public int read(byte[] dest, int offset, int length) {
+        int count = (int) Math.min(length, available());
+        if (count <= 0) {
+            return 0;
+        }
+        copy(readPosition, count, dest, offset, false);
+        readPosition += count;
+        putVolatile(READ_POSITION, readPosition);
+        return count;
+    }
+
+    /**
+     * Returns the number of bytes that have been published by the writer and not yet read.
+     */
+    public long available() {
+        return getVolatile(WRITE_POSITION) - readPosition;
+    }
+
+    /**
+     * Returns true when the writer has marked the end of the stream. Bytes published before the end of the stream may still be available.
+     */
+    public boolean isWriterClosed() {
+        return getVolatile(WRITER_CLOSED) != 0;
+    }
+
+    /**
+     * Returns true when the writer has space for more bytes.
+     */
+    public boolean hasSpace() {
+        return writePosition - getVolatile(READ_POSITION) < capacity;
+    }
+
+    /**
+     * Records whether the reader is about to block until it is told that more bytes are available.
+     */
+    public void setReaderWaiting(boolean waiting) {
+        putVolatile(READER_WAITING, waiting ? 1 : 0);
+    }
+
+    public boolean isReaderWaiting() {
+        return getVolatile(READER_WAITING) != 0;
+    }
+
+    private long getVolatile(int offset) {
+        long value = buffer.getLong(offset);
+        // Stops the loads that follow from being performed before the load of the header field
+        sequence.get();
+        return value;
+    }
+
+    private void putVolatile(int offset, long value) {
+        // Stops the stores that precede from being performed after the store of the header field
+        sequence.incrementAndGet();
+        buffer.putLong(offset, value);
+    }
+
+    private void copy(long position, int count, byte[] bytes, int offset, boolean toBuffer) {
+        int start = (int) (position & (capacity - 1));
+        int first = Math.min(count, capacity - start);
+        transfer(start, bytes, offset, first, toBuffer);
+        if (first < count) {
+            transfer(0, bytes, offset + first, count - first, toBuffer);
+        }
+    }
+
+    private void transfer(int start, byte[] bytes, int offset, int count, boolean toBuffer) {
+        data.clear();
+        data.position(DATA_OFFSET + start);
+        if (toBuffer) {
+            data.put(bytes, offset, count);
+        } else {
+            data.get(bytes, offset, count);
+        }
+    }
+}
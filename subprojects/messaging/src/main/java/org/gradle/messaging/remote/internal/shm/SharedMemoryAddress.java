@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.messaging.remote.internal.inet.InetEndpoint;
+
+import java.net.InetAddress;
+import java.util.List;
+
+/**
+ * The address of an endpoint that is reached over TCP, and that offers to move the messages of the connection to shared memory once connected.
+ */
+public class SharedMemoryAddress implements InetEndpoint {
+    private final InetEndpoint tcpAddress;
+
+    public SharedMemoryAddress(InetEndpoint tcpAddress) {
+        this.tcpAddress = tcpAddress;
+    }
+
+    public InetEndpoint getTcpAddress() {
+        return tcpAddress;
+    }
+
+    public String getDisplayName() {
+        return tcpAddress.getDisplayName() + " (shared memory)";
+    }
+
+    public int getPort() {
+        return tcpAddress.getPort();
+    }
+
+    public List<InetAddress> getCandidates() {
+        return tcpAddress.getCandidates();
+    }
+
+    @Override
+    public String toString() {
+        return getDisplayName();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SharedMemoryAddress other = (SharedMemoryAddress) o;
+        return other.tcpAddress.equals(tcpAddress);
+    }
+
+    @Override
+    public int hashCode() {
+        return tcpAddress.hashCode();
+    }
+}
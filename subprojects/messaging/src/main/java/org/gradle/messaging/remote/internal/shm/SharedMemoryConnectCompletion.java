@@ -0,0 +1,192 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.os.OperatingSystem;
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.DefaultMessageSerializer;
+import org.gradle.messaging.remote.internal.MessageSerializer;
+import org.gradle.messaging.remote.internal.RemoteConnection;
+import org.gradle.messaging.remote.internal.inet.SocketConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Negotiates the transport of a newly established TCP connection before creating the {@link RemoteConnection} for it.
+ *
+ * <p>The accepting side creates a pair of ring buffers and sends their location to the connecting side, which replies whether it was able to map them.
+ * When either side cannot use the ring buffers, messages are sent over the TCP connection instead.</p>
+ *
+ * <p>The files of the ring buffers are created in a directory that only the current user can access, and are themselves only accessible to
+ * the current user before they are mapped. When the permissions cannot be restricted, messages are sent over the TCP connection.</p>
+ */
+class SharedMemoryConnectCompletion implements ConnectCompletion {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SharedMemoryConnectCompletion.class);
+    private final SocketChannel socket;
+    private final File directory;
+    private final int capacity;
+
+    private SharedMemoryConnectCompletion(SocketChannel socket, File directory, int capacity) {
+        this.socket = socket;
+        this.directory = directory;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a completion for the accepting side, which offers ring buffers of the given capacity, created in the given directory.
+     */
+    static ConnectCompletion offer(SocketChannel socket, File directory, int capacity) {
+        return new SharedMemoryConnectCompletion(socket, directory, capacity);
+    }
+
+    /**
+     * Creates a completion for the connecting side, which uses the ring buffers offered by the accepting side.
+     */
+    static ConnectCompletion acceptOffer(SocketChannel socket) {
+        return new SharedMemoryConnectCompletion(socket, null, 0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s to %s", socket.socket().getLocalSocketAddress(), socket.socket().getRemoteSocketAddress());
+    }
+
+    public <T> RemoteConnection<T> create(ClassLoader messageClassLoader) {
+        return create(new DefaultMessageSerializer<T>(messageClassLoader));
+    }
+
+    public <T> RemoteConnection<T> create(MessageSerializer<T> serializer) {
+        RingBuffers buffers;
+        try {
+            buffers = directory != null ? sendOffer() : receiveOffer();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        if (buffers == null) {
+            return new SocketConnection<T>(socket, serializer);
+        }
+        return new SharedMemoryConnection<T>(socket, buffers.incoming, buffers.outgoing, serializer);
+    }
+
+    private RingBuffers sendOffer() throws IOException {
+        DataOutputStream outputStream = new DataOutputStream(Channels.newOutputStream(socket));
+        RingBuffers buffers = null;
+        try {
+            buffers = new RingBuffers(createBuffer(), createBuffer());
+        } catch (IOException e) {
+            LOGGER.debug("Could not create shared memory buffers, using TCP for {}.", this, e);
+        }
+        if (buffers == null) {
+            outputStream.writeBoolean(false);
+            outputStream.flush();
+            return null;
+        }
+
+        outputStream.writeBoolean(true);
+        outputStream.writeUTF(buffers.outgoing.getFile().getAbsolutePath());
+        outputStream.writeUTF(buffers.incoming.getFile().getAbsolutePath());
+        outputStream.flush();
+        boolean accepted = new DataInputStream(Channels.newInputStream(socket)).readBoolean();
+
+        // Both sides have mapped the files by now, or never will. On most platforms the files can be deleted while they are mapped
+        buffers.incoming.getFile().delete();
+        buffers.outgoing.getFile().delete();
+        if (!accepted) {
+            LOGGER.debug("Peer could not use shared memory buffers, using TCP for {}.", this);
+            return null;
+        }
+        return buffers;
+    }
+
+    private MappedRingBuffer createBuffer() throws IOException {
+        File file = File.createTempFile("gradle-messages", ".bin", privateDirectory());
+        try {
+            restrictToOwner(file);
+            return MappedRingBuffer.create(file, capacity);
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        }
+    }
+
+    private File privateDirectory() throws IOException {
+        String userName = System.getProperty("user.name", "unknown").replaceAll("[^\\w.-]", "_");
+        File privateDirectory = new File(directory.getCanonicalFile(), "gradle-messages-" + userName);
+        if (!privateDirectory.isDirectory() && !privateDirectory.mkdir() && !privateDirectory.isDirectory()) {
+            throw new IOException(String.format("Could not create directory %s.", privateDirectory));
+        }
+        if (!privateDirectory.getCanonicalFile().equals(privateDirectory)) {
+            throw new IOException(String.format("Directory %s is a symbolic link.", privateDirectory));
+        }
+        // Fails when the directory has been created by another user, as only its owner can change its permissions
+        restrictToOwner(privateDirectory);
+        return privateDirectory;
+    }
+
+    private static void restrictToOwner(File file) throws IOException {
+        if (OperatingSystem.current().isWindows()) {
+            // Permissions are inherited from the ACL of the directory, which for the temporary directory is private to the user
+            return;
+        }
+        boolean restricted = file.setReadable(false, false) && file.setReadable(true, true)
+                && file.setWritable(false, false) && file.setWritable(true, true)
+                && file.setExecutable(false, false) && (!file.isDirectory() || file.setExecutable(true, true));
+        if (!restricted) {
+            throw new IOException(String.format("Could not restrict the permissions of %s to its owner.", file));
+        }
+    }
+
+    private RingBuffers receiveOffer() throws IOException {
+        DataInputStream inputStream = new DataInputStream(Channels.newInputStream(socket));
+        if (!inputStream.readBoolean()) {
+            LOGGER.debug("Peer did not offer shared memory buffers, using TCP for {}.", this);
+            return null;
+        }
+        File incomingFile = new File(inputStream.readUTF());
+        File outgoingFile = new File(inputStream.readUTF());
+
+        RingBuffers buffers = null;
+        try {
+            buffers = new RingBuffers(MappedRingBuffer.open(incomingFile), MappedRingBuffer.open(outgoingFile));
+        } catch (IOException e) {
+            LOGGER.debug("Could not open shared memory buffers, using TCP for {}.", this, e);
+        }
+        DataOutputStream outputStream = new DataOutputStream(Channels.newOutputStream(socket));
+        outputStream.writeBoolean(buffers != null);
+        outputStream.flush();
+        return buffers;
+    }
+
+    private static class RingBuffers {
+        final MappedRingBuffer incoming;
+        final MappedRingBuffer outgoing;
+
+        private RingBuffers(MappedRingBuffer incoming, MappedRingBuffer outgoing) {
+            this.incoming = incoming;
+            this.outgoing = outgoing;
+        }
+    }
+}
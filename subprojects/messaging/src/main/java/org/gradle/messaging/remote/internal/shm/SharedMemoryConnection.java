@@ -0,0 +1,280 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.messaging.remote.internal.BatchingRemoteConnection;
+import org.gradle.messaging.remote.internal.MessageIOException;
+import org.gradle.messaging.remote.internal.MessageSerializer;
+import org.gradle.messaging.remote.internal.inet.SocketInetAddress;
+import org.gradle.messaging.serialize.ObjectReader;
+import org.gradle.messaging.serialize.ObjectWriter;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A connection with a peer on the same machine that passes messages through a pair of {@link MappedRingBuffer}s, one for each direction.
+ *
+ * <p>The TCP socket that the connection was negotiated over is kept open. The reader of a buffer that runs out of bytes first spins for a while,
+ * and then blocks on the socket until the writer sends a single byte to tell it that more bytes are available. This means there is no system
+ * call per message while the peer keeps up with the messages. The socket is also used to detect that the peer has gone away.</p>
+ */
+public class SharedMemoryConnection<T> implements BatchingRemoteConnection<T> {
+    // Spinning only pays off when the writer can run at the same time as the reader
+    private static final int MAX_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 100 : 0;
+    private static final long DOORBELL_TIMEOUT_MILLIS = 100;
+    private static final long MAX_WRITER_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final SocketChannel socket;
+    private final MappedRingBuffer incoming;
+    private final MappedRingBuffer outgoing;
+    private final SocketInetAddress localAddress;
+    private final SocketInetAddress remoteAddress;
+    private final ObjectWriter<T> objectWriter;
+    private final ObjectReader<T> objectReader;
+    private final RingInputStream instr;
+    private final RingOutputStream outstr;
+    private volatile boolean peerDisconnected;
+
+    public SharedMemoryConnection(SocketChannel socket, MappedRingBuffer incoming, MappedRingBuffer outgoing, MessageSerializer<T> serializer) {
+        this.socket = socket;
+        this.incoming = incoming;
+        this.outgoing = outgoing;
+        try {
+            socket.configureBlocking(false);
+            // Don't let the doorbell wait for the acknowledgement of the previous one
+            socket.socket().setTcpNoDelay(true);
+            instr = new RingInputStream();
+            outstr = new RingOutputStream();
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        InetSocketAddress localSocketAddress = (InetSocketAddress) socket.socket().getLocalSocketAddress();
+        localAddress = new SocketInetAddress(localSocketAddress.getAddress(), localSocketAddress.getPort());
+        InetSocketAddress remoteSocketAddress = (InetSocketAddress) socket.socket().getRemoteSocketAddress();
+        remoteAddress = new SocketInetAddress(remoteSocketAddress.getAddress(), remoteSocketAddress.getPort());
+        objectReader = serializer.newReader(instr, localAddress, remoteAddress);
+        objectWriter = serializer.newWriter(outstr);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("shared memory connection from %s to %s", localAddress, remoteAddress);
+    }
+
+    public T receive() throws MessageIOException {
+        try {
+            return objectReader.read();
+        } catch (EOFException e) {
+            return null;
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not read message from '%s'.", remoteAddress), e);
+        }
+    }
+
+    public void dispatch(T message) throws MessageIOException {
+        try {
+            objectWriter.write(message);
+            outstr.flush();
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not write message %s to '%s'.", message, remoteAddress), e);
+        }
+    }
+
+    public void dispatch(List<? extends T> messages) throws MessageIOException {
+        for (T message : messages) {
+            try {
+                objectWriter.write(message);
+            } catch (Exception e) {
+                throw new MessageIOException(String.format("Could not write message %s to '%s'.", message, remoteAddress), e);
+            }
+        }
+        try {
+            outstr.flush();
+        } catch (Exception e) {
+            throw new MessageIOException(String.format("Could not write messages to '%s'.", remoteAddress), e);
+        }
+    }
+
+    public void requestStop() {
+        CompositeStoppable.stoppable(instr).stop();
+    }
+
+    public void stop() {
+        CompositeStoppable.stoppable(instr, outstr, socket).stop();
+        // The files are deleted as soon as both sides have mapped them, except on platforms that do not allow a mapped file to be deleted
+        incoming.getFile().delete();
+        outgoing.getFile().delete();
+    }
+
+    private synchronized void ringDoorbell() throws IOException {
+        socket.write(ByteBuffer.wrap(new byte[]{1}));
+    }
+
+    private class RingInputStream extends InputStream {
+        private final Selector selector;
+        private final ByteBuffer doorbell = ByteBuffer.allocate(64);
+        private final byte[] readBuffer = new byte[1];
+
+        public RingInputStream() throws IOException {
+            selector = Selector.open();
+            socket.register(selector, SelectionKey.OP_READ);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int nread = read(readBuffer, 0, 1);
+            if (nread <= 0) {
+                return nread;
+            }
+            return readBuffer[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] dest, int offset, int max) throws IOException {
+            if (max == 0) {
+                return 0;
+            }
+            int spins = 0;
+            while (true) {
+                int count = incoming.read(dest, offset, max);
+                if (count > 0) {
+                    return count;
+                }
+                if (incoming.isWriterClosed()) {
+                    // Pick up anything published just before the end of the stream was marked
+                    count = incoming.read(dest, offset, max);
+                    return count > 0 ? count : -1;
+                }
+                if (peerDisconnected || !selector.isOpen()) {
+                    return -1;
+                }
+                if (spins < MAX_SPINS) {
+                    spins++;
+                    Thread.yield();
+                } else {
+                    awaitDoorbell();
+                }
+            }
+        }
+
+        private void awaitDoorbell() throws IOException {
+            incoming.setReaderWaiting(true);
+            try {
+                // Check again now that the writer can see that this side is waiting, to avoid missing a doorbell
+                if (incoming.available() > 0 || incoming.isWriterClosed()) {
+                    return;
+                }
+                selector.select(DOORBELL_TIMEOUT_MILLIS);
+                selector.selectedKeys().clear();
+                while (true) {
+                    doorbell.clear();
+                    int nread = socket.read(doorbell);
+                    if (nread < 0) {
+                        peerDisconnected = true;
+                    }
+                    if (nread <= 0) {
+                        break;
+                    }
+                }
+            } catch (ClosedSelectorException e) {
+                // Stop requested
+            } finally {
+                incoming.setReaderWaiting(false);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            selector.close();
+        }
+    }
+
+    private class RingOutputStream extends OutputStream {
+        private final byte[] writeBuffer = new byte[1];
+        private volatile boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            writeBuffer[0] = (byte) b;
+            write(writeBuffer, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] src, int offset, int max) throws IOException {
+            int remaining = max;
+            int currentPos = offset;
+            while (remaining > 0) {
+                int count = outgoing.write(src, currentPos, remaining);
+                if (count > 0) {
+                    remaining -= count;
+                    currentPos += count;
+                } else {
+                    flush();
+                    awaitSpace();
+                }
+            }
+        }
+
+        private void awaitSpace() throws IOException {
+            long backoff = 1000;
+            while (!outgoing.hasSpace()) {
+                if (closed || peerDisconnected || !socket.isOpen()) {
+                    throw new EOFException();
+                }
+                LockSupport.parkNanos(backoff);
+                backoff = Math.min(backoff * 2, MAX_WRITER_BACKOFF_NANOS);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            outgoing.publish();
+            if (outgoing.isReaderWaiting()) {
+                ringDoorbell();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            outgoing.closeWriter();
+            try {
+                ringDoorbell();
+            } catch (IOException e) {
+                // Peer has already gone away
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.api.Action;
+import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.ConnectionAcceptor;
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.IncomingConnector;
+import org.gradle.messaging.remote.internal.inet.InetEndpoint;
+import org.gradle.messaging.remote.internal.inet.SocketConnectCompletion;
+import org.gradle.messaging.remote.internal.inet.TcpIncomingConnector;
+
+import java.io.File;
+
+/**
+ * Accepts connections over TCP, and offers to move the messages of each connection from the local machine to a pair of {@link MappedRingBuffer}s.
+ * Connections from remote machines are not offered shared memory.
+ */
+public class SharedMemoryIncomingConnector implements IncomingConnector {
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    private final TcpIncomingConnector tcpConnector;
+    private final File directory;
+    private final int bufferSize;
+
+    public SharedMemoryIncomingConnector(TcpIncomingConnector tcpConnector, File directory, int bufferSize) {
+        this.tcpConnector = tcpConnector;
+        this.directory = directory;
+        this.bufferSize = bufferSize;
+    }
+
+    public ConnectionAcceptor accept(final Action<ConnectCompletion> action, boolean allowRemote) {
+        if (allowRemote) {
+            return tcpConnector.accept(action, true);
+        }
+
+        final ConnectionAcceptor acceptor = tcpConnector.accept(new Action<ConnectCompletion>() {
+            public void execute(ConnectCompletion completion) {
+                action.execute(SharedMemoryConnectCompletion.offer(((SocketConnectCompletion) completion).getSocket(), directory, bufferSize));
+            }
+        }, false);
+        final Address address = new SharedMemoryAddress((InetEndpoint) acceptor.getAddress());
+
+        return new ConnectionAcceptor() {
+            public Address getAddress() {
+                return address;
+            }
+
+            public void requestStop() {
+                acceptor.requestStop();
+            }
+
+            public void stop() {
+                acceptor.stop();
+            }
+        };
+    }
+}
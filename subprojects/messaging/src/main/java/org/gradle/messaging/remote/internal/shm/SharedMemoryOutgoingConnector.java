@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm;
+
+import org.gradle.messaging.remote.Address;
+import org.gradle.messaging.remote.internal.ConnectCompletion;
+import org.gradle.messaging.remote.internal.ConnectException;
+import org.gradle.messaging.remote.internal.OutgoingConnector;
+import org.gradle.messaging.remote.internal.inet.SocketConnectCompletion;
+import org.gradle.messaging.remote.internal.inet.TcpOutgoingConnector;
+
+/**
+ * Connects over TCP, and uses the shared memory buffers offered by the peer when the destination is a {@link SharedMemoryAddress}.
+ */
+public class SharedMemoryOutgoingConnector implements OutgoingConnector {
+    private final TcpOutgoingConnector tcpConnector;
+
+    public SharedMemoryOutgoingConnector(TcpOutgoingConnector tcpConnector) {
+        this.tcpConnector = tcpConnector;
+    }
+
+    public ConnectCompletion connect(Address destinationAddress) throws ConnectException {
+        ConnectCompletion completion = tcpConnector.connect(destinationAddress);
+        if (destinationAddress instanceof SharedMemoryAddress) {
+            return SharedMemoryConnectCompletion.acceptOffer(((SocketConnectCompletion) completion).getSocket());
+        }
+        return completion;
+    }
+}
@@ -16,8 +16,10 @@
 
 package org.gradle.messaging.serialize;
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -55,17 +57,17 @@ public class DefaultSerializerRegistry<T> implements SerializerRegistry<T> {
 
     private static class TaggedTypeSerializer<T> implements Serializer<T> {
         private final Map<Class<?>, TypeInfo> serializersByType = new HashMap<Class<?>, TypeInfo>();
-        private final Map<Byte, TypeInfo> serializersByTag = new HashMap<Byte, TypeInfo>();
+        private final List<TypeInfo> serializersByTag = new ArrayList<TypeInfo>();
 
         private <T> void add(Class<?> type, Serializer<?> serializer) {
             TypeInfo typeInfo = new TypeInfo((byte) serializersByTag.size(), serializer);
             serializersByType.put(type, typeInfo);
-            serializersByTag.put(typeInfo.tag, typeInfo);
+            serializersByTag.add(typeInfo);
         }
 
         public T read(Decoder decoder) throws Exception {
             byte tag = decoder.readByte();
-            TypeInfo typeInfo = serializersByTag.get(tag);
+            TypeInfo typeInfo = tag >= 0 && tag < serializersByTag.size() ? serializersByTag.get(tag) : null;
             if (typeInfo == null) {
                 throw new IllegalArgumentException(String.format("Unexpected type tag %d found.", tag));
             }
@@ -25,14 +25,14 @@ import java.io.Closeable;
 import java.io.OutputStream;
 
 public class KryoBackedEncoder extends AbstractEncoder implements FlushableEncoder, Closeable {
-    private final Output output;
+    private final CountingOutput output;
 
     public KryoBackedEncoder(OutputStream outputStream) {
         this(outputStream, 4096);
     }
 
     public KryoBackedEncoder(OutputStream outputStream, int bufferSize) {
-        output = new Output(outputStream, bufferSize);
+        output = new CountingOutput(outputStream, bufferSize);
     }
 
     public void writeByte(byte value) {
@@ -67,18 +67,23 @@ public class KryoBackedEncoder extends AbstractEncoder implements FlushableEncod
         if (value == null) {
             throw new IllegalArgumentException("Cannot encode a null string.");
         }
-        output.writeString(value);
+        writeNullableString(value);
     }
 
     public void writeNullableString(@Nullable CharSequence value) {
-        output.writeString(value);
+        // Kryo only has a fast path for short ASCII strings when given a String. Both forms are read back the same way
+        if (value instanceof String) {
+            output.writeString((String) value);
+        } else {
+            output.writeString(value);
+        }
     }
 
     /**
      * Returns the total number of bytes written by this encoder, some of which is may still be buffered.
      */
-    public int getWritePosition() {
-        return output.total();
+    public long getWritePosition() {
+        return output.flushed + output.position();
     }
 
     public void flush() {
@@ -88,4 +93,22 @@ public class KryoBackedEncoder extends AbstractEncoder implements FlushableEncod
     public void close() {
         output.close();
     }
+
+    /**
+     * Counts the bytes flushed to the stream as a long, as {@link Output#total()} overflows once 2GB have been written.
+     */
+    private static class CountingOutput extends Output {
+        private long flushed;
+
+        CountingOutput(OutputStream outputStream, int bufferSize) {
+            super(outputStream, bufferSize);
+        }
+
+        @Override
+        public void flush() {
+            int buffered = position;
+            super.flush();
+            flushed += buffered - position;
+        }
+    }
 }
@@ -18,6 +18,7 @@ package org.gradle.messaging.remote.internal.hub
 
 import org.gradle.api.Action
 import org.gradle.messaging.dispatch.Dispatch
+import org.gradle.messaging.remote.internal.BatchingRemoteConnection
 import org.gradle.messaging.remote.internal.Connection
 import org.gradle.messaging.remote.internal.hub.protocol.ChannelIdentifier
 import org.gradle.messaging.remote.internal.hub.protocol.ChannelMessage
@@ -163,6 +164,24 @@ class MessageHubTest extends ConcurrentSpec {
         0 * _._
     }
 
+    def "queued outgoing messages are dispatched to batching connection in batches"() {
+        def connection = new BatchingConnection()
+
+        given:
+        hub.getOutgoing("channel1", String).dispatch("message1")
+        hub.getOutgoing("channel1", String).dispatch("message2")
+        hub.getOutgoing("channel2", Long).dispatch(12)
+
+        when:
+        hub.addConnection(connection)
+        hub.stop()
+
+        then:
+        connection.batches[0].take(3).collect { it.payload } == ["message1", "message2", 12]
+        connection.batches.flatten().last() instanceof EndOfStream
+        connection.batches.flatten().size() == 4
+    }
+
     def "each outgoing message is dispatched in order to connection"() {
         def messages = new CopyOnWriteArrayList()
         Dispatch<InterHubMessage> outgoing = Mock()
@@ -677,4 +696,33 @@ class MessageHubTest extends ConcurrentSpec {
             incoming.put(new EndOfStream())
         }
     }
+
+    private static class BatchingConnection implements BatchingRemoteConnection<InterHubMessage> {
+        final List<List<InterHubMessage>> batches = new CopyOnWriteArrayList<>()
+        private final BlockingQueue<InterHubMessage> incoming = new LinkedBlockingQueue<>()
+
+        void dispatch(List<? extends InterHubMessage> messages) {
+            batches.add(new ArrayList<InterHubMessage>(messages))
+            if (messages.last() instanceof EndOfStream) {
+                stop()
+            }
+        }
+
+        void dispatch(InterHubMessage message) {
+            throw new UnsupportedOperationException()
+        }
+
+        InterHubMessage receive() {
+            def message = incoming.take()
+            return message instanceof EndOfStream ? null : message
+        }
+
+        void requestStop() {
+            throw new UnsupportedOperationException()
+        }
+
+        void stop() {
+            incoming.put(new EndOfStream())
+        }
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class MappedRingBufferTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def file = tmpDir.file("buffer.bin")
+
+    def "reader sees bytes once they have been published"() {
+        def writer = MappedRingBuffer.create(file, 16)
+        def reader = MappedRingBuffer.open(file)
+        def dest = new byte[16]
+
+        when:
+        writer.write([1, 2, 3] as byte[], 0, 3)
+
+        then:
+        reader.available() == 0
+        reader.read(dest, 0, 16) == 0
+
+        when:
+        writer.publish()
+
+        then:
+        reader.available() == 3
+        reader.read(dest, 0, 16) == 3
+        dest[0..2] == [1, 2, 3] as byte[]
+        reader.available() == 0
+    }
+
+    def "writer can only fill the free space"() {
+        def writer = MappedRingBuffer.create(file, 16)
+        def reader = MappedRingBuffer.open(file)
+
+        when:
+        def written = writer.write(new byte[20], 0, 20)
+
+        then:
+        written == 16
+        !writer.hasSpace()
+        writer.write(new byte[1], 0, 1) == 0
+
+        when:
+        writer.publish()
+        reader.read(new byte[4], 0, 4)
+
+        then:
+        writer.hasSpace()
+        writer.write(new byte[20], 0, 20) == 4
+    }
+
+    def "bytes wrap around the end of the buffer"() {
+        def writer = MappedRingBuffer.create(file, 16)
+        def reader = MappedRingBuffer.open(file)
+        def dest = new byte[16]
+
+        given:
+        writer.write(new byte[12], 0, 12)
+        writer.publish()
+        reader.read(dest, 0, 12)
+
+        when:
+        writer.write((1..10) as byte[], 0, 10)
+        writer.publish()
+
+        then:
+        reader.read(dest, 0, 16) == 10
+        dest[0..9] == (1..10) as byte[]
+    }
+
+    def "reader sees end of stream after bytes published before it"() {
+        def writer = MappedRingBuffer.create(file, 16)
+        def reader = MappedRingBuffer.open(file)
+
+        when:
+        writer.write([1, 2] as byte[], 0, 2)
+        writer.closeWriter()
+
+        then:
+        reader.isWriterClosed()
+        reader.available() == 2
+    }
+
+    def "writer can see that the reader is waiting"() {
+        def writer = MappedRingBuffer.create(file, 16)
+        def reader = MappedRingBuffer.open(file)
+
+        expect:
+        !writer.readerWaiting
+
+        when:
+        reader.readerWaiting = true
+
+        then:
+        writer.readerWaiting
+    }
+
+    def "capacity must be a power of two"() {
+        when:
+        MappedRingBuffer.create(file, 12)
+
+        then:
+        IllegalArgumentException e = thrown()
+        e.message == "Ring buffer capacity must be a power of two, was 12."
+    }
+
+    def "cannot open a file that does not contain a ring buffer"() {
+        given:
+        file.text = "not a buffer"
+
+        when:
+        MappedRingBuffer.open(file)
+
+        then:
+        IOException e = thrown()
+        e.message == "File ${file} does not contain a ring buffer."
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.messaging.remote.internal.shm
+
+import org.gradle.api.Action
+import org.gradle.internal.id.UUIDGenerator
+import org.gradle.messaging.remote.internal.ConnectCompletion
+import org.gradle.messaging.remote.internal.DefaultMessageSerializer
+import org.gradle.messaging.remote.internal.RemoteConnection
+import org.gradle.messaging.remote.internal.inet.InetAddressFactory
+import org.gradle.messaging.remote.internal.inet.MultiChoiceAddress
+import org.gradle.messaging.remote.internal.inet.SocketConnection
+import org.gradle.messaging.remote.internal.inet.TcpIncomingConnector
+import org.gradle.messaging.remote.internal.inet.TcpOutgoingConnector
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.Requires
+import org.gradle.util.TestPrecondition
+import org.junit.Rule
+import spock.lang.Timeout
+
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.LinkedBlockingQueue
+
+@Timeout(60)
+class SharedMemoryConnectorTest extends ConcurrentSpec {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    final def serializer = new DefaultMessageSerializer<String>(getClass().classLoader)
+    final def tcpIncomingConnector = new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator())
+    final def outgoingConnector = new SharedMemoryOutgoingConnector(new TcpOutgoingConnector())
+    final BlockingQueue<ConnectCompletion> accepted = new LinkedBlockingQueue<ConnectCompletion>()
+    final Action<ConnectCompletion> action = { accepted.put(it) } as Action
+    def acceptor
+    RemoteConnection<String> client
+    RemoteConnection<String> server
+
+    def cleanup() {
+        client?.stop()
+        server?.stop()
+        acceptor?.stop()
+    }
+
+    def "passes messages through shared memory when both sides can map the buffers"() {
+        def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, tmpDir.testDirectory, 4096)
+
+        when:
+        acceptor = incomingConnector.accept(action, false)
+        connect()
+
+        then:
+        acceptor.address instanceof SharedMemoryAddress
+        client instanceof SharedMemoryConnection
+        server instanceof SharedMemoryConnection
+    }
+
+    def "can send messages in both directions"() {
+        def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, tmpDir.testDirectory, 4096)
+        def received = []
+
+        given:
+        acceptor = incomingConnector.accept(action, false)
+        connect()
+
+        when:
+        async {
+            start {
+                // Send more than fits in the buffer, so that the writer has to wait for the reader
+                1000.times { server.dispatch("message $it") }
+            }
+            1000.times { received << client.receive() }
+            client.dispatch("reply")
+        }
+
+        then:
+        received == (0..<1000).collect { "message $it" }
+        server.receive() == "reply"
+    }
+
+    def "reader sees end of stream when peer stops"() {
+        def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, tmpDir.testDirectory, 4096)
+
+        given:
+        acceptor = incomingConnector.accept(action, false)
+        connect()
+
+        when:
+        server.dispatch("last")
+        server.stop()
+
+        then:
+        client.receive() == "last"
+        client.receive() == null
+    }
+
+    def "receive returns null when stop requested"() {
+        def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, tmpDir.testDirectory, 4096)
+
+        given:
+        acceptor = incomingConnector.accept(action, false)
+        connect()
+
+        when:
+        def result = "not null"
+        async {
+            start {
+                result = client.receive()
+            }
+            thread.block()
+            client.requestStop()
+        }
+
+        then:
+        result == null
+    }
+
+    def "uses TCP when buffers cannot be created"() {
+        def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, tmpDir.file("missing"), 4096)
+
+        given:
+        acceptor = incomingConnector.accept(action, false)
+        connect()
+
+        when:
+        client.dispatch("message")
+
+        then:
+        client instanceof SocketConnection
+        server instanceof SocketConnection
+        server.receive() == "message"
+    }
+
+    @Requires(TestPrecondition.FILE_PERMISSIONS)
+    def "creates buffers in a directory that only the current user can access"() {
+        def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, tmpDir.testDirectory, 4096)
+
+        when:
+        acceptor = incomingConnector.accept(action, false)
+        connect()
+
+        then:
+        server instanceof SharedMemoryConnection
+        def directories = tmpDir.testDirectory.listFiles()
+        directories.length == 1
+        directories[0].name.startsWith("gradle-messages-")
+        new TestFile(directories[0]).permissions == "rwx------"
+    }
+
+    @Requires(TestPrecondition.SYMLINKS)
+    def "uses TCP when the buffer directory is a symbolic link"() {
+        def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, tmpDir.testDirectory, 4096)
+        def target = tmpDir.createDir("target")
+        tmpDir.file("gradle-messages-${System.getProperty("user.name").replaceAll("[^\\w.-]", "_")}").createLink(target)
+
+        when:
+        acceptor = incomingConnector.accept(action, false)
+        connect()
+
+        then:
+        client instanceof SocketConnection
+        server instanceof SocketConnection
+        target.listFiles().length == 0
+    }
+
+    def "uses TCP when connecting to a plain TCP address"() {
+        when:
+        acceptor = tcpIncomingConnector.accept(action, false)
+        connect()
+
+        then:
+        client instanceof SocketConnection
+        server instanceof SocketConnection
+    }
+
+    def "does not offer shared memory to remote connections"() {
+        def incomingConnector = new SharedMemoryIncomingConnector(tcpIncomingConnector, tmpDir.testDirectory, 4096)
+
+        when:
+        acceptor = incomingConnector.accept(action, true)
+
+        then:
+        acceptor.address instanceof MultiChoiceAddress
+    }
+
+    private void connect() {
+        async {
+            start {
+                client = outgoingConnector.connect(acceptor.address).create(serializer)
+            }
+            server = accepted.take().create(serializer)
+        }
+    }
+}
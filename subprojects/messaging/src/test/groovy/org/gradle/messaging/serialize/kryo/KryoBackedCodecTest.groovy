@@ -95,4 +95,26 @@ class KryoBackedCodecTest extends AbstractCodecTest {
         instr.available() == 0
         decoder.readPosition == 4108
     }
+
+    def "write position is not limited to 2GB"() {
+        def discarding = new OutputStream() {
+            void write(int b) {}
+            void write(byte[] b, int off, int len) {}
+        }
+        def encoder = new KryoBackedEncoder(discarding, 1024 * 1024)
+        def bytes = new byte[1024 * 1024]
+
+        when:
+        2049.times { encoder.writeBytes(bytes) }
+        encoder.writeBoolean(true)
+
+        then:
+        encoder.writePosition == 2049L * 1024 * 1024 + 1
+
+        when:
+        encoder.flush()
+
+        then:
+        encoder.writePosition == 2049L * 1024 * 1024 + 1
+    }
 }
@@ -48,6 +48,10 @@ public class ModelGraph {
         flattened.put(node.getPath(), node);
     }
 
+    public Map<String, ModelNode> getEntryNodes() {
+        return Collections.unmodifiableMap(entryNodes);
+    }
+
     public Map<ModelPath, ModelNode> getFlattened() {
         return Collections.unmodifiableMap(flattened);
     }
@@ -36,10 +36,11 @@ import org.gradle.model.internal.type.ModelType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
 
 @NotThreadSafe
 public class DefaultModelRegistry implements ModelRegistry {
@@ -64,10 +65,9 @@ public class DefaultModelRegistry implements ModelRegistry {
     private final Multimap<ModelPath, BoundModelMutator<?>> finalizers = ArrayListMultimap.create();
     private final Multimap<ModelPath, List<ModelPath>> usedFinalizers = ArrayListMultimap.create();
 
-    // TODO rework this listener mechanism to be more targeted, in that interested parties nominate what they are interested in (e.g. path or type) and use this to only notify relevant listeners
-    private final List<ModelCreationListener> modelCreationListeners = new LinkedList<ModelCreationListener>();
+    private final ModelCreationListeners modelCreationListeners = new ModelCreationListeners();
 
-    private final List<RuleBinder<?>> binders = Lists.newLinkedList();
+    private final Set<RuleBinder<?>> binders = Sets.newLinkedHashSet();
 
     private static String toString(ModelRuleDescriptor descriptor) {
         StringBuilder stringBuilder = new StringBuilder();
@@ -131,7 +131,6 @@ public class DefaultModelRegistry implements ModelRegistry {
     private <T> RuleBinder<T> bind(ModelReference<T> subject, List<? extends ModelReference<?>> inputs, ModelRuleDescriptor descriptor, Action<? super RuleBinder<T>> onBind) {
         RuleBinder<T> binder = new RuleBinder<T>(subject, inputs, descriptor, Actions.composite(new Action<RuleBinder<T>>() {
             public void execute(RuleBinder<T> binder) {
-                // TODO this is going to run even if we never added the binder to the bindings (inefficient)
                 binders.remove(binder);
             }
         }, onBind));
@@ -199,7 +198,16 @@ public class DefaultModelRegistry implements ModelRegistry {
         // Copy the creations we know about now because a listener may add creations, causing a CME.
         // This can happen when a listener is listening in order to bind a type-only reference, and the
         // reference binding causing the rule to fully bind and register a new creation.
-        List<ModelNode> currentCreations = Lists.newArrayList(modelGraph.getFlattened().values());
+        Collection<ModelNode> currentCreations;
+        ModelPath path = listener.matchPath();
+        if (path != null) {
+            ModelNode node = modelGraph.find(path);
+            currentCreations = node == null ? Collections.<ModelNode>emptyList() : Collections.singletonList(node);
+        } else if (listener.matchTopLevelOnly()) {
+            currentCreations = Lists.newArrayList(modelGraph.getEntryNodes().values());
+        } else {
+            currentCreations = Lists.newArrayList(modelGraph.getFlattened().values());
+        }
 
         for (ModelCreation creation : currentCreations) {
             remove = listener.onCreate(creation);
@@ -434,14 +442,7 @@ public class DefaultModelRegistry implements ModelRegistry {
     }
 
     private void notifyCreationListeners(ModelCreation creation) {
-        ListIterator<ModelCreationListener> modelCreationListenerListIterator = modelCreationListeners.listIterator();
-        while (modelCreationListenerListIterator.hasNext()) {
-            ModelCreationListener next = modelCreationListenerListIterator.next();
-            boolean remove = next.onCreate(creation);
-            if (remove) {
-                modelCreationListenerListIterator.remove();
-            }
-        }
+        modelCreationListeners.notifyCreated(creation);
     }
 
     private class NodeWrapper implements MutableModelNode {
@@ -543,6 +544,15 @@ public class DefaultModelRegistry implements ModelRegistry {
             this.bindAction = bindAction;
         }
 
+        public ModelPath matchPath() {
+            return reference.getPath();
+        }
+
+        public boolean matchTopLevelOnly() {
+            // Type-only references are only bound to top level elements
+            return true;
+        }
+
         public boolean onCreate(ModelCreation creation) {
             ModelRuleDescriptor creatorDescriptor = creation.getDescriptor();
             ModelPath path = creation.getPath();
@@ -16,9 +16,27 @@
 
 package org.gradle.model.internal.registry;
 
+import org.gradle.api.Nullable;
 import org.gradle.model.internal.core.ModelCreation;
+import org.gradle.model.internal.core.ModelPath;
 
 public interface ModelCreationListener {
 
+    /**
+     * Returns the path of the only element that this listener is interested in, or null if the listener is interested in elements at any path.
+     */
+    @Nullable
+    ModelPath matchPath();
+
+    /**
+     * Returns true if this listener is only interested in top level elements. Only used when {@link #matchPath()} returns null.
+     */
+    boolean matchTopLevelOnly();
+
+    /**
+     * Called when a matching element is created.
+     *
+     * @return true if the listener should not be notified of any further elements.
+     */
     boolean onCreate(ModelCreation registration);
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.model.internal.registry;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multimap;
+import net.jcip.annotations.NotThreadSafe;
+import org.gradle.model.internal.core.ModelCreation;
+import org.gradle.model.internal.core.ModelPath;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The listeners waiting for model elements to be created, indexed by the path they are interested in. When an element is created, only the listeners
+ * for its path and the listeners that are not bound to a path are notified. Listeners are notified in the order in which they were added.
+ */
+@NotThreadSafe
+class ModelCreationListeners {
+    private final Multimap<ModelPath, Registration> byPath = ArrayListMultimap.create();
+    private final List<Registration> topLevel = Lists.newLinkedList();
+    private final List<Registration> anyPath = Lists.newLinkedList();
+    private long nextOrder;
+
+    public void add(ModelCreationListener listener) {
+        Registration registration = new Registration(listener, nextOrder++);
+        ModelPath path = listener.matchPath();
+        if (path != null) {
+            byPath.put(path, registration);
+        } else if (listener.matchTopLevelOnly()) {
+            topLevel.add(registration);
+        } else {
+            anyPath.add(registration);
+        }
+    }
+
+    public void notifyCreated(ModelCreation creation) {
+        ModelPath path = creation.getPath();
+        Collection<Registration> forPath = byPath.get(path);
+        boolean isTopLevel = path.isTopLevel();
+        if (forPath.isEmpty() && (!isTopLevel || topLevel.isEmpty()) && anyPath.isEmpty()) {
+            return;
+        }
+
+        List<Registration> matches = Lists.newArrayList(forPath);
+        if (isTopLevel) {
+            matches.addAll(topLevel);
+        }
+        matches.addAll(anyPath);
+        if (matches.size() > forPath.size()) {
+            Collections.sort(matches);
+        }
+
+        for (Registration registration : matches) {
+            if (registration.listener.onCreate(creation)) {
+                remove(registration);
+            }
+        }
+    }
+
+    private void remove(Registration registration) {
+        ModelPath path = registration.listener.matchPath();
+        if (path != null) {
+            byPath.remove(path, registration);
+        } else if (registration.listener.matchTopLevelOnly()) {
+            topLevel.remove(registration);
+        } else {
+            anyPath.remove(registration);
+        }
+    }
+
+    public int size() {
+        return byPath.size() + topLevel.size() + anyPath.size();
+    }
+
+    private static class Registration implements Comparable<Registration> {
+        private final ModelCreationListener listener;
+        private final long order;
+
+        private Registration(ModelCreationListener listener, long order) {
+            this.listener = listener;
+            this.order = order;
+        }
+
+        public int compareTo(Registration other) {
+            return order < other.order ? -1 : order == other.order ? 0 : 1;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.model.internal.registry
+
+import org.gradle.model.internal.core.ModelCreation
+import org.gradle.model.internal.core.ModelPath
+import org.gradle.model.internal.core.ModelPromise
+import org.gradle.model.internal.core.rule.describe.ModelRuleDescriptor
+import spock.lang.Specification
+
+class ModelCreationListenersTest extends Specification {
+    def listeners = new ModelCreationListeners()
+    def notified = []
+
+    def "notifies only listeners for the path of the created element"() {
+        listeners.add(listener("foo listener", "foo"))
+        listeners.add(listener("bar listener", "bar"))
+
+        when:
+        listeners.notifyCreated(creation("foo"))
+
+        then:
+        notified == ["foo listener: foo"]
+    }
+
+    def "notifies top level listeners of top level elements only"() {
+        listeners.add(listener("top level listener", null, true))
+
+        when:
+        listeners.notifyCreated(creation("foo"))
+        listeners.notifyCreated(creation("foo.bar"))
+
+        then:
+        notified == ["top level listener: foo"]
+    }
+
+    def "notifies listeners that are not bound to a path of all elements"() {
+        listeners.add(listener("any listener", null, false))
+
+        when:
+        listeners.notifyCreated(creation("foo"))
+        listeners.notifyCreated(creation("foo.bar"))
+
+        then:
+        notified == ["any listener: foo", "any listener: foo.bar"]
+    }
+
+    def "notifies matching listeners in the order they were added"() {
+        listeners.add(listener("1", null, true))
+        listeners.add(listener("2", "foo"))
+        listeners.add(listener("3", null, false))
+        listeners.add(listener("4", "foo"))
+
+        when:
+        listeners.notifyCreated(creation("foo"))
+
+        then:
+        notified == ["1: foo", "2: foo", "3: foo", "4: foo"]
+    }
+
+    def "stops notifying listener once it asks to be removed"() {
+        listeners.add(listener("foo listener", "foo", false, true))
+        listeners.add(listener("top level listener", null, true))
+
+        when:
+        listeners.notifyCreated(creation("foo"))
+        listeners.notifyCreated(creation("foo"))
+
+        then:
+        notified == ["foo listener: foo", "top level listener: foo", "top level listener: foo"]
+        listeners.size() == 1
+    }
+
+    ModelCreationListener listener(String name, String path, boolean topLevelOnly = false, boolean removeOnCreate = false) {
+        return new ModelCreationListener() {
+            ModelPath matchPath() {
+                return path == null ? null : ModelPath.path(path)
+            }
+
+            boolean matchTopLevelOnly() {
+                return topLevelOnly
+            }
+
+            boolean onCreate(ModelCreation creation) {
+                notified << "$name: $creation.path".toString()
+                return removeOnCreate
+            }
+        }
+    }
+
+    ModelCreation creation(String path) {
+        return new ModelCreation() {
+            ModelRuleDescriptor getDescriptor() {
+                return null
+            }
+
+            ModelPath getPath() {
+                return ModelPath.path(path)
+            }
+
+            ModelPromise getPromise() {
+                return null
+            }
+        }
+    }
+}
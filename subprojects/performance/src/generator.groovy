@@ -43,6 +43,7 @@ class ProjectGeneratorTask extends DefaultTask {
     int sourceFiles = 1
     Integer testSourceFiles
     int linesOfCodePerSourceFile = 5
+    int modelRules
     @InputFiles FileCollection testDependencies
 
     final List<TestProject> projects = []
@@ -173,7 +174,7 @@ class ProjectGeneratorTask extends DefaultTask {
 
         args += [projectName: testProject.name, groovyProject: groovyProject, scalaProject: scalaProject,
                 propertyCount: (testProject.linesOfCodePerSourceFile.intdiv(7)), repository: testProject.repository, dependencies:testProject.dependencies,
-                testProject: testProject
+                testProject: testProject, modelRules: modelRules
                 ]
 
         files.each {String name ->
@@ -1,5 +1,5 @@
 /*
- * Copyright 2014 the original author or authors.
+ * Copyright 2015 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -14,27 +14,24 @@
  * limitations under the License.
  */
 
-package org.gradle.api.plugins.quality.internal.findbugs
 
-import spock.lang.Specification
-import spock.lang.Subject
+package org.gradle.performance
 
-class FindBugsWorkerServerTest extends Specification {
+import org.gradle.performance.fixture.BuildSpecification
 
-    def executer = Mock(FindBugsExecuter)
-    def spec = Stub(FindBugsSpec)
-    @Subject server = new FindBugsWorkerServer(spec)
+class ModelRuleBindingPerformanceTest extends AbstractCrossBuildPerformanceTest {
 
-    def "fatal crash provides result"() {
-        def error = new Error("Ka-boom!")
+    def "bind many model rules"() {
+        given:
+        runner.testId = "model rule binding"
+        runner.buildSpecifications = [
+                BuildSpecification.forProject("manyModelRules").displayName("10000 rules").tasksToRun("help").build()
+        ]
 
         when:
-        def r = server.execute(executer)
+        def result = runner.run()
 
         then:
-        1 * executer.runFindbugs(spec) >> { throw error }
-
-        and:
-        r.exception == error
+        result.assertEveryBuildSucceeds()
     }
 }
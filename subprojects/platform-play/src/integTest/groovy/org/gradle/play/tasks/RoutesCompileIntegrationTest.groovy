@@ -93,6 +93,28 @@ class RoutesCompileIntegrationTest extends MultiPlayVersionIntegrationTest {
         file(destinationDirPath, "routes_routing.scala").assertHasNotChangedSince(routingFirstCompileSnapshot);
     }
 
+    def "recompiles only the changed routes files"(){
+        given:
+        TestFile templateFile = withRoutesTemplate()
+        withRoutesTemplate("foo")
+        succeeds("routesCompile")
+
+        and:
+        def routingFirstCompileSnapshot = file(destinationDirPath, "routes_routing.scala").snapshot();
+        def fooRoutesFirstCompileSnapshot = file(destinationDirPath, "controllers/foo/routes.java").snapshot();
+        def fooRoutingFirstCompileSnapshot = file(destinationDirPath, "foo/routes_routing.scala").snapshot();
+
+        when:
+        templateFile << "GET     /other                     controllers.Application.index()\n"
+
+        then:
+        succeeds("routesCompile")
+        and:
+        file(destinationDirPath, "routes_routing.scala").assertHasChangedSince(routingFirstCompileSnapshot);
+        file(destinationDirPath, "controllers/foo/routes.java").assertHasNotChangedSince(fooRoutesFirstCompileSnapshot);
+        file(destinationDirPath, "foo/routes_routing.scala").assertHasNotChangedSince(fooRoutingFirstCompileSnapshot);
+    }
+
     def withRoutesTemplate(String packageName = "") {
         def routesFile = packageName.isEmpty() ? file("conf", "routes") : file("conf", packageName + ".routes")
         def packageId = packageName.isEmpty() ? "" : ".$packageName"
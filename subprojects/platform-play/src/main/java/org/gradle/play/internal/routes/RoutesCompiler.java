@@ -20,6 +20,7 @@ import com.google.common.collect.Lists;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.WorkResult;
+import org.gradle.internal.UncheckedException;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.scala.internal.reflect.ScalaMethod;
 import org.gradle.util.CollectionUtils;
@@ -27,10 +28,11 @@ import org.gradle.util.CollectionUtils;
 import java.io.File;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
 
 public class RoutesCompiler implements Compiler<VersionedRoutesCompileSpec>, Serializable {
     public WorkResult execute(VersionedRoutesCompileSpec spec) {
-        boolean didWork = false;
         Iterable<File> sources = spec.getSources();
 
         ArrayList<File> secondaryRoutes = Lists.newArrayList();
@@ -42,7 +44,7 @@ public class RoutesCompiler implements Compiler<VersionedRoutesCompileSpec>, Ser
         });
 
         ArrayList<File> routes = Lists.newArrayList();
-        CollectionUtils.filter(sources, secondaryRoutes, new Spec<File>() {
+        CollectionUtils.filter(sources, routes, new Spec<File>() {
             @Override
             public boolean isSatisfiedBy(File file) {
                 return file.getName().equals("routes");
@@ -50,20 +52,52 @@ public class RoutesCompiler implements Compiler<VersionedRoutesCompileSpec>, Ser
         });
 
         // Compile all secondary routes files first
-        for (File sourceFile : secondaryRoutes) {
-            Boolean ret = compile(sourceFile, spec);
-            didWork = ret || didWork;
-        }
+        boolean didWork = compile(secondaryRoutes, spec);
 
         // Compile all main routes files last
-        for (File sourceFile : routes) {
-            Boolean ret = compile(sourceFile, spec);
-            didWork = ret || didWork;
-        }
+        didWork = compile(routes, spec) || didWork;
 
         return new SimpleWorkResult(didWork);
     }
 
+    private boolean compile(List<File> sourceFiles, final VersionedRoutesCompileSpec spec) {
+        int threads = Math.min(sourceFiles.size(), Runtime.getRuntime().availableProcessors());
+        if (threads <= 1) {
+            boolean didWork = false;
+            for (File sourceFile : sourceFiles) {
+                Boolean ret = compile(sourceFile, spec);
+                didWork = ret || didWork;
+            }
+            return didWork;
+        }
+
+        // Each routes file is compiled to its own set of generated files, so they can be compiled at the same time
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>(sourceFiles.size());
+            for (final File sourceFile : sourceFiles) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() {
+                        return compile(sourceFile, spec);
+                    }
+                }));
+            }
+            boolean didWork = false;
+            for (Future<Boolean> result : results) {
+                try {
+                    didWork = result.get() || didWork;
+                } catch (ExecutionException e) {
+                    throw UncheckedException.throwAsUncheckedException(e.getCause());
+                } catch (InterruptedException e) {
+                    throw UncheckedException.throwAsUncheckedException(e);
+                }
+            }
+            return didWork;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     private Boolean compile(File sourceFile, VersionedRoutesCompileSpec spec) {
 
         try {
@@ -17,11 +17,23 @@
 package org.gradle.play.tasks;
 
 import org.gradle.api.Incubating;
+import org.gradle.api.internal.file.copy.CopyAction;
+import org.gradle.api.internal.file.copy.IncrementalCopyActionDecorator;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.language.jvm.tasks.ProcessResources;
 
+import java.io.File;
+
 /**
  * Task to copy javascript resources
  */
 @Incubating
 public class JavaScriptProcessResources extends ProcessResources {
+
+    @Override
+    protected void copy(IncrementalTaskInputs inputs) {
+        // The destination directory only holds the processed javascript, so it is kept in sync with the sources
+        CopyAction copyAction = createCopyAction();
+        copy(new IncrementalCopyActionDecorator(new File(getTemporaryDir(), "copyState.bin"), getDestinationDir(), true, getRootSpec(), inputs, copyAction));
+    }
 }
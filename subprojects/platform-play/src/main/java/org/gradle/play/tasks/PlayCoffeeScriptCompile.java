@@ -55,10 +55,9 @@ public class PlayCoffeeScriptCompile extends CoffeeScriptCompile {
     }
 
     @Override
-    public void doCompile() {
+    protected void removeStaleOutputs() {
         StaleClassCleaner cleaner = new SimpleStaleClassCleaner(getOutputs());
         cleaner.setDestinationDir(getDestinationDir());
         cleaner.execute();
-        super.doCompile();
     }
 }
@@ -16,11 +16,14 @@
 
 package org.gradle.play.tasks;
 
+import org.gradle.api.Action;
 import org.gradle.api.Incubating;
 import org.gradle.api.tasks.OutputDirectory;
 import org.gradle.api.tasks.SourceTask;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.compile.BaseForkOptions;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+import org.gradle.api.tasks.incremental.InputFileDetails;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.platform.base.internal.toolchain.ToolProvider;
 import org.gradle.play.internal.CleaningPlayToolCompiler;
@@ -33,7 +36,10 @@ import org.gradle.play.toolchain.PlayToolChain;
 import javax.inject.Inject;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Task for compiling routes templates
@@ -99,12 +105,36 @@ public class RoutesCompile extends SourceTask {
 
 
     @TaskAction
-    void compile() {
-        RoutesCompileSpec spec = new DefaultRoutesCompileSpec(getSource().getFiles(), getOutputDirectory(), getAdditionalImports(), isNamespaceReverseRouter(), getForkOptions(), isJavaProject());
-        if (compiler == null) {
-            compiler = new CleaningPlayToolCompiler<RoutesCompileSpec>(getCompiler(spec), getOutputs());
+    void compile(IncrementalTaskInputs inputs) {
+        RoutesCompileSpec spec = createSpec(getSource().getFiles());
+        if (!inputs.isIncremental()) {
+            new CleaningPlayToolCompiler<RoutesCompileSpec>(getCompiler(spec), getOutputs()).execute(spec);
+            return;
+        }
+
+        final Set<File> sourcesToCompile = new LinkedHashSet<File>();
+        inputs.outOfDate(new Action<InputFileDetails>() {
+            public void execute(InputFileDetails inputFileDetails) {
+                sourcesToCompile.add(inputFileDetails.getFile());
+            }
+        });
+        final AtomicBoolean sourcesRemoved = new AtomicBoolean();
+        inputs.removed(new Action<InputFileDetails>() {
+            public void execute(InputFileDetails inputFileDetails) {
+                sourcesRemoved.set(true);
+            }
+        });
+
+        if (sourcesRemoved.get()) {
+            // The files generated for a routes file depend on its name and content, so find the stale ones by compiling everything again
+            new CleaningPlayToolCompiler<RoutesCompileSpec>(getCompiler(spec), getOutputs()).execute(spec);
+        } else {
+            getCompiler(spec).execute(createSpec(sourcesToCompile));
         }
-        compiler.execute(spec);
+    }
+
+    private RoutesCompileSpec createSpec(Set<File> sourceFiles) {
+        return new DefaultRoutesCompileSpec(sourceFiles, getOutputDirectory(), getAdditionalImports(), isNamespaceReverseRouter(), getForkOptions(), isJavaProject());
     }
 
     private Compiler<RoutesCompileSpec> getCompiler(RoutesCompileSpec spec) {
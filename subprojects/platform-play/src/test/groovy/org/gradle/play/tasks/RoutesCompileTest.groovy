@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.play.tasks
+
+import org.gradle.api.Action
+import org.gradle.api.internal.project.DefaultProject
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.api.tasks.incremental.InputFileDetails
+import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.play.internal.routes.RoutesCompileSpec
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.TestUtil
+import org.junit.Rule
+import spock.lang.Specification
+
+class RoutesCompileTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    DefaultProject project = TestUtil.createRootProject()
+    RoutesCompile compile = project.tasks.create("routesCompile", RoutesCompile)
+    Compiler<RoutesCompileSpec> routesCompiler = Mock(Compiler)
+    IncrementalTaskInputs taskInputs = Mock(IncrementalTaskInputs)
+
+    def routes = tmpDir.file("conf/routes").createFile()
+    def fooRoutes = tmpDir.file("conf/foo.routes").createFile()
+
+    def setup() {
+        compile.compiler = routesCompiler
+        compile.outputDirectory = tmpDir.file("outputDir")
+        compile.source(routes, fooRoutes)
+    }
+
+    def "compiles all routes files when not executed incrementally"() {
+        given:
+        _ * taskInputs.isIncremental() >> false
+
+        when:
+        compile.compile(taskInputs)
+
+        then:
+        1 * routesCompiler.execute({ it.sources as Set == [routes, fooRoutes] as Set })
+    }
+
+    def "compiles only changed routes files"() {
+        given:
+        _ * taskInputs.isIncremental() >> true
+        _ * taskInputs.outOfDate(_) >> { Action<InputFileDetails> action -> action.execute(inputFileDetails(fooRoutes)) }
+
+        when:
+        compile.compile(taskInputs)
+
+        then:
+        1 * routesCompiler.execute({ it.sources as List == [fooRoutes] })
+    }
+
+    def "compiles all routes files when a routes file has been removed"() {
+        given:
+        _ * taskInputs.isIncremental() >> true
+        _ * taskInputs.removed(_) >> { Action<InputFileDetails> action -> action.execute(inputFileDetails(tmpDir.file("conf/bar.routes"))) }
+
+        when:
+        compile.compile(taskInputs)
+
+        then:
+        1 * routesCompiler.execute({ it.sources as Set == [routes, fooRoutes] as Set })
+    }
+
+    private InputFileDetails inputFileDetails(File file) {
+        return Stub(InputFileDetails) {
+            getFile() >> file
+        }
+    }
+}
@@ -86,20 +86,40 @@ class PluginResolutionCachingIntegrationTest extends AbstractIntegrationSpec {
         build()
     }
 
-    def "not found plugin is not cached"() {
+    def "not found plugin is cached"() {
         expect:
         pluginQueryNotFound()
         failPluginNotFound()
 
         reset()
+        failPluginNotFound()
+
+        reset()
+        args "--refresh-dependencies"
         pluginQuery()
         moduleResolution()
         build()
 
         reset()
+        args() // clear --refresh-dependencies
         build()
     }
 
+    def "not found plugin is queried again with --refresh-dependencies"() {
+        expect:
+        pluginQueryNotFound()
+        failPluginNotFound()
+
+        reset()
+        args "--refresh-dependencies"
+        pluginQueryNotFound()
+        failPluginNotFound()
+
+        reset()
+        args() // clear --refresh-dependencies
+        failPluginNotFound()
+    }
+
     def "error response is not cached"() {
         expect:
         pluginQueryError()
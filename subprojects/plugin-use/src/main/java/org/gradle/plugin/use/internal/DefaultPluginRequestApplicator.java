@@ -35,8 +35,11 @@ import org.gradle.api.internal.plugins.PluginRegistry;
 import org.gradle.api.plugins.InvalidPluginException;
 import org.gradle.api.plugins.UnknownPluginException;
 import org.gradle.api.specs.Spec;
+import org.gradle.internal.UncheckedException;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.internal.exceptions.LocationAwareException;
 import org.gradle.plugin.use.resolve.internal.*;
 
@@ -49,10 +52,12 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
 
     private final PluginRegistry pluginRegistry;
     private final PluginResolver pluginResolver;
+    private final ExecutorFactory executorFactory;
 
-    public DefaultPluginRequestApplicator(PluginRegistry pluginRegistry, PluginResolver pluginResolver) {
+    public DefaultPluginRequestApplicator(PluginRegistry pluginRegistry, PluginResolver pluginResolver, ExecutorFactory executorFactory) {
         this.pluginRegistry = pluginRegistry;
         this.pluginResolver = pluginResolver;
+        this.executorFactory = executorFactory;
     }
 
     public void applyPlugins(Collection<? extends PluginRequest> requests, final ScriptHandler scriptHandler, @Nullable final PluginManager target, ClassLoaderScope classLoaderScope) {
@@ -68,11 +73,7 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
         final PluginResolutionApplicator resolutionApplicator = new PluginResolutionApplicator(target);
         final PluginResolver effectivePluginResolver = wrapInNotInClasspathCheck(classLoaderScope);
 
-        List<Result> results = collect(requests, new Transformer<Result, PluginRequest>() {
-            public Result transform(PluginRequest request) {
-                return resolveToFoundResult(effectivePluginResolver, request);
-            }
-        });
+        List<Result> results = resolveToFoundResults(effectivePluginResolver, requests);
 
         ImmutableListMultimap<Boolean, Result> categorizedResults = groupBy(results, new Transformer<Boolean, Result>() {
             public Boolean transform(Result original) {
@@ -172,6 +173,43 @@ public class DefaultPluginRequestApplicator implements PluginRequestApplicator {
         }
     }
 
+    /**
+     * Resolves the requests concurrently, as each of them may need a round trip to the plugin portal. Results and failures are reported in request order.
+     */
+    private List<Result> resolveToFoundResults(final PluginResolver effectivePluginResolver, Collection<? extends PluginRequest> requests) {
+        if (requests.size() == 1) {
+            return Collections.singletonList(resolveToFoundResult(effectivePluginResolver, requests.iterator().next()));
+        }
+
+        final Result[] results = new Result[requests.size()];
+        final Throwable[] failures = new Throwable[requests.size()];
+        StoppableExecutor executor = executorFactory.create("plugin request resolution");
+        try {
+            int index = 0;
+            for (final PluginRequest request : requests) {
+                final int resultIndex = index++;
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            results[resultIndex] = resolveToFoundResult(effectivePluginResolver, request);
+                        } catch (Throwable t) {
+                            failures[resultIndex] = t;
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.stop();
+        }
+
+        for (Throwable failure : failures) {
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
     private Result resolveToFoundResult(PluginResolver effectivePluginResolver, PluginRequest request) {
         Result result = new Result(request);
         try {
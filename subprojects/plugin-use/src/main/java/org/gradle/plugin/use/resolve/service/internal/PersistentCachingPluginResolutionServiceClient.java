@@ -22,31 +22,64 @@ import org.gradle.cache.PersistentCache;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
 import org.gradle.internal.Factory;
+import org.gradle.internal.TimeProvider;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 import org.gradle.messaging.serialize.Decoder;
 import org.gradle.messaging.serialize.Encoder;
 import org.gradle.messaging.serialize.Serializer;
 import org.gradle.plugin.use.internal.PluginRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches the responses of the plugin resolution service on disk.
+ * <p>
+ * Plugin metadata is reused across builds. When it is older than {@link #REVALIDATE_AFTER_MILLIS} it is still used,
+ * but fresh metadata is fetched in the background for later builds. A background fetch that finds that the plugin no longer exists
+ * keeps the cached metadata, as only a build that validates the plugin should fail to resolve it. A response saying that a plugin does not
+ * exist is reused for {@link #NOT_FOUND_TIMEOUT_MILLIS}, so that builds do not query the service for it over and over.
+ * <p>
+ * Background revalidation only benefits later builds, so closing the client does not wait long for it. Revalidations that have not started
+ * are skipped, and revalidations that are still running after {@link #REVALIDATION_STOP_TIMEOUT_SECONDS} are abandoned.
+ */
 public class PersistentCachingPluginResolutionServiceClient implements PluginResolutionServiceClient {
 
     public static final String PLUGIN_USE_METADATA_CACHE_NAME = "plugin-use-metadata";
     public static final String PLUGIN_USE_METADATA_OP_NAME = "queryPluginMetadata";
     public static final String CLIENT_STATUS_CACHE_NAME = "client-status";
     public static final String CLIENT_STATUS_OP_NAME = "queryClientStatus";
+    public static final long REVALIDATE_AFTER_MILLIS = TimeUnit.HOURS.toMillis(24);
+    public static final long NOT_FOUND_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(24);
+    public static final int REVALIDATION_STOP_TIMEOUT_SECONDS = 5;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentCachingPluginResolutionServiceClient.class);
+    private static final int NOT_FOUND = 404;
 
     private final PluginResolutionServiceClient delegate;
     private final PersistentCache cacheAccess;
-    private final PersistentIndexedCache<PluginRequestKey, Response<PluginUseMetaData>> pluginUseMetadataCache;
+    private final ExecutorFactory executorFactory;
+    private final TimeProvider timeProvider;
+    private final PersistentIndexedCache<PluginRequestKey, CachedResponse<PluginUseMetaData>> pluginUseMetadataCache;
     private final PersistentIndexedCache<ClientStatusKey, Response<ClientStatus>> clientStatusCache;
+    private final Object lock = new Object();
+    private final Set<PluginRequestKey> revalidating = new HashSet<PluginRequestKey>();
+    private StoppableExecutor revalidationExecutor;
+    private boolean closed;
 
-    public PersistentCachingPluginResolutionServiceClient(PluginResolutionServiceClient delegate, PersistentCache persistentCache) {
+    public PersistentCachingPluginResolutionServiceClient(PluginResolutionServiceClient delegate, PersistentCache persistentCache, ExecutorFactory executorFactory, TimeProvider timeProvider) {
         this.delegate = delegate;
         this.cacheAccess = persistentCache;
+        this.executorFactory = executorFactory;
+        this.timeProvider = timeProvider;
         this.pluginUseMetadataCache = persistentCache.createCache(PersistentIndexedCacheParameters.of(
-                        PLUGIN_USE_METADATA_CACHE_NAME, new PluginRequestKey.Serializer(), ResponseSerializer.of(new PluginUseMetaData.Serializer()))
+                        PLUGIN_USE_METADATA_CACHE_NAME, new PluginRequestKey.Serializer(), new CachedResponseSerializer<PluginUseMetaData>(new PluginUseMetaData.Serializer()))
         );
         this.clientStatusCache = persistentCache.createCache(PersistentIndexedCacheParameters.of(
                         CLIENT_STATUS_CACHE_NAME, new ClientStatusKey.Serializer(), ResponseSerializer.of(new ClientStatus.Serializer()))
@@ -54,17 +87,97 @@ public class PersistentCachingPluginResolutionServiceClient implements PluginRes
     }
 
     public Response<PluginUseMetaData> queryPluginMetadata(final String portalUrl, final boolean shouldValidate, final PluginRequest pluginRequest) {
-        PluginRequestKey key = PluginRequestKey.of(portalUrl, pluginRequest);
-        Factory<Response<PluginUseMetaData>> factory = new Factory<Response<PluginUseMetaData>>() {
-            public Response<PluginUseMetaData> create() {
-                return delegate.queryPluginMetadata(portalUrl, shouldValidate, pluginRequest);
+        final PluginRequestKey key = PluginRequestKey.of(portalUrl, pluginRequest);
+        if (!shouldValidate) {
+            CachedResponse<PluginUseMetaData> cachedValue = cacheAccess.useCache(PLUGIN_USE_METADATA_OP_NAME + " - read", new Factory<CachedResponse<PluginUseMetaData>>() {
+                public CachedResponse<PluginUseMetaData> create() {
+                    return pluginUseMetadataCache.get(key);
+                }
+            });
+            if (cachedValue != null) {
+                long age = timeProvider.getCurrentTime() - cachedValue.timestamp;
+                if (!cachedValue.response.isError()) {
+                    if (age >= REVALIDATE_AFTER_MILLIS) {
+                        revalidateInBackground(key, portalUrl, pluginRequest, cachedValue.response);
+                    }
+                    return cachedValue.response;
+                }
+                if (age < NOT_FOUND_TIMEOUT_MILLIS) {
+                    return cachedValue.response;
+                }
             }
-        };
+        }
+        return fetchPluginMetadata(key, portalUrl, shouldValidate, pluginRequest);
+    }
 
-        if (shouldValidate) {
-            return fetch(PLUGIN_USE_METADATA_OP_NAME, pluginUseMetadataCache, key, factory);
-        } else {
-            return maybeFetch(PLUGIN_USE_METADATA_OP_NAME, pluginUseMetadataCache, key, factory);
+    private Response<PluginUseMetaData> fetchPluginMetadata(final PluginRequestKey key, String portalUrl, boolean shouldValidate, PluginRequest pluginRequest) {
+        Response<PluginUseMetaData> response = delegate.queryPluginMetadata(portalUrl, shouldValidate, pluginRequest);
+        if (response.isError() && response.getStatusCode() != NOT_FOUND) {
+            return response;
+        }
+
+        final CachedResponse<PluginUseMetaData> value = new CachedResponse<PluginUseMetaData>(response, timeProvider.getCurrentTime());
+        cacheAccess.useCache(PLUGIN_USE_METADATA_OP_NAME + " - write", new Runnable() {
+            public void run() {
+                pluginUseMetadataCache.put(key, value);
+            }
+        });
+        return response;
+    }
+
+    private void revalidateInBackground(final PluginRequestKey key, final String portalUrl, final PluginRequest pluginRequest, final Response<PluginUseMetaData> cachedResponse) {
+        StoppableExecutor executor;
+        synchronized (lock) {
+            if (closed || !revalidating.add(key)) {
+                return;
+            }
+            if (revalidationExecutor == null) {
+                revalidationExecutor = executorFactory.create("plugin metadata revalidation");
+            }
+            executor = revalidationExecutor;
+        }
+        executor.execute(new Runnable() {
+            public void run() {
+                try {
+                    synchronized (lock) {
+                        if (closed) {
+                            return;
+                        }
+                    }
+                    revalidate(key, portalUrl, pluginRequest, cachedResponse);
+                } catch (Exception e) {
+                    LOGGER.info("Could not revalidate cached metadata for plugin {} from {}.", pluginRequest.getDisplayName(), portalUrl);
+                    LOGGER.debug("Revalidation failure.", e);
+                } finally {
+                    synchronized (lock) {
+                        revalidating.remove(key);
+                    }
+                }
+            }
+        });
+    }
+
+    private void revalidate(final PluginRequestKey key, String portalUrl, PluginRequest pluginRequest, Response<PluginUseMetaData> cachedResponse) {
+        Response<PluginUseMetaData> response = delegate.queryPluginMetadata(portalUrl, true, pluginRequest);
+        if (response.isError()) {
+            if (response.getStatusCode() != NOT_FOUND) {
+                return;
+            }
+            // Do not replace metadata that resolves with a not found response, only record that it has been checked
+            response = cachedResponse;
+        }
+
+        final CachedResponse<PluginUseMetaData> value = new CachedResponse<PluginUseMetaData>(response, timeProvider.getCurrentTime());
+        synchronized (lock) {
+            // A revalidation that is abandoned when the client is closed may still be running, and must not use the cache once it has been closed
+            if (closed) {
+                return;
+            }
+            cacheAccess.useCache(PLUGIN_USE_METADATA_OP_NAME + " - write", new Runnable() {
+                public void run() {
+                    pluginUseMetadataCache.put(key, value);
+                }
+            });
         }
     }
 
@@ -121,9 +234,68 @@ public class PersistentCachingPluginResolutionServiceClient implements PluginRes
     }
 
     public void close() throws IOException {
+        StoppableExecutor executor;
+        synchronized (lock) {
+            closed = true;
+            executor = revalidationExecutor;
+            revalidationExecutor = null;
+        }
+        if (executor != null) {
+            try {
+                executor.stop(REVALIDATION_STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (IllegalStateException e) {
+                LOGGER.info("Abandoned revalidation of cached plugin metadata, as it did not complete in time.");
+            }
+        }
         CompositeStoppable.stoppable(delegate, cacheAccess).stop();
     }
 
+    private static class CachedResponse<T> {
+        private final Response<T> response;
+        private final long timestamp;
+
+        private CachedResponse(Response<T> response, long timestamp) {
+            this.response = response;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static class CachedResponseSerializer<T> implements Serializer<CachedResponse<T>> {
+
+        private final Serializer<T> payloadSerializer;
+
+        private CachedResponseSerializer(Serializer<T> payloadSerializer) {
+            this.payloadSerializer = payloadSerializer;
+        }
+
+        public CachedResponse<T> read(Decoder decoder) throws Exception {
+            Response<T> response;
+            if (decoder.readBoolean()) {
+                ErrorResponse errorResponse = new ErrorResponse(decoder.readNullableString(), decoder.readNullableString());
+                response = new ErrorResponseResponse<T>(errorResponse, decoder.readSmallInt(), decoder.readString(), decoder.readNullableString());
+            } else {
+                T payload = payloadSerializer.read(decoder);
+                response = new SuccessResponse<T>(payload, decoder.readSmallInt(), decoder.readString(), decoder.readNullableString());
+            }
+            return new CachedResponse<T>(response, decoder.readLong());
+        }
+
+        public void write(Encoder encoder, CachedResponse<T> value) throws Exception {
+            Response<T> response = value.response;
+            encoder.writeBoolean(response.isError());
+            if (response.isError()) {
+                encoder.writeNullableString(response.getErrorResponse().errorCode);
+                encoder.writeNullableString(response.getErrorResponse().message);
+            } else {
+                payloadSerializer.write(encoder, response.getResponse());
+            }
+            encoder.writeSmallInt(response.getStatusCode());
+            encoder.writeString(response.getUrl());
+            encoder.writeNullableString(response.getClientStatusChecksum());
+            encoder.writeLong(value.timestamp);
+        }
+    }
+
     private static class ResponseSerializer<T> implements Serializer<Response<T>> {
 
         private final Serializer<T> payloadSerializer;
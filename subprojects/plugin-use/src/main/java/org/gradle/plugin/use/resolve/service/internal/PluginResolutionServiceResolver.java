@@ -53,6 +53,7 @@ public class PluginResolutionServiceResolver implements PluginResolver {
     private final Factory<DependencyResolutionServices> dependencyResolutionServicesFactory;
     private final ClassLoaderScope parentScope;
     private final PluginInspector pluginInspector;
+    private final Object dependencyResolutionLock = new Object();
 
     public PluginResolutionServiceResolver(
             PluginResolutionServiceClient portalClient,
@@ -115,6 +116,13 @@ public class PluginResolutionServiceResolver implements PluginResolver {
     }
 
     private ClassPath resolvePluginDependencies(final PluginUseMetaData metadata) {
+        // Requests are resolved concurrently, but dependency resolution against the shared artifact cache is not safe to run in parallel
+        synchronized (dependencyResolutionLock) {
+            return doResolvePluginDependencies(metadata);
+        }
+    }
+
+    private ClassPath doResolvePluginDependencies(final PluginUseMetaData metadata) {
         DependencyResolutionServices resolution = dependencyResolutionServicesFactory.create();
 
         RepositoryHandler repositories = resolution.getResolveRepositoryHandler();
@@ -18,6 +18,9 @@ package org.gradle.plugin.use.resolve.service.internal
 
 import org.gradle.cache.PersistentIndexedCache
 import org.gradle.groovy.scripts.StringScriptSource
+import org.gradle.internal.TimeProvider
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
 import org.gradle.plugin.use.internal.DefaultPluginRequest
 import org.gradle.plugin.use.internal.PluginRequest
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
@@ -25,33 +28,41 @@ import org.gradle.testfixtures.internal.InMemoryCacheFactory
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.util.concurrent.TimeUnit
+
 class PersistentCachingPluginResolutionServiceClientTest extends Specification {
 
     public static final String PORTAL_URL_1 = "http://foo"
     public static final PluginRequest REQUEST_1 = request("foo")
     public static final String PLUGIN_URL_1 = "$PORTAL_URL_1/foo/1"
     public static final PluginUseMetaData PLUGIN_METADATA_1 = new PluginUseMetaData("foo", "1", [foo: "bar"], "implType", false)
+    public static final PluginUseMetaData PLUGIN_METADATA_2 = new PluginUseMetaData("foo", "1", [foo: "baz"], "implType", false)
     public static final ClientStatus CLIENT_STATUS_1 = new ClientStatus("One")
     public static final ClientStatus CLIENT_STATUS_2 = new ClientStatus("Two")
     public static final ErrorResponse ERROR_1 = new ErrorResponse("ERROR", "error")
+    public static final ErrorResponse NOT_FOUND_1 = new ErrorResponse(ErrorResponse.Code.UNKNOWN_PLUGIN.name(), "not found")
 
     def delegate = Mock(PluginResolutionServiceClient)
+    def executor = Mock(StoppableExecutor)
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> executor
+    }
+    def now = 1000L
+    def timeProvider = Stub(TimeProvider) {
+        getCurrentTime() >> { now }
+    }
 
     @Rule
     TestNameTestDirectoryProvider testDirectoryProvider = new TestNameTestDirectoryProvider();
 
     def caches = new InMemoryCacheFactory.InMemoryCache(testDirectoryProvider.testDirectory)
 
-    PersistentIndexedCache<PersistentCachingPluginResolutionServiceClient.PluginRequestKey, PluginResolutionServiceClient.Response<PluginUseMetaData>> getPluginCache() {
-        caches[PersistentCachingPluginResolutionServiceClient.PLUGIN_USE_METADATA_CACHE_NAME]
-    }
-
     PersistentIndexedCache<PersistentCachingPluginResolutionServiceClient.ClientStatusKey, PluginResolutionServiceClient.Response<ClientStatus>> getClientStatusCache() {
         caches[PersistentCachingPluginResolutionServiceClient.CLIENT_STATUS_CACHE_NAME]
     }
 
     def createClient() {
-        new PersistentCachingPluginResolutionServiceClient(delegate, caches)
+        new PersistentCachingPluginResolutionServiceClient(delegate, caches, executorFactory, timeProvider)
     }
 
     def "caches delegate success response"() {
@@ -94,6 +105,163 @@ class PersistentCachingPluginResolutionServiceClientTest extends Specification {
         2 * delegate.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1) >> response
     }
 
+    def "caches not found response until it times out"() {
+        given:
+        def response = new PluginResolutionServiceClient.ErrorResponseResponse(NOT_FOUND_1, 404, PLUGIN_URL_1, null)
+        def client = createClient()
+
+        when:
+        def first = client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        def second = client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        first.statusCode == 404
+        second.statusCode == 404
+        second.errorResponse.message == "not found"
+        second.errorResponse.is(ErrorResponse.Code.UNKNOWN_PLUGIN)
+
+        when:
+        client.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1)
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1) >> response
+
+        when:
+        now += PersistentCachingPluginResolutionServiceClient.NOT_FOUND_TIMEOUT_MILLIS
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+    }
+
+    def "revalidates stale plugin metadata in the background"() {
+        given:
+        def response = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_1, 200, PLUGIN_URL_1, null)
+        def updated = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_2, 200, PLUGIN_URL_1, null)
+        def client = createClient()
+        Runnable revalidation = null
+
+        when:
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS
+        def stale = client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        1 * executor.execute(_) >> { args -> revalidation = args[0] }
+        0 * delegate._
+        stale.response == PLUGIN_METADATA_1
+
+        when:
+        revalidation.run()
+        def revalidated = client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1) >> updated
+        0 * executor._
+        revalidated.response == PLUGIN_METADATA_2
+    }
+
+    def "keeps cached plugin metadata when revalidation finds that the plugin does not exist"() {
+        given:
+        def response = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_1, 200, PLUGIN_URL_1, null)
+        def notFound = new PluginResolutionServiceClient.ErrorResponseResponse(NOT_FOUND_1, 404, PLUGIN_URL_1, null)
+        def client = createClient()
+        Runnable revalidation = null
+
+        when:
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        revalidation.run()
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        1 * executor.execute(_) >> { args -> revalidation = args[0] }
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1) >> notFound
+
+        when:
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS - 1
+        def cached = client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        0 * executor._
+        0 * delegate._
+        !cached.error
+        cached.response == PLUGIN_METADATA_1
+    }
+
+    def "revalidates plugin metadata once it is older than the revalidation period"() {
+        given:
+        def response = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_1, 200, PLUGIN_URL_1, null)
+        def client = createClient()
+        Runnable revalidation = null
+
+        when:
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS - 1
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        0 * executor._
+
+        when:
+        now += 1
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * executor.execute(_) >> { args -> revalidation = args[0] }
+        0 * delegate._
+
+        when:
+        revalidation.run()
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS - 1
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1) >> response
+        0 * executor._
+
+        when:
+        now += 1
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * executor.execute(_)
+        0 * delegate._
+    }
+
+    def "ignores failures when revalidating in the background"() {
+        given:
+        def response = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_1, 200, PLUGIN_URL_1, null)
+        def client = createClient()
+        Runnable revalidation = null
+
+        when:
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        revalidation.run()
+
+        then:
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        1 * executor.execute(_) >> { args -> revalidation = args[0] }
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1) >> { throw new RuntimeException("broken") }
+
+        when:
+        def cached = client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        then:
+        1 * executor.execute(_)
+        0 * delegate._
+        cached.response == PLUGIN_METADATA_1
+    }
+
     def "caches client status response"() {
         given:
         def response = new PluginResolutionServiceClient.SuccessResponse<ClientStatus>(CLIENT_STATUS_1, 200, PORTAL_URL_1, "1")
@@ -148,6 +316,90 @@ class PersistentCachingPluginResolutionServiceClientTest extends Specification {
         1 * delegate.close()
     }
 
+    def "stops background revalidation when closed"() {
+        given:
+        def response = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_1, 200, PLUGIN_URL_1, null)
+        def client = createClient()
+        delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        when:
+        client.close()
+
+        then:
+        1 * executor.stop(PersistentCachingPluginResolutionServiceClient.REVALIDATION_STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+
+        then:
+        1 * delegate.close()
+        caches.closed
+    }
+
+    def "does not wait for slow background revalidation when closed"() {
+        given:
+        def response = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_1, 200, PLUGIN_URL_1, null)
+        def client = createClient()
+        delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        when:
+        client.close()
+
+        then:
+        1 * executor.stop(_, _) >> { throw new IllegalStateException("Timeout waiting for concurrent jobs to complete.") }
+
+        then:
+        1 * delegate.close()
+        caches.closed
+    }
+
+    def "skips background revalidation that has not started when closed"() {
+        given:
+        def response = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_1, 200, PLUGIN_URL_1, null)
+        def client = createClient()
+        Runnable revalidation = null
+        executor.execute(_) >> { args -> revalidation = args[0] }
+        delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        when:
+        client.close()
+        revalidation.run()
+
+        then:
+        0 * delegate.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1)
+    }
+
+    def "does not write revalidated plugin metadata when closed while revalidating"() {
+        given:
+        def response = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_1, 200, PLUGIN_URL_1, null)
+        def updated = new PluginResolutionServiceClient.SuccessResponse<PluginUseMetaData>(PLUGIN_METADATA_2, 200, PLUGIN_URL_1, null)
+        def cache = Spy(InMemoryCacheFactory.InMemoryCache, constructorArgs: [testDirectoryProvider.testDirectory])
+        def client = new PersistentCachingPluginResolutionServiceClient(delegate, cache, executorFactory, timeProvider)
+        Runnable revalidation = null
+        executor.execute(_) >> { args -> revalidation = args[0] }
+        delegate.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1) >> response
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+        now += PersistentCachingPluginResolutionServiceClient.REVALIDATE_AFTER_MILLIS
+        client.queryPluginMetadata(PORTAL_URL_1, false, REQUEST_1)
+
+        when:
+        revalidation.run()
+
+        then:
+        // the client is closed while the service is queried
+        1 * delegate.queryPluginMetadata(PORTAL_URL_1, true, REQUEST_1) >> {
+            client.close()
+            updated
+        }
+        0 * cache.useCache(_, _ as Runnable)
+    }
+
     static PluginRequest request(String id, String version = "1") {
         new DefaultPluginRequest(id, version, 1, new StringScriptSource("test", "test"))
     }
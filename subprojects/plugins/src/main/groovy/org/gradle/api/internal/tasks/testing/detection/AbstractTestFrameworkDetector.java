@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.testing.detection;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.GradleException;
+import org.gradle.api.Transformer;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
@@ -30,7 +31,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Base class for test framework detectors. Test class files may be processed concurrently, but only one detection may run at a time.
+ */
 public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
     protected static final String TEST_CASE = "junit/framework/TestCase";
     protected static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
@@ -43,11 +48,12 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
     private File testClassesDirectory;
     private FileCollection testClasspath;
+    private TestClassDetectionCache detectionCache;
 
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new ConcurrentHashMap<File, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
@@ -78,7 +84,7 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         }
     }
 
-    private void prepareClasspath() {
+    private synchronized void prepareClasspath() {
         if (testClassDirectories != null) {
             return;
         }
@@ -107,7 +113,30 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
+    public void setDetectionCache(TestClassDetectionCache detectionCache) {
+        this.detectionCache = detectionCache;
+    }
+
     protected TestClassVisitor classVisitor(final File testClassFile) {
+        if (detectionCache == null) {
+            return readClassFile(testClassFile);
+        }
+
+        TestClassDetectionCache.ClassDetails details = detectionCache.get(testClassFile, new Transformer<TestClassDetectionCache.ClassDetails, byte[]>() {
+            public TestClassDetectionCache.ClassDetails transform(byte[] content) {
+                TestClassVisitor classVisitor = createClassVisitor();
+                try {
+                    new ClassReader(content).accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+                } catch (Throwable e) {
+                    throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
+                }
+                return new TestClassDetectionCache.ClassDetails(classVisitor.getClassName(), classVisitor.getSuperClassName(), classVisitor.isTest(), classVisitor.isAbstract());
+            }
+        });
+        return new CachedTestClassVisitor(this, details);
+    }
+
+    private TestClassVisitor readClassFile(final File testClassFile) {
         final TestClassVisitor classVisitor = createClassVisitor();
 
         InputStream classStream = null;
@@ -180,4 +209,29 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
 
         return isKnownTestCase;
     }
+
+    private static class CachedTestClassVisitor extends TestClassVisitor {
+        private final TestClassDetectionCache.ClassDetails details;
+
+        private CachedTestClassVisitor(TestFrameworkDetector detector, TestClassDetectionCache.ClassDetails details) {
+            super(detector);
+            this.details = details;
+        }
+
+        public String getClassName() {
+            return details.getClassName();
+        }
+
+        public boolean isTest() {
+            return details.isTest();
+        }
+
+        public boolean isAbstract() {
+            return details.isAbstract();
+        }
+
+        public String getSuperClassName() {
+            return details.getSuperClassName();
+        }
+    }
 }
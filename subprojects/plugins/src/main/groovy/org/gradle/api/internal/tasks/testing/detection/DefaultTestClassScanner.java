@@ -22,23 +22,43 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.StoppableExecutor;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * The default test class scanner. Depending on the availability of a test framework detector,
  * a detection or filename scan is performed to find test classes.
+ *
+ * <p>When an executor factory is given, the class files are passed to the detector from several threads. The detected test classes are still
+ * handed to the test class processor from the scanning thread, in the order in which the class files were visited.</p>
  */
 public class DefaultTestClassScanner implements Runnable {
     private final FileTree candidateClassFiles;
     private final TestFrameworkDetector testFrameworkDetector;
     private final TestClassProcessor testClassProcessor;
+    private final ExecutorFactory executorFactory;
+    private final int maxWorkers;
 
     public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
                                    TestClassProcessor testClassProcessor) {
+        this(candidateClassFiles, testFrameworkDetector, testClassProcessor, null, 1);
+    }
+
+    public DefaultTestClassScanner(FileTree candidateClassFiles, TestFrameworkDetector testFrameworkDetector,
+                                   TestClassProcessor testClassProcessor, ExecutorFactory executorFactory, int maxWorkers) {
         this.candidateClassFiles = candidateClassFiles;
         this.testFrameworkDetector = testFrameworkDetector;
         this.testClassProcessor = testClassProcessor;
+        this.executorFactory = executorFactory;
+        this.maxWorkers = maxWorkers;
     }
 
     public void run() {
@@ -50,12 +70,59 @@ public class DefaultTestClassScanner implements Runnable {
     }
 
     private void detectionScan() {
-        testFrameworkDetector.startDetection(testClassProcessor);
+        if (executorFactory == null || maxWorkers <= 1) {
+            testFrameworkDetector.startDetection(testClassProcessor);
+            candidateClassFiles.visit(new ClassFileVisitor() {
+                public void visitClassFile(FileVisitDetails fileDetails) {
+                    testFrameworkDetector.processTestClass(fileDetails.getFile());
+                }
+            });
+            return;
+        }
+
+        final List<File> classFiles = new ArrayList<File>();
         candidateClassFiles.visit(new ClassFileVisitor() {
             public void visitClassFile(FileVisitDetails fileDetails) {
-                testFrameworkDetector.processTestClass(fileDetails.getFile());
+                classFiles.add(fileDetails.getFile());
             }
         });
+
+        final DetectedTestClasses detectedTestClasses = new DetectedTestClasses(classFiles.size());
+        testFrameworkDetector.startDetection(detectedTestClasses);
+
+        final AtomicInteger nextClassFile = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        StoppableExecutor executor = executorFactory.create("Test class detection");
+        try {
+            for (int i = 0; i < Math.min(maxWorkers, classFiles.size()); i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        int index;
+                        while (failure.get() == null && (index = nextClassFile.getAndIncrement()) < classFiles.size()) {
+                            detectedTestClasses.currentIndex.set(index);
+                            try {
+                                testFrameworkDetector.processTestClass(classFiles.get(index));
+                            } catch (Throwable t) {
+                                failure.compareAndSet(null, t);
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.stop();
+        }
+        if (failure.get() != null) {
+            throw UncheckedException.throwAsUncheckedException(failure.get());
+        }
+
+        for (List<TestClassRunInfo> testClasses : detectedTestClasses.byClassFile) {
+            if (testClasses != null) {
+                for (TestClassRunInfo testClass : testClasses) {
+                    testClassProcessor.processTestClass(testClass);
+                }
+            }
+        }
     }
 
     private void filenameScan() {
@@ -79,4 +146,37 @@ public class DefaultTestClassScanner implements Runnable {
 
         public abstract void visitClassFile(FileVisitDetails fileDetails);
     }
+
+    /**
+     * Collects the test classes detected in each class file, so that they can be processed in the order of the class files.
+     */
+    private static class DetectedTestClasses implements TestClassProcessor {
+        private final ThreadLocal<Integer> currentIndex = new ThreadLocal<Integer>();
+        private final List<List<TestClassRunInfo>> byClassFile;
+
+        private DetectedTestClasses(int classFileCount) {
+            byClassFile = new ArrayList<List<TestClassRunInfo>>(classFileCount);
+            for (int i = 0; i < classFileCount; i++) {
+                byClassFile.add(null);
+            }
+        }
+
+        public void startProcessing(TestResultProcessor resultProcessor) {
+        }
+
+        public void processTestClass(TestClassRunInfo testClass) {
+            int index = currentIndex.get();
+            synchronized (byClassFile) {
+                List<TestClassRunInfo> testClasses = byClassFile.get(index);
+                if (testClasses == null) {
+                    testClasses = new ArrayList<TestClassRunInfo>(1);
+                    byClassFile.set(index, testClasses);
+                }
+                testClasses.add(testClass);
+            }
+        }
+
+        public void stop() {
+        }
+    }
 }
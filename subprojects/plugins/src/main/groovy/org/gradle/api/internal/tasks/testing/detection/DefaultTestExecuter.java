@@ -23,24 +23,43 @@ import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.hash.DefaultHasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
+import org.gradle.api.internal.tasks.testing.selection.SelectingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.selection.TestSelection;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
 import org.gradle.api.tasks.testing.Test;
 import org.gradle.internal.Factory;
 import org.gradle.internal.TrueTimeProvider;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.hash.HashUtil;
 import org.gradle.messaging.actor.ActorFactory;
 import org.gradle.process.internal.WorkerProcessBuilder;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.util.TreeMap;
 
 /**
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter {
+    private static final String DETECTION_CACHE_FILE_NAME = "testClassDetection.bin";
+    private static final String SELECTION_STATE_FILE_NAME = "testSelection.bin";
+    private static final String SELECTION_REPORT_FILE_NAME = "test-selection.txt";
+
     private final Factory<WorkerProcessBuilder> workerFactory;
     private final ActorFactory actorFactor;
+    private final ExecutorFactory executorFactory;
+    private final Factory<ClassAnalysisCache> classAnalysisCacheFactory;
 
-    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor) {
+    public DefaultTestExecuter(Factory<WorkerProcessBuilder> workerFactory, ActorFactory actorFactor, ExecutorFactory executorFactory,
+                               Factory<ClassAnalysisCache> classAnalysisCacheFactory) {
         this.workerFactory = workerFactory;
         this.actorFactor = actorFactor;
+        this.executorFactory = executorFactory;
+        this.classAnalysisCacheFactory = classAnalysisCacheFactory;
     }
 
     public void execute(final Test testTask, TestResultProcessor testResultProcessor) {
@@ -61,17 +80,48 @@ public class DefaultTestExecuter implements TestExecuter {
         TestClassProcessor processor = new MaxNParallelTestClassProcessor(testTask.getMaxParallelForks(),
                 reforkingProcessorFactory, actorFactor);
 
+        TestSelection testSelection = null;
+        if (testTask.isRunOnlyAffectedTests()) {
+            testSelection = new TestSelection(new File(testTask.getTemporaryDir(), SELECTION_STATE_FILE_NAME),
+                    selectionSettings(testTask, testFramework), classAnalysisCacheFactory.create(), new DefaultHasher());
+            testSelection.load();
+            testSelection.analyze(testTask.getClasspath());
+            processor = new SelectingTestClassProcessor(processor, testSelection, new File(testTask.getBinResultsDir(), SELECTION_REPORT_FILE_NAME));
+        }
+
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
         Runnable detector;
+        TestClassDetectionCache detectionCache = null;
         if (testTask.isScanForTestClasses()) {
             TestFrameworkDetector testFrameworkDetector = testTask.getTestFramework().getDetector();
             testFrameworkDetector.setTestClassesDirectory(testTask.getTestClassesDir());
             testFrameworkDetector.setTestClasspath(testTask.getClasspath());
-            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
+            detectionCache = new TestClassDetectionCache(new File(testTask.getTemporaryDir(), DETECTION_CACHE_FILE_NAME),
+                    GradleVersion.current().getVersion() + ";" + testFrameworkDetector.getClass().getName());
+            detectionCache.load();
+            testFrameworkDetector.setDetectionCache(detectionCache);
+            detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor, executorFactory,
+                    Runtime.getRuntime().availableProcessors());
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
         }
         new TestMainAction(detector, processor, testResultProcessor, new TrueTimeProvider()).run();
+        if (detectionCache != null) {
+            detectionCache.store();
+        }
+        if (testSelection != null) {
+            testSelection.store();
+        }
+    }
+
+    /**
+     * Returns the settings that the outcome of any test class may depend on. The options of the test process, including its system properties and
+     * environment, are only included as a hash, as they may hold values that should not be written to disk.
+     */
+    private static String selectionSettings(Test testTask, TestFramework testFramework) {
+        String processOptions = testTask.getExecutable() + ";" + testTask.getAllJvmArgs() + ";" + new TreeMap<String, Object>(testTask.getEnvironment());
+        return GradleVersion.current().getVersion() + ";" + testFramework.getClass().getName() + ";" + testTask.getFilter().getIncludePatterns()
+                + ";" + HashUtil.createHash(processOptions, "MD5").asHexString();
     }
 }
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Transformer;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Remembers what test class detection found out about each class file, so that the class files which have not changed since the previous
+ * scan do not need to be read again. A class file whose size or timestamp has changed is looked up by the hash of its content before it is
+ * read, so that recompiled but otherwise unchanged classes are not read either.
+ *
+ * <p>The details of a class file are kept in a file between builds, and are discarded when the settings of the detection change. Only
+ * the class files that were looked up since the cache was loaded are stored again. Lookups may happen concurrently.</p>
+ */
+public class TestClassDetectionCache {
+    private static final Logger LOGGER = Logging.getLogger(TestClassDetectionCache.class);
+
+    private final File cacheFile;
+    private final String settings;
+    private final Map<String, CachedClassFile> previousByPath = new HashMap<String, CachedClassFile>();
+    private final Map<String, ClassDetails> previousByHash = new HashMap<String, ClassDetails>();
+    private final ConcurrentMap<String, CachedClassFile> current = new ConcurrentHashMap<String, CachedClassFile>();
+
+    public TestClassDetectionCache(File cacheFile, String settings) {
+        this.cacheFile = cacheFile;
+        this.settings = settings;
+    }
+
+    public void load() {
+        previousByPath.clear();
+        previousByHash.clear();
+        current.clear();
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(cacheFile));
+            try {
+                if (!decoder.readString().equals(settings)) {
+                    LOGGER.info("Test detection settings have changed, scanning all test class files.");
+                    return;
+                }
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    String path = decoder.readString();
+                    long length = decoder.readLong();
+                    long lastModified = decoder.readLong();
+                    String hash = decoder.readString();
+                    ClassDetails details = new ClassDetails(decoder.readString(), decoder.readNullableString(), decoder.readBoolean(), decoder.readBoolean());
+                    previousByPath.put(path, new CachedClassFile(length, lastModified, hash, details));
+                    previousByHash.put(hash, details);
+                }
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read test detection cache from {}, scanning all test class files.", cacheFile, e);
+            previousByPath.clear();
+            previousByHash.clear();
+        }
+    }
+
+    /**
+     * Returns the details of the given class file, using the given parser to read them from the content of the class file when they are not known.
+     */
+    public ClassDetails get(File classFile, Transformer<ClassDetails, byte[]> parser) {
+        String path = classFile.getAbsolutePath();
+        CachedClassFile cached = current.get(path);
+        if (cached != null) {
+            return cached.details;
+        }
+
+        long length = classFile.length();
+        long lastModified = classFile.lastModified();
+        cached = previousByPath.get(path);
+        if (cached == null || cached.length != length || cached.lastModified != lastModified) {
+            byte[] content;
+            try {
+                content = FileUtils.readFileToByteArray(classFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(String.format("Could not read class file %s.", classFile), e);
+            }
+            String hash = HashUtil.sha1(content).asHexString();
+            ClassDetails details = previousByHash.get(hash);
+            if (details == null) {
+                details = parser.transform(content);
+            }
+            cached = new CachedClassFile(length, lastModified, hash, details);
+        }
+        current.put(path, cached);
+        return cached.details;
+    }
+
+    public void store() {
+        cacheFile.getParentFile().mkdirs();
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(cacheFile));
+            try {
+                encoder.writeString(settings);
+                encoder.writeSmallInt(current.size());
+                for (Map.Entry<String, CachedClassFile> entry : current.entrySet()) {
+                    CachedClassFile cached = entry.getValue();
+                    encoder.writeString(entry.getKey());
+                    encoder.writeLong(cached.length);
+                    encoder.writeLong(cached.lastModified);
+                    encoder.writeString(cached.hash);
+                    encoder.writeString(cached.details.getClassName());
+                    encoder.writeNullableString(cached.details.getSuperClassName());
+                    encoder.writeBoolean(cached.details.isTest());
+                    encoder.writeBoolean(cached.details.isAbstract());
+                }
+            } finally {
+                encoder.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * What a test class visitor found out about a class file, without looking at its super classes.
+     */
+    public static class ClassDetails {
+        private final String className;
+        private final String superClassName;
+        private final boolean test;
+        private final boolean isAbstract;
+
+        public ClassDetails(String className, String superClassName, boolean test, boolean isAbstract) {
+            this.className = className;
+            this.superClassName = superClassName;
+            this.test = test;
+            this.isAbstract = isAbstract;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getSuperClassName() {
+            return superClassName;
+        }
+
+        public boolean isTest() {
+            return test;
+        }
+
+        public boolean isAbstract() {
+            return isAbstract;
+        }
+    }
+
+    private static class CachedClassFile {
+        private final long length;
+        private final long lastModified;
+        private final String hash;
+        private final ClassDetails details;
+
+        private CachedClassFile(long length, long lastModified, String hash, ClassDetails details) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.details = details;
+        }
+    }
+}
@@ -28,4 +28,6 @@ public interface TestFrameworkDetector {
     void setTestClassesDirectory(File testClassesDir);
 
     void setTestClasspath(FileCollection classpath);
+
+    void setDetectionCache(TestClassDetectionCache detectionCache);
 }
@@ -17,39 +17,69 @@ package org.gradle.api.internal.tasks.testing.junit.report;
 
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
+import org.gradle.api.internal.tasks.testing.junit.result.ReportPageFingerprints;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestFailure;
 import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.reporting.HtmlReportBuilder;
 import org.gradle.reporting.HtmlReportRenderer;
+import org.gradle.reporting.ParallelPageRenderer;
 import org.gradle.reporting.ReportRenderer;
 import org.gradle.util.Clock;
+import org.gradle.util.GradleVersion;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 import static org.gradle.api.tasks.testing.TestResult.ResultType.SKIPPED;
 
+/**
+ * Renders the HTML test report. The package and class pages are rendered in parallel, and a page whose results have not changed since it was
+ * last rendered is not rendered again. The index page is always rendered.
+ */
 public class DefaultTestReport implements TestReporter {
     private final static Logger LOG = Logging.getLogger(DefaultTestReport.class);
+    private final ParallelPageRenderer pageRenderer;
+    private final File fingerprintsFile;
+
+    /**
+     * @param fingerprintsFile The file to keep the fingerprints of the rendered pages in, which should not be in the report directory.
+     */
+    public DefaultTestReport(ExecutorFactory executorFactory, File fingerprintsFile) {
+        this.pageRenderer = new ParallelPageRenderer(executorFactory);
+        this.fingerprintsFile = fingerprintsFile;
+    }
 
     public void generateReport(TestResultsProvider resultsProvider, File reportDir) {
         LOG.info("Generating HTML test report...");
 
         Clock clock = new Clock();
-        AllTestResults model = loadModelFromProvider(resultsProvider);
-        generateFiles(model, resultsProvider, reportDir);
+        Map<String, String> classFingerprints = new HashMap<String, String>();
+        AllTestResults model = loadModelFromProvider(resultsProvider, classFingerprints);
+        generateFiles(model, classFingerprints, resultsProvider, reportDir);
         LOG.info("Finished generating test html results ({}) into: {}", clock.getTime(), reportDir);
     }
 
-    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider) {
+    private AllTestResults loadModelFromProvider(TestResultsProvider resultsProvider, final Map<String, String> classFingerprints) {
         final AllTestResults model = new AllTestResults();
         resultsProvider.visitClasses(new Action<TestClassResult>() {
             public void execute(TestClassResult classResult) {
+                String fingerprint = ReportPageFingerprints.fingerprint(classResult);
+                String previous = classFingerprints.put(classResult.getClassName(), fingerprint);
+                if (previous != null) {
+                    // Results for the same class from multiple test tasks are rendered into the same page
+                    classFingerprints.put(classResult.getClassName(), ReportPageFingerprints.combine(Arrays.asList(previous, fingerprint)));
+                }
                 model.addTestClass(classResult.getId(), classResult.getClassName());
                 List<TestMethodResult> collectedResults = classResult.getResults();
                 for (TestMethodResult collectedResult : collectedResults) {
@@ -68,22 +98,47 @@ public class DefaultTestReport implements TestReporter {
         return model;
     }
 
-    private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir) {
+    private void generateFiles(AllTestResults model, final Map<String, String> classFingerprints, final TestResultsProvider resultsProvider, final File reportDir) {
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
             htmlRenderer.render(model, new ReportRenderer<AllTestResults, HtmlReportBuilder>() {
                 @Override
-                public void render(AllTestResults model, HtmlReportBuilder output) throws IOException {
-                    PackagePageRenderer packagePageRenderer = new PackagePageRenderer();
-                    ClassPageRenderer classPageRenderer = new ClassPageRenderer(resultsProvider);
+                public void render(AllTestResults model, final HtmlReportBuilder output) throws IOException {
+                    ReportPageFingerprints fingerprints = new ReportPageFingerprints(reportDir, fingerprintsFile, String.format("%s;%s", GradleVersion.current().getVersion(), Locale.getDefault()));
+                    fingerprints.load();
 
-                    output.renderHtmlPage("index.html", model, new OverviewPageRenderer());
-                    for (PackageTestResults packageResults : model.getPackages()) {
-                        output.renderHtmlPage(packageResults.getBaseUrl(), packageResults, packagePageRenderer);
-                        for (ClassTestResults classResults : packageResults.getClasses()) {
-                            output.renderHtmlPage(classResults.getBaseUrl(), classResults, classPageRenderer);
+                    List<Runnable> pages = new ArrayList<Runnable>();
+                    for (final PackageTestResults packageResults : model.getPackages()) {
+                        List<String> packageFingerprint = new ArrayList<String>();
+                        for (final ClassTestResults classResults : packageResults.getClasses()) {
+                            String fingerprint = classFingerprints.get(classResults.getName());
+                            packageFingerprint.add(fingerprint);
+                            if (!fingerprints.isUpToDate(classResults.getBaseUrl(), fingerprint)) {
+                                pages.add(new Runnable() {
+                                    public void run() {
+                                        output.renderHtmlPage(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider));
+                                    }
+                                });
+                            }
+                            fingerprints.update(classResults.getBaseUrl(), fingerprint);
                         }
+                        String fingerprint = ReportPageFingerprints.combine(packageFingerprint);
+                        if (!fingerprints.isUpToDate(packageResults.getBaseUrl(), fingerprint)) {
+                            pages.add(new Runnable() {
+                                public void run() {
+                                    output.renderHtmlPage(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer());
+                                }
+                            });
+                        }
+                        fingerprints.update(packageResults.getBaseUrl(), fingerprint);
+                    }
+
+                    if (!pages.isEmpty()) {
+                        fingerprints.invalidate();
+                        pageRenderer.render("Render HTML test report", pages);
                     }
+                    output.renderHtmlPage("index.html", model, new OverviewPageRenderer());
+                    fingerprints.store();
                 }
             }, reportDir);
         } catch (Exception e) {
@@ -21,8 +21,11 @@ import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.util.Clock;
 import org.gradle.internal.FileUtils;
+import org.gradle.reporting.ParallelPageRenderer;
+import org.gradle.util.GradleVersion;
 
 import java.io.BufferedOutputStream;
 import java.io.File;
@@ -30,38 +33,63 @@ import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
 
+/**
+ * Writes a JUnit XML file for each test class. The files are written in parallel, and the file of a class whose results have not changed since
+ * it was last written is not written again.
+ */
 public class Binary2JUnitXmlReportGenerator {
 
     private final File testResultsDir;
+    private final File fingerprintsFile;
     private final TestResultsProvider testResultsProvider;
+    private final ParallelPageRenderer pageRenderer;
+    private final String settings;
     JUnitXmlResultWriter saxWriter;
     private final static Logger LOG = Logging.getLogger(Binary2JUnitXmlReportGenerator.class);
 
-    public Binary2JUnitXmlReportGenerator(File testResultsDir, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation) {
+    /**
+     * @param fingerprintsFile The file to keep the fingerprints of the written results in, which should not be in the results directory.
+     */
+    public Binary2JUnitXmlReportGenerator(File testResultsDir, File fingerprintsFile, TestResultsProvider testResultsProvider, TestOutputAssociation outputAssociation, ExecutorFactory executorFactory) {
         this.testResultsDir = testResultsDir;
+        this.fingerprintsFile = fingerprintsFile;
         this.testResultsProvider = testResultsProvider;
-        this.saxWriter = new JUnitXmlResultWriter(getHostname(), testResultsProvider, outputAssociation);
+        this.pageRenderer = new ParallelPageRenderer(executorFactory);
+        String hostName = getHostname();
+        this.settings = String.format("%s;%s;%s", GradleVersion.current().getVersion(), hostName, outputAssociation);
+        this.saxWriter = new JUnitXmlResultWriter(hostName, testResultsProvider, outputAssociation);
     }
 
     public void generate() {
         Clock clock = new Clock();
+        final List<TestClassResult> results = new ArrayList<TestClassResult>();
         testResultsProvider.visitClasses(new Action<TestClassResult>() {
             public void execute(TestClassResult result) {
-                File file = new File(testResultsDir, getReportFileName(result));
-                OutputStream output = null;
-                try {
-                    output = new BufferedOutputStream(new FileOutputStream(file));
-                    saxWriter.write(result, output);
-                    output.close();
-                } catch (Exception e) {
-                    throw new GradleException(String.format("Could not write XML test results for %s to file %s.", result.getClassName(), file), e);
-                } finally {
-                    IOUtils.closeQuietly(output);
-                }
+                results.add(result);
             }
         });
-        LOG.info("Finished generating test XML results ({}) into: {}", clock.getTime(), testResultsDir);
+
+        ReportPageFingerprints fingerprints = new ReportPageFingerprints(testResultsDir, fingerprintsFile, settings);
+        fingerprints.load();
+        List<Runnable> files = new ArrayList<Runnable>();
+        for (TestClassResult result : results) {
+            String fileName = getReportFileName(result);
+            String fingerprint = ReportPageFingerprints.fingerprint(result);
+            if (!fingerprints.isUpToDate(fileName, fingerprint)) {
+                files.add(new WriteXmlFile(result, new File(testResultsDir, fileName)));
+            }
+            fingerprints.update(fileName, fingerprint);
+        }
+
+        if (!files.isEmpty()) {
+            fingerprints.invalidate();
+            pageRenderer.render("Write JUnit XML test results", files);
+        }
+        fingerprints.store();
+        LOG.info("Finished generating test XML results for {} of {} classes ({}) into: {}", files.size(), results.size(), clock.getTime(), testResultsDir);
     }
 
     private String getReportFileName(TestClassResult result) {
@@ -75,4 +103,27 @@ public class Binary2JUnitXmlReportGenerator {
             return "localhost";
         }
     }
-}
\ No newline at end of file
+
+    private class WriteXmlFile implements Runnable {
+        private final TestClassResult result;
+        private final File file;
+
+        public WriteXmlFile(TestClassResult result, File file) {
+            this.result = result;
+            this.file = file;
+        }
+
+        public void run() {
+            OutputStream output = null;
+            try {
+                output = new BufferedOutputStream(new FileOutputStream(file));
+                saxWriter.write(result, output);
+                output.close();
+            } catch (Exception e) {
+                throw new GradleException(String.format("Could not write XML test results for %s to file %s.", result.getClassName(), file), e);
+            } finally {
+                IOUtils.closeQuietly(output);
+            }
+        }
+    }
+}
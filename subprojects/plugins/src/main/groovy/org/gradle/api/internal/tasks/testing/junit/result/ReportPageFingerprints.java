@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers a fingerprint of the test results rendered into each page of a report, so that the pages whose results have not changed since the
+ * report was last generated do not need to be rendered again. The fingerprints are kept in a file outside the report directory, usually in the
+ * temporary directory of the task that generates the report, and are discarded when the settings of the report change.
+ */
+public class ReportPageFingerprints {
+    private static final Logger LOGGER = Logging.getLogger(ReportPageFingerprints.class);
+    private static final String HASH_ALGORITHM = "MD5";
+
+    private final File reportDir;
+    private final File file;
+    private final String settings;
+    private final Map<String, String> fingerprints = new HashMap<String, String>();
+
+    /**
+     * @param reportDir The directory that the pages of the report are rendered into.
+     * @param file The file to keep the fingerprints in.
+     */
+    public ReportPageFingerprints(File reportDir, File file, String settings) {
+        this.reportDir = reportDir;
+        this.file = file;
+        this.settings = settings;
+    }
+
+    /**
+     * Returns a fingerprint of the given results. Test output is not included, as the output of a class changes only when the class is run again.
+     */
+    public static String fingerprint(TestClassResult result) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(result.getClassName()).append('\n').append(result.getStartTime()).append('\n');
+        for (TestMethodResult method : result.getResults()) {
+            builder.append(method.getName()).append('\n')
+                .append(method.getResultType()).append('\n')
+                .append(method.getDuration()).append('\n')
+                .append(method.getEndTime()).append('\n');
+            for (TestFailure failure : method.getFailures()) {
+                builder.append(failure.getExceptionType()).append('\n')
+                    .append(failure.getMessage()).append('\n')
+                    .append(failure.getStackTrace()).append('\n');
+            }
+        }
+        return hash(builder);
+    }
+
+    /**
+     * Returns a fingerprint of a page made up of the pages with the given fingerprints.
+     */
+    public static String combine(Iterable<String> fingerprints) {
+        StringBuilder builder = new StringBuilder();
+        for (String fingerprint : fingerprints) {
+            builder.append(fingerprint).append('\n');
+        }
+        return hash(builder);
+    }
+
+    private static String hash(CharSequence content) {
+        return HashUtil.createHash(content.toString(), HASH_ALGORITHM).asHexString();
+    }
+
+    public void load() {
+        fingerprints.clear();
+        if (!file.isFile()) {
+            return;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(file));
+            try {
+                if (!decoder.readString().equals(settings)) {
+                    LOGGER.info("Report settings have changed, rendering all pages of the report in {}.", reportDir);
+                    return;
+                }
+                int count = decoder.readSmallInt();
+                for (int i = 0; i < count; i++) {
+                    fingerprints.put(decoder.readString(), decoder.readString());
+                }
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read report fingerprints from {}, rendering all pages of the report.", file, e);
+            fingerprints.clear();
+        }
+    }
+
+    /**
+     * Returns true when the given page exists and was rendered from results with the given fingerprint.
+     */
+    public boolean isUpToDate(String page, String fingerprint) {
+        return fingerprint.equals(fingerprints.get(page)) && new File(reportDir, page).isFile();
+    }
+
+    /**
+     * Records the fingerprint of the results that the given page is rendered from.
+     */
+    public void update(String page, String fingerprint) {
+        fingerprints.put(page, fingerprint);
+    }
+
+    /**
+     * Discards the stored fingerprints, to be called before any page of the report is rendered. The fingerprints are stored again by {@link #store()}
+     * once all pages have been rendered, so that the pages of a report that failed part way through are all rendered again.
+     */
+    public void invalidate() {
+        if (file.isFile() && !file.delete()) {
+            LOGGER.info("Could not delete report fingerprints file {}.", file);
+        }
+    }
+
+    public void store() {
+        file.getParentFile().mkdirs();
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(file));
+            try {
+                encoder.writeString(settings);
+                encoder.writeSmallInt(fingerprints.size());
+                for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+                    encoder.writeString(entry.getKey());
+                    encoder.writeString(entry.getValue());
+                }
+            } finally {
+                encoder.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
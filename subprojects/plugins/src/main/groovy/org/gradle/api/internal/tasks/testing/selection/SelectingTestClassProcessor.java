@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Executes only the test classes selected by a {@link TestSelection}, starting with the test classes that failed in the previous execution. Test
+ * classes are held back until all of them have been detected. A report of the executed and skipped test classes is then written, and the outcome
+ * of each executed test class is recorded once test execution has completed.
+ */
+public class SelectingTestClassProcessor implements TestClassProcessor {
+    private static final Logger LOGGER = Logging.getLogger(SelectingTestClassProcessor.class);
+    private static final String SKIPPED_REASON = "not affected by any change since it last passed";
+
+    private final TestClassProcessor delegate;
+    private final TestSelection selection;
+    private final File reportFile;
+    private final List<TestClassRunInfo> previouslyFailed = new ArrayList<TestClassRunInfo>();
+    private final List<TestClassRunInfo> selected = new ArrayList<TestClassRunInfo>();
+    private final Map<String, String> reasons = new LinkedHashMap<String, String>();
+    private final List<String> skipped = new ArrayList<String>();
+    private FailureRecordingResultProcessor resultProcessor;
+
+    public SelectingTestClassProcessor(TestClassProcessor delegate, TestSelection selection, File reportFile) {
+        this.delegate = delegate;
+        this.selection = selection;
+        this.reportFile = reportFile;
+    }
+
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = new FailureRecordingResultProcessor(resultProcessor);
+        delegate.startProcessing(this.resultProcessor);
+    }
+
+    public void processTestClass(TestClassRunInfo testClass) {
+        String className = testClass.getTestClassName();
+        String reason = selection.getReasonToExecute(className);
+        if (reason == null) {
+            skipped.add(className);
+        } else if (selection.hasFailedPreviously(className)) {
+            previouslyFailed.add(testClass);
+            reasons.put(className, reason);
+        } else {
+            selected.add(testClass);
+            reasons.put(className, reason);
+        }
+    }
+
+    public void stop() {
+        try {
+            writeReport();
+            for (TestClassRunInfo testClass : previouslyFailed) {
+                delegate.processTestClass(testClass);
+            }
+            for (TestClassRunInfo testClass : selected) {
+                delegate.processTestClass(testClass);
+            }
+        } finally {
+            delegate.stop();
+        }
+
+        for (String className : reasons.keySet()) {
+            selection.executed(className, resultProcessor.hasFailed(className));
+        }
+        for (String className : skipped) {
+            selection.skipped(className);
+        }
+    }
+
+    private void writeReport() {
+        if (!skipped.isEmpty()) {
+            LOGGER.lifecycle("Skipped {} of {} test classes which are not affected by any change. See the test selection report at {}.",
+                    skipped.size(), skipped.size() + reasons.size(), reportFile);
+        }
+        reportFile.getParentFile().mkdirs();
+        try {
+            PrintWriter writer = new PrintWriter(reportFile, "UTF-8");
+            try {
+                writer.println("Executed test classes:");
+                for (Map.Entry<String, String> entry : reasons.entrySet()) {
+                    writer.println("    " + entry.getKey() + ": " + entry.getValue());
+                }
+                writer.println();
+                writer.println("Skipped test classes:");
+                for (String className : skipped) {
+                    writer.println("    " + className + ": " + SKIPPED_REASON);
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Could not write test selection report %s.", reportFile), e);
+        }
+    }
+
+    /**
+     * Records the classes of the tests that fail, along with the classes of the suites that contain them.
+     */
+    private static class FailureRecordingResultProcessor implements TestResultProcessor {
+        private final TestResultProcessor delegate;
+        private final Map<Object, StartedTest> startedTests = new ConcurrentHashMap<Object, StartedTest>();
+        private final Set<String> failedClassNames = Collections.synchronizedSet(new HashSet<String>());
+
+        private FailureRecordingResultProcessor(TestResultProcessor delegate) {
+            this.delegate = delegate;
+        }
+
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            startedTests.put(test.getId(), new StartedTest(test.getClassName(), event.getParentId()));
+            delegate.started(test, event);
+        }
+
+        public void completed(Object testId, TestCompleteEvent event) {
+            startedTests.remove(testId);
+            delegate.completed(testId, event);
+        }
+
+        public void output(Object testId, TestOutputEvent event) {
+            delegate.output(testId, event);
+        }
+
+        public void failure(Object testId, Throwable result) {
+            StartedTest test = startedTests.get(testId);
+            while (test != null) {
+                if (test.className != null) {
+                    failedClassNames.add(test.className);
+                }
+                test = test.parentId == null ? null : startedTests.get(test.parentId);
+            }
+            delegate.failure(testId, result);
+        }
+
+        boolean hasFailed(String className) {
+            return failedClassNames.contains(className);
+        }
+    }
+
+    private static class StartedTest {
+        private final String className;
+        private final Object parentId;
+
+        private StartedTest(String className, Object parentId) {
+            this.className = className;
+            this.parentId = parentId;
+        }
+    }
+}
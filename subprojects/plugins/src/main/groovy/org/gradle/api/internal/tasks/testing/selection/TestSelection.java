@@ -0,0 +1,312 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection;
+
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+import org.gradle.api.internal.hash.Hasher;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashValue;
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder;
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder;
+import org.gradle.util.Clock;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.util.*;
+
+/**
+ * Decides which test classes need to be executed, based on the classes of the test runtime classpath that have changed since the test classes last
+ * passed. The dependencies between the classes in the directories of the classpath are analyzed in the same way as for incremental Java compilation,
+ * so a test class is executed when it depends on a changed class, directly or transitively. A change to a jar on the classpath, or to any file
+ * other than a class file in a directory of the classpath, such as a resource, affects all test classes.
+ *
+ * <p>The hashes of the classpath and the test classes that passed or failed are kept in a file between builds. They are only stored once test
+ * execution has completed, so that all affected test classes are executed again when test execution did not complete.</p>
+ */
+public class TestSelection {
+    private static final Logger LOGGER = Logging.getLogger(TestSelection.class);
+
+    private final File stateFile;
+    private final String settings;
+    private final ClassAnalysisCache classAnalysisCache;
+    private final Hasher hasher;
+
+    private boolean previousStateAvailable;
+    private final Map<String, String> previousClassHashes = new HashMap<String, String>();
+    private final Map<String, String> previousJarFingerprints = new HashMap<String, String>();
+    private final Map<String, String> previousResourceHashes = new HashMap<String, String>();
+    private final Set<String> previousPassedTestClasses = new HashSet<String>();
+    private final Set<String> previousFailedTestClasses = new HashSet<String>();
+
+    private final Map<String, String> classHashes = new HashMap<String, String>();
+    private final Map<String, String> jarFingerprints = new HashMap<String, String>();
+    private final Map<String, String> resourceHashes = new HashMap<String, String>();
+    private final Map<String, String> affectedClasses = new HashMap<String, String>();
+    private String allClassesAffectedReason;
+
+    private final Set<String> passedTestClasses = new HashSet<String>();
+    private final Set<String> failedTestClasses = new HashSet<String>();
+
+    public TestSelection(File stateFile, String settings, ClassAnalysisCache classAnalysisCache, Hasher hasher) {
+        this.stateFile = stateFile;
+        this.settings = settings;
+        this.classAnalysisCache = classAnalysisCache;
+        this.hasher = hasher;
+    }
+
+    public void load() {
+        previousStateAvailable = false;
+        if (!stateFile.isFile()) {
+            return;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(stateFile));
+            try {
+                if (!decoder.readString().equals(settings)) {
+                    LOGGER.info("Test selection settings have changed, executing all test classes.");
+                    return;
+                }
+                readMap(decoder, previousClassHashes);
+                readMap(decoder, previousJarFingerprints);
+                readMap(decoder, previousResourceHashes);
+                readSet(decoder, previousPassedTestClasses);
+                readSet(decoder, previousFailedTestClasses);
+                previousStateAvailable = true;
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            LOGGER.info("Could not read test selection state from {}, executing all test classes.", stateFile, e);
+            previousClassHashes.clear();
+            previousJarFingerprints.clear();
+            previousResourceHashes.clear();
+            previousPassedTestClasses.clear();
+            previousFailedTestClasses.clear();
+        }
+    }
+
+    /**
+     * Works out which classes of the given test runtime classpath are affected by the changes since the previous execution.
+     */
+    public void analyze(Iterable<File> classpath) {
+        Clock clock = new Clock();
+        ClassFilesAnalyzer analyzer = new ClassFilesAnalyzer(new HashingClassDependenciesAnalyzer());
+        ResourceHashingVisitor visitor = new ResourceHashingVisitor(analyzer);
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                new DirectoryFileTree(file).visit(visitor);
+            } else if (file.isFile()) {
+                // Jars are not hashed, as they can be large and a change to a jar affects all test classes anyway
+                jarFingerprints.put(file.getAbsolutePath(), file.length() + ":" + file.lastModified());
+            }
+        }
+
+        if (!previousStateAvailable) {
+            allClassesAffectedReason = "no previous test execution was recorded";
+        } else if (!jarFingerprints.equals(previousJarFingerprints)) {
+            allClassesAffectedReason = "a jar on the test runtime classpath has changed";
+        } else if (!resourceHashes.equals(previousResourceHashes)) {
+            allClassesAffectedReason = "a resource on the test runtime classpath has changed";
+        } else {
+            findAffectedClasses(new ClassSetAnalysis(analyzer.getAnalysis()));
+        }
+        LOGGER.info("Test selection analysis of the test runtime classpath took {}.", clock.getTime());
+    }
+
+    private void findAffectedClasses(ClassSetAnalysis analysis) {
+        Set<String> changedClasses = new TreeSet<String>();
+        for (Map.Entry<String, String> entry : classHashes.entrySet()) {
+            if (!entry.getValue().equals(previousClassHashes.get(entry.getKey()))) {
+                changedClasses.add(entry.getKey());
+            }
+        }
+        for (String className : previousClassHashes.keySet()) {
+            if (!classHashes.containsKey(className)) {
+                changedClasses.add(className);
+            }
+        }
+
+        for (String changedClass : changedClasses) {
+            addAffectedClass(topLevelClassName(changedClass), "class " + changedClass + " has changed");
+        }
+        for (String changedClass : changedClasses) {
+            DependentsSet dependents = analysis.getRelevantDependents(changedClass);
+            if (dependents.isDependencyToAll()) {
+                allClassesAffectedReason = "a change to class " + changedClass + " affects all classes"
+                        + (dependents.getDescription() != null ? " (" + dependents.getDescription() + ")" : "");
+                return;
+            }
+            for (String dependent : dependents.getDependentClasses()) {
+                addAffectedClass(dependent, "depends on changed class " + changedClass);
+            }
+        }
+    }
+
+    private void addAffectedClass(String className, String reason) {
+        if (!affectedClasses.containsKey(className)) {
+            affectedClasses.put(className, reason);
+        }
+    }
+
+    /**
+     * Returns why the given test class needs to be executed, or null when it does not.
+     */
+    public String getReasonToExecute(String testClassName) {
+        if (previousFailedTestClasses.contains(testClassName)) {
+            return "failed in the previous execution";
+        }
+        if (allClassesAffectedReason != null) {
+            return allClassesAffectedReason;
+        }
+        if (!previousPassedTestClasses.contains(testClassName)) {
+            return "has not passed in a previous execution";
+        }
+        // Nested classes are referenced by their top level class, so a change that affects a nested class also affects its top level class
+        return affectedClasses.get(topLevelClassName(testClassName));
+    }
+
+    public boolean hasFailedPreviously(String testClassName) {
+        return previousFailedTestClasses.contains(testClassName);
+    }
+
+    /**
+     * Records that the given test class has not been executed, as it was not affected by any change since it last passed.
+     */
+    public void skipped(String testClassName) {
+        passedTestClasses.add(testClassName);
+    }
+
+    /**
+     * Records the outcome of executing the given test class.
+     */
+    public void executed(String testClassName, boolean failed) {
+        if (failed) {
+            failedTestClasses.add(testClassName);
+        } else {
+            passedTestClasses.add(testClassName);
+        }
+    }
+
+    public void store() {
+        stateFile.getParentFile().mkdirs();
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(stateFile));
+            try {
+                encoder.writeString(settings);
+                writeMap(encoder, classHashes);
+                writeMap(encoder, jarFingerprints);
+                writeMap(encoder, resourceHashes);
+                writeSet(encoder, passedTestClasses);
+                writeSet(encoder, failedTestClasses);
+            } finally {
+                encoder.close();
+            }
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String topLevelClassName(String className) {
+        int index = className.indexOf('$');
+        return index < 0 ? className : className.substring(0, index);
+    }
+
+    private static void readMap(KryoBackedDecoder decoder, Map<String, String> map) throws Exception {
+        int count = decoder.readSmallInt();
+        for (int i = 0; i < count; i++) {
+            map.put(decoder.readString(), decoder.readString());
+        }
+    }
+
+    private static void readSet(KryoBackedDecoder decoder, Set<String> set) throws Exception {
+        int count = decoder.readSmallInt();
+        for (int i = 0; i < count; i++) {
+            set.add(decoder.readString());
+        }
+    }
+
+    private static void writeMap(KryoBackedEncoder encoder, Map<String, String> map) {
+        encoder.writeSmallInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            encoder.writeString(entry.getKey());
+            encoder.writeString(entry.getValue());
+        }
+    }
+
+    private static void writeSet(KryoBackedEncoder encoder, Set<String> set) {
+        encoder.writeSmallInt(set.size());
+        for (String value : set) {
+            encoder.writeString(value);
+        }
+    }
+
+    /**
+     * Passes class files to the class analyzer, and remembers the hash of every other file.
+     */
+    private class ResourceHashingVisitor implements FileVisitor {
+        private final FileVisitor classFilesVisitor;
+
+        ResourceHashingVisitor(FileVisitor classFilesVisitor) {
+            this.classFilesVisitor = classFilesVisitor;
+        }
+
+        public void visitDir(FileVisitDetails dirDetails) {
+        }
+
+        public void visitFile(FileVisitDetails fileDetails) {
+            File file = fileDetails.getFile();
+            if (file.getName().endsWith(".class")) {
+                classFilesVisitor.visitFile(fileDetails);
+            } else {
+                resourceHashes.put(file.getAbsolutePath(), new HashValue(hasher.hash(file)).asHexString());
+            }
+        }
+    }
+
+    /**
+     * Remembers the hash of each analyzed class file, and reuses the class analysis of incremental Java compilation for class files with the same hash.
+     */
+    private class HashingClassDependenciesAnalyzer implements ClassDependenciesAnalyzer {
+        private final ClassDependenciesAnalyzer analyzer = new DefaultClassDependenciesAnalyzer();
+
+        public ClassAnalysis getClassAnalysis(final String className, final File classFile) {
+            byte[] hash = hasher.hash(classFile);
+            if (!classHashes.containsKey(className)) {
+                classHashes.put(className, new HashValue(hash).asHexString());
+            }
+            return classAnalysisCache.get(hash, new Factory<ClassAnalysis>() {
+                public ClassAnalysis create() {
+                    return analyzer.getClassAnalysis(className, classFile);
+                }
+            });
+        }
+    }
+}
@@ -24,26 +24,29 @@ import org.gradle.messaging.remote.internal.Message;
 import org.gradle.messaging.serialize.*;
 import org.gradle.messaging.serialize.kryo.StatefulSerializer;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 public class TestEventSerializer implements StatefulSerializer<Object[]> {
-    private final Serializer<Object> paramSerializer;
+    private static final int DEFAULT_MAX_NAMES = 4096;
+    private final int maxNames;
 
     public TestEventSerializer() {
-        DefaultSerializerRegistry<Object> registry = new DefaultSerializerRegistry<Object>();
-        registry.register(DefaultTestClassRunInfo.class, new DefaultTestClassRunInfoSerializer());
-        registry.register(CompositeIdGenerator.CompositeId.class, new IdSerializer());
-        registry.register(DefaultTestSuiteDescriptor.class, new DefaultTestSuiteDescriptorSerializer());
-        registry.register(WorkerTestClassProcessor.WorkerTestSuiteDescriptor.class, new WorkerTestSuiteDescriptorSerializer());
-        registry.register(DefaultTestClassDescriptor.class, new DefaultTestClassDescriptorSerializer());
-        registry.register(DefaultTestMethodDescriptor.class, new DefaultTestMethodDescriptorSerializer());
-        registry.register(DefaultTestDescriptor.class, new DefaultTestDescriptorSerializer());
-        registry.register(TestStartEvent.class, new TestStartEventSerializer());
-        registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
-        registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
-        registry.register(Throwable.class, new ThrowableSerializer());
-        paramSerializer = registry.build();
+        this(DEFAULT_MAX_NAMES);
+    }
+
+    /**
+     * @param maxNames The maximum number of names that each stream remembers.
+     */
+    TestEventSerializer(int maxNames) {
+        this.maxNames = maxNames;
     }
 
     public ObjectReader<Object[]> newReader(final Decoder decoder) {
+        final Serializer<Object> paramSerializer = createParamSerializer();
         return new ObjectReader<Object[]>() {
             public Object[] read() throws Exception {
                 int count = decoder.readSmallInt();
@@ -57,6 +60,7 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
     }
 
     public ObjectWriter<Object[]> newWriter(final Encoder encoder) {
+        final Serializer<Object> paramSerializer = createParamSerializer();
         return new ObjectWriter<Object[]>() {
             public void write(Object[] value) throws Exception {
                 encoder.writeSmallInt(value.length);
@@ -67,6 +71,74 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         };
     }
 
+    /**
+     * Creates the serializer for the parameters of a single stream. Each stream keeps its own table of the class and test names it has seen,
+     * so that a name is only sent again once it has been evicted from the table.
+     */
+    private Serializer<Object> createParamSerializer() {
+        Serializer<String> nameSerializer = new NameSerializer(maxNames);
+        DefaultSerializerRegistry<Object> registry = new DefaultSerializerRegistry<Object>();
+        registry.register(DefaultTestClassRunInfo.class, new DefaultTestClassRunInfoSerializer(nameSerializer));
+        registry.register(CompositeIdGenerator.CompositeId.class, new IdSerializer());
+        registry.register(DefaultTestSuiteDescriptor.class, new DefaultTestSuiteDescriptorSerializer(nameSerializer));
+        registry.register(WorkerTestClassProcessor.WorkerTestSuiteDescriptor.class, new WorkerTestSuiteDescriptorSerializer(nameSerializer));
+        registry.register(DefaultTestClassDescriptor.class, new DefaultTestClassDescriptorSerializer(nameSerializer));
+        registry.register(DefaultTestMethodDescriptor.class, new DefaultTestMethodDescriptorSerializer(nameSerializer));
+        registry.register(DefaultTestDescriptor.class, new DefaultTestDescriptorSerializer(nameSerializer));
+        registry.register(TestStartEvent.class, new TestStartEventSerializer());
+        registry.register(TestCompleteEvent.class, new TestCompleteEventSerializer());
+        registry.register(DefaultTestOutputEvent.class, new DefaultTestOutputEventSerializer());
+        registry.register(Throwable.class, new ThrowableSerializer());
+        return registry.build();
+    }
+
+    /**
+     * Writes each name as the slot it occupies in a table of at most {@code maxNames} names, along with the name itself when the name is new
+     * to the table. When the table is full, the least recently written name is evicted and its slot is reused, so the reader's table always
+     * mirrors the writer's.
+     */
+    private static class NameSerializer implements Serializer<String> {
+        private final int maxNames;
+        private final Map<String, Integer> slots = new LinkedHashMap<String, Integer>(16, 0.75f, true);
+        private final List<String> names = new ArrayList<String>();
+
+        NameSerializer(int maxNames) {
+            this.maxNames = maxNames;
+        }
+
+        public String read(Decoder decoder) throws Exception {
+            int value = decoder.readSmallInt();
+            int slot = value >>> 1;
+            if ((value & 1) != 0) {
+                String name = decoder.readString();
+                if (slot == names.size()) {
+                    names.add(name);
+                } else {
+                    names.set(slot, name);
+                }
+            }
+            return names.get(slot);
+        }
+
+        public void write(Encoder encoder, String value) throws Exception {
+            Integer slot = slots.get(value);
+            if (slot != null) {
+                encoder.writeSmallInt(slot << 1);
+                return;
+            }
+            if (slots.size() < maxNames) {
+                slot = slots.size();
+            } else {
+                Iterator<Integer> leastRecentlyUsed = slots.values().iterator();
+                slot = leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+            }
+            slots.put(value, slot);
+            encoder.writeSmallInt((slot << 1) | 1);
+            encoder.writeString(value);
+        }
+    }
+
     private static class NullableSerializer<T> implements Serializer<T> {
         private final Serializer<T> serializer;
 
@@ -101,22 +173,28 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
 
     private static class IdSerializer implements Serializer<CompositeIdGenerator.CompositeId> {
         public CompositeIdGenerator.CompositeId read(Decoder decoder) throws Exception {
-            return new CompositeIdGenerator.CompositeId(decoder.readLong(), decoder.readLong());
+            return new CompositeIdGenerator.CompositeId(decoder.readSmallLong(), decoder.readSmallLong());
         }
 
         public void write(Encoder encoder, CompositeIdGenerator.CompositeId value) throws Exception {
-            encoder.writeLong((Long) value.getScope());
-            encoder.writeLong((Long) value.getId());
+            encoder.writeSmallLong((Long) value.getScope());
+            encoder.writeSmallLong((Long) value.getId());
         }
     }
 
     private static class DefaultTestClassRunInfoSerializer implements Serializer<DefaultTestClassRunInfo> {
+        private final Serializer<String> nameSerializer;
+
+        DefaultTestClassRunInfoSerializer(Serializer<String> nameSerializer) {
+            this.nameSerializer = nameSerializer;
+        }
+
         public DefaultTestClassRunInfo read(Decoder decoder) throws Exception {
-            return new DefaultTestClassRunInfo(decoder.readString());
+            return new DefaultTestClassRunInfo(nameSerializer.read(decoder));
         }
 
         public void write(Encoder encoder, DefaultTestClassRunInfo value) throws Exception {
-            encoder.writeString(value.getTestClassName());
+            nameSerializer.write(encoder, value.getTestClassName());
         }
     }
 
@@ -124,13 +202,13 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new NullableSerializer<CompositeIdGenerator.CompositeId>(new IdSerializer());
 
         public TestStartEvent read(Decoder decoder) throws Exception {
-            long time = decoder.readLong();
+            long time = decoder.readSmallLong();
             Object id = idSerializer.read(decoder);
             return new TestStartEvent(time, id);
         }
 
         public void write(Encoder encoder, TestStartEvent value) throws Exception {
-            encoder.writeLong(value.getStartTime());
+            encoder.writeSmallLong(value.getStartTime());
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getParentId());
         }
     }
@@ -139,13 +217,13 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
         private final Serializer<TestResult.ResultType> typeSerializer = new NullableSerializer<TestResult.ResultType>(new BaseSerializerFactory().getSerializerFor(TestResult.ResultType.class));
 
         public TestCompleteEvent read(Decoder decoder) throws Exception {
-            long endTime = decoder.readLong();
+            long endTime = decoder.readSmallLong();
             TestResult.ResultType result = typeSerializer.read(decoder);
             return new TestCompleteEvent(endTime, result);
         }
 
         public void write(Encoder encoder, TestCompleteEvent value) throws Exception {
-            encoder.writeLong(value.getEndTime());
+            encoder.writeSmallLong(value.getEndTime());
             typeSerializer.write(encoder, value.getResultType());
         }
     }
@@ -167,80 +245,105 @@ public class TestEventSerializer implements StatefulSerializer<Object[]> {
 
     private static class DefaultTestSuiteDescriptorSerializer implements Serializer<DefaultTestSuiteDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        private final Serializer<String> nameSerializer;
+
+        DefaultTestSuiteDescriptorSerializer(Serializer<String> nameSerializer) {
+            this.nameSerializer = nameSerializer;
+        }
 
         public DefaultTestSuiteDescriptor read(Decoder decoder) throws Exception {
             Object id = idSerializer.read(decoder);
-            String name = decoder.readString();
+            String name = nameSerializer.read(decoder);
             return new DefaultTestSuiteDescriptor(id, name);
         }
 
         public void write(Encoder encoder, DefaultTestSuiteDescriptor value) throws Exception {
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
-            encoder.writeString(value.getName());
+            nameSerializer.write(encoder, value.getName());
         }
     }
 
     private static class WorkerTestSuiteDescriptorSerializer implements Serializer<WorkerTestClassProcessor.WorkerTestSuiteDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        private final Serializer<String> nameSerializer;
+
+        WorkerTestSuiteDescriptorSerializer(Serializer<String> nameSerializer) {
+            this.nameSerializer = nameSerializer;
+        }
 
         public WorkerTestClassProcessor.WorkerTestSuiteDescriptor read(Decoder decoder) throws Exception {
             Object id = idSerializer.read(decoder);
-            String name = decoder.readString();
+            String name = nameSerializer.read(decoder);
             return new WorkerTestClassProcessor.WorkerTestSuiteDescriptor(id, name);
         }
 
         public void write(Encoder encoder, WorkerTestClassProcessor.WorkerTestSuiteDescriptor value) throws Exception {
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
-            encoder.writeString(value.getName());
+            nameSerializer.write(encoder, value.getName());
         }
     }
 
     private static class DefaultTestClassDescriptorSerializer implements Serializer<DefaultTestClassDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        private final Serializer<String> nameSerializer;
+
+        DefaultTestClassDescriptorSerializer(Serializer<String> nameSerializer) {
+            this.nameSerializer = nameSerializer;
+        }
 
         public DefaultTestClassDescriptor read(Decoder decoder) throws Exception {
             Object id = idSerializer.read(decoder);
-            String name = decoder.readString();
+            String name = nameSerializer.read(decoder);
             return new DefaultTestClassDescriptor(id, name);
         }
 
         public void write(Encoder encoder, DefaultTestClassDescriptor value) throws Exception {
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
-            encoder.writeString(value.getName());
+            nameSerializer.write(encoder, value.getName());
         }
     }
 
     private static class DefaultTestDescriptorSerializer implements Serializer<DefaultTestDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        private final Serializer<String> nameSerializer;
+
+        DefaultTestDescriptorSerializer(Serializer<String> nameSerializer) {
+            this.nameSerializer = nameSerializer;
+        }
 
         public DefaultTestDescriptor read(Decoder decoder) throws Exception {
             Object id = idSerializer.read(decoder);
-            String className = decoder.readString();
-            String name = decoder.readString();
+            String className = nameSerializer.read(decoder);
+            String name = nameSerializer.read(decoder);
             return new DefaultTestDescriptor(id, className, name);
         }
 
         public void write(Encoder encoder, DefaultTestDescriptor value) throws Exception {
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
-            encoder.writeString(value.getClassName());
-            encoder.writeString(value.getName());
+            nameSerializer.write(encoder, value.getClassName());
+            nameSerializer.write(encoder, value.getName());
         }
     }
 
     private static class DefaultTestMethodDescriptorSerializer implements Serializer<DefaultTestMethodDescriptor> {
         final Serializer<CompositeIdGenerator.CompositeId> idSerializer = new IdSerializer();
+        private final Serializer<String> nameSerializer;
+
+        DefaultTestMethodDescriptorSerializer(Serializer<String> nameSerializer) {
+            this.nameSerializer = nameSerializer;
+        }
 
         public DefaultTestMethodDescriptor read(Decoder decoder) throws Exception {
             Object id = idSerializer.read(decoder);
-            String className = decoder.readString();
-            String name = decoder.readString();
+            String className = nameSerializer.read(decoder);
+            String name = nameSerializer.read(decoder);
             return new DefaultTestMethodDescriptor(id, className, name);
         }
 
         public void write(Encoder encoder, DefaultTestMethodDescriptor value) throws Exception {
             idSerializer.write(encoder, (CompositeIdGenerator.CompositeId) value.getId());
-            encoder.writeString(value.getClassName());
-            encoder.writeString(value.getName());
+            nameSerializer.write(encoder, value.getClassName());
+            nameSerializer.write(encoder, value.getName());
         }
     }
 }
@@ -26,6 +26,8 @@ import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.file.FileResolver;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
@@ -52,6 +54,7 @@ import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.internal.Factory;
 import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.reflect.Instantiator;
 import org.gradle.listener.ClosureBackedMethodInvocationDispatch;
 import org.gradle.listener.ListenerBroadcast;
@@ -134,6 +137,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private FileCollection classpath;
     private TestFramework testFramework;
     private boolean scanForTestClasses = true;
+    private boolean runOnlyAffectedTests;
     private long forkEvery;
     private int maxParallelForks = 1;
     private TestReporter testReporter;
@@ -197,6 +201,16 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ExecutorFactory getExecutorFactory() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Inject
+    protected GeneralCompileCaches getGeneralCompileCaches() {
+        throw new UnsupportedOperationException();
+    }
+
     /**
      * ATM. for testing only
      */
@@ -503,7 +517,11 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
                 getTestListenerBroadcaster().getSource(), testOutputListenerBroadcaster.getSource());
 
         if (testExecuter == null) {
-            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory());
+            testExecuter = new DefaultTestExecuter(getProcessBuilderFactory(), getActorFactory(), getExecutorFactory(), new Factory<ClassAnalysisCache>() {
+                public ClassAnalysisCache create() {
+                    return getGeneralCompileCaches().getClassAnalysisCache();
+                }
+            });
         }
 
         try {
@@ -521,7 +539,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
 
         try {
             if (testReporter == null) {
-                testReporter = new DefaultTestReport();
+                testReporter = new DefaultTestReport(getExecutorFactory(), new File(getTemporaryDir(), "html-report-fingerprints.bin"));
             }
 
             JUnitXmlReport junitXml = reports.getJunitXml();
@@ -529,7 +547,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
                 TestOutputAssociation outputAssociation = junitXml.isOutputPerTestCase()
                         ? TestOutputAssociation.WITH_TESTCASE
                         : TestOutputAssociation.WITH_SUITE;
-                Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(junitXml.getDestination(), testResultsProvider, outputAssociation);
+                Binary2JUnitXmlReportGenerator binary2JUnitXmlReportGenerator = new Binary2JUnitXmlReportGenerator(junitXml.getDestination(), new File(getTemporaryDir(), "junit-xml-fingerprints.bin"), testResultsProvider, outputAssociation, getExecutorFactory());
                 binary2JUnitXmlReportGenerator.generate();
             }
 
@@ -954,6 +972,30 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.scanForTestClasses = scanForTestClasses;
     }
 
+    /**
+     * Specifies whether only the test classes affected by changes since the previous execution should be executed. When {@code true}, a test class is
+     * executed when it has not passed in a previous execution, or when a class it depends on, directly or transitively, has changed. All test classes
+     * are executed when a jar on the test runtime classpath or the test filter changes. Test classes that failed in the previous execution are executed
+     * first. A report of the executed and skipped test classes is written to the binary results directory. The default value is {@code false}.
+     *
+     * @since 2.4
+     */
+    @Incubating
+    @Input
+    public boolean isRunOnlyAffectedTests() {
+        return runOnlyAffectedTests;
+    }
+
+    /**
+     * Sets whether only the test classes affected by changes since the previous execution should be executed.
+     *
+     * @since 2.4
+     */
+    @Incubating
+    public void setRunOnlyAffectedTests(boolean runOnlyAffectedTests) {
+        this.runOnlyAffectedTests = runOnlyAffectedTests;
+    }
+
     /**
      * Returns the maximum number of test classes to execute in a forked test process. The forked test process will be restarted when this limit is reached. The default value is 0 (no maximum).
      *
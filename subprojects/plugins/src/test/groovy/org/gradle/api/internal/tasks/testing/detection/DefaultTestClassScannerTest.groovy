@@ -27,6 +27,10 @@ import org.jmock.Sequence
 import org.gradle.api.file.FileTree
 import static org.hamcrest.Matchers.*
 import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
 
 @RunWith(JMock.class)
 public class DefaultTestClassScannerTest {
@@ -55,4 +59,43 @@ public class DefaultTestClassScannerTest {
         
         scanner.run()
     }
+
+    @Test
+    public void passesTestClassesDetectedInParallelToProcessorInClassFileOrder() {
+        def executorFactory = new DefaultExecutorFactory()
+        def processed = []
+        def lastClassDetected = new CountDownLatch(1)
+        def firstClassWaited = false
+        TestClassProcessor detectionProcessor = null
+        TestFrameworkDetector parallelDetector = [
+                startDetection: { detectionProcessor = it },
+                processTestClass: { File file ->
+                    if (file.name == 'class1.class') {
+                        // Detection of the first class finishes after detection of the last class
+                        firstClassWaited = lastClassDetected.await(30, TimeUnit.SECONDS)
+                    }
+                    detectionProcessor.processTestClass(new DefaultTestClassRunInfo(file.name))
+                    if (file.name == 'class3.class') {
+                        lastClassDetected.countDown()
+                    }
+                    true
+                }
+        ] as TestFrameworkDetector
+        FileTree classFiles = [visit: { visitor ->
+            ['class1.class', 'class2.class', 'class3.class'].each { name ->
+                visitor.visitFile({ new File(name) } as FileVisitDetails)
+            }
+            null
+        }] as FileTree
+        TestClassProcessor orderedProcessor = [processTestClass: { processed << it.testClassName }] as TestClassProcessor
+
+        try {
+            new DefaultTestClassScanner(classFiles, parallelDetector, orderedProcessor, executorFactory, 3).run()
+        } finally {
+            executorFactory.stop()
+        }
+
+        assert firstClassWaited
+        assert processed == ['class1.class', 'class2.class', 'class3.class']
+    }
 }
@@ -21,11 +21,15 @@ import org.gradle.api.file.FileTree
 import org.gradle.api.internal.tasks.testing.TestFramework
 import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.tasks.testing.Test
+import org.gradle.internal.concurrent.ExecutorFactory
 import org.gradle.messaging.actor.Actor
 import org.gradle.messaging.actor.ActorFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 
 class DefaultTestExecuterTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
 
     TestResultProcessor testResultProcessor = Mock()
     Test testTask = Mock()
@@ -38,7 +42,7 @@ class DefaultTestExecuterTest extends Specification {
     File testClassesDir = Mock()
     FileCollection testClasspath = Mock()
 
-    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory)
+    DefaultTestExecuter executer = new DefaultTestExecuter(workerFactory, actorFactory, Mock(ExecutorFactory), Mock(org.gradle.internal.Factory))
 
     def setup() {
         _ * testTask.testFramework >> testFramework
@@ -46,6 +50,7 @@ class DefaultTestExecuterTest extends Specification {
         _ * actorFactory.createActor(_) >> resultProcessorActor
         _ * resultProcessorActor.getProxy(_) >> resultProcessor
         _ * testTask.isScanForTestClasses() >> true
+        _ * testTask.getTemporaryDir() >> tmpDir.testDirectory
         _ * testFramework.getDetector() >> testFrameworkTestDetector
     }
 
@@ -65,4 +70,12 @@ class DefaultTestExecuterTest extends Specification {
         1 * testTask.getClasspath() >> testClasspath
         1 * testFrameworkTestDetector.setTestClasspath(testClasspath)
     }
+
+    def "test class detection cache is configured before executing and stored afterwards"() {
+        when:
+        executer.execute(testTask, testResultProcessor);
+        then:
+        1 * testFrameworkTestDetector.setDetectionCache({ it != null })
+        tmpDir.file("testClassDetection.bin").assertIsFile()
+    }
 }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.api.Transformer
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestClassDetectionCacheTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def cacheFile = tmpDir.file("cache/detection.bin")
+    def parser = Mock(Transformer)
+    def details = new TestClassDetectionCache.ClassDetails("org/gradle/SomeTest", "java/lang/Object", true, false)
+
+    def "reads each class file once"() {
+        def classFile = tmpDir.file("SomeTest.class") << "content"
+        def cache = new TestClassDetectionCache(cacheFile, "settings")
+
+        when:
+        cache.load()
+        def first = cache.get(classFile, parser)
+        def second = cache.get(classFile, parser)
+
+        then:
+        1 * parser.transform({ new String(it) == "content" }) >> details
+        first.is(details)
+        second.is(details)
+    }
+
+    def "does not read unchanged class files again after the cache has been stored"() {
+        def classFile = tmpDir.file("SomeTest.class") << "content"
+        store(new TestClassDetectionCache(cacheFile, "settings"), classFile)
+        def cache = new TestClassDetectionCache(cacheFile, "settings")
+
+        when:
+        cache.load()
+        def result = cache.get(classFile, parser)
+
+        then:
+        0 * parser._
+        result.className == "org/gradle/SomeTest"
+        result.superClassName == "java/lang/Object"
+        result.test
+        !result.abstract
+    }
+
+    def "does not read a class file with the same content as a stored class file"() {
+        def classFile = tmpDir.file("SomeTest.class") << "content"
+        def copy = tmpDir.file("other/SomeTest.class") << "content"
+        store(new TestClassDetectionCache(cacheFile, "settings"), classFile)
+        def cache = new TestClassDetectionCache(cacheFile, "settings")
+
+        when:
+        cache.load()
+        def result = cache.get(copy, parser)
+
+        then:
+        0 * parser._
+        result.className == "org/gradle/SomeTest"
+    }
+
+    def "reads a class file again when its content has changed"() {
+        def classFile = tmpDir.file("SomeTest.class") << "content"
+        store(new TestClassDetectionCache(cacheFile, "settings"), classFile)
+        def changed = new TestClassDetectionCache.ClassDetails("org/gradle/SomeTest", "org/gradle/Base", false, false)
+        def cache = new TestClassDetectionCache(cacheFile, "settings")
+
+        when:
+        classFile.text = "changed content"
+        cache.load()
+        def result = cache.get(classFile, parser)
+
+        then:
+        1 * parser.transform(_) >> changed
+        result.is(changed)
+    }
+
+    def "reads all class files again when the settings have changed"() {
+        def classFile = tmpDir.file("SomeTest.class") << "content"
+        store(new TestClassDetectionCache(cacheFile, "settings"), classFile)
+        def cache = new TestClassDetectionCache(cacheFile, "other settings")
+
+        when:
+        cache.load()
+        cache.get(classFile, parser)
+
+        then:
+        1 * parser.transform(_) >> details
+    }
+
+    def "reads all class files again when the cache file cannot be read"() {
+        def classFile = tmpDir.file("SomeTest.class") << "content"
+        cacheFile.text = "broken"
+        def cache = new TestClassDetectionCache(cacheFile, "settings")
+
+        when:
+        cache.load()
+        cache.get(classFile, parser)
+
+        then:
+        1 * parser.transform(_) >> details
+    }
+
+    def "only stores the class files that have been looked up since the cache was loaded"() {
+        def classFile = tmpDir.file("SomeTest.class") << "content"
+        def removed = tmpDir.file("RemovedTest.class") << "removed"
+        store(new TestClassDetectionCache(cacheFile, "settings"), classFile, removed)
+        store(new TestClassDetectionCache(cacheFile, "settings"), classFile)
+        def cache = new TestClassDetectionCache(cacheFile, "settings")
+
+        when:
+        cache.load()
+        cache.get(removed, parser)
+
+        then:
+        1 * parser.transform(_) >> details
+    }
+
+    private void store(TestClassDetectionCache cache, File... classFiles) {
+        cache.load()
+        classFiles.each { cache.get(it, { details } as Transformer) }
+        cache.store()
+    }
+}
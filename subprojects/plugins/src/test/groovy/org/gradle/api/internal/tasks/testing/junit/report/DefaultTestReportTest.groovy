@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.testing.junit.report
 import org.gradle.api.internal.tasks.testing.BuildableTestResultsProvider
 import org.gradle.api.internal.tasks.testing.junit.result.AggregateTestResultsProvider
 import org.gradle.api.internal.tasks.testing.junit.result.TestResultsProvider
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.test.fixtures.file.TestFile
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.ConfigureUtil
@@ -27,7 +28,7 @@ import spock.lang.Specification
 class DefaultTestReportTest extends Specification {
     @Rule
     public final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
-    final DefaultTestReport report = new DefaultTestReport()
+    final DefaultTestReport report = new DefaultTestReport(new DefaultExecutorFactory(), tmpDir.file('tmp/fingerprints.bin'))
     final TestFile reportDir = tmpDir.file('report')
     final TestFile indexFile = reportDir.file('index.html')
     final TestResultsProvider testResultProvider = Mock()
@@ -477,6 +478,50 @@ class DefaultTestReportTest extends Specification {
         testClassFile.assertHasStandardError('err:\u0102')
     }
 
+    def doesNotRenderPagesWhoseResultsHaveNotChanged() {
+        given:
+        report.generateReport(passingBuildResults(), reportDir)
+        def passedClassFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        def alsoPassedClassFile = reportDir.file('classes/org.gradle.passing.subpackage.AlsoPassed.html')
+        passedClassFile.text = "unchanged"
+        alsoPassedClassFile.text = "unchanged"
+        indexFile.text = "unchanged"
+
+        when:
+        report.generateReport(buildResults {
+            testClassResult("org.gradle.passing.Passed") {
+                testcase("passed") {
+                    duration = 1000;
+                }
+            }
+            testClassResult("org.gradle.passing.subpackage.AlsoPassed") {
+                testcase("passedToo") {
+                    duration = 2000;
+                }
+            }
+        }, reportDir)
+
+        then:
+        passedClassFile.text == "unchanged"
+        results(alsoPassedClassFile).assertHasDuration("2.000s")
+        results(indexFile).assertHasTests(2)
+        tmpDir.file('tmp/fingerprints.bin').file
+        !reportDir.listFiles().any { it.name.endsWith('.bin') }
+    }
+
+    def rendersPagesThatHaveBeenRemoved() {
+        given:
+        report.generateReport(passingBuildResults(), reportDir)
+        def passedClassFile = reportDir.file('classes/org.gradle.passing.Passed.html')
+        passedClassFile.delete()
+
+        when:
+        report.generateReport(passingBuildResults(), reportDir)
+
+        then:
+        results(passedClassFile).assertHasTests(1)
+    }
+
     TestResultsProvider buildResults(Closure closure) {
         ConfigureUtil.configure(closure, new BuildableTestResultsProvider())
     }
@@ -18,6 +18,7 @@ package org.gradle.api.internal.tasks.testing.junit.result
 
 import org.gradle.api.Action
 import org.gradle.api.GradleException
+import org.gradle.internal.concurrent.DefaultExecutorFactory
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.junit.Rule
 import spock.lang.Specification
@@ -26,7 +27,7 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
 
     @Rule private TestNameTestDirectoryProvider temp = new TestNameTestDirectoryProvider()
     private resultsProvider = Mock(TestResultsProvider)
-    private generator = new Binary2JUnitXmlReportGenerator(temp.testDirectory, resultsProvider, TestOutputAssociation.WITH_SUITE)
+    private generator = new Binary2JUnitXmlReportGenerator(temp.createDir("results"), temp.file("tmp/fingerprints.bin"), resultsProvider, TestOutputAssociation.WITH_SUITE, new DefaultExecutorFactory())
 
     def setup() {
         generator.saxWriter = Mock(JUnitXmlResultWriter)
@@ -71,4 +72,50 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         ex.message.startsWith('Could not write XML test results for FooTest')
         ex.cause.message == "Boo!"
     }
+
+    def "does not write results that have not changed since they were last written"() {
+        def fooTest = new TestClassResult(1, 'FooTest', 100)
+            .add(new TestMethodResult(1, "foo"))
+        def barTest = new TestClassResult(2, 'BarTest', 100)
+            .add(new TestMethodResult(2, "bar"))
+        def barTestRerun = new TestClassResult(3, 'BarTest', 200)
+            .add(new TestMethodResult(4, "bar"))
+
+        given:
+        def results = [fooTest, barTest]
+        resultsProvider.visitClasses(_) >> { Action action -> results.each { action.execute(it) } }
+        generator.saxWriter.write(_, _) >> { TestClassResult result, OutputStream output -> output << result.className }
+        generator.generate()
+
+        when:
+        results = [fooTest, barTestRerun]
+        generator.generate()
+
+        then:
+        0 * generator.saxWriter.write(fooTest, _)
+        1 * generator.saxWriter.write(barTestRerun, _)
+        0 * generator.saxWriter._
+
+        and:
+        temp.file("tmp/fingerprints.bin").file
+        temp.file("results").list() as Set == ["TEST-FooTest.xml", "TEST-BarTest.xml"] as Set
+    }
+
+    def "writes results again when the file has been removed"() {
+        def fooTest = new TestClassResult(1, 'FooTest', 100)
+            .add(new TestMethodResult(1, "foo"))
+
+        given:
+        resultsProvider.visitClasses(_) >> { Action action -> action.execute(fooTest) }
+        generator.saxWriter.write(_, _) >> { TestClassResult result, OutputStream output -> output << result.className }
+        generator.generate()
+        temp.file("results/TEST-FooTest.xml").delete()
+
+        when:
+        generator.generate()
+
+        then:
+        1 * generator.saxWriter.write(fooTest, _)
+        temp.file("results/TEST-FooTest.xml").file
+    }
 }
@@ -20,6 +20,8 @@ import org.gradle.api.internal.tasks.testing.TestDescriptorInternal
 import org.gradle.api.tasks.testing.TestOutputEvent
 import org.gradle.test.fixtures.file.WorkspaceTest
 
+import java.util.concurrent.ConcurrentHashMap
+
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdErr
 import static org.gradle.api.tasks.testing.TestOutputEvent.Destination.StdOut
 
@@ -89,10 +91,92 @@ class TestOutputStoreSpec extends WorkspaceTest {
         collectOutput(reader, 2, StdOut) == "[out-6]"
     }
 
+    def "reads output of classes and tests that are not written in order of their ids"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(9, 3, output(StdOut, "[out-1]"))
+        writer.onOutput(2, 7, output(StdOut, "[out-2]"))
+        writer.onOutput(9, 1, output(StdOut, "[out-3]"))
+        writer.onOutput(5, output(StdOut, "[out-4]"))
+        writer.onOutput(2, 4, output(StdOut, "[out-5]"))
+        writer.onOutput(9, 3, output(StdOut, "[out-6]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectAllOutput(reader, 9, StdOut) == "[out-1][out-3][out-6]"
+        collectOutput(reader, 9, 3, StdOut) == "[out-1][out-6]"
+        collectOutput(reader, 9, 1, StdOut) == "[out-3]"
+        collectOutput(reader, 2, 7, StdOut) == "[out-2]"
+        collectOutput(reader, 2, 4, StdOut) == "[out-5]"
+        collectOutput(reader, 5, StdOut) == "[out-4]"
+        collectAllOutput(reader, 3, StdOut) == ""
+
+        cleanup:
+        reader.close()
+    }
+
+    def "output for class includes output of a test that started writing to the stream after a later test"() {
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdErr, "[err-1]"))
+        writer.onOutput(1, 2, output(StdOut, "[out-1]"))
+        writer.onOutput(1, 1, output(StdOut, "[out-2]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectAllOutput(reader, 1, StdOut) == "[out-1][out-2]"
+
+        cleanup:
+        reader.close()
+    }
+
+    def "reads large messages and multi-byte characters"() {
+        def message = "\u00e9\u4e2d-" * 10000
+
+        when:
+        def writer = output.writer()
+        writer.onOutput(1, 1, output(StdOut, "[out-1]"))
+        writer.onOutput(1, 1, output(StdOut, message))
+        writer.onOutput(1, 1, output(StdOut, "[out-2]"))
+        writer.close()
+        def reader = output.reader()
+
+        then:
+        collectOutput(reader, 1, 1, StdOut) == "[out-1]" + message + "[out-2]"
+
+        cleanup:
+        reader.close()
+    }
+
     def DefaultTestOutputEvent output(TestOutputEvent.Destination destination, String msg) {
         new DefaultTestOutputEvent(destination, msg)
     }
 
+    def "output can be read by multiple threads concurrently"() {
+        given:
+        def writer = output.writer()
+        (1..10).each { writer.onOutput(it, 1, output(StdOut, "[out-$it]")) }
+        writer.close()
+        def reader = output.reader()
+        def outputs = new ConcurrentHashMap<Integer, String>()
+
+        when:
+        def threads = (1..10).collect { id ->
+            Thread.start {
+                20.times { outputs[id] = collectAllOutput(reader, id, StdOut) }
+            }
+        }
+        threads*.join()
+
+        then:
+        outputs == (1..10).collectEntries { [it, "[out-$it]".toString()] }
+
+        cleanup:
+        reader.close()
+    }
+
     def "writes nothing for unknown test class"() {
         when:
         def writer = output.writer()
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import org.gradle.api.internal.tasks.testing.DefaultTestClassDescriptor
+import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo
+import org.gradle.api.internal.tasks.testing.DefaultTestDescriptor
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import org.gradle.api.internal.tasks.testing.TestStartEvent
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class SelectingTestClassProcessorTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def delegate = Mock(TestClassProcessor)
+    def selection = Mock(TestSelection)
+    def reportFile = tmpDir.file("results/selection.txt")
+    def processor = new SelectingTestClassProcessor(delegate, selection, reportFile)
+
+    def setup() {
+        _ * selection.getReasonToExecute("org.FooTest") >> "depends on changed class org.Foo"
+        _ * selection.getReasonToExecute("org.FailedTest") >> "failed in the previous execution"
+        _ * selection.hasFailedPreviously("org.FailedTest") >> true
+    }
+
+    def "executes the selected test classes once all test classes are known, starting with those that failed previously"() {
+        def fooTest = new DefaultTestClassRunInfo("org.FooTest")
+        def failedTest = new DefaultTestClassRunInfo("org.FailedTest")
+
+        when:
+        processor.startProcessing(Mock(TestResultProcessor))
+        processor.processTestClass(fooTest)
+        processor.processTestClass(new DefaultTestClassRunInfo("org.SkippedTest"))
+        processor.processTestClass(failedTest)
+
+        then:
+        0 * delegate.processTestClass(_)
+
+        when:
+        processor.stop()
+
+        then:
+        1 * delegate.processTestClass(failedTest)
+
+        then:
+        1 * delegate.processTestClass(fooTest)
+
+        then:
+        1 * delegate.stop()
+        0 * delegate.processTestClass(_)
+    }
+
+    def "writes a report of the executed and skipped test classes"() {
+        when:
+        processor.startProcessing(Mock(TestResultProcessor))
+        processor.processTestClass(new DefaultTestClassRunInfo("org.FooTest"))
+        processor.processTestClass(new DefaultTestClassRunInfo("org.SkippedTest"))
+        processor.stop()
+
+        then:
+        reportFile.readLines() == [
+                "Executed test classes:",
+                "    org.FooTest: depends on changed class org.Foo",
+                "",
+                "Skipped test classes:",
+                "    org.SkippedTest: not affected by any change since it last passed"
+        ]
+    }
+
+    def "records the outcome of each test class once execution has completed"() {
+        def resultProcessor = Mock(TestResultProcessor)
+        TestResultProcessor workerResultProcessor = null
+        def suite = new DefaultTestClassDescriptor(1, "org.FailedTest")
+        def test = new DefaultTestDescriptor(2, "org.FailedTest", "broken")
+        def failure = new RuntimeException()
+
+        given:
+        delegate.startProcessing(_) >> { workerResultProcessor = it[0] }
+        delegate.stop() >> {
+            workerResultProcessor.started(suite, new TestStartEvent(0))
+            workerResultProcessor.started(test, new TestStartEvent(0, 1))
+            workerResultProcessor.failure(2, failure)
+            workerResultProcessor.completed(2, new TestCompleteEvent(0))
+            workerResultProcessor.completed(1, new TestCompleteEvent(0))
+        }
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(new DefaultTestClassRunInfo("org.FooTest"))
+        processor.processTestClass(new DefaultTestClassRunInfo("org.FailedTest"))
+        processor.processTestClass(new DefaultTestClassRunInfo("org.SkippedTest"))
+        processor.stop()
+
+        then:
+        1 * resultProcessor.failure(2, failure)
+        1 * selection.executed("org.FailedTest", true)
+        1 * selection.executed("org.FooTest", false)
+        1 * selection.skipped("org.SkippedTest")
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.selection
+
+import org.gradle.api.internal.hash.DefaultHasher
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysis
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashUtil
+import org.gradle.internal.hash.HashValue
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestSelectionTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir
+    def classesDir = tmpDir.createDir("classes")
+    def stateFile = tmpDir.file("state/selection.bin")
+    def analyses = [:]
+    def classAnalysisCache = Stub(ClassAnalysisCache) {
+        get(_, _) >> { byte[] hash, Factory factory -> analyses[new HashValue(hash).asHexString()] }
+    }
+
+    def "executes all test classes when no previous execution was recorded"() {
+        classFile("org.FooTest", "test")
+
+        expect:
+        selection().getReasonToExecute("org.FooTest") == "no previous test execution was recorded"
+    }
+
+    def "skips test classes that passed when nothing has changed"() {
+        classFile("org.FooTest", "test", "org.Foo")
+        classFile("org.Foo", "foo")
+        passed("org.FooTest")
+
+        expect:
+        selection().getReasonToExecute("org.FooTest") == null
+    }
+
+    def "executes test classes that depend on a changed class"() {
+        classFile("org.FooTest", "test", "org.Foo")
+        classFile("org.OtherTest", "other")
+        classFile("org.Foo", "foo", "org.Bar")
+        classFile("org.Bar", "bar")
+        passed("org.FooTest", "org.OtherTest")
+
+        when:
+        classFile("org.Bar", "changed bar")
+        def selection = selection()
+
+        then:
+        selection.getReasonToExecute("org.FooTest") == "depends on changed class org.Bar"
+        selection.getReasonToExecute("org.OtherTest") == null
+    }
+
+    def "executes test classes that depend on a removed class"() {
+        classFile("org.FooTest", "test", "org.Foo")
+        def foo = classFile("org.Foo", "foo")
+        passed("org.FooTest")
+
+        when:
+        foo.delete()
+
+        then:
+        selection().getReasonToExecute("org.FooTest") == "depends on changed class org.Foo"
+    }
+
+    def "executes test classes that have changed"() {
+        classFile("org.FooTest", "test")
+        classFile('org.BarTest$Nested', "nested")
+        passed("org.FooTest", 'org.BarTest$Nested')
+
+        when:
+        classFile("org.FooTest", "changed test")
+        classFile('org.BarTest$Nested', "changed nested")
+        def selection = selection()
+
+        then:
+        selection.getReasonToExecute("org.FooTest") == "class org.FooTest has changed"
+        selection.getReasonToExecute('org.BarTest$Nested') == 'class org.BarTest$Nested has changed'
+    }
+
+    def "executes test classes that failed or have not passed in the previous execution"() {
+        classFile("org.FooTest", "test")
+        classFile("org.BarTest", "bar")
+        classFile("org.NewTest", "new")
+        def previous = selection()
+        previous.executed("org.FooTest", true)
+        previous.executed("org.BarTest", false)
+        previous.store()
+
+        when:
+        def selection = selection()
+
+        then:
+        selection.getReasonToExecute("org.FooTest") == "failed in the previous execution"
+        selection.hasFailedPreviously("org.FooTest")
+        selection.getReasonToExecute("org.BarTest") == null
+        !selection.hasFailedPreviously("org.BarTest")
+        selection.getReasonToExecute("org.NewTest") == "has not passed in a previous execution"
+    }
+
+    def "remembers test classes that were skipped as passed"() {
+        classFile("org.FooTest", "test")
+        passed("org.FooTest")
+        def skipping = selection()
+        skipping.skipped("org.FooTest")
+        skipping.store()
+
+        expect:
+        selection().getReasonToExecute("org.FooTest") == null
+    }
+
+    def "executes all test classes when a jar on the classpath has changed"() {
+        def jar = tmpDir.file("lib.jar") << "jar"
+        classFile("org.FooTest", "test")
+        passed([classesDir, jar], "org.FooTest")
+
+        when:
+        jar << "changed"
+
+        then:
+        selection([classesDir, jar]).getReasonToExecute("org.FooTest") == "a jar on the test runtime classpath has changed"
+    }
+
+    def "executes all test classes when a resource on the classpath has changed"() {
+        def resource = classesDir.file("org/test.properties") << "a=1"
+        classFile("org.FooTest", "test")
+        passed("org.FooTest")
+
+        when:
+        resource.text = "a=2"
+
+        then:
+        selection().getReasonToExecute("org.FooTest") == "a resource on the test runtime classpath has changed"
+    }
+
+    def "executes all test classes when a resource is added to or removed from the classpath"() {
+        def resource = classesDir.file("org/test.properties") << "a=1"
+        classFile("org.FooTest", "test")
+        passed("org.FooTest")
+
+        when:
+        resource.delete()
+
+        then:
+        selection().getReasonToExecute("org.FooTest") == "a resource on the test runtime classpath has changed"
+
+        when:
+        passed("org.FooTest")
+        classesDir.file("META-INF/services/org.Service") << "org.ServiceImpl"
+
+        then:
+        selection().getReasonToExecute("org.FooTest") == "a resource on the test runtime classpath has changed"
+    }
+
+    def "executes all test classes when a changed class affects all classes"() {
+        classFile("org.FooTest", "test")
+        classFile("org.Constants", "constants")
+        passed("org.FooTest")
+
+        when:
+        classFile("org.Constants", "changed constants", new ClassAnalysis([] as Set, true))
+
+        then:
+        selection().getReasonToExecute("org.FooTest") == "a change to class org.Constants affects all classes"
+    }
+
+    def "executes all test classes when the settings have changed"() {
+        classFile("org.FooTest", "test")
+        passed("org.FooTest")
+
+        when:
+        def selection = new TestSelection(stateFile, "other settings", classAnalysisCache, new DefaultHasher())
+        selection.load()
+        selection.analyze([classesDir])
+
+        then:
+        selection.getReasonToExecute("org.FooTest") == "no previous test execution was recorded"
+    }
+
+    private TestFile classFile(String className, String content, String... dependencies) {
+        return classFile(className, content, new ClassAnalysis(dependencies as Set, false))
+    }
+
+    private TestFile classFile(String className, String content, ClassAnalysis analysis) {
+        def file = classesDir.file(className.replace('.', '/') + ".class")
+        file.text = content
+        analyses[HashUtil.createHash(file, "MD5").asHexString()] = analysis
+        return file
+    }
+
+    private TestSelection selection(List<File> classpath = [classesDir]) {
+        def selection = new TestSelection(stateFile, "settings", classAnalysisCache, new DefaultHasher())
+        selection.load()
+        selection.analyze(classpath)
+        return selection
+    }
+
+    private void passed(List<File> classpath, String... testClasses) {
+        def selection = selection(classpath)
+        testClasses.each { selection.executed(it, false) }
+        selection.store()
+    }
+
+    private void passed(String... testClasses) {
+        passed([classesDir], testClasses)
+    }
+}
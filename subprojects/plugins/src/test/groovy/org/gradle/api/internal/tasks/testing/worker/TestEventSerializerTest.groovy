@@ -30,6 +30,8 @@ import org.gradle.api.tasks.testing.TestResult
 import org.gradle.internal.id.CompositeIdGenerator
 import org.gradle.messaging.serialize.InputStreamBackedDecoder
 import org.gradle.messaging.serialize.OutputStreamBackedEncoder
+import org.gradle.messaging.serialize.kryo.KryoBackedDecoder
+import org.gradle.messaging.serialize.kryo.KryoBackedEncoder
 import spock.lang.Specification
 
 class TestEventSerializerTest extends Specification {
@@ -193,6 +195,108 @@ class TestEventSerializerTest extends Specification {
         result[0].cause.message == "cause"
     }
 
+    def "sends each class and test name only once per stream"() {
+        def id = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def descriptor1 = new DefaultTestMethodDescriptor(id, "some-class", "some-test")
+        def descriptor2 = new DefaultTestMethodDescriptor(id, "some-class", "other-test")
+        def outstr = new ByteArrayOutputStream()
+
+        when:
+        def writer = serializer.newWriter(new OutputStreamBackedEncoder(outstr))
+        writer.write([descriptor1] as Object[])
+        writer.write([descriptor2] as Object[])
+        writer.write([descriptor1] as Object[])
+        def reader = serializer.newReader(new InputStreamBackedDecoder(new ByteArrayInputStream(outstr.toByteArray())))
+        def result = (1..3).collect { reader.read()[0] }
+
+        then:
+        result*.className == ["some-class", "some-class", "some-class"]
+        result*.name == ["some-test", "other-test", "some-test"]
+        new String(outstr.toByteArray(), "ISO-8859-1").count("some-class") == 1
+        new String(outstr.toByteArray(), "ISO-8859-1").count("some-test") == 1
+    }
+
+    def "sends a name again once it has been evicted from the table of a stream"() {
+        def serializer = new TestEventSerializer(2)
+        def id = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def names = ["test-a", "test-b", "test-a", "test-c", "test-a", "test-b", "test-c"]
+        def outstr = new ByteArrayOutputStream()
+
+        when:
+        def writer = serializer.newWriter(new OutputStreamBackedEncoder(outstr))
+        names.each { writer.write([new DefaultTestClassDescriptor(id, it)] as Object[]) }
+        def reader = serializer.newReader(new InputStreamBackedDecoder(new ByteArrayInputStream(outstr.toByteArray())))
+        def result = names.collect { reader.read()[0] }
+
+        then:
+        result*.name == names
+        def bytes = new String(outstr.toByteArray(), "ISO-8859-1")
+        bytes.count("test-a") == 1
+        bytes.count("test-b") == 2
+        bytes.count("test-c") == 2
+    }
+
+    def "round trips the events of many tests through a single stream"() {
+        def suiteId = new CompositeIdGenerator.CompositeId(1L, 0L)
+        def events = []
+        200.times {
+            def id = new CompositeIdGenerator.CompositeId(1L, it + 1L)
+            events << ([new DefaultTestMethodDescriptor(id, "org.gradle.SomeTest${it % 10}", "test${it % 20}"), new TestStartEvent(1420070400000L + it, suiteId)] as Object[])
+            events << ([id, new DefaultTestOutputEvent(TestOutputEvent.Destination.StdOut, "output from test $it\n")] as Object[])
+            events << ([id, new TestCompleteEvent(1420070400001L + it, TestResult.ResultType.SUCCESS)] as Object[])
+        }
+        def outstr = new ByteArrayOutputStream()
+
+        when:
+        def encoder = new KryoBackedEncoder(outstr)
+        def writer = serializer.newWriter(encoder)
+        events.each { writer.write(it) }
+        encoder.flush()
+        def reader = serializer.newReader(new KryoBackedDecoder(new ByteArrayInputStream(outstr.toByteArray())))
+        def result = events.collect { reader.read() }
+
+        then:
+        result.size() == events.size()
+        (0..<200).each {
+            def started = result[it * 3]
+            def output = result[it * 3 + 1]
+            def completed = result[it * 3 + 2]
+            assert started[0].id == new CompositeIdGenerator.CompositeId(1L, it + 1L)
+            assert started[0].className == "org.gradle.SomeTest${it % 10}"
+            assert started[0].name == "test${it % 20}"
+            assert started[1].parentId == suiteId
+            assert started[1].startTime == 1420070400000L + it
+            assert output[0] == started[0].id
+            assert output[1].destination == TestOutputEvent.Destination.StdOut
+            assert output[1].message == "output from test $it\n"
+            assert completed[0] == started[0].id
+            assert completed[1].endTime == 1420070400001L + it
+            assert completed[1].resultType == TestResult.ResultType.SUCCESS
+        }
+    }
+
+    def "writes ids, timestamps and names that have already been sent in a few bytes"() {
+        def id = new CompositeIdGenerator.CompositeId(1L, 2L)
+        def descriptor = new DefaultTestMethodDescriptor(id, "some-class", "some-test")
+
+        expect:
+        encodedSizes([id], [new TestStartEvent(1420070400000L, id)], [descriptor], [descriptor]) == [4, 11, 25, 6]
+    }
+
+    private List<Integer> encodedSizes(List<?>... values) {
+        def outstr = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outstr)
+        def writer = serializer.newWriter(encoder)
+        def sizes = []
+        values.each {
+            def previous = outstr.size()
+            writer.write(it as Object[])
+            encoder.flush()
+            sizes << outstr.size() - previous
+        }
+        return sizes
+    }
+
     def Object[] serialize(Object... source) {
         def outstr = new ByteArrayOutputStream()
         serializer.newWriter(new OutputStreamBackedEncoder(outstr)).write(source)
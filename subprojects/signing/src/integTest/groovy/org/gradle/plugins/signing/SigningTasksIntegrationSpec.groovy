@@ -77,6 +77,43 @@ class SigningTasksIntegrationSpec extends SigningIntegrationSpec {
         [":signJar", ":signJavadocJar", ":signSourcesJar"].every { it in skippedTasks }
     }
     
+    def "signs only the files that have changed since the previous execution"() {
+        given:
+        (1..5).each { file("files", "file${it}.txt") << "content $it" }
+        buildFile << """
+            ${keyInfo.addAsPropertiesScript()}
+
+            task signFiles(type: Sign) {
+                sign fileTree("files").files as File[]
+            }
+        """
+
+        when:
+        run "signFiles"
+
+        then:
+        (1..5).every { file("files", "file${it}.txt.asc").text }
+
+        when:
+        def unchangedSignature = file("files", "file2.txt.asc")
+        def unchangedSnapshot = unchangedSignature.snapshot()
+        def changedSnapshot = file("files", "file1.txt.asc").snapshot()
+        file("files", "file1.txt") << "changed"
+        run "signFiles"
+
+        then:
+        ":signFiles" in nonSkippedTasks
+        unchangedSignature.assertHasNotChangedSince(unchangedSnapshot)
+        file("files", "file1.txt.asc").assertHasChangedSince(changedSnapshot)
+
+        when:
+        file("files", "file3.txt.asc").delete()
+        run "signFiles"
+
+        then:
+        file("files", "file3.txt.asc").text
+    }
+
     def "trying to sign a task that isn't an archive task gives nice enough message"() {
         given:
         buildFile << """
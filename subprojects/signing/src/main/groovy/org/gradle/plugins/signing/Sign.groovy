@@ -19,6 +19,7 @@ import org.gradle.api.Task
 import org.gradle.api.DefaultTask
 import org.gradle.api.DomainObjectSet
 import org.gradle.api.tasks.TaskAction
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
 import org.gradle.api.artifacts.PublishArtifact
 import org.gradle.api.artifacts.Configuration
 import org.gradle.api.tasks.bundling.AbstractArchiveTask
@@ -27,10 +28,17 @@ import org.gradle.api.InvalidUserDataException
 import org.gradle.api.file.FileCollection
 import org.gradle.api.internal.file.collections.SimpleFileCollection
 import org.gradle.api.internal.DefaultDomainObjectSet
+import org.gradle.internal.UncheckedException
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.StoppableExecutor
 
 import org.gradle.plugins.signing.signatory.Signatory
+import org.gradle.plugins.signing.signatory.pgp.PgpSignatory
 import org.gradle.plugins.signing.type.SignatureType
 
+import javax.inject.Inject
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.atomic.AtomicReference
 
 /**
  * A task for creating digital signature files for one or more; tasks, files, publishable artifacts or configurations.
@@ -38,6 +46,9 @@ import org.gradle.plugins.signing.type.SignatureType
  * <p>The task produces {@link Signature}</p> objects that are publishable artifacts and can be assigned to another configuration.
  * <p>
  * The signature objects are created with defaults and using this tasks signatory and signature type.
+ * <p>
+ * Signatures generated using a {@link PgpSignatory} are generated concurrently, signatures generated using other signatories are generated one at a time.
+ * Only the files that have changed since the previous execution are signed again, the existing signatures of the other files are kept.
  */
 class Sign extends DefaultTask implements SignatureSpec {
     
@@ -69,7 +80,12 @@ class Sign extends DefaultTask implements SignatureSpec {
         inputs.property("signatory") { getSignatory()?.keyId?.asHex }
         
         inputs.files { getSignatures()*.toSign }
-        outputs.files { getSignatures()*.toSign }
+        outputs.files { getSignatures()*.file }
+    }
+
+    @Inject
+    protected ExecutorFactory getExecutorFactory() {
+        throw new UnsupportedOperationException()
     }
     
     /**
@@ -156,13 +172,70 @@ class Sign extends DefaultTask implements SignatureSpec {
     /**
      * Generates the signature files.
      */
-    @TaskAction
     void generate() {
+        checkSignatory()
+        generate(getSignatures().toList())
+    }
+
+    @TaskAction
+    void generate(IncrementalTaskInputs inputs) {
+        checkSignatory()
+        def toGenerate = getSignatures().toList()
+        if (inputs.incremental) {
+            Set<File> outOfDate = []
+            inputs.outOfDate { outOfDate << it.file }
+            def signatureType = getSignatureType()
+            inputs.removed {
+                def signatureFile = signatureType?.fileFor(it.file)
+                if (signatureFile?.file) {
+                    signatureFile.delete()
+                }
+            }
+            toGenerate = toGenerate.findAll { it.toSign in outOfDate || !it.file?.exists() }
+        }
+        logger.info("Generating {} of {} signatures.", toGenerate.size(), getSignatures().size())
+        generate(toGenerate)
+    }
+
+    private void checkSignatory() {
         if (getSignatory() == null) {
             throw new InvalidUserDataException("Cannot perform signing task '${getPath()}' because it has no configured signatory")
         }
-        
-        getSignatures()*.generate()
+    }
+
+    /**
+     * Generates the given signatures using a bounded number of threads, when all of them use a signatory that is known to be safe to use from
+     * several threads. No more signatures are started once one has failed, and the first failure is rethrown when all threads have finished.
+     */
+    private void generate(List<Signature> toGenerate) {
+        int workers = Math.min(Runtime.runtime.availableProcessors(), toGenerate.size())
+        if (workers <= 1 || !toGenerate.every { it.signatory?.getClass() == PgpSignatory }) {
+            toGenerate*.generate()
+            return
+        }
+
+        def queue = new ConcurrentLinkedQueue<Signature>(toGenerate)
+        def failure = new AtomicReference<Throwable>()
+        StoppableExecutor executor = getExecutorFactory().create("Signing for ${getPath()}")
+        try {
+            workers.times {
+                executor.execute({
+                    Signature signature
+                    while (failure.get() == null && (signature = queue.poll()) != null) {
+                        try {
+                            signature.generate()
+                        } catch (Throwable t) {
+                            failure.compareAndSet(null, t)
+                        }
+                    }
+                } as Runnable)
+            }
+        } finally {
+            executor.stop()
+        }
+        if (failure.get() != null) {
+            throw UncheckedException.throwAsUncheckedException(failure.get())
+        }
     }
     
     /**
@@ -32,6 +32,9 @@ import java.security.Security
 
 import org.gradle.plugins.signing.signatory.SignatorySupport
 
+/**
+ * A signatory using a PGP secret key. A new signature generator is created for each signature, so the signatory can be used from several threads.
+ */
 class PgpSignatory extends SignatorySupport {
     
     final String name
@@ -69,7 +72,7 @@ class PgpSignatory extends SignatorySupport {
     void sign(InputStream toSign, OutputStream signatureDestination) {
         def generator = createSignatureGenerator()
         
-        def buffer = new byte[1024]
+        def buffer = new byte[8192]
         def read = toSign.read(buffer)
         while (read > 0) {
             generator.update(buffer, 0, read)
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.adapter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+
+/**
+ * Invokes the methods of a source object. Method lookup happens once per source type, and the methods are then called through a
+ * {@link MethodDispatcher} generated for that type. The dispatcher class is defined in a ClassLoader of its own, which is discarded along with
+ * the cached methods of the source type. Methods that generated code cannot call, for example because they are declared by a non-public type,
+ * are called using reflection.
+ */
+class DirectMethodInvoker implements MethodInvoker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectMethodInvoker.class);
+    private static final Map<Class<?>, SoftReference<SourceTypeMethods>> SOURCE_TYPES = new WeakHashMap<Class<?>, SoftReference<SourceTypeMethods>>();
+
+    public void invoke(MethodInvocation invocation) throws Throwable {
+        SourceTypeMethods methods = methodsFor(invocation.getDelegate().getClass());
+        methods.invoke(invocation);
+    }
+
+    static SourceTypeMethods methodsFor(Class<?> sourceType) {
+        synchronized (SOURCE_TYPES) {
+            SoftReference<SourceTypeMethods> reference = SOURCE_TYPES.get(sourceType);
+            SourceTypeMethods methods = reference == null ? null : reference.get();
+            if (methods == null) {
+                methods = new SourceTypeMethods(sourceType);
+                SOURCE_TYPES.put(sourceType, new SoftReference<SourceTypeMethods>(methods));
+            }
+            return methods;
+        }
+    }
+
+    static class SourceTypeMethods {
+        private final Map<MethodSignature, Integer> indexes = new HashMap<MethodSignature, Integer>();
+        private final Method[] methods;
+        private final int dispatchedCount;
+        private final MethodDispatcher dispatcher;
+
+        SourceTypeMethods(Class<?> sourceType) {
+            MethodDispatcherGenerator generator = new MethodDispatcherGenerator(sourceType);
+            Map<MethodSignature, Method> generated = new LinkedHashMap<MethodSignature, Method>();
+            Map<MethodSignature, Method> reflective = new LinkedHashMap<MethodSignature, Method>();
+            for (Method candidate : sourceType.getMethods()) {
+                MethodSignature signature = new MethodSignature(candidate.getName(), candidate.getParameterTypes());
+                if (generated.containsKey(signature) || reflective.containsKey(signature)) {
+                    continue;
+                }
+                Method method = locateMethod(sourceType, candidate.getName(), candidate.getParameterTypes());
+                if (generator.canDispatch(method)) {
+                    generated.put(signature, method);
+                } else {
+                    reflective.put(signature, method);
+                }
+            }
+
+            MethodDispatcher dispatcher = null;
+            if (!generated.isEmpty()) {
+                try {
+                    dispatcher = generator.generate(new ArrayList<Method>(generated.values()));
+                } catch (RuntimeException e) {
+                    LOGGER.debug(String.format("Could not generate method dispatcher for %s, falling back to reflection.", sourceType), e);
+                    reflective.putAll(generated);
+                    generated.clear();
+                }
+            }
+            this.dispatcher = dispatcher;
+            this.dispatchedCount = generated.size();
+
+            // Generated methods come first, so that the index of a method is also its index in the dispatcher
+            methods = new Method[generated.size() + reflective.size()];
+            int index = 0;
+            for (Map.Entry<MethodSignature, Method> entry : generated.entrySet()) {
+                indexes.put(entry.getKey(), index);
+                methods[index++] = entry.getValue();
+            }
+            for (Map.Entry<MethodSignature, Method> entry : reflective.entrySet()) {
+                entry.getValue().setAccessible(true);
+                indexes.put(entry.getKey(), index);
+                methods[index++] = entry.getValue();
+            }
+        }
+
+        MethodDispatcher getDispatcher() {
+            return dispatcher;
+        }
+
+        boolean isDispatched(String name, Class<?>... parameterTypes) {
+            Integer index = indexes.get(new MethodSignature(name, parameterTypes));
+            return index != null && index < dispatchedCount;
+        }
+
+        void invoke(MethodInvocation invocation) throws Throwable {
+            Integer index = indexes.get(new MethodSignature(invocation.getName(), invocation.getParameterTypes()));
+            if (index == null) {
+                return;
+            }
+
+            Object returnValue;
+            if (index < dispatchedCount) {
+                returnValue = dispatcher.invoke(index, invocation.getDelegate(), invocation.getParameters());
+            } else {
+                try {
+                    returnValue = methods[index].invoke(invocation.getDelegate(), invocation.getParameters());
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            invocation.setResult(returnValue);
+        }
+
+        private static Method locateMethod(Class<?> sourceClass, String name, Class<?>[] parameterTypes) {
+            Method match = null;
+            LinkedList<Class<?>> queue = new LinkedList<Class<?>>();
+            queue.add(sourceClass);
+            while (!queue.isEmpty()) {
+                Class<?> c = queue.removeFirst();
+                try {
+                    match = c.getMethod(name, parameterTypes);
+                } catch (NoSuchMethodException e) {
+                    // ignore
+                }
+                for (Class<?> interfaceType : c.getInterfaces()) {
+                    queue.addFirst(interfaceType);
+                }
+                if (c.getSuperclass() != null) {
+                    queue.addFirst(c.getSuperclass());
+                }
+            }
+            return match;
+        }
+    }
+
+    private static class MethodSignature {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+
+        private MethodSignature(String name, Class<?>[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            MethodSignature other = (MethodSignature) obj;
+            return name.equals(other.name) && Arrays.equals(parameterTypes, other.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + Arrays.hashCode(parameterTypes);
+        }
+    }
+}
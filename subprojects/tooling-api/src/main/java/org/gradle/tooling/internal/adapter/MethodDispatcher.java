@@ -0,0 +1,28 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.adapter;
+
+/**
+ * Calls the methods of a source type directly. Implementations are generated by {@link MethodDispatcherGenerator}.
+ */
+public abstract class MethodDispatcher {
+    /**
+     * Invokes the method with the given index on the given target object, boxing the result.
+     */
+    public abstract Object invoke(int method, Object target, Object[] params) throws Throwable;
+}
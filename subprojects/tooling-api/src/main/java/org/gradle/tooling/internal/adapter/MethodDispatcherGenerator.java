@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.adapter;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates a {@link MethodDispatcher} that calls a fixed list of methods of a source type using plain method invocation instructions.
+ * Each generated class is defined in its own ClassLoader, whose parent is the ClassLoader of the source type, so the generated code can
+ * call methods whose signature consists of types visible to the source type, and the class can be garbage collected along with the dispatcher.
+ */
+class MethodDispatcherGenerator {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+    private static final String INVOKE_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object.class), Type.INT_TYPE, Type.getType(Object.class), Type.getType(Object[].class));
+    private final DispatcherClassLoader classLoader;
+
+    MethodDispatcherGenerator(Class<?> sourceType) {
+        classLoader = new DispatcherClassLoader(sourceType.getClassLoader());
+    }
+
+    /**
+     * Returns true if the given method can be called from a generated dispatcher.
+     */
+    boolean canDispatch(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || !Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+            return false;
+        }
+        if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())) {
+            return false;
+        }
+        for (Class<?> paramType : method.getParameterTypes()) {
+            if (!isVisible(paramType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isVisible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false, classLoader) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Generates a dispatcher that calls the given methods, by index. Each method must be accepted by {@link #canDispatch(java.lang.reflect.Method)}.
+     * A generator can only generate a single dispatcher.
+     */
+    MethodDispatcher generate(List<Method> methods) {
+        String typeName = MethodDispatcher.class.getName() + "_Generated" + COUNTER.incrementAndGet();
+        String internalName = typeName.replace('.', '/');
+        String superclassName = Type.getInternalName(MethodDispatcher.class);
+
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(Opcodes.V1_5, Opcodes.ACC_PUBLIC | Opcodes.ACC_SYNTHETIC, internalName, null, superclassName, new String[0]);
+
+        MethodVisitor constructor = visitor.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, new String[0]);
+        constructor.visitCode();
+        constructor.visitVarInsn(Opcodes.ALOAD, 0);
+        constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, superclassName, "<init>", "()V", false);
+        constructor.visitInsn(Opcodes.RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        MethodVisitor invoke = visitor.visitMethod(Opcodes.ACC_PUBLIC, "invoke", INVOKE_DESCRIPTOR, null, new String[]{Type.getInternalName(Throwable.class)});
+        invoke.visitCode();
+        Label unknownMethod = new Label();
+        if (!methods.isEmpty()) {
+            Label[] labels = new Label[methods.size()];
+            for (int i = 0; i < labels.length; i++) {
+                labels[i] = new Label();
+            }
+            invoke.visitVarInsn(Opcodes.ILOAD, 1);
+            invoke.visitTableSwitchInsn(0, labels.length - 1, unknownMethod, labels);
+            for (int i = 0; i < labels.length; i++) {
+                invoke.visitLabel(labels[i]);
+                generateCall(invoke, methods.get(i));
+            }
+        }
+        invoke.visitLabel(unknownMethod);
+        String exceptionType = Type.getInternalName(IllegalArgumentException.class);
+        invoke.visitTypeInsn(Opcodes.NEW, exceptionType);
+        invoke.visitInsn(Opcodes.DUP);
+        invoke.visitMethodInsn(Opcodes.INVOKESPECIAL, exceptionType, "<init>", "()V", false);
+        invoke.visitInsn(Opcodes.ATHROW);
+        invoke.visitMaxs(0, 0);
+        invoke.visitEnd();
+
+        visitor.visitEnd();
+        byte[] bytecode = visitor.toByteArray();
+        Class<?> dispatcherClass = classLoader.define(typeName, bytecode);
+        try {
+            return (MethodDispatcher) dispatcherClass.newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException(String.format("Could not create method dispatcher %s.", typeName), e);
+        }
+    }
+
+    private void generateCall(MethodVisitor visitor, Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+        String owner = Type.getInternalName(declaringClass);
+        visitor.visitVarInsn(Opcodes.ALOAD, 2);
+        visitor.visitTypeInsn(Opcodes.CHECKCAST, owner);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            visitor.visitVarInsn(Opcodes.ALOAD, 3);
+            visitor.visitLdcInsn(i);
+            visitor.visitInsn(Opcodes.AALOAD);
+            unbox(visitor, parameterTypes[i]);
+        }
+        boolean isInterface = declaringClass.isInterface();
+        visitor.visitMethodInsn(isInterface ? Opcodes.INVOKEINTERFACE : Opcodes.INVOKEVIRTUAL, owner, method.getName(), Type.getMethodDescriptor(method), isInterface);
+        box(visitor, method.getReturnType());
+        visitor.visitInsn(Opcodes.ARETURN);
+    }
+
+    private void unbox(MethodVisitor visitor, Class<?> type) {
+        if (!type.isPrimitive()) {
+            visitor.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(type));
+            return;
+        }
+        Type primitiveType = Type.getType(type);
+        String boxedType = boxedType(primitiveType);
+        visitor.visitTypeInsn(Opcodes.CHECKCAST, boxedType);
+        visitor.visitMethodInsn(Opcodes.INVOKEVIRTUAL, boxedType, primitiveType.getClassName() + "Value", Type.getMethodDescriptor(primitiveType), false);
+    }
+
+    private void box(MethodVisitor visitor, Class<?> type) {
+        if (type == Void.TYPE) {
+            visitor.visitInsn(Opcodes.ACONST_NULL);
+            return;
+        }
+        if (!type.isPrimitive()) {
+            return;
+        }
+        Type primitiveType = Type.getType(type);
+        String boxedType = boxedType(primitiveType);
+        visitor.visitMethodInsn(Opcodes.INVOKESTATIC, boxedType, "valueOf", Type.getMethodDescriptor(Type.getObjectType(boxedType), primitiveType), false);
+    }
+
+    private String boxedType(Type primitiveType) {
+        switch (primitiveType.getSort()) {
+            case Type.BOOLEAN:
+                return "java/lang/Boolean";
+            case Type.CHAR:
+                return "java/lang/Character";
+            case Type.BYTE:
+                return "java/lang/Byte";
+            case Type.SHORT:
+                return "java/lang/Short";
+            case Type.INT:
+                return "java/lang/Integer";
+            case Type.FLOAT:
+                return "java/lang/Float";
+            case Type.LONG:
+                return "java/lang/Long";
+            case Type.DOUBLE:
+                return "java/lang/Double";
+            default:
+                throw new IllegalArgumentException(String.format("Not a primitive type: %s", primitiveType));
+        }
+    }
+
+    private static class DispatcherClassLoader extends ClassLoader {
+        private DispatcherClassLoader(ClassLoader sourceClassLoader) {
+            super(sourceClassLoader);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            // The source type does not necessarily see the tooling API classes
+            if (name.equals(MethodDispatcher.class.getName())) {
+                return MethodDispatcher.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+}
@@ -34,6 +34,7 @@ import java.util.regex.Pattern;
  */
 public class ProtocolToModelAdapter implements Serializable {
     private static final MethodInvoker NO_OP_HANDLER = new NoOpMethodInvoker();
+    private static final MethodInvoker DIRECT_METHOD_INVOKER = new DirectMethodInvoker();
     private static final Action<SourceObjectMapping> NO_OP_MAPPER = new NoOpMapping();
     private static final TargetTypeProvider IDENTITY_TYPE_PROVIDER = new TargetTypeProvider() {
         public <T> Class<? extends T> getTargetType(Class<T> initialTargetType, Object protocolObject) {
@@ -97,7 +98,7 @@ public class ProtocolToModelAdapter implements Serializable {
         MethodInvoker overrideMethodInvoker = mapping.overrideInvoker;
         MixInMethodInvoker mixInMethodInvoker = null;
         if (mapping.mixInType != null) {
-            mixInMethodInvoker = new MixInMethodInvoker(mapping.mixInType, new AdaptingMethodInvoker(mapper, new ReflectionMethodInvoker()));
+            mixInMethodInvoker = new MixInMethodInvoker(mapping.mixInType, new AdaptingMethodInvoker(mapper, DIRECT_METHOD_INVOKER));
             overrideMethodInvoker = mixInMethodInvoker;
         }
         Object proxy = Proxy.newProxyInstance(wrapperType.getClassLoader(), new Class<?>[]{wrapperType}, new InvocationHandlerImpl(sourceObject, overrideMethodInvoker, mapper));
@@ -194,7 +195,7 @@ public class ProtocolToModelAdapter implements Serializable {
                                     new AdaptingMethodInvoker(mapper,
                                             new ChainedMethodInvoker(
                                                     overrideMethodInvoker,
-                                                    new ReflectionMethodInvoker())))));
+                                                    DIRECT_METHOD_INVOKER)))));
             try {
                 equalsMethod = Object.class.getMethod("equals", Object.class);
                 hashCodeMethod = Object.class.getMethod("hashCode");
@@ -321,54 +322,6 @@ public class ProtocolToModelAdapter implements Serializable {
         }
     }
 
-    private class ReflectionMethodInvoker implements MethodInvoker {
-        public void invoke(MethodInvocation invocation) throws Throwable {
-            // TODO - cache method lookup
-            Method targetMethod = locateMethod(invocation);
-            if (targetMethod == null) {
-                return;
-            }
-
-            Object returnValue;
-            try {
-                returnValue = targetMethod.invoke(invocation.getDelegate(), invocation.getParameters());
-            } catch (InvocationTargetException e) {
-                throw e.getCause();
-            }
-
-            invocation.setResult(returnValue);
-        }
-
-        private Method locateMethod(MethodInvocation invocation) {
-            Class<?> sourceClass = invocation.getDelegate().getClass();
-            Method match;
-            try {
-                match = sourceClass.getMethod(invocation.getName(), invocation.getParameterTypes());
-            } catch (NoSuchMethodException e) {
-                return null;
-            }
-
-            LinkedList<Class<?>> queue = new LinkedList<Class<?>>();
-            queue.add(sourceClass);
-            while (!queue.isEmpty()) {
-                Class<?> c = queue.removeFirst();
-                try {
-                    match = c.getMethod(invocation.getName(), invocation.getParameterTypes());
-                } catch (NoSuchMethodException e) {
-                    // ignore
-                }
-                for (Class<?> interfaceType : c.getInterfaces()) {
-                    queue.addFirst(interfaceType);
-                }
-                if (c.getSuperclass() != null) {
-                    queue.addFirst(c.getSuperclass());
-                }
-            }
-            match.setAccessible(true);
-            return match;
-        }
-    }
-
     private static class PropertyCachingMethodInvoker implements MethodInvoker {
         private final Map<String, Object> properties = new HashMap<String, Object>();
         private final Set<String> unknown = new HashSet<String>();
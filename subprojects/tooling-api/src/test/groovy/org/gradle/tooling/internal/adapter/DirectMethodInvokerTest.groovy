@@ -0,0 +1,143 @@
+/*
+ * Copyright 2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.adapter
+
+import spock.lang.Specification
+
+class DirectMethodInvokerTest extends Specification {
+    final invoker = new DirectMethodInvoker()
+
+    def "calls public interface methods through a generated dispatcher"() {
+        expect:
+        DirectMethodInvoker.methodsFor(SourceBean).isDispatched("getName")
+        DirectMethodInvoker.methodsFor(SourceBean).isDispatched("add", Integer.TYPE, Long.TYPE)
+        invoke(new SourceBean(), "getName") == "name"
+    }
+
+    def "boxes and unboxes primitive parameters and return values"() {
+        expect:
+        invoke(new SourceBean(), "add", [Integer.TYPE, Long.TYPE], [1, 2L]) == 3L
+        invoke(new SourceBean(), "isEnabled") == true
+    }
+
+    def "returns null for void methods"() {
+        def bean = new SourceBean()
+
+        when:
+        def invocation = invocation(bean, "setName", [String], ["other"])
+        invoker.invoke(invocation)
+
+        then:
+        invocation.found()
+        invocation.result == null
+        bean.name == "other"
+    }
+
+    def "does not find methods that the source object does not have"() {
+        def invocation = invocation(new SourceBean(), "getUnknown", [], [])
+
+        when:
+        invoker.invoke(invocation)
+
+        then:
+        !invocation.found()
+    }
+
+    def "propagates exception thrown by method"() {
+        def failure = new RuntimeException("broken")
+        def bean = new SourceBean(failure: failure)
+
+        when:
+        invoke(bean, "fail")
+
+        then:
+        RuntimeException e = thrown()
+        e.is(failure)
+    }
+
+    def "uses reflection for methods declared by non-public types"() {
+        expect:
+        !DirectMethodInvoker.methodsFor(HiddenBean).isDispatched("getName")
+        invoke(new HiddenBean(), "getName") == "hidden"
+    }
+
+    def "calls methods of types that are not visible to the adapter through a generated dispatcher"() {
+        def loader = new GroovyClassLoader(getClass().classLoader)
+        def providerType = loader.parseClass("class ProviderBean { String getName() { 'provider' } }")
+
+        expect:
+        DirectMethodInvoker.methodsFor(providerType).isDispatched("getName")
+        invoke(providerType.newInstance(), "getName") == "provider"
+    }
+
+    def "defines each dispatcher in a ClassLoader of its own"() {
+        def dispatcher = DirectMethodInvoker.methodsFor(SourceBean).dispatcher
+        def otherDispatcher = new DirectMethodInvoker.SourceTypeMethods(SourceBean).dispatcher
+
+        expect:
+        dispatcher.class.classLoader.parent.is(SourceBean.classLoader)
+        !dispatcher.class.classLoader.is(MethodDispatcher.classLoader)
+        !otherDispatcher.class.classLoader.is(dispatcher.class.classLoader)
+    }
+
+    def invoke(Object target, String name, List<Class<?>> paramTypes = [], List<Object> params = []) {
+        def invocation = invocation(target, name, paramTypes, params)
+        invoker.invoke(invocation)
+        assert invocation.found()
+        return invocation.result
+    }
+
+    def invocation(Object target, String name, List<Class<?>> paramTypes, List<Object> params) {
+        return new MethodInvocation(name, Object, Object, paramTypes as Class[], target, params as Object[])
+    }
+
+    interface SourceProtocol {
+        String getName()
+
+        void setName(String name)
+
+        boolean isEnabled()
+
+        long add(int a, long b)
+
+        void fail()
+    }
+
+    static class SourceBean implements SourceProtocol {
+        String name = "name"
+        RuntimeException failure
+
+        boolean isEnabled() {
+            return true
+        }
+
+        long add(int a, long b) {
+            return a + b
+        }
+
+        void fail() {
+            throw failure
+        }
+    }
+
+    private static class HiddenBean {
+        String getName() {
+            return "hidden"
+        }
+    }
+}
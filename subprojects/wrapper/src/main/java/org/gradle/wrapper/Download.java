@@ -18,18 +18,44 @@ package org.gradle.wrapper;
 
 import java.io.*;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Downloads a distribution. When the server supports range requests, a partially downloaded destination file is resumed rather than downloaded
+ * again, and large files are fetched using several connections at once.
+ *
+ * <p>The entity tag or last modified date of the content is kept next to a partially downloaded file, and is sent as an {@code If-Range} header
+ * when the download is resumed. When the content has changed on the server, the server sends the whole content again and the download starts
+ * from the beginning.</p>
+ */
 public class Download implements IDownload {
     private static final int PROGRESS_CHUNK = 20000;
     private static final int BUFFER_SIZE = 10000;
+    static final long PARALLEL_DOWNLOAD_THRESHOLD = 8 * 1024 * 1024;
+    static final int MAX_CONNECTIONS = 4;
     private final Logger logger;
     private final String applicationName;
     private final String applicationVersion;
+    private final long parallelDownloadThreshold;
 
     public Download(Logger logger, String applicationName, String applicationVersion) {
+        this(logger, applicationName, applicationVersion, PARALLEL_DOWNLOAD_THRESHOLD);
+    }
+
+    Download(Logger logger, String applicationName, String applicationVersion, long parallelDownloadThreshold) {
         this.logger = logger;
         this.applicationName = applicationName;
         this.applicationVersion = applicationVersion;
+        this.parallelDownloadThreshold = parallelDownloadThreshold;
         configureProxyAuthentication();
     }
 
@@ -39,49 +65,300 @@ public class Download implements IDownload {
         }
     }
 
+    /**
+     * Downloads the given address to the given destination. If the destination already contains the start of the content, only the remainder is requested.
+     */
     public void download(URI address, File destination) throws Exception {
         destination.getParentFile().mkdirs();
-        downloadInternal(address, destination);
+        try {
+            downloadInternal(address, destination);
+            validatorFile(destination).delete();
+        } finally {
+            logger.log("");
+        }
+    }
+
+    private void downloadInternal(URI address, File destination) throws Exception {
+        URL url = address.toURL();
+        File validatorFile = validatorFile(destination);
+        long offset = destination.isFile() ? destination.length() : 0;
+        String validator = offset > 0 ? readValidator(validatorFile) : null;
+        if (validator == null) {
+            // Cannot tell whether a partial file still matches the remote content, so start from the beginning
+            offset = 0;
+        }
+        URLConnection conn = openConnection(url, offset, -1, validator);
+        try {
+            if (!(conn instanceof HttpURLConnection)) {
+                copy(conn.getInputStream(), destination, false, new Progress());
+                return;
+            }
+            HttpURLConnection httpConn = (HttpURLConnection) conn;
+            int status = httpConn.getResponseCode();
+            if (offset > 0 && status == HttpURLConnection.HTTP_PARTIAL) {
+                logger.log("Resuming download after " + offset + " bytes");
+                copy(httpConn.getInputStream(), destination, true, new Progress());
+                return;
+            }
+            if (status != HttpURLConnection.HTTP_OK) {
+                if (offset == 0 || status != 416) {
+                    throw new IOException(String.format("Server returned HTTP response code: %s for URL: %s", status, url));
+                }
+                // The partial file does not match the remote content, so start again
+                httpConn.disconnect();
+                destination.delete();
+                downloadInternal(address, destination);
+                return;
+            }
+            // The whole content is sent, either because nothing has been downloaded yet or because the remote content has changed
+            validator = validator(httpConn);
+            writeValidator(validatorFile, validator);
+            long length = contentLength(httpConn);
+            if (length >= parallelDownloadThreshold && "bytes".equalsIgnoreCase(httpConn.getHeaderField("Accept-Ranges"))) {
+                downloadInParallel(url, httpConn, length, validator, destination);
+            } else {
+                copy(httpConn.getInputStream(), destination, false, new Progress());
+            }
+        } finally {
+            if (conn instanceof HttpURLConnection) {
+                ((HttpURLConnection) conn).disconnect();
+            }
+        }
+    }
+
+    private URLConnection openConnection(URL url, long start, long end, String validator) throws IOException {
+        URLConnection conn = url.openConnection();
+        conn.setRequestProperty("User-Agent", calculateUserAgent());
+        if (conn instanceof HttpURLConnection && (start > 0 || end >= 0)) {
+            conn.setRequestProperty("Range", "bytes=" + start + "-" + (end >= 0 ? String.valueOf(end) : ""));
+            if (validator != null) {
+                conn.setRequestProperty("If-Range", validator);
+            }
+        }
+        return conn;
     }
 
-    private void downloadInternal(URI address, File destination)
-            throws Exception {
+    static File validatorFile(File destination) {
+        return new File(destination.getParentFile(), destination.getName() + ".validator");
+    }
+
+    /**
+     * Returns the value to send as an {@code If-Range} header to fetch part of the content of the given response, or null when the response
+     * has no strong validator. A weak entity tag cannot be used for a range request.
+     */
+    private static String validator(HttpURLConnection conn) {
+        String etag = conn.getHeaderField("ETag");
+        if (etag != null && !etag.startsWith("W/")) {
+            return etag;
+        }
+        return conn.getHeaderField("Last-Modified");
+    }
+
+    private static String readValidator(File validatorFile) throws IOException {
+        if (!validatorFile.isFile()) {
+            return null;
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(validatorFile), "UTF-8"));
+        try {
+            String validator = reader.readLine();
+            return validator == null || validator.length() == 0 ? null : validator;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void writeValidator(File validatorFile, String validator) throws IOException {
+        if (validator == null) {
+            validatorFile.delete();
+            return;
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(validatorFile), "UTF-8");
+        try {
+            writer.write(validator);
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void copy(InputStream in, File destination, boolean append, Progress progress) throws IOException {
         OutputStream out = null;
-        URLConnection conn;
-        InputStream in = null;
         try {
-            URL url = address.toURL();
-            out = new BufferedOutputStream(new FileOutputStream(destination));
-            conn = url.openConnection();
-            final String userAgentValue = calculateUserAgent();
-            conn.setRequestProperty("User-Agent", userAgentValue);
-            in = conn.getInputStream();
+            out = new BufferedOutputStream(new FileOutputStream(destination, append));
             byte[] buffer = new byte[BUFFER_SIZE];
             int numRead;
-            long progressCounter = 0;
             while ((numRead = in.read(buffer)) != -1) {
-                if (Thread.currentThread().isInterrupted()) {
-                    System.out.print("interrupted");
-                    throw new IOException("Download was interrupted.");
-                }
-                progressCounter += numRead;
-                if (progressCounter / PROGRESS_CHUNK > 0) {
-                    logger.append(".");
-                    progressCounter = progressCounter - PROGRESS_CHUNK;
-                }
+                checkInterrupted();
+                progress.update(numRead);
                 out.write(buffer, 0, numRead);
             }
         } finally {
-            logger.log("");
-            if (in != null) {
-                in.close();
-            }
+            in.close();
             if (out != null) {
                 out.close();
             }
         }
     }
 
+    /**
+     * Splits the content into ranges that are fetched concurrently. The connection that has already been opened fetches the first range. On failure,
+     * the destination is truncated to the content that was received without gaps, so that a later download can resume from there.
+     */
+    private void downloadInParallel(URL url, HttpURLConnection firstConnection, long length, String validator, File destination) throws Exception {
+        long segmentLength = (length + MAX_CONNECTIONS - 1) / MAX_CONNECTIONS;
+        List<Segment> segments = new ArrayList<Segment>();
+        for (long start = 0; start < length; start += segmentLength) {
+            segments.add(new Segment(start, Math.min(segmentLength, length - start)));
+        }
+        segments.get(0).connection = firstConnection;
+
+        Progress progress = new Progress();
+        RandomAccessFile file = new RandomAccessFile(destination, "rw");
+        ExecutorService executor = Executors.newFixedThreadPool(segments.size());
+        boolean completed = false;
+        try {
+            file.setLength(0);
+            FileChannel channel = file.getChannel();
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for (Segment segment : segments) {
+                results.add(executor.submit(new SegmentDownload(url, validator, segment, channel, progress)));
+            }
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    throw unwrap(e);
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                executor.shutdownNow();
+                for (Segment segment : segments) {
+                    segment.disconnect();
+                }
+            }
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+            if (!completed) {
+                file.setLength(contiguousLength(segments));
+            }
+            file.close();
+        }
+    }
+
+    private static long contentLength(HttpURLConnection conn) {
+        String header = conn.getHeaderField("Content-Length");
+        try {
+            return header == null ? -1 : Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long contiguousLength(List<Segment> segments) {
+        long length = 0;
+        for (Segment segment : segments) {
+            length = segment.start + segment.received;
+            if (segment.received < segment.length) {
+                break;
+            }
+        }
+        return length;
+    }
+
+    private static Exception unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        throw (Error) cause;
+    }
+
+    private static void checkInterrupted() throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            System.out.print("interrupted");
+            throw new IOException("Download was interrupted.");
+        }
+    }
+
+    private static class Segment {
+        final long start;
+        final long length;
+        volatile long received;
+        volatile HttpURLConnection connection;
+
+        Segment(long start, long length) {
+            this.start = start;
+            this.length = length;
+        }
+
+        void disconnect() {
+            HttpURLConnection conn = connection;
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    private class SegmentDownload implements Callable<Void> {
+        private final URL url;
+        private final String validator;
+        private final Segment segment;
+        private final FileChannel channel;
+        private final Progress progress;
+
+        SegmentDownload(URL url, String validator, Segment segment, FileChannel channel, Progress progress) {
+            this.url = url;
+            this.validator = validator;
+            this.segment = segment;
+            this.channel = channel;
+            this.progress = progress;
+        }
+
+        public Void call() throws IOException {
+            if (segment.connection == null) {
+                HttpURLConnection conn = (HttpURLConnection) openConnection(url, segment.start, segment.start + segment.length - 1, validator);
+                segment.connection = conn;
+                if (conn.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                    throw new IOException(String.format("Server did not return the requested range of %s (HTTP response code: %s).", url, conn.getResponseCode()));
+                }
+            }
+            InputStream in = segment.connection.getInputStream();
+            try {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (segment.received < segment.length) {
+                    int numRead = in.read(buffer, 0, (int) Math.min(buffer.length, segment.length - segment.received));
+                    if (numRead < 0) {
+                        throw new IOException(String.format("Download of %s ended prematurely.", url));
+                    }
+                    checkInterrupted();
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, numRead);
+                    long position = segment.start + segment.received;
+                    while (bytes.hasRemaining()) {
+                        position += channel.write(bytes, position);
+                    }
+                    segment.received += numRead;
+                    progress.update(numRead);
+                }
+            } finally {
+                in.close();
+            }
+            return null;
+        }
+    }
+
+    private class Progress {
+        private long counter;
+
+        synchronized void update(int numRead) {
+            counter += numRead;
+            if (counter / PROGRESS_CHUNK > 0) {
+                logger.append(".");
+                counter = counter - PROGRESS_CHUNK;
+            }
+        }
+    }
+
     private String calculateUserAgent() {
         String appVersion = applicationVersion;
 
@@ -18,10 +18,11 @@ package org.gradle.wrapper;
 
 import java.io.*;
 import java.net.URI;
+import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.Callable;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 public class Install {
     public static final String DEFAULT_DISTRIBUTION_PATH = "wrapper/dists";
@@ -53,13 +54,15 @@ public class Install {
                 boolean needsDownload = !localZipFile.isFile();
 
                 if (needsDownload) {
+                    // A partial download left behind by an earlier attempt is resumed
                     File tmpZipFile = new File(localZipFile.getParentFile(), localZipFile.getName() + ".part");
-                    tmpZipFile.delete();
                     logger.log("Downloading " + distributionUrl);
                     download.download(distributionUrl, tmpZipFile);
                     tmpZipFile.renameTo(localZipFile);
                 }
 
+                verifyChecksum(configuration, localZipFile);
+
                 List<File> topLevelDirs = listDirs(distDir);
                 for (File dir : topLevelDirs) {
                     logger.log("Deleting directory " + dir.getAbsolutePath());
@@ -77,6 +80,36 @@ public class Install {
         });
     }
 
+    private void verifyChecksum(WrapperConfiguration configuration, File localZipFile) throws Exception {
+        String expectedChecksum = configuration.getDistributionSha256Sum();
+        if (expectedChecksum == null) {
+            return;
+        }
+        // Calculated from the complete file, as a resumed or parallel download does not receive the content in order
+        String actualChecksum = calculateSha256Sum(localZipFile);
+        if (expectedChecksum.trim().equalsIgnoreCase(actualChecksum)) {
+            return;
+        }
+        localZipFile.delete();
+        throw new RuntimeException(String.format("Verification of Gradle distribution '%s' failed. Expected SHA-256 checksum '%s' but was '%s'.%n"
+                + "Please check the '%s' property in your wrapper properties file.", configuration.getDistribution(), expectedChecksum.trim(), actualChecksum, WrapperExecutor.DISTRIBUTION_SHA_256_SUM));
+    }
+
+    private String calculateSha256Sum(File file) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        InputStream inputStream = new FileInputStream(file);
+        try {
+            byte[] buffer = new byte[8192];
+            int len;
+            while ((len = inputStream.read(buffer)) >= 0) {
+                digest.update(buffer, 0, len);
+            }
+        } finally {
+            inputStream.close();
+        }
+        return toHex(digest.digest());
+    }
+
     private File getDistributionRoot(File distDir, String distributionDescription) {
         List<File> dirs = listDirs(distDir);
         if (dirs.isEmpty()) {
@@ -155,32 +188,41 @@ public class Install {
     }
 
     private void unzip(File zip, File dest) throws IOException {
-        Enumeration entries;
-        ZipFile zipFile = new ZipFile(zip);
-
+        String destPath = dest.getCanonicalPath() + File.separator;
+        ZipInputStream zipStream = new ZipInputStream(new BufferedInputStream(new FileInputStream(zip)));
         try {
-            entries = zipFile.entries();
-
-            while (entries.hasMoreElements()) {
-                ZipEntry entry = (ZipEntry) entries.nextElement();
-
+            ZipEntry entry;
+            while ((entry = zipStream.getNextEntry()) != null) {
+                File file = new File(dest, entry.getName());
+                if (!file.getCanonicalPath().startsWith(destPath)) {
+                    throw new RuntimeException(String.format("Gradle distribution '%s' contains entry '%s' that is outside of the distribution directory.", zip, entry.getName()));
+                }
                 if (entry.isDirectory()) {
-                    (new File(dest, entry.getName())).mkdirs();
+                    file.mkdirs();
                     continue;
                 }
 
-                OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(new File(dest, entry.getName())));
+                file.getParentFile().mkdirs();
+                OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file));
                 try {
-                    copyInputStream(zipFile.getInputStream(entry), outputStream);
+                    copyInputStream(zipStream, outputStream);
                 } finally {
                     outputStream.close();
                 }
             }
         } finally {
-            zipFile.close();
+            zipStream.close();
         }
     }
 
+    private static String toHex(byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        for (byte b : bytes) {
+            builder.append(String.format("%02x", b & 0xff));
+        }
+        return builder.toString();
+    }
+
     private void copyInputStream(InputStream in, OutputStream out) throws IOException {
         byte[] buffer = new byte[1024];
         int len;
@@ -188,9 +230,6 @@ public class Install {
         while ((len = in.read(buffer)) >= 0) {
             out.write(buffer, 0, len);
         }
-
-        in.close();
-        out.close();
     }
 
 
@@ -23,6 +23,7 @@ public class WrapperConfiguration {
     private String distributionPath = Install.DEFAULT_DISTRIBUTION_PATH;
     private String zipBase = PathAssembler.GRADLE_USER_HOME_STRING;
     private String zipPath = Install.DEFAULT_DISTRIBUTION_PATH;
+    private String distributionSha256Sum;
 
     public URI getDistribution() {
         return distribution;
@@ -63,4 +64,15 @@ public class WrapperConfiguration {
     public void setZipPath(String zipPath) {
         this.zipPath = zipPath;
     }
+
+    /**
+     * Returns the expected SHA-256 checksum of the distribution, or null when the distribution is not verified.
+     */
+    public String getDistributionSha256Sum() {
+        return distributionSha256Sum;
+    }
+
+    public void setDistributionSha256Sum(String distributionSha256Sum) {
+        this.distributionSha256Sum = distributionSha256Sum;
+    }
 }
@@ -30,6 +30,7 @@ public class WrapperExecutor {
     public static final String ZIP_STORE_BASE_PROPERTY = "zipStoreBase";
     public static final String DISTRIBUTION_PATH_PROPERTY = "distributionPath";
     public static final String ZIP_STORE_PATH_PROPERTY = "zipStorePath";
+    public static final String DISTRIBUTION_SHA_256_SUM = "distributionSha256Sum";
     private final Properties properties;
     private final File propertiesFile;
     private final Appendable warningOutput;
@@ -58,6 +59,7 @@ public class WrapperExecutor {
                 config.setDistributionPath(getProperty(DISTRIBUTION_PATH_PROPERTY, config.getDistributionPath()));
                 config.setZipBase(getProperty(ZIP_STORE_BASE_PROPERTY, config.getZipBase()));
                 config.setZipPath(getProperty(ZIP_STORE_PATH_PROPERTY, config.getZipPath()));
+                config.setDistributionSha256Sum(properties.getProperty(DISTRIBUTION_SHA_256_SUM));
             } catch (Exception e) {
                 throw new RuntimeException(String.format("Could not load wrapper properties from '%s'.", propertiesFile), e);
             }
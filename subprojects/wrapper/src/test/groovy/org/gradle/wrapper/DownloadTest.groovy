@@ -16,11 +16,17 @@
 
 package org.gradle.wrapper
 
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpHandler
+import com.sun.net.httpserver.HttpServer
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.After
 import org.junit.Before
 import org.junit.Rule
 import org.junit.Test
 
+import java.util.concurrent.CopyOnWriteArrayList
+
 import static org.junit.Assert.assertEquals
 
 class DownloadTest {
@@ -30,6 +36,11 @@ class DownloadTest {
     File rootDir
     URI sourceRoot
     File remoteFile
+    HttpServer server
+    byte[] content = (0..<100000).collect { (byte) (it % 251) } as byte[]
+    String etag = '"v2"'
+    List<String> requestedRanges = new CopyOnWriteArrayList<String>()
+    List<String> requestedValidators = new CopyOnWriteArrayList<String>()
     @Rule
     public TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider();
 
@@ -42,10 +53,117 @@ class DownloadTest {
         sourceRoot = remoteFile.toURI()
     }
 
+    @After public void tearDown() {
+        server?.stop(0)
+    }
+
     @Test public void testDownload() {
         assert !downloadFile.exists()
         download.download(sourceRoot, downloadFile)
         assert downloadFile.exists()
         assertEquals('sometext', downloadFile.text)
     }
+
+    @Test public void testDownloadOverHttp() {
+        startServer(true)
+        download.download(distributionUri(), downloadFile)
+        assert downloadFile.bytes == content
+        assert requestedRanges == [null]
+        assert !Download.validatorFile(downloadFile).exists()
+    }
+
+    @Test public void testResumesPartialDownload() {
+        startServer(true)
+        rootDir.mkdirs()
+        downloadFile.bytes = content[0..<1000] as byte[]
+        Download.validatorFile(downloadFile).text = '"v2"'
+
+        download.download(distributionUri(), downloadFile)
+
+        assert downloadFile.bytes == content
+        assert requestedRanges == ["bytes=1000-"]
+        assert requestedValidators == ['"v2"']
+        assert !Download.validatorFile(downloadFile).exists()
+    }
+
+    @Test public void testDownloadsAgainWhenRemoteContentHasChangedSincePartialDownload() {
+        startServer(true)
+        rootDir.mkdirs()
+        downloadFile.text = 'partial content of an older version'
+        Download.validatorFile(downloadFile).text = '"v1"'
+
+        download.download(distributionUri(), downloadFile)
+
+        assert downloadFile.bytes == content
+        assert requestedRanges == ["bytes=35-"]
+        assert requestedValidators == ['"v1"']
+    }
+
+    @Test public void testDownloadsAgainWhenPartialDownloadHasNoValidator() {
+        startServer(true)
+        rootDir.mkdirs()
+        downloadFile.bytes = content[0..<1000] as byte[]
+
+        download.download(distributionUri(), downloadFile)
+
+        assert downloadFile.bytes == content
+        assert requestedRanges == [null]
+    }
+
+    @Test public void testDownloadsAgainWhenServerDoesNotSupportRanges() {
+        startServer(false)
+        rootDir.mkdirs()
+        downloadFile.text = 'partial'
+        Download.validatorFile(downloadFile).text = '"v2"'
+
+        download.download(distributionUri(), downloadFile)
+
+        assert downloadFile.bytes == content
+    }
+
+    @Test public void testFetchesLargeDownloadUsingSeveralConnections() {
+        download = new Download(new Logger(true), "gradlew", "aVersion", 10000)
+        startServer(true)
+
+        download.download(distributionUri(), downloadFile)
+
+        assert downloadFile.bytes == content
+        assert requestedRanges.sort { it } == [null, "bytes=25000-49999", "bytes=50000-74999", "bytes=75000-99999"].sort { it }
+        assert requestedValidators == ['"v2"'] * 3
+    }
+
+    private URI distributionUri() {
+        return new URI("http://localhost:${server.address.port}/gradle-bin.zip")
+    }
+
+    private void startServer(boolean supportsRanges) {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+        server.createContext("/gradle-bin.zip", new HttpHandler() {
+            void handle(HttpExchange exchange) {
+                def range = exchange.requestHeaders.getFirst("Range")
+                def validator = exchange.requestHeaders.getFirst("If-Range")
+                requestedRanges << range
+                if (validator != null) {
+                    requestedValidators << validator
+                }
+                exchange.responseHeaders.add("ETag", etag)
+                int start = 0
+                int end = content.length - 1
+                int status = 200
+                if (supportsRanges) {
+                    exchange.responseHeaders.add("Accept-Ranges", "bytes")
+                    if (range != null && (validator == null || validator == etag)) {
+                        def matcher = range =~ /bytes=(\d+)-(\d*)/
+                        assert matcher.matches()
+                        start = matcher.group(1) as int
+                        end = matcher.group(2) ? matcher.group(2) as int : end
+                        status = 206
+                    }
+                }
+                exchange.sendResponseHeaders(status, end - start + 1)
+                exchange.responseBody.withStream { it.write(content, start, end - start + 1) }
+            }
+        })
+        server.start()
+    }
 }
@@ -22,6 +22,10 @@ import org.junit.Before
 import org.junit.Rule
 import spock.lang.Specification
 
+import java.security.MessageDigest
+import java.util.zip.ZipEntry
+import java.util.zip.ZipOutputStream
+
 class InstallTest extends Specification {
     File testDir
     Install install
@@ -122,4 +126,97 @@ class InstallTest extends Specification {
         1 * download.download(configuration.distribution, _) >> { createTestZip(it[1]) }
         0 * download._
     }
+
+    def "passes partial download left behind by an earlier attempt to the downloader"() {
+        def partialContent = null
+
+        given:
+        _ * pathAssembler.getDistribution(configuration) >> localDistribution
+        _ * localDistribution.distributionDir >> distributionDir
+        _ * localDistribution.zipFile >> zipDestination
+        new TestFile(zipStore, 'gradle-0.9.zip.part').text = 'partial'
+
+        when:
+        install.createDist(configuration)
+
+        then:
+        1 * download.download(configuration.distribution, _) >> {
+            partialContent = it[1].text
+            createTestZip(it[1])
+        }
+        partialContent == 'partial'
+    }
+
+    def "verifies checksum of distribution before unpacking"() {
+        def remoteZip = tmpDir.file('remote/gradle-0.9.zip')
+        createTestZip(remoteZip)
+        configuration.distributionSha256Sum = sha256(remoteZip).toUpperCase()
+
+        given:
+        _ * pathAssembler.getDistribution(configuration) >> localDistribution
+        _ * localDistribution.distributionDir >> distributionDir
+        _ * localDistribution.zipFile >> zipDestination
+
+        when:
+        def homeDir = install.createDist(configuration)
+
+        then:
+        homeDir == gradleHomeDir
+        gradleHomeDir.file("bin/gradle").assertIsFile()
+
+        and:
+        1 * download.download(configuration.distribution, _) >> { it[1].bytes = remoteZip.bytes }
+    }
+
+    def "removes distribution when checksum does not match"() {
+        def remoteZip = tmpDir.file('remote/gradle-0.9.zip')
+        createTestZip(remoteZip)
+        configuration.distributionSha256Sum = 'bad'
+
+        given:
+        _ * pathAssembler.getDistribution(configuration) >> localDistribution
+        _ * localDistribution.distributionDir >> distributionDir
+        _ * localDistribution.zipFile >> zipDestination
+
+        when:
+        install.createDist(configuration)
+
+        then:
+        RuntimeException e = thrown()
+        e.message.startsWith("Verification of Gradle distribution 'http://server/gradle-0.9.zip' failed. Expected SHA-256 checksum 'bad' but was '${sha256(remoteZip)}'.")
+        !zipDestination.exists()
+        !gradleHomeDir.exists()
+
+        and:
+        1 * download.download(configuration.distribution, _) >> { it[1].bytes = remoteZip.bytes }
+    }
+
+    def "does not unpack entries outside of the distribution directory"() {
+        given:
+        _ * pathAssembler.getDistribution(configuration) >> localDistribution
+        _ * localDistribution.distributionDir >> distributionDir
+        _ * localDistribution.zipFile >> zipDestination
+
+        when:
+        install.createDist(configuration)
+
+        then:
+        RuntimeException e = thrown()
+        e.message == "Gradle distribution '${zipDestination}' contains entry '../evil.txt' that is outside of the distribution directory."
+        !new File(testDir, 'evil.txt').exists()
+
+        and:
+        1 * download.download(configuration.distribution, _) >> {
+            def zipStream = new ZipOutputStream(new FileOutputStream(it[1]))
+            zipStream.putNextEntry(new ZipEntry('gradle-0.9/bin/gradle'))
+            zipStream.write('something'.bytes)
+            zipStream.putNextEntry(new ZipEntry('../evil.txt'))
+            zipStream.write('evil'.bytes)
+            zipStream.close()
+        }
+    }
+
+    private static String sha256(File file) {
+        return MessageDigest.getInstance("SHA-256").digest(file.bytes).encodeHex().toString()
+    }
 }
@@ -78,6 +78,17 @@ class WrapperExecutorTest extends Specification {
         wrapper.configuration.zipPath == Install.DEFAULT_DISTRIBUTION_PATH
     }
 
+    def "loads distribution checksum when specified"() {
+        given:
+        properties.distributionSha256Sum = 'abc123'
+        propertiesFile.withOutputStream { properties.store(it, 'header') }
+
+        def wrapper = WrapperExecutor.forWrapperPropertiesFile(propertiesFile, System.out)
+
+        expect:
+        wrapper.configuration.distributionSha256Sum == 'abc123'
+    }
+
     def "properties file need contain only the distribution URL"() {
         given:
         def properties = new Properties()